@@ -0,0 +1,380 @@
+package cluster;
+
+import contracts.InvalidContractException;
+import http.Json;
+import payment.PremiumPaymentFrequency;
+import util.AlphanumericCode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+///  Routes the book of one insurer over several PartitionWorker processes on this host.
+///  Contracts live in the partition of their policyholder. The coordinator keeps the directory of
+///  contract numbers: a number is reserved here before its contract is issued on a partition, which
+///  keeps numbers unique across partitions and routes payments and claims without asking every worker.
+///  The workers hold the contracts, so the directory is rebuilt from them whenever a coordinator connects.
+///  Insured persons and beneficiaries are held by the partition of the contract that names them,
+///  getPaidOutAmount adds a person's payouts up over all partitions.
+///  Billing runs and clock changes are sent to all partitions at once and return when all are done.
+public class ClusterCoordinator implements AutoCloseable {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final PartitionClient[] partitions;
+    private final List<Process> processes;
+    private final Map<String, Integer> contractPartitions;
+    private final ExecutorService broadcasts;
+    private LocalDateTime currentTime;
+
+    ///  Connects to workers that are already running, their processes are not owned by the coordinator
+    public ClusterCoordinator(List<InetSocketAddress> workers, LocalDateTime currentTime) throws IOException {
+        this(workers, currentTime, List.of());
+    }
+
+    private ClusterCoordinator(List<InetSocketAddress> workers, LocalDateTime currentTime, List<Process> processes) throws IOException {
+        validateWorkers(workers);
+        validateCurrentTime(currentTime);
+        this.partitions = new PartitionClient[workers.size()];
+        this.processes = processes;
+        this.contractPartitions = new ConcurrentHashMap<>();
+        this.broadcasts = Executors.newFixedThreadPool(workers.size(), runnable -> {
+            Thread thread = new Thread(runnable, "cluster-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.currentTime = currentTime;
+        try {
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new PartitionClient(i, workers.get(i));
+            }
+            loadContractNumbers();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    ///  Starts one worker JVM per partition and connects to them. The workers' class path is the
+    ///  directory or jar PartitionWorker was loaded from, which also holds under java -jar
+    public static ClusterCoordinator launch(int partitionCount, LocalDateTime currentTime) throws IOException {
+        return launch(partitionCount, currentTime, workerClassPath());
+    }
+
+    ///  Starts one worker JVM per partition with the given class path and connects to them
+    public static ClusterCoordinator launch(int partitionCount, LocalDateTime currentTime, String workerClassPath) throws IOException {
+        validatePartitionCount(partitionCount);
+        validateCurrentTime(currentTime);
+        validateWorkerClassPath(workerClassPath);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                processes.add(new ProcessBuilder(java, "-cp", workerClassPath,
+                        PartitionWorker.class.getName(), currentTime.toString())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+            for (Process process : processes) {
+                BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String port = out.readLine();
+                if (port == null) {
+                    throw new IOException("Partition worker exited before it was listening");
+                }
+                workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port.trim())));
+            }
+            return new ClusterCoordinator(workers, currentTime, processes);
+        } catch (IOException | RuntimeException e) {
+            processes.forEach(Process::destroyForcibly);
+            throw e;
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    public LocalDateTime getCurrentTime() {
+        return currentTime;
+    }
+
+    ///  Partition that holds the contracts of the policyholder
+    public int partitionOf(String policyHolderId) {
+        validatePersonId(policyHolderId);
+        long code = AlphanumericCode.encode(policyHolderId);
+        int hash = code == AlphanumericCode.NONE ? policyHolderId.hashCode() : AlphanumericCode.hash(code);
+        return Math.floorMod(hash, partitions.length);
+    }
+
+    public ContractState insureVehicle(String contractNumber, String beneficiaryId, String policyHolderId, int proposedPremium,
+                                       PremiumPaymentFrequency proposedPaymentFrequency, String licensePlate, int vehicleValue) {
+        validateFrequency(proposedPaymentFrequency);
+        int partition = partitionOf(policyHolderId);
+        return issue(contractNumber, partition, Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.INSURE_VEHICLE)
+                .field("contractNumber", contractNumber)
+                .field("beneficiary", beneficiaryId)
+                .field("policyHolder", policyHolderId)
+                .field("premium", proposedPremium)
+                .field("frequency", proposedPaymentFrequency.name())
+                .field("licensePlate", licensePlate)
+                .field("vehicleValue", vehicleValue)
+                .end());
+    }
+
+    public ContractState insurePersons(String contractNumber, String policyHolderId, int proposedPremium,
+                                       PremiumPaymentFrequency proposedPaymentFrequency, Set<String> insuredPersonIds) {
+        validateFrequency(proposedPaymentFrequency);
+        validatePersonIds(insuredPersonIds);
+        int partition = partitionOf(policyHolderId);
+        return issue(contractNumber, partition, Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.INSURE_PERSONS)
+                .field("contractNumber", contractNumber)
+                .field("policyHolder", policyHolderId)
+                .field("premium", proposedPremium)
+                .field("frequency", proposedPaymentFrequency.name())
+                .field("insuredPersons", insuredPersonIds)
+                .end());
+    }
+
+    public ContractState pay(String contractNumber, int amount) {
+        int partition = requirePartition(contractNumber);
+        return new ContractState(partition, partitions[partition].call(Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.PAY)
+                .field("contractNumber", contractNumber)
+                .field("amount", amount)
+                .end()));
+    }
+
+    ///  Claim on a single vehicle contract
+    public ContractState processClaim(String contractNumber, int expectedDamages) {
+        int partition = requirePartition(contractNumber);
+        return new ContractState(partition, partitions[partition].call(Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.CLAIM)
+                .field("contractNumber", contractNumber)
+                .field("expectedDamages", expectedDamages)
+                .end()));
+    }
+
+    ///  Claim on a travel contract
+    public ContractState processClaim(String contractNumber, Set<String> affectedPersonIds) {
+        validatePersonIds(affectedPersonIds);
+        int partition = requirePartition(contractNumber);
+        return new ContractState(partition, partitions[partition].call(Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.CLAIM)
+                .field("contractNumber", contractNumber)
+                .field("affectedPersons", affectedPersonIds)
+                .end()));
+    }
+
+    public ContractState getContract(String contractNumber) {
+        int partition = requirePartition(contractNumber);
+        return new ContractState(partition, partitions[partition].call(Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.GET_CONTRACT)
+                .field("contractNumber", contractNumber)
+                .end()));
+    }
+
+    ///  Charges due premiums on every partition in parallel, returns the number of live contracts
+    public int chargePremiumsOnContracts() {
+        String request = Json.object().field(PartitionWorker.OPERATION, PartitionWorker.CHARGE_PREMIUMS).end();
+        return broadcast(client -> client.call(request)).stream()
+                .mapToInt(response -> ((Long) response.get("contracts")).intValue())
+                .sum();
+    }
+
+    public void setCurrentTime(LocalDateTime currentTime) {
+        validateCurrentTime(currentTime);
+        String request = Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.SET_TIME)
+                .field("currentTime", currentTime.toString())
+                .end();
+        broadcast(client -> client.call(request));
+        this.currentTime = currentTime;
+    }
+
+    ///  Payouts the person received on all partitions, as beneficiary, policyholder or insured person
+    public long getPaidOutAmount(String personId) {
+        validatePersonId(personId);
+        String request = Json.object()
+                .field(PartitionWorker.OPERATION, PartitionWorker.PAID_OUT)
+                .field("person", personId)
+                .end();
+        return broadcast(client -> client.call(request)).stream()
+                .mapToLong(response -> (Long) response.get("paidOut"))
+                .sum();
+    }
+
+    ///  Stops the workers this coordinator launched and closes all connections
+    @Override
+    public void close() {
+        String shutdown = Json.object().field(PartitionWorker.OPERATION, PartitionWorker.SHUTDOWN).end();
+        for (PartitionClient partition : partitions) {
+            if (partition == null) {
+                continue;
+            }
+            if (!processes.isEmpty()) {
+                try {
+                    partition.call(shutdown);
+                } catch (IllegalStateException e) {
+                    ///  Already gone, the process is destroyed below
+                }
+            }
+            partition.close();
+        }
+        broadcasts.shutdownNow();
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private static String workerClassPath() {
+        CodeSource codeSource = PartitionWorker.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            throw new IllegalStateException("Location of " + PartitionWorker.class.getName() + " is unknown, pass the worker class path");
+        }
+        try {
+            return Path.of(codeSource.getLocation().toURI()).toString();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IllegalStateException("Location of " + PartitionWorker.class.getName() + " is not a file, pass the worker class path", e);
+        }
+    }
+
+    private ContractState issue(String contractNumber, int partition, String request) {
+        validateContractNumber(contractNumber);
+        if (contractPartitions.putIfAbsent(contractNumber, partition) != null) {
+            throw new IllegalArgumentException("Contract number already exists");
+        }
+        try {
+            return new ContractState(partition, partitions[partition].call(request));
+        } catch (InvalidContractException | IllegalArgumentException | NoSuchElementException e) {
+            ///  Only a rejection reported by the worker releases the number, after any other failure
+            ///  the contract may exist on the partition
+            contractPartitions.remove(contractNumber, partition);
+            throw e;
+        }
+    }
+
+    private void loadContractNumbers() {
+        String request = Json.object().field(PartitionWorker.OPERATION, PartitionWorker.CONTRACT_NUMBERS).end();
+        for (int i = 0; i < partitions.length; i++) {
+            for (Object contractNumber : (List<?>) partitions[i].call(request).get("contractNumbers")) {
+                Integer other = contractPartitions.putIfAbsent((String) contractNumber, i);
+                if (other != null) {
+                    throw new IllegalStateException("Contract " + contractNumber + " exists on partitions " + other + " and " + i);
+                }
+            }
+        }
+    }
+
+    private int requirePartition(String contractNumber) {
+        validateContractNumber(contractNumber);
+        Integer partition = contractPartitions.get(contractNumber);
+        if (partition == null) {
+            throw new NoSuchElementException("Contract " + contractNumber + " does not exist");
+        }
+        return partition;
+    }
+
+    private List<Map<String, Object>> broadcast(Function<PartitionClient, Map<String, Object>> call) {
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(partitions.length);
+        for (PartitionClient partition : partitions) {
+            futures.add(CompletableFuture.supplyAsync(() -> call.apply(partition), broadcasts));
+        }
+        List<Map<String, Object>> responses = new ArrayList<>(partitions.length);
+        RuntimeException failure = null;
+        for (CompletableFuture<Map<String, Object>> future : futures) {
+            try {
+                responses.add(future.join());
+            } catch (CompletionException e) {
+                failure = failure != null ? failure
+                        : e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return responses;
+    }
+
+    /// Validation methods
+
+    private static void validatePartitionCount(int partitionCount) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+    }
+
+    private static void validateWorkerClassPath(String workerClassPath) {
+        if (workerClassPath == null || workerClassPath.isBlank()) {
+            throw new IllegalArgumentException("Worker class path cannot be empty");
+        }
+    }
+
+    private static void validateCurrentTime(LocalDateTime currentTime) {
+        if (currentTime == null) {
+            throw new IllegalArgumentException("Current time cannot be null");
+        }
+    }
+
+    private void validateWorkers(List<InetSocketAddress> workers) {
+        if (workers == null || workers.isEmpty() || workers.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Workers must be a non-empty list of addresses");
+        }
+    }
+
+    private void validateContractNumber(String contractNumber) {
+        if (contractNumber == null || contractNumber.isEmpty()) {
+            throw new IllegalArgumentException("Contract number cannot be null or empty");
+        }
+    }
+
+    private void validatePersonId(String personId) {
+        if (personId == null || personId.isEmpty()) {
+            throw new IllegalArgumentException("Person id cannot be null or empty");
+        }
+    }
+
+    private void validatePersonIds(Set<String> personIds) {
+        if (personIds == null || personIds.isEmpty()) {
+            throw new IllegalArgumentException("Persons cannot be null or empty");
+        }
+        personIds.forEach(this::validatePersonId);
+    }
+
+    private void validateFrequency(PremiumPaymentFrequency frequency) {
+        if (frequency == null) {
+            throw new IllegalArgumentException("Premium payment frequency cannot be null");
+        }
+    }
+}
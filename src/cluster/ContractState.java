@@ -0,0 +1,66 @@
+package cluster;
+
+import contracts.ContractType;
+
+import java.util.Map;
+
+///  State of a contract as reported by the partition that holds it
+public class ContractState {
+    private final int partition;
+    private final String contractNumber;
+    private final ContractType contractType;
+    private final String policyHolderId;
+    private final boolean active;
+    private final int coverageAmount;
+    private final int premium;
+    private final long outstandingBalance;
+
+    ContractState(int partition, Map<String, Object> response) {
+        this.partition = partition;
+        this.contractNumber = (String) response.get("contractNumber");
+        this.contractType = ContractType.valueOf((String) response.get("type"));
+        this.policyHolderId = (String) response.get("policyHolder");
+        this.active = (Boolean) response.get("active");
+        this.coverageAmount = ((Long) response.get("coverageAmount")).intValue();
+        this.premium = ((Long) response.get("premium")).intValue();
+        this.outstandingBalance = (Long) response.get("outstandingBalance");
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public String getContractNumber() {
+        return contractNumber;
+    }
+
+    public ContractType getContractType() {
+        return contractType;
+    }
+
+    public String getPolicyHolderId() {
+        return policyHolderId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getCoverageAmount() {
+        return coverageAmount;
+    }
+
+    public int getPremium() {
+        return premium;
+    }
+
+    public long getOutstandingBalance() {
+        return outstandingBalance;
+    }
+
+    @Override
+    public String toString() {
+        return contractNumber + " " + contractType + " of " + policyHolderId + " on partition " + partition
+                + (active ? "" : " (inactive)") + ", balance " + outstandingBalance;
+    }
+}
@@ -0,0 +1,83 @@
+package cluster;
+
+import contracts.InvalidContractException;
+import http.Json;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+///  Connection of the coordinator to one partition worker. Calls are synchronous and one at a time,
+///  errors reported by the worker are raised again with their original exception type.
+///  IllegalStateException means the outcome is unknown: the worker failed, sent garbage or could not be reached.
+class PartitionClient implements AutoCloseable {
+    private final int partition;
+    private final Socket socket;
+    private final BufferedReader in;
+    private final BufferedWriter out;
+
+    PartitionClient(int partition, InetSocketAddress address) throws IOException {
+        this.partition = partition;
+        this.socket = new Socket(address.getAddress(), address.getPort());
+        this.socket.setTcpNoDelay(true);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    synchronized Map<String, Object> call(String request) {
+        String line;
+        try {
+            out.write(request);
+            out.newLine();
+            out.flush();
+            line = in.readLine();
+        } catch (IOException e) {
+            throw new IllegalStateException("Partition " + partition + " is unreachable", e);
+        }
+        if (line == null) {
+            throw new IllegalStateException("Partition " + partition + " closed the connection");
+        }
+        Map<String, Object> response;
+        try {
+            response = Json.parseObject(line);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Partition " + partition + " sent a malformed response", e);
+        }
+        Object error = response.get(PartitionWorker.ERROR);
+        if (error != null) {
+            throw failure((String) response.get(PartitionWorker.ERROR_KIND), (String) error);
+        }
+        return response;
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            ///  Nothing left to release
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private RuntimeException failure(String kind, String message) {
+        if (InvalidContractException.class.getSimpleName().equals(kind)) {
+            return new InvalidContractException(message);
+        }
+        if (IllegalArgumentException.class.getSimpleName().equals(kind)) {
+            return new IllegalArgumentException(message);
+        }
+        if (NoSuchElementException.class.getSimpleName().equals(kind)) {
+            return new NoSuchElementException(message);
+        }
+        return new IllegalStateException("Partition " + partition + " failed: " + message);
+    }
+}
@@ -0,0 +1,298 @@
+package cluster;
+
+import company.InsuranceCompany;
+import company.PersonRegistry;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import http.Json;
+import objects.Person;
+import objects.Vehicle;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+///  One partition of a ClusterCoordinator: an InsuranceCompany behind a loopback socket.
+///  Requests and responses are flat JSON objects, one per line. Commands of all connections run
+///  one at a time against the partition's insurer.
+///
+///  java cluster.PartitionWorker <currentTime>
+///  listens on an ephemeral loopback port, prints it as the first line of standard output and
+///  stops on the shutdown command or when its standard input is closed.
+public class PartitionWorker implements AutoCloseable {
+    static final String OPERATION = "op";
+    static final String INSURE_VEHICLE = "insureVehicle";
+    static final String INSURE_PERSONS = "insurePersons";
+    static final String PAY = "pay";
+    static final String CLAIM = "claim";
+    static final String CHARGE_PREMIUMS = "chargePremiums";
+    static final String SET_TIME = "setTime";
+    static final String GET_CONTRACT = "getContract";
+    static final String PAID_OUT = "paidOut";
+    static final String CONTRACT_NUMBERS = "contractNumbers";
+    static final String SHUTDOWN = "shutdown";
+    static final String ERROR = "error";
+    static final String ERROR_KIND = "kind";
+
+    private final InsuranceCompany insurer;
+    private final ServerSocket server;
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    public PartitionWorker(LocalDateTime currentTime) throws IOException {
+        this.insurer = new InsuranceCompany(currentTime);
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.closed = false;
+        this.acceptor = new Thread(this::accept, "partition-worker-" + server.getLocalPort());
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: java cluster.PartitionWorker <currentTime>");
+            System.exit(2);
+        }
+        PartitionWorker worker = new PartitionWorker(LocalDateTime.parse(args[0]));
+        try {
+            System.out.println(worker.getAddress().getPort());
+            System.out.flush();
+            Thread orphanWatch = new Thread(() -> {
+                try {
+                    while (System.in.read() >= 0) {
+                        ///  The coordinator never writes to standard input, end of stream means it is gone
+                    }
+                } catch (IOException e) {
+                    ///  Same as end of stream
+                }
+                worker.close();
+            }, "partition-worker-stdin");
+            orphanWatch.setDaemon(true);
+            orphanWatch.start();
+            worker.acceptor.join();
+        } finally {
+            worker.close();
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) server.getLocalSocketAddress();
+    }
+
+    public InsuranceCompany getInsurer() {
+        return insurer;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException e) {
+            ///  Nothing left to release
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread connection = new Thread(() -> serve(socket), "partition-connection-" + socket.getPort());
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Partition worker stopped accepting connections: " + e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Map<String, Object> request = null;
+                String response;
+                try {
+                    request = Json.parseObject(line);
+                    synchronized (insurer) {
+                        response = execute(request);
+                    }
+                } catch (RuntimeException e) {
+                    response = Json.object().field(ERROR, String.valueOf(e.getMessage())).field(ERROR_KIND, kind(e)).end();
+                }
+                out.write(response);
+                out.newLine();
+                out.flush();
+                if (request != null && SHUTDOWN.equals(request.get(OPERATION))) {
+                    close();
+                    return;
+                }
+            }
+        } catch (SocketException e) {
+            ///  The coordinator closed the connection
+        } catch (IOException e) {
+            System.err.println("Partition connection failed: " + e.getMessage());
+        }
+    }
+
+    private String execute(Map<String, Object> request) {
+        String operation = requireString(request, OPERATION);
+        switch (operation) {
+            case INSURE_VEHICLE: {
+                String beneficiaryId = optionalString(request, "beneficiary");
+                Vehicle vehicle = new Vehicle(requireString(request, "licensePlate"), requireInt(request, "vehicleValue"));
+                return contractJson(insurer.insureVehicle(requireString(request, "contractNumber"),
+                        beneficiaryId == null ? null : person(beneficiaryId), person(requireString(request, "policyHolder")),
+                        requireInt(request, "premium"), requireFrequency(request), vehicle));
+            }
+            case INSURE_PERSONS:
+                return contractJson(insurer.insurePersons(requireString(request, "contractNumber"), person(requireString(request, "policyHolder")),
+                        requireInt(request, "premium"), requireFrequency(request), persons(request, "insuredPersons")));
+            case PAY: {
+                AbstractContract contract = requireContract(requireString(request, "contractNumber"));
+                contract.pay(requireInt(request, "amount"));
+                return contractJson(contract);
+            }
+            case CLAIM: {
+                AbstractContract contract = requireContract(requireString(request, "contractNumber"));
+                if (contract instanceof SingleVehicleContract) {
+                    insurer.processClaim((SingleVehicleContract) contract, requireInt(request, "expectedDamages"));
+                } else if (contract instanceof TravelContract) {
+                    insurer.processClaim((TravelContract) contract, persons(request, "affectedPersons"));
+                } else {
+                    throw new InvalidContractException("Claims are processed on single vehicle or travel contracts");
+                }
+                return contractJson(contract);
+            }
+            case CHARGE_PREMIUMS:
+                insurer.chargePremiumsOnContracts();
+                return Json.object().field("contracts", insurer.getContracts().size()).end();
+            case SET_TIME:
+                insurer.setCurrentTime(LocalDateTime.parse(requireString(request, "currentTime")));
+                return Json.object().end();
+            case GET_CONTRACT:
+                return contractJson(requireContract(requireString(request, "contractNumber")));
+            case PAID_OUT: {
+                Person known = insurer.getPersonRegistry().find(requireString(request, "person"));
+                return Json.object().field("paidOut", known == null ? 0 : known.getPaidOutAmount()).end();
+            }
+            case CONTRACT_NUMBERS: {
+                List<String> contractNumbers = new ArrayList<>();
+                insurer.getContracts().forEach(contract -> contractNumbers.add(contract.getContractNumber()));
+                return Json.object().field("contractNumbers", contractNumbers).end();
+            }
+            case SHUTDOWN:
+                return Json.object().end();
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private String contractJson(AbstractContract contract) {
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        return Json.object()
+                .field("contractNumber", contract.getContractNumber())
+                .field("type", contract.getContractType().name())
+                .field("policyHolder", contract.getPolicyHolder().getId())
+                .field("active", contract.isActive())
+                .field("coverageAmount", contract.getCoverageAmount())
+                .field("premium", paymentData == null ? 0 : paymentData.getPremium())
+                .field("outstandingBalance", paymentData == null ? 0 : paymentData.getExactOutstandingBalance())
+                .end();
+    }
+
+    ///  Persons are canonicalized through the partition's registry, like in InsuranceHttpService
+    private Person person(String id) {
+        PersonRegistry registry = insurer.getPersonRegistry();
+        Person known = registry.find(id);
+        return known != null ? known : registry.get(registry.indexOf(new Person(id)));
+    }
+
+    private Set<Person> persons(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(name + " must be an array of person ids");
+        }
+        Set<Person> persons = new HashSet<>();
+        for (Object id : (List<?>) value) {
+            if (!(id instanceof String)) {
+                throw new IllegalArgumentException(name + " must be an array of person ids");
+            }
+            persons.add(person((String) id));
+        }
+        return persons;
+    }
+
+    private AbstractContract requireContract(String contractNumber) {
+        AbstractContract contract = insurer.findContract(contractNumber);
+        if (contract == null) {
+            throw new NoSuchElementException("Contract " + contractNumber + " does not exist");
+        }
+        return contract;
+    }
+
+    private static String requireString(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static String optionalString(Map<String, Object> request, String name) {
+        return request.get(name) == null ? null : requireString(request, name);
+    }
+
+    private static int requireInt(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException(name + " must be a 32-bit integer");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private static PremiumPaymentFrequency requireFrequency(Map<String, Object> request) {
+        return PremiumPaymentFrequency.valueOf(requireString(request, "frequency"));
+    }
+
+    ///  Exception types the coordinator raises again on its side, anything else becomes IllegalStateException
+    private static String kind(RuntimeException e) {
+        if (e instanceof InvalidContractException) {
+            return InvalidContractException.class.getSimpleName();
+        }
+        if (e instanceof IllegalArgumentException) {
+            return IllegalArgumentException.class.getSimpleName();
+        }
+        if (e instanceof NoSuchElementException) {
+            return NoSuchElementException.class.getSimpleName();
+        }
+        return IllegalStateException.class.getSimpleName();
+    }
+}
@@ -0,0 +1,115 @@
+package company;
+
+import contracts.ContractType;
+import objects.Person;
+import payment.EpochTime;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+///  Read-only state of a contract at the time it was archived, materialized from the
+///  columns of a ContractArchive on lookup
+public class ArchivedContract {
+    private final int handle;
+    private final String contractNumber;
+    private final ContractType contractType;
+    private final Person policyHolder;
+    private final Person beneficiary;
+    private final PremiumPaymentFrequency premiumPaymentFrequency;
+    private final int premium;
+    private final long outstandingBalance;
+    private final int coverageAmount;
+    private final String licensePlate;
+    private final int vehicleValue;
+    private final List<Person> insuredPersons;
+    private final String masterContractNumber;
+    private final long archivedEpochSecond;
+
+    ArchivedContract(int handle, String contractNumber, ContractType contractType, Person policyHolder, Person beneficiary,
+                     PremiumPaymentFrequency premiumPaymentFrequency, int premium, long outstandingBalance, int coverageAmount,
+                     String licensePlate, int vehicleValue, List<Person> insuredPersons, String masterContractNumber, long archivedEpochSecond) {
+        this.handle = handle;
+        this.contractNumber = contractNumber;
+        this.contractType = contractType;
+        this.policyHolder = policyHolder;
+        this.beneficiary = beneficiary;
+        this.premiumPaymentFrequency = premiumPaymentFrequency;
+        this.premium = premium;
+        this.outstandingBalance = outstandingBalance;
+        this.coverageAmount = coverageAmount;
+        this.licensePlate = licensePlate;
+        this.vehicleValue = vehicleValue;
+        this.insuredPersons = insuredPersons;
+        this.masterContractNumber = masterContractNumber;
+        this.archivedEpochSecond = archivedEpochSecond;
+    }
+
+    ///  Handle of the contract in the ContractRegistry, its payment history stays under it
+    public int getHandle() {
+        return handle;
+    }
+
+    public String getContractNumber() {
+        return contractNumber;
+    }
+
+    public ContractType getContractType() {
+        return contractType;
+    }
+
+    public Person getPolicyHolder() {
+        return policyHolder;
+    }
+
+    ///  Null for travel contracts and vehicle contracts without a beneficiary
+    public Person getBeneficiary() {
+        return beneficiary;
+    }
+
+    ///  Null for master vehicle contracts, which have no payment data of their own
+    public PremiumPaymentFrequency getPremiumPaymentFrequency() {
+        return premiumPaymentFrequency;
+    }
+
+    public int getPremium() {
+        return premium;
+    }
+
+    ///  Throws ArithmeticException if the balance does not fit an int, see getExactOutstandingBalance
+    public int getOutstandingBalance() {
+        return Math.toIntExact(outstandingBalance);
+    }
+
+    public long getExactOutstandingBalance() {
+        return outstandingBalance;
+    }
+
+    public int getCoverageAmount() {
+        return coverageAmount;
+    }
+
+    ///  Null unless this is a single vehicle contract
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public int getVehicleValue() {
+        return vehicleValue;
+    }
+
+    ///  Empty unless this is a travel contract
+    public List<Person> getInsuredPersons() {
+        return Collections.unmodifiableList(insuredPersons);
+    }
+
+    ///  Number of the master contract this was a child of, null for contracts held directly
+    public String getMasterContractNumber() {
+        return masterContractNumber;
+    }
+
+    public LocalDateTime getArchivedTime() {
+        return EpochTime.toLocalDateTime(archivedEpochSecond, 0);
+    }
+}
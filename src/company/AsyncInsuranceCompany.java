@@ -0,0 +1,244 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+///  Asynchronous facade over an InsuranceCompany. Every command is routed to a serial mailbox
+///  of its policyholder, so commands of one customer run in submission order while commands
+///  of unrelated customers run in parallel on the executor.
+///  Company-wide operations (charging premiums, moving the clock) run exclusively: they wait for
+///  running batches and hold back new ones, but they are not ordered with commands still queued.
+public class AsyncInsuranceCompany implements AutoCloseable {
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private final InsuranceCompany insurer;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<Person, PolicyholderMailbox> mailboxes;
+    ///  Batches share the read side, company-wide operations take the write side
+    private final ReadWriteLock gate;
+    private volatile boolean closed;
+
+    public AsyncInsuranceCompany(InsuranceCompany insurer) {
+        this(insurer, newWorkerPool(Runtime.getRuntime().availableProcessors()), DEFAULT_MAX_BATCH_SIZE, true);
+    }
+
+    ///  The executor stays owned by the caller. On a runtime with virtual threads,
+    ///  Executors.newVirtualThreadPerTaskExecutor() gives every busy mailbox its own thread.
+    public AsyncInsuranceCompany(InsuranceCompany insurer, Executor executor, int maxBatchSize) {
+        this(insurer, executor, maxBatchSize, false);
+    }
+
+    private AsyncInsuranceCompany(InsuranceCompany insurer, Executor executor, int maxBatchSize, boolean ownsExecutor) {
+        validateInsuranceCompany(insurer);
+        validateExecutor(executor);
+        validateMaxBatchSize(maxBatchSize);
+        this.insurer = insurer;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.maxBatchSize = maxBatchSize;
+        this.mailboxes = new ConcurrentHashMap<>();
+        this.gate = new ReentrantReadWriteLock();
+    }
+
+    public InsuranceCompany getInsurer() {
+        return insurer;
+    }
+
+    ///  Number of policyholders with queued or running commands
+    public int getActiveMailboxes() {
+        return mailboxes.size();
+    }
+
+    public CompletableFuture<SingleVehicleContract> insureVehicle(String contractNumber, Person beneficiary, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Vehicle vehicleToInsure) {
+        return submit(policyHolder, () -> insurer.insureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure));
+    }
+
+    public CompletableFuture<TravelContract> insurePersons(String contractNumber, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Set<Person> personsToInsure) {
+        return submit(policyHolder, () -> insurer.insurePersons(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure));
+    }
+
+    public CompletableFuture<MasterVehicleContract> createMasterVehicleContract(String contractNumber, Person beneficiary, Person policyHolder) {
+        return submit(policyHolder, () -> insurer.createMasterVehicleContract(contractNumber, beneficiary, policyHolder));
+    }
+
+    public CompletableFuture<Void> moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
+        validateContract(masterVehicleContract);
+        return submit(masterVehicleContract.getPolicyHolder(), () -> {
+            insurer.moveSingleVehicleContractToMasterVehicleContract(masterVehicleContract, singleVehicleContract);
+            return null;
+        });
+    }
+
+    ///  Master contracts are paid through their own pay, which distributes the amount to the children
+    public CompletableFuture<Void> pay(AbstractContract contract, int amount) {
+        validateContract(contract);
+        return submit(contract.getPolicyHolder(), () -> {
+            contract.pay(amount);
+            return null;
+        });
+    }
+
+    ///  Completes with false when the idempotency key was already used within the deduplication window
+    public CompletableFuture<Boolean> pay(AbstractContract contract, int amount, String idempotencyKey) {
+        validateContract(contract);
+        return submit(contract.getPolicyHolder(), () -> insurer.getHandler().pay(contract, amount, idempotencyKey));
+    }
+
+    public CompletableFuture<Void> processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages) {
+        validateContract(singleVehicleContract);
+        return submit(singleVehicleContract.getPolicyHolder(), () -> {
+            insurer.processClaim(singleVehicleContract, expectedDamages);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> processClaim(TravelContract travelContract, Set<Person> affectedPersons) {
+        validateContract(travelContract);
+        return submit(travelContract.getPolicyHolder(), () -> {
+            insurer.processClaim(travelContract, affectedPersons);
+            return null;
+        });
+    }
+
+    ///  Runs an arbitrary command in the policyholder's mailbox, for example a consistent read of their contracts
+    public <T> CompletableFuture<T> execute(Person policyHolder, Supplier<T> command) {
+        validateCommand(command);
+        return submit(policyHolder, command);
+    }
+
+    public CompletableFuture<Void> chargePremiumsOnContracts() {
+        return exclusive(insurer::chargePremiumsOnContracts);
+    }
+
+    public CompletableFuture<Void> archiveInactiveContracts() {
+        return exclusive(insurer::archiveInactiveContracts);
+    }
+
+    public CompletableFuture<Void> setCurrentTime(LocalDateTime currentTime) {
+        return exclusive(() -> insurer.setCurrentTime(currentTime));
+    }
+
+    ///  Rejects new commands; an executor created by this facade is shut down after its queued work
+    @Override
+    public void close() {
+        closed = true;
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private <T> CompletableFuture<T> submit(Person policyHolder, Supplier<T> action) {
+        validatePolicyHolder(policyHolder);
+        validateOpen();
+        PolicyholderMailbox.Command<T> command = new PolicyholderMailbox.Command<>(action);
+        while (!mailboxes.computeIfAbsent(policyHolder, key -> new PolicyholderMailbox(this, key, maxBatchSize)).offer(command)) {
+            Thread.onSpinWait();
+        }
+        return command.getFuture();
+    }
+
+    private CompletableFuture<Void> exclusive(Runnable action) {
+        validateOpen();
+        return CompletableFuture.runAsync(() -> {
+            gate.writeLock().lock();
+            try {
+                action.run();
+            } finally {
+                gate.writeLock().unlock();
+            }
+        }, executor);
+    }
+
+    void runBatch(PolicyholderMailbox.Command<?>[] batch, int size) {
+        gate.readLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                batch[i].execute();
+            }
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    void schedule(PolicyholderMailbox mailbox) {
+        try {
+            executor.execute(mailbox);
+        } catch (RejectedExecutionException e) {
+            mailbox.abort(new IllegalStateException("Asynchronous insurance company is closed", e));
+        }
+    }
+
+    void retire(PolicyholderMailbox mailbox) {
+        mailboxes.remove(mailbox.getPolicyHolder(), mailbox);
+    }
+
+    private static ExecutorService newWorkerPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "insurance-mailbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /// Validation methods
+
+    private void validateInsuranceCompany(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+
+    private void validateExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+    }
+
+    private void validateMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive");
+        }
+    }
+
+    private void validateContract(AbstractContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Contract cannot be null");
+        }
+    }
+
+    private void validateCommand(Supplier<?> command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Command cannot be null");
+        }
+    }
+
+    private void validatePolicyHolder(Person policyHolder) {
+        if (policyHolder == null) {
+            throw new IllegalArgumentException("Policyholder cannot be null");
+        }
+    }
+
+    private void validateOpen() {
+        if (closed) {
+            throw new IllegalStateException("Asynchronous insurance company is closed");
+        }
+    }
+}
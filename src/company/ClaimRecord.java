@@ -0,0 +1,72 @@
+package company;
+
+import contracts.ContractType;
+import objects.Person;
+import payment.EpochTime;
+
+import java.time.LocalDateTime;
+
+///  One payout of a processed claim, materialized from the columns of a ClaimsLedger.
+///  A travel claim is recorded as one payout per affected person.
+public class ClaimRecord {
+    private final int entry;
+    private final int contractHandle;
+    private final String contractNumber;
+    private final ContractType contractType;
+    private final Person recipient;
+    private final int amount;
+    private final boolean deactivated;
+    private final long epochSecond;
+    private final int nano;
+
+    ClaimRecord(int entry, int contractHandle, String contractNumber, ContractType contractType, Person recipient,
+                int amount, boolean deactivated, long epochSecond, int nano) {
+        this.entry = entry;
+        this.contractHandle = contractHandle;
+        this.contractNumber = contractNumber;
+        this.contractType = contractType;
+        this.recipient = recipient;
+        this.amount = amount;
+        this.deactivated = deactivated;
+        this.epochSecond = epochSecond;
+        this.nano = nano;
+    }
+
+    ///  Position in the ledger, entries are numbered in the order they were recorded
+    public int getEntry() {
+        return entry;
+    }
+
+    public int getContractHandle() {
+        return contractHandle;
+    }
+
+    public String getContractNumber() {
+        return contractNumber;
+    }
+
+    public ContractType getContractType() {
+        return contractType;
+    }
+
+    public Person getRecipient() {
+        return recipient;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    ///  True if the claim deactivated the contract
+    public boolean isDeactivated() {
+        return deactivated;
+    }
+
+    public LocalDateTime getTime() {
+        return EpochTime.toLocalDateTime(epochSecond, nano);
+    }
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+}
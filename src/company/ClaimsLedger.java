@@ -0,0 +1,229 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.ContractType;
+import objects.Person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+///  Append-only record of every claim payout. Entries are rows of primitive columns: contracts are
+///  stored as registry handles and recipients as PersonRegistry indexes. Each entry links to the
+///  previous entry of the same contract and of the same recipient, so per-contract and per-person
+///  histories are walked without scanning, and running payout totals are kept per contract,
+///  per recipient and per contract type.
+///  Methods are synchronized, the ledger may be read while claims are processed.
+public class ClaimsLedger {
+    private static final ContractType[] TYPES = ContractType.values();
+    private static final int NONE = -1;
+
+    private final ContractRegistry registry;
+    private final PersonRegistry personRegistry;
+    private final ContractArchive archive;
+    private long[] epochSeconds;
+    private int[] nanos;
+    private int[] contractHandles;
+    private byte[] types;
+    private int[] recipients;
+    private int[] amounts;
+    private final BitSet deactivated;
+    private int[] previousOfContract;
+    private int[] previousOfRecipient;
+    private int size;
+
+    private int[] lastByContract;
+    private long[] paidOutByContract;
+    private int[] lastByRecipient;
+    private long[] paidOutByRecipient;
+    private final long[] paidOutByType;
+    private long totalPaidOut;
+    private int deactivations;
+
+    ClaimsLedger(ContractRegistry registry, PersonRegistry personRegistry, ContractArchive archive) {
+        this.registry = registry;
+        this.personRegistry = personRegistry;
+        this.archive = archive;
+        this.deactivated = new BitSet();
+        this.size = 0;
+        allocate(16);
+        this.lastByContract = new int[0];
+        this.paidOutByContract = new long[0];
+        this.lastByRecipient = new int[0];
+        this.paidOutByRecipient = new long[0];
+        this.paidOutByType = new long[TYPES.length];
+        this.totalPaidOut = 0;
+        this.deactivations = 0;
+    }
+
+    ///  Number of recorded payouts
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized ClaimRecord get(int entry) {
+        validateEntry(entry);
+        return materialize(entry);
+    }
+
+    ///  Payouts of the contract in the order they were recorded
+    public synchronized List<ClaimRecord> getClaims(AbstractContract contract) {
+        validateContract(contract);
+        int handle = contract.getHandle();
+        return collect(handle >= 0 && handle < lastByContract.length ? lastByContract[handle] : NONE, previousOfContract);
+    }
+
+    ///  Payouts received by the person in the order they were recorded
+    public synchronized List<ClaimRecord> getClaims(Person recipient) {
+        validateRecipient(recipient);
+        int index = personRegistry.find(recipient);
+        return collect(index >= 0 && index < lastByRecipient.length ? lastByRecipient[index] : NONE, previousOfRecipient);
+    }
+
+    public synchronized long getPaidOut(AbstractContract contract) {
+        validateContract(contract);
+        int handle = contract.getHandle();
+        return handle >= 0 && handle < paidOutByContract.length ? paidOutByContract[handle] : 0;
+    }
+
+    public synchronized long getPaidOut(Person recipient) {
+        validateRecipient(recipient);
+        int index = personRegistry.find(recipient);
+        return index >= 0 && index < paidOutByRecipient.length ? paidOutByRecipient[index] : 0;
+    }
+
+    public synchronized long getPaidOut(ContractType contractType) {
+        validateContractType(contractType);
+        return paidOutByType[contractType.ordinal()];
+    }
+
+    public synchronized long getTotalPaidOut() {
+        return totalPaidOut;
+    }
+
+    ///  Number of claims that deactivated their contract, a travel claim counts once
+    public synchronized int getDeactivations() {
+        return deactivations;
+    }
+
+    ///  Appends one payout. A claim split between several recipients is recorded with one call per
+    ///  recipient; only the first call of a deactivating claim counts towards getDeactivations.
+    synchronized int record(AbstractContract contract, Person recipient, int amount, boolean deactivating, boolean firstOfClaim,
+                            long epochSecond, int nano) {
+        int handle = registry.handleOf(contract);
+        int index = personRegistry.indexOf(recipient);
+        validateAmount(amount);
+        if (size == amounts.length) {
+            allocate(size * 2);
+        }
+        ensureContract(handle);
+        ensureRecipient(index);
+        int entry = size++;
+        epochSeconds[entry] = epochSecond;
+        nanos[entry] = nano;
+        contractHandles[entry] = handle;
+        types[entry] = (byte) contract.getContractType().ordinal();
+        recipients[entry] = index;
+        amounts[entry] = amount;
+        deactivated.set(entry, deactivating);
+
+        previousOfContract[entry] = lastByContract[handle];
+        lastByContract[handle] = entry;
+        previousOfRecipient[entry] = lastByRecipient[index];
+        lastByRecipient[index] = entry;
+
+        paidOutByContract[handle] += amount;
+        paidOutByRecipient[index] += amount;
+        paidOutByType[types[entry]] += amount;
+        totalPaidOut += amount;
+        if (deactivating && firstOfClaim) {
+            deactivations++;
+        }
+        return entry;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private List<ClaimRecord> collect(int last, int[] previous) {
+        if (last == NONE) {
+            return Collections.emptyList();
+        }
+        List<ClaimRecord> claims = new ArrayList<>();
+        for (int entry = last; entry != NONE; entry = previous[entry]) {
+            claims.add(materialize(entry));
+        }
+        Collections.reverse(claims);
+        return claims;
+    }
+
+    private ClaimRecord materialize(int entry) {
+        int handle = contractHandles[entry];
+        AbstractContract contract = registry.get(handle);
+        String contractNumber = contract != null ? contract.getContractNumber() : archive.get(handle).getContractNumber();
+        return new ClaimRecord(entry, handle, contractNumber, TYPES[types[entry]], personRegistry.get(recipients[entry]),
+                amounts[entry], deactivated.get(entry), epochSeconds[entry], nanos[entry]);
+    }
+
+    private void allocate(int capacity) {
+        epochSeconds = epochSeconds == null ? new long[capacity] : Arrays.copyOf(epochSeconds, capacity);
+        nanos = nanos == null ? new int[capacity] : Arrays.copyOf(nanos, capacity);
+        contractHandles = contractHandles == null ? new int[capacity] : Arrays.copyOf(contractHandles, capacity);
+        types = types == null ? new byte[capacity] : Arrays.copyOf(types, capacity);
+        recipients = recipients == null ? new int[capacity] : Arrays.copyOf(recipients, capacity);
+        amounts = amounts == null ? new int[capacity] : Arrays.copyOf(amounts, capacity);
+        previousOfContract = previousOfContract == null ? new int[capacity] : Arrays.copyOf(previousOfContract, capacity);
+        previousOfRecipient = previousOfRecipient == null ? new int[capacity] : Arrays.copyOf(previousOfRecipient, capacity);
+    }
+
+    private void ensureContract(int handle) {
+        if (handle >= lastByContract.length) {
+            int length = lastByContract.length;
+            lastByContract = Arrays.copyOf(lastByContract, Math.max(handle + 1, length * 2));
+            paidOutByContract = Arrays.copyOf(paidOutByContract, lastByContract.length);
+            Arrays.fill(lastByContract, length, lastByContract.length, NONE);
+        }
+    }
+
+    private void ensureRecipient(int index) {
+        if (index >= lastByRecipient.length) {
+            int length = lastByRecipient.length;
+            lastByRecipient = Arrays.copyOf(lastByRecipient, Math.max(index + 1, length * 2));
+            paidOutByRecipient = Arrays.copyOf(paidOutByRecipient, lastByRecipient.length);
+            Arrays.fill(lastByRecipient, length, lastByRecipient.length, NONE);
+        }
+    }
+
+    /// Validation methods
+
+    private void validateEntry(int entry) {
+        if (entry < 0 || entry >= size) {
+            throw new IllegalArgumentException("Unknown claims ledger entry");
+        }
+    }
+
+    private void validateContract(AbstractContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Contract cannot be null");
+        }
+    }
+
+    private void validateRecipient(Person recipient) {
+        if (recipient == null) {
+            throw new IllegalArgumentException("Recipient cannot be null");
+        }
+    }
+
+    private void validateContractType(ContractType contractType) {
+        if (contractType == null) {
+            throw new IllegalArgumentException("Contract type cannot be null");
+        }
+    }
+
+    private static void validateAmount(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Paid out amount must be positive");
+        }
+    }
+}
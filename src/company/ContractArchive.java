@@ -0,0 +1,169 @@
+package company;
+
+import contracts.*;
+import objects.Person;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+import util.AlphanumericCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+///  Cold tier for inactive contracts. Each archived contract is one row of primitive columns:
+///  persons are stored as PersonRegistry indexes, license plates as their codes and enums as
+///  ordinals, so an archived contract no longer holds any domain object. Rows are looked up by
+///  contract handle and materialized as ArchivedContract on demand.
+///  Methods are synchronized, lookups may run while the archive is swept.
+public class ContractArchive {
+    private static final ContractType[] TYPES = ContractType.values();
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+    private static final int NONE = -1;
+
+    private final ContractRegistry registry;
+    private final PersonRegistry personRegistry;
+    private int[] rowsByHandle;
+    private int[] handles;
+    private String[] contractNumbers;
+    private byte[] types;
+    private byte[] frequencies;
+    private int[] premiums;
+    private long[] balances;
+    private int[] coverages;
+    private int[] policyHolders;
+    private int[] beneficiaries;
+    private long[] plates;
+    private int[] vehicleValues;
+    private int[][] insuredPersons;
+    private int[] masterRows;
+    private long[] archivedEpochSeconds;
+    private int size;
+
+    ContractArchive(ContractRegistry registry, PersonRegistry personRegistry) {
+        this.registry = registry;
+        this.personRegistry = personRegistry;
+        this.rowsByHandle = new int[0];
+        this.size = 0;
+        allocate(16);
+    }
+
+    ///  Number of archived contracts, including archived children of master contracts
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isArchived(int handle) {
+        return handle >= 0 && handle < rowsByHandle.length && rowsByHandle[handle] != NONE;
+    }
+
+    ///  Returns null if the contract is not archived
+    public synchronized ArchivedContract get(int handle) {
+        return isArchived(handle) ? materialize(rowsByHandle[handle]) : null;
+    }
+
+    ///  Returns null if no contract with this number was archived
+    public synchronized ArchivedContract find(String contractNumber) {
+        return get(registry.handleOf(contractNumber));
+    }
+
+    ///  Archived children of an archived master contract
+    public synchronized List<ArchivedContract> getChildContracts(ArchivedContract master) {
+        validateArchivedContract(master);
+        int masterRow = rowsByHandle[master.getHandle()];
+        List<ArchivedContract> children = new ArrayList<>();
+        for (int row = masterRow + 1; row < size && masterRows[row] == masterRow; row++) {
+            children.add(materialize(row));
+        }
+        return children;
+    }
+
+    ///  Appends a row for the contract; children of a master are appended right after it
+    synchronized int add(AbstractContract contract, int masterRow, long epochSecond) {
+        int handle = registry.handleOf(contract);
+        if (size == handles.length) {
+            allocate(size * 2);
+        }
+        if (handle >= rowsByHandle.length) {
+            int length = rowsByHandle.length;
+            rowsByHandle = Arrays.copyOf(rowsByHandle, Math.max(handle + 1, length * 2));
+            Arrays.fill(rowsByHandle, length, rowsByHandle.length, NONE);
+        }
+        int row = size++;
+        rowsByHandle[handle] = row;
+        handles[row] = handle;
+        contractNumbers[row] = contract.getContractNumber();
+        types[row] = (byte) contract.getContractType().ordinal();
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        frequencies[row] = (byte) (paymentData == null ? NONE : paymentData.getPremiumPaymentFrequency().ordinal());
+        premiums[row] = paymentData == null ? 0 : paymentData.getPremium();
+        balances[row] = paymentData == null ? 0 : paymentData.getExactOutstandingBalance();
+        coverages[row] = contract.getCoverageAmount();
+        policyHolders[row] = personRegistry.indexOf(contract.getPolicyHolder());
+        beneficiaries[row] = NONE;
+        plates[row] = NONE;
+        vehicleValues[row] = 0;
+        insuredPersons[row] = null;
+        masterRows[row] = masterRow;
+        archivedEpochSeconds[row] = epochSecond;
+        if (contract instanceof AbstractVehicleContract vehicleContract && vehicleContract.getBeneficiary() != null) {
+            beneficiaries[row] = personRegistry.indexOf(vehicleContract.getBeneficiary());
+        }
+        if (contract instanceof SingleVehicleContract single) {
+            plates[row] = single.getInsuredVehicle().getLicensePlateCode();
+            vehicleValues[row] = single.getInsuredVehicle().getOriginalValue();
+        }
+        if (contract instanceof TravelContract travel) {
+            int[] insured = new int[travel.getInsuredPersons().size()];
+            int i = 0;
+            for (Person person : travel.getInsuredPersons()) {
+                insured[i++] = personRegistry.indexOf(person);
+            }
+            insuredPersons[row] = insured;
+        }
+        return row;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private ArchivedContract materialize(int row) {
+        List<Person> insured = new ArrayList<>();
+        if (insuredPersons[row] != null) {
+            for (int index : insuredPersons[row]) {
+                insured.add(personRegistry.get(index));
+            }
+        }
+        return new ArchivedContract(handles[row], contractNumbers[row], TYPES[types[row]], personRegistry.get(policyHolders[row]),
+                beneficiaries[row] == NONE ? null : personRegistry.get(beneficiaries[row]),
+                frequencies[row] == NONE ? null : FREQUENCIES[frequencies[row]], premiums[row], balances[row], coverages[row],
+                plates[row] == NONE ? null : AlphanumericCode.decode(plates[row]), vehicleValues[row], insured,
+                masterRows[row] == NONE ? null : contractNumbers[masterRows[row]], archivedEpochSeconds[row]);
+    }
+
+    private void allocate(int capacity) {
+        handles = handles == null ? new int[capacity] : Arrays.copyOf(handles, capacity);
+        contractNumbers = contractNumbers == null ? new String[capacity] : Arrays.copyOf(contractNumbers, capacity);
+        types = types == null ? new byte[capacity] : Arrays.copyOf(types, capacity);
+        frequencies = frequencies == null ? new byte[capacity] : Arrays.copyOf(frequencies, capacity);
+        premiums = premiums == null ? new int[capacity] : Arrays.copyOf(premiums, capacity);
+        balances = balances == null ? new long[capacity] : Arrays.copyOf(balances, capacity);
+        coverages = coverages == null ? new int[capacity] : Arrays.copyOf(coverages, capacity);
+        policyHolders = policyHolders == null ? new int[capacity] : Arrays.copyOf(policyHolders, capacity);
+        beneficiaries = beneficiaries == null ? new int[capacity] : Arrays.copyOf(beneficiaries, capacity);
+        plates = plates == null ? new long[capacity] : Arrays.copyOf(plates, capacity);
+        vehicleValues = vehicleValues == null ? new int[capacity] : Arrays.copyOf(vehicleValues, capacity);
+        insuredPersons = insuredPersons == null ? new int[capacity][] : Arrays.copyOf(insuredPersons, capacity);
+        masterRows = masterRows == null ? new int[capacity] : Arrays.copyOf(masterRows, capacity);
+        archivedEpochSeconds = archivedEpochSeconds == null ? new long[capacity] : Arrays.copyOf(archivedEpochSeconds, capacity);
+    }
+
+    /// Validation methods
+
+    private void validateArchivedContract(ArchivedContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Archived contract cannot be null");
+        }
+        if (!isArchived(contract.getHandle()) || handles[rowsByHandle[contract.getHandle()]] != contract.getHandle()) {
+            throw new IllegalArgumentException("Contract is not archived here");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+///  Assigns every contract of an insurer a dense int handle at issuance.
+///  Handles are never reused, so they can index per-contract arrays across the code base,
+///  and contract numbers stay reserved even when a contract leaves the live contract set.
+///  Methods are synchronized, contracts may be issued from several threads at once.
+public class ContractRegistry {
+    private final InsuranceCompany insurer;
+    private final IdIndex handlesByNumber;
+    private AbstractContract[] contracts;
+    private int size;
+
+    ContractRegistry(InsuranceCompany insurer) {
+        this.insurer = insurer;
+        this.handlesByNumber = new IdIndex(insurer.isCompactRepresentation());
+        this.contracts = new AbstractContract[16];
+        this.size = 0;
+    }
+
+    ///  Number of handles issued so far, every handle is below this bound
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized AbstractContract get(int handle) {
+        validateHandle(handle);
+        return contracts[handle];
+    }
+
+    public synchronized boolean contains(String contractNumber) {
+        return contractNumber != null && handlesByNumber.get(contractNumber) >= 0;
+    }
+
+    ///  Returns -1 if no contract with this number was registered
+    public synchronized int handleOf(String contractNumber) {
+        if (contractNumber == null) {
+            return -1;
+        }
+        return handlesByNumber.get(contractNumber);
+    }
+
+    public synchronized AbstractContract find(String contractNumber) {
+        int handle = handleOf(contractNumber);
+        return handle < 0 ? null : contracts[handle];
+    }
+
+    ///  Copy of the handle-indexed contract table, null where a contract was archived
+    public synchronized AbstractContract[] snapshot() {
+        return Arrays.copyOf(contracts, size);
+    }
+
+    ///  Live contracts in handle order, children of master contracts included, as they were when the
+    ///  call started. The contracts are copied into one dense array, so the spliterator knows the exact
+    ///  size of every split and parallel streams divide the work evenly.
+    public Spliterator<AbstractContract> spliterator() {
+        AbstractContract[] table = snapshot();
+        int live = 0;
+        for (AbstractContract contract : table) {
+            if (contract != null) {
+                table[live++] = contract;
+            }
+        }
+        return Spliterators.spliterator(table, 0, live, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public Stream<AbstractContract> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<AbstractContract> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    ///  Drops the contract object, its number stays reserved and get returns null from now on
+    synchronized void archive(int handle) {
+        validateHandle(handle);
+        contracts[handle] = null;
+    }
+
+    ///  Returns the handle of the contract, registering contracts that were created
+    ///  outside of the insurer's issuance methods on first use
+    public synchronized int handleOf(AbstractContract contract) {
+        validateContract(contract);
+        int handle = contract.getHandle();
+        return handle >= 0 ? handle : register(contract);
+    }
+
+    synchronized int register(AbstractContract contract) {
+        validateContract(contract);
+        if (!handlesByNumber.putIfAbsent(contract.getContractNumber(), size)) {
+            throw new IllegalArgumentException("Contract number already exists");
+        }
+        if (size == contracts.length) {
+            contracts = Arrays.copyOf(contracts, size * 2);
+        }
+        int handle = size++;
+        contracts[handle] = contract;
+        contract.assignHandle(this);
+        return handle;
+    }
+
+    /// Validation methods
+
+    private void validateContract(AbstractContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Contract cannot be null");
+        }
+        if (contract.getInsurer() != insurer) {
+            throw new InvalidContractException("Contract does not belong to this insurance company");
+        }
+    }
+
+    private void validateHandle(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IllegalArgumentException("Unknown contract handle");
+        }
+    }
+}
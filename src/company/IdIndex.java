@@ -0,0 +1,121 @@
+package company;
+
+import util.AlphanumericCode;
+
+import java.util.Arrays;
+
+///  Open addressing map from string ids (contract numbers, person ids) to dense indexes,
+///  avoids boxing the indexes. Ids stay reserved once indexed, so entries are never removed.
+///  A compact index keeps ids that fit an AlphanumericCode as codes and only stores the others.
+class IdIndex {
+    private static final int ABSENT = -1;
+
+    private final boolean compact;
+    private String[] keys;
+    private long[] codes;
+    private int[] values;
+    private int size;
+
+    IdIndex(boolean compact) {
+        this.compact = compact;
+        this.keys = compact ? null : new String[16];
+        this.codes = compact ? new long[16] : null;
+        this.values = new int[16];
+        this.size = 0;
+        Arrays.fill(values, ABSENT);
+    }
+
+    int get(String id) {
+        long code = compact ? AlphanumericCode.encode(id) : AlphanumericCode.NONE;
+        int mask = values.length - 1;
+        for (int slot = hash(id, code) & mask; ; slot = (slot + 1) & mask) {
+            if (values[slot] == ABSENT) {
+                return ABSENT;
+            }
+            if (matches(slot, id, code)) {
+                return values[slot];
+            }
+        }
+    }
+
+    ///  Returns false if the id is already present
+    boolean putIfAbsent(String id, int index) {
+        if ((size + 1) * 2 > values.length) {
+            resize();
+        }
+        long code = compact ? AlphanumericCode.encode(id) : AlphanumericCode.NONE;
+        int mask = values.length - 1;
+        for (int slot = hash(id, code) & mask; ; slot = (slot + 1) & mask) {
+            if (values[slot] == ABSENT) {
+                store(slot, id, code, index);
+                size++;
+                return true;
+            }
+            if (matches(slot, id, code)) {
+                return false;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private boolean matches(int slot, String id, long code) {
+        if (code != AlphanumericCode.NONE) {
+            return codes[slot] == code;
+        }
+        return keys != null && id.equals(keys[slot]);
+    }
+
+    private void store(int slot, String id, long code, int index) {
+        values[slot] = index;
+        if (compact) {
+            codes[slot] = code;
+        }
+        if (code == AlphanumericCode.NONE) {
+            if (keys == null) {
+                keys = new String[values.length];
+            }
+            keys[slot] = id;
+        }
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        long[] oldCodes = codes;
+        int[] oldValues = values;
+        keys = oldKeys == null ? null : new String[oldValues.length * 2];
+        codes = oldCodes == null ? null : new long[oldValues.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(values, ABSENT);
+        int mask = values.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != ABSENT) {
+                String key = oldKeys == null ? null : oldKeys[i];
+                long code = oldCodes == null ? AlphanumericCode.NONE : oldCodes[i];
+                int slot = hash(key, code) & mask;
+                while (values[slot] != ABSENT) {
+                    slot = (slot + 1) & mask;
+                }
+                values[slot] = oldValues[i];
+                if (keys != null) {
+                    keys[slot] = key;
+                }
+                if (codes != null) {
+                    codes[slot] = code;
+                }
+            }
+        }
+    }
+
+    private static int hash(String id, long code) {
+        if (code != AlphanumericCode.NONE) {
+            return AlphanumericCode.hash(code);
+        }
+        int hash = id.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
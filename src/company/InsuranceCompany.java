@@ -1,36 +1,114 @@
 package company;
 
 import contracts.*;
+import events.DomainEventType;
+import events.EventRingBuffer;
+import events.SleepingWaitStrategy;
+import events.WaitStrategy;
 import objects.Person;
 import objects.Vehicle;
+import objects.VehiclePool;
 import payment.ContractPaymentData;
+import payment.EpochTime;
 import payment.PaymentHandler;
 import payment.PremiumPaymentFrequency;
+import rating.PremiumRating;
+import segments.PortfolioIndex;
 
 import java.time.LocalDateTime;
-import java.util.LinkedHashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 public class InsuranceCompany {
     private final Set<AbstractContract> contracts;
+    private final ContractRegistry registry;
+    private final PersonRegistry personRegistry;
+    private final ContractArchive archive;
+    private final ClaimsLedger claimsLedger;
+    private final PortfolioIndex portfolioIndex;
     private final PaymentHandler handler;
-    private LocalDateTime currentTime;
+    private final EventRingBuffer events;
+    private final boolean compactRepresentation;
+    private boolean lazyAccrual;
+    ///  Only used in the compact representation
+    private final VehiclePool vehiclePool;
+    ///  Company clock as UTC epoch second and nano-of-second, see EpochTime
+    private long currentEpochSecond;
+    private int currentNano;
 
     public InsuranceCompany(LocalDateTime currentTime) {
+        this(currentTime, 1024, new SleepingWaitStrategy());
+    }
+
+    public InsuranceCompany(LocalDateTime currentTime, boolean compactRepresentation) {
+        this(currentTime, 1024, new SleepingWaitStrategy(), compactRepresentation);
+    }
+
+    public InsuranceCompany(LocalDateTime currentTime, int eventBufferCapacity, WaitStrategy eventWaitStrategy) {
+        this(currentTime, eventBufferCapacity, eventWaitStrategy, false);
+    }
+
+    ///  The compact representation trades some decoding on access for a much smaller heap per contract:
+    ///  contract numbers are kept as codes where possible, vehicles are pooled, small sets are CompactSets
+    ///  and the live contract set is a bitmap over handles. Behaviour is the same in both representations.
+    public InsuranceCompany(LocalDateTime currentTime, int eventBufferCapacity, WaitStrategy eventWaitStrategy, boolean compactRepresentation) {
         validateTime(currentTime);
-        this.currentTime = currentTime;
-        this.contracts = new LinkedHashSet<>();
+        this.currentEpochSecond = EpochTime.toEpochSecond(currentTime);
+        this.currentNano = currentTime.getNano();
+        this.compactRepresentation = compactRepresentation;
+        this.registry = new ContractRegistry(this);
+        this.contracts = Collections.synchronizedSet(compactRepresentation ? new LiveContractSet(registry) : new RegisteredContractSet(registry));
+        this.vehiclePool = compactRepresentation ? new VehiclePool() : null;
+        this.personRegistry = new PersonRegistry(compactRepresentation);
+        this.archive = new ContractArchive(registry, personRegistry);
+        this.claimsLedger = new ClaimsLedger(registry, personRegistry, archive);
+        this.portfolioIndex = new PortfolioIndex(registry);
+        this.events = new EventRingBuffer(eventBufferCapacity, eventWaitStrategy);
         this.handler = new PaymentHandler(this);
     }
 
     public LocalDateTime getCurrentTime() {
-        return currentTime;
+        return EpochTime.toLocalDateTime(currentEpochSecond, currentNano);
     }
 
     public void setCurrentTime(LocalDateTime currentTime) {
         validateTime(currentTime);
-        this.currentTime = currentTime;
+        this.currentEpochSecond = EpochTime.toEpochSecond(currentTime);
+        this.currentNano = currentTime.getNano();
+    }
+
+    public boolean isCompactRepresentation() {
+        return compactRepresentation;
+    }
+
+    public boolean isLazyAccrual() {
+        return lazyAccrual;
+    }
+
+    ///  In lazy accrual mode premiums are charged when a contract is read, paid, re-priced or deactivated,
+    ///  so moving the clock needs no billing sweep and reads see what a sweep at the current time would
+    ///  have produced. Accrual is not thread-safe: parallel reports first bring every contract up to
+    ///  date on the calling thread with accrueDueContracts. chargePremiumsOnContracts still works and
+    ///  refreshes the balance bands of the PortfolioIndex. Switching back leaves balances as they were
+    ///  last charged.
+    public void setLazyAccrual(boolean lazyAccrual) {
+        this.lazyAccrual = lazyAccrual;
+        for (AbstractContract contract : registry.snapshot()) {
+            if (contract != null && contract.getContractPaymentData() != null) {
+                if (lazyAccrual) {
+                    contract.getContractPaymentData().enableLazyAccrual(contract);
+                } else {
+                    contract.getContractPaymentData().disableLazyAccrual();
+                }
+            }
+        }
+    }
+
+    public long getCurrentEpochSecond() {
+        return currentEpochSecond;
+    }
+
+    public int getCurrentNano() {
+        return currentNano;
     }
 
     public Set<AbstractContract> getContracts() {
@@ -41,17 +119,81 @@ public class InsuranceCompany {
         return handler;
     }
 
+    public ContractRegistry getRegistry() {
+        return registry;
+    }
+
+    public PersonRegistry getPersonRegistry() {
+        return personRegistry;
+    }
+
+    ///  Looks up any live contract issued by this insurer, including contracts moved into a master
+    public AbstractContract findContract(String contractNumber) {
+        return registry.find(contractNumber);
+    }
+
+    ///  Bitmap indexes over the live contracts, see Segment for queries
+    public PortfolioIndex getPortfolioIndex() {
+        return portfolioIndex;
+    }
+
+    public ContractArchive getArchive() {
+        return archive;
+    }
+
+    ///  Every payout made by processClaim, with per-contract and per-person indexes and running totals
+    public ClaimsLedger getClaimsLedger() {
+        return claimsLedger;
+    }
+
+    ///  Looks up a contract moved to the archive by archiveInactiveContracts
+    public ArchivedContract findArchivedContract(String contractNumber) {
+        return archive.find(contractNumber);
+    }
+
+    ///  Moves every inactive contract out of the live contract set and its policyholder's contracts
+    ///  into the archive. An inactive master is archived together with its children, inactive
+    ///  children of an active master stay with it. Contract numbers stay reserved.
+    ///  Returns the number of archived contracts, children included.
+    public int archiveInactiveContracts() {
+        int archived = 0;
+        synchronized (contracts) {
+            Iterator<AbstractContract> iterator = contracts.iterator();
+            while (iterator.hasNext()) {
+                AbstractContract contract = iterator.next();
+                if (contract.isActive()) {
+                    continue;
+                }
+                iterator.remove();
+                contract.getPolicyHolder().getContracts().remove(contract);
+                archived += archive(contract);
+            }
+        }
+        return archived;
+    }
+
+    public EventRingBuffer getEvents() {
+        return events;
+    }
+
 
     public SingleVehicleContract insureVehicle(String contractNumber, Person beneficiary, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Vehicle vehicleToInsure) {
         validatePremiumSingleVehicle(proposedPremium, vehicleToInsure, proposedPaymentFrequency);
+        if (compactRepresentation) {
+            vehicleToInsure = vehiclePool.intern(vehicleToInsure);
+        }
 
-        ContractPaymentData contractPaymentData = new ContractPaymentData(proposedPremium, proposedPaymentFrequency, this.getCurrentTime(), 0);
+        ContractPaymentData contractPaymentData = new ContractPaymentData(proposedPremium, proposedPaymentFrequency, currentEpochSecond, currentNano, 0);
         SingleVehicleContract singleVehicleContract = new SingleVehicleContract(contractNumber, this, beneficiary, policyHolder, contractPaymentData, vehicleToInsure.getOriginalValue() / 2, vehicleToInsure);
 
-        this.chargePremiumOnContract(singleVehicleContract);
-
+        registry.register(singleVehicleContract);
         this.contracts.add(singleVehicleContract);
         policyHolder.addContract(singleVehicleContract);
+        publishEvent(DomainEventType.CONTRACT_ISSUED, singleVehicleContract, null, policyHolder, proposedPremium);
+
+        attachPaymentData(singleVehicleContract);
+        this.chargePremiumOnContract(singleVehicleContract);
+        portfolioIndex.update(singleVehicleContract);
 
         return singleVehicleContract;
     }
@@ -59,13 +201,17 @@ public class InsuranceCompany {
     public TravelContract insurePersons(String contractNumber, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Set<Person> personsToInsure) {
         validatePremiumTravel(proposedPremium, proposedPaymentFrequency, personsToInsure);
 
-        ContractPaymentData contractPaymentData = new ContractPaymentData(proposedPremium, proposedPaymentFrequency, this.getCurrentTime(), 0);
+        ContractPaymentData contractPaymentData = new ContractPaymentData(proposedPremium, proposedPaymentFrequency, currentEpochSecond, currentNano, 0);
         TravelContract travelContract = new TravelContract(contractNumber, this, policyHolder, contractPaymentData, personsToInsure.size() * 10, personsToInsure);
 
-        this.chargePremiumOnContract(travelContract);
-
+        registry.register(travelContract);
         this.contracts.add(travelContract);
         policyHolder.addContract(travelContract);
+        publishEvent(DomainEventType.CONTRACT_ISSUED, travelContract, null, policyHolder, proposedPremium);
+
+        attachPaymentData(travelContract);
+        this.chargePremiumOnContract(travelContract);
+        portfolioIndex.update(travelContract);
 
         return travelContract;
     }
@@ -74,27 +220,50 @@ public class InsuranceCompany {
 
         MasterVehicleContract masterVehicleContract = new MasterVehicleContract(contractNumber, this, beneficiary, policyHolder);
 
+        registry.register(masterVehicleContract);
         this.contracts.add(masterVehicleContract);
         policyHolder.addContract(masterVehicleContract);
+        publishEvent(DomainEventType.CONTRACT_ISSUED, masterVehicleContract, null, policyHolder, 0);
+        portfolioIndex.update(masterVehicleContract);
 
         return masterVehicleContract;
     }
 
     public void moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
         validateContractsPresenceForMoving(masterVehicleContract, singleVehicleContract);
-        validateContractsInsuranceForMoving(masterVehicleContract, singleVehicleContract);
+        moveSingleVehicleContractsToMasterVehicleContract(masterVehicleContract, List.of(singleVehicleContract));
+    }
 
-        singleVehicleContract.getInsurer().getContracts().remove(singleVehicleContract);
-        singleVehicleContract.getPolicyHolder().getContracts().remove(singleVehicleContract);
+    ///  Moves a whole fleet at once. The master is validated once and the children in a single pass,
+    ///  nothing is moved unless every child can be moved.
+    public void moveSingleVehicleContractsToMasterVehicleContract(MasterVehicleContract masterVehicleContract, Collection<SingleVehicleContract> singleVehicleContracts) {
+        validateContractsPresenceForMoving(masterVehicleContract, singleVehicleContracts);
+        validateMasterInsuranceForMoving(masterVehicleContract);
+        validateChildrenInsuranceForMoving(masterVehicleContract, singleVehicleContracts);
 
-        masterVehicleContract.getChildContracts().add(singleVehicleContract);
+        for (SingleVehicleContract singleVehicleContract : singleVehicleContracts) {
+            this.contracts.remove(singleVehicleContract);
+            singleVehicleContract.getPolicyHolder().getContracts().remove(singleVehicleContract);
 
+            masterVehicleContract.getChildContracts().add(singleVehicleContract);
+            portfolioIndex.setMaster(singleVehicleContract, masterVehicleContract);
+            publishEvent(DomainEventType.CONTRACT_MOVED_TO_MASTER, singleVehicleContract, masterVehicleContract, singleVehicleContract.getPolicyHolder(), 0);
+        }
     }
 
     public void chargePremiumsOnContracts() {
         contracts.stream().filter(AbstractContract::isActive).forEach(AbstractContract::updateBalance);
     }
 
+    ///  In lazy accrual mode charges every contract whose premiums fell due, on the calling thread.
+    ///  Reports call it before they snapshot the ledger or hand contracts to worker threads, so that
+    ///  reading a balance there charges nothing. Does nothing in eager mode.
+    public void accrueDueContracts() {
+        if (lazyAccrual) {
+            chargePremiumsOnContracts();
+        }
+    }
+
 
     public void chargePremiumOnContract(MasterVehicleContract contract) {
         contract.getChildContracts().stream().filter(AbstractContract::isActive).forEach(AbstractContract::updateBalance);
@@ -106,11 +275,46 @@ public class InsuranceCompany {
         }
         ContractPaymentData paymentData = contract.getContractPaymentData();
         int premium = paymentData.getPremium();
-        while (!currentTime.isBefore(paymentData.getNextPaymentTime())) {
-            int currentOutstandingBalance = paymentData.getOutstandingBalance();
-            paymentData.setOutstandingBalance(currentOutstandingBalance + premium);
+        long balanceBefore = paymentData.getExactOutstandingBalance();
+        long charged = 0;
+        while (paymentData.isDue(currentEpochSecond, currentNano)) {
+            paymentData.addToOutstandingBalance(premium);
             paymentData.updateNextPaymentTime();
+            charged += premium;
+        }
+        handler.getLedger().recordCharge(registry.handleOf(contract), balanceBefore, charged, currentEpochSecond, currentNano);
+        if (charged > 0) {
+            portfolioIndex.update(contract);
+            ///  Events carry int amounts, a charge beyond that range is reported as Integer.MAX_VALUE
+            publishEvent(DomainEventType.PREMIUM_CHARGED, contract, null, contract.getPolicyHolder(), (int) Math.min(charged, Integer.MAX_VALUE));
+        }
+    }
+
+    ///  Records the premium schedule the contract starts with, its first premium is due at issuance
+    private void attachPaymentData(AbstractContract contract) {
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        handler.getLedger().recordSchedule(contract.getHandle(), paymentData.getExactOutstandingBalance(),
+                currentEpochSecond, currentNano, paymentData.getPremium(), paymentData.getPremiumPaymentFrequency());
+        paymentData.attachLedger(handler.getLedger(), contract.getHandle());
+        if (lazyAccrual) {
+            paymentData.enableLazyAccrual(contract);
+        }
+    }
+
+    private int archive(AbstractContract contract) {
+        int row = archive.add(contract, -1, currentEpochSecond);
+        registry.archive(contract.getHandle());
+        portfolioIndex.remove(contract.getHandle());
+        int archived = 1;
+        if (contract instanceof MasterVehicleContract master) {
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                archive.add(child, row, currentEpochSecond);
+                registry.archive(child.getHandle());
+                portfolioIndex.remove(child.getHandle());
+                archived++;
+            }
         }
+        return archived;
     }
 
     public void processClaim(TravelContract travelContract, Set<Person> affectedPersons) {
@@ -119,8 +323,15 @@ public class InsuranceCompany {
         validateContractActivityStatus(travelContract);
 
         int payoutPerPerson = travelContract.getCoverageAmount() / affectedPersons.size();
-        affectedPersons.forEach(person -> person.payout(payoutPerPerson));
+        Person.payout(affectedPersons, payoutPerPerson);
+        boolean first = true;
+        for (Person person : affectedPersons) {
+            claimsLedger.record(travelContract, person, payoutPerPerson, true, first, currentEpochSecond, currentNano);
+            first = false;
+            publishEvent(DomainEventType.CLAIM_PAID, travelContract, null, person, payoutPerPerson);
+        }
         travelContract.setInactive();
+        publishEvent(DomainEventType.CONTRACT_DEACTIVATED, travelContract, null, travelContract.getPolicyHolder(), 0);
     }
 
     public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages) {
@@ -131,13 +342,15 @@ public class InsuranceCompany {
         Person beneficiary = singleVehicleContract.getBeneficiary();
         int coverageAmount = singleVehicleContract.getCoverageAmount();
 
-        if (beneficiary != null) {
-            beneficiary.payout(coverageAmount);
-        } else {
-            singleVehicleContract.getPolicyHolder().payout(coverageAmount);
-        }
-        if (expectedDamages >= 0.7 * singleVehicleContract.getInsuredVehicle().getOriginalValue()) {
+        Person recipient = beneficiary != null ? beneficiary : singleVehicleContract.getPolicyHolder();
+        recipient.payout(coverageAmount);
+        boolean deactivating = expectedDamages >= 0.7 * singleVehicleContract.getInsuredVehicle().getOriginalValue();
+        claimsLedger.record(singleVehicleContract, recipient, coverageAmount, deactivating, true, currentEpochSecond, currentNano);
+        publishEvent(DomainEventType.CLAIM_PAID, singleVehicleContract, null, recipient, coverageAmount);
+
+        if (deactivating) {
             singleVehicleContract.setInactive();
+            publishEvent(DomainEventType.CONTRACT_DEACTIVATED, singleVehicleContract, null, singleVehicleContract.getPolicyHolder(), 0);
         }
     }
 
@@ -153,7 +366,7 @@ public class InsuranceCompany {
         if (vehicleToInsure == null || proposedPaymentFrequency == null) {
             throw new IllegalArgumentException("Vehicle to insure and premium payment frequency cannot be null");
         }
-        if (proposedPremium * paymentsPerYear(proposedPaymentFrequency) < 0.02 * vehicleToInsure.getOriginalValue()) {
+        if (!PremiumRating.meetsVehicleMinimum(proposedPremium, proposedPaymentFrequency, vehicleToInsure.getOriginalValue())) {
             throw new IllegalArgumentException("The annual premium must be at least 2% of the vehicle's value.");
         }
     }
@@ -162,7 +375,7 @@ public class InsuranceCompany {
         if (personsToInsure == null || proposedPaymentFrequency == null) {
             throw new IllegalArgumentException("Persons to insure and premium payment frequency cannot be null");
         }
-        if (proposedPremium * paymentsPerYear(proposedPaymentFrequency) < 5 * personsToInsure.size()) {
+        if (!PremiumRating.meetsTravelMinimum(proposedPremium, proposedPaymentFrequency, personsToInsure.size())) {
             throw new IllegalArgumentException("The annual premium must be at least five times the number of insured persons.");
         }
     }
@@ -173,27 +386,57 @@ public class InsuranceCompany {
         }
     }
 
-    private void validateContractsInsuranceForMoving(MasterVehicleContract c1, SingleVehicleContract c2) {
-        if (!c1.isActive() || !c2.isActive()) {
-            throw new InvalidContractException("Contracts must be active");
+    private void validateContractsPresenceForMoving(MasterVehicleContract c1, Collection<SingleVehicleContract> c2) {
+        if (c1 == null || c2 == null) {
+            throw new IllegalArgumentException("Contracts cannot be null");
         }
-        if (!Objects.equals(c1.getInsurer(), c2.getInsurer())) {
-            throw new InvalidContractException("Contracts must have the same insurer");
+        if (c2.isEmpty()) {
+            throw new IllegalArgumentException("At least one contract must be moved");
         }
-        if (!Objects.equals(this, c2.getInsurer()) || !Objects.equals(this, c1.getInsurer())) {
-            throw new InvalidContractException("Contracts must have the same insurer");
+    }
+
+    private void validateMasterInsuranceForMoving(MasterVehicleContract c1) {
+        if (!c1.isActive()) {
+            throw new InvalidContractException("Contracts must be active");
         }
-        if (!Objects.equals(c1.getPolicyHolder(), c2.getPolicyHolder())) {
-            throw new InvalidContractException("Contracts must have the same policyholder");
+        if (c1.getInsurer() != this) {
+            throw new InvalidContractException("Contracts must have the same insurer");
         }
-        if (!c1.getPolicyHolder().getContracts().contains(c1) || !c2.getPolicyHolder().getContracts().contains(c2)) {
+        if (!c1.getPolicyHolder().getContracts().contains(c1)) {
             throw new InvalidContractException("Contracts must be present in the policyHolder's contract list");
         }
-        if (!c1.getInsurer().getContracts().contains(c1) || !c2.getInsurer().getContracts().contains(c2)) {
+        if (!contracts.contains(c1)) {
             throw new InvalidContractException("Contracts must be present in the insurer's contract list");
         }
     }
 
+    private void validateChildrenInsuranceForMoving(MasterVehicleContract c1, Collection<SingleVehicleContract> children) {
+        Set<SingleVehicleContract> seen = new HashSet<>();
+        for (SingleVehicleContract c2 : children) {
+            if (c2 == null) {
+                throw new IllegalArgumentException("Contracts cannot be null");
+            }
+            if (!seen.add(c2)) {
+                throw new IllegalArgumentException("A contract cannot be moved twice");
+            }
+            if (!c2.isActive()) {
+                throw new InvalidContractException("Contracts must be active");
+            }
+            if (c2.getInsurer() != this) {
+                throw new InvalidContractException("Contracts must have the same insurer");
+            }
+            if (!Objects.equals(c1.getPolicyHolder(), c2.getPolicyHolder())) {
+                throw new InvalidContractException("Contracts must have the same policyholder");
+            }
+            if (!c2.getPolicyHolder().getContracts().contains(c2)) {
+                throw new InvalidContractException("Contracts must be present in the policyHolder's contract list");
+            }
+            if (!contracts.contains(c2)) {
+                throw new InvalidContractException("Contracts must be present in the insurer's contract list");
+            }
+        }
+    }
+
     private void validateProcessClaimDataSingleVehicle(SingleVehicleContract singleVehicleContract, int expectedDamages) {
         if (singleVehicleContract == null) {
             throw new IllegalArgumentException("SingleVehicleContract cannot be null");
@@ -221,18 +464,25 @@ public class InsuranceCompany {
         }
     }
 
-    /// Helper method to calculate the number of payments per year based on the payment frequency
+    /// Helper method to publish a domain event stamped with the current time
 
-    private int paymentsPerYear(PremiumPaymentFrequency premiumPaymentFrequency) {
-        return 12 / premiumPaymentFrequency.getValueInMonths();
+    private void publishEvent(DomainEventType type, AbstractContract contract, AbstractContract relatedContract, Person person, int amount) {
+        events.publish(type, contract, relatedContract, person, amount, currentEpochSecond, currentNano);
     }
 
 
+    ///  The handler belongs to exactly one company, so it is compared first to avoid comparing the contract sets
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         InsuranceCompany that = (InsuranceCompany) o;
-        return Objects.equals(contracts, that.contracts) && Objects.equals(handler, that.handler) && Objects.equals(currentTime, that.currentTime);
+        return Objects.equals(handler, that.handler) && currentEpochSecond == that.currentEpochSecond && currentNano == that.currentNano && Objects.equals(contracts, that.contracts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(handler);
     }
 
 
@@ -0,0 +1,123 @@
+package company;
+
+import contracts.AbstractContract;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+///  Live contract set of an insurer in compact representation: one bit per registry handle instead
+///  of a hash entry per contract. Iterates in handle order, which is issuance order.
+///  Contracts added directly are registered with the insurer first, as they need a handle.
+///  Not thread safe, the insurer wraps it like the LinkedHashSet it replaces.
+class LiveContractSet extends AbstractSet<AbstractContract> {
+    private final ContractRegistry registry;
+    private final BitSet live;
+    private int size;
+    private int modifications;
+
+    LiveContractSet(ContractRegistry registry) {
+        this.registry = registry;
+        this.live = new BitSet();
+        this.size = 0;
+        this.modifications = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        int handle = handleOf(o);
+        return handle >= 0 && live.get(handle);
+    }
+
+    @Override
+    public boolean add(AbstractContract contract) {
+        int handle = registry.handleOf(contract);
+        if (live.get(handle)) {
+            return false;
+        }
+        live.set(handle);
+        size++;
+        modifications++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int handle = handleOf(o);
+        if (handle < 0 || !live.get(handle)) {
+            return false;
+        }
+        clearHandle(handle);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        live.clear();
+        size = 0;
+        modifications++;
+    }
+
+    @Override
+    public Iterator<AbstractContract> iterator() {
+        return new Iterator<>() {
+            private int next = live.nextSetBit(0);
+            private int last = -1;
+            private int expectedModifications = modifications;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public AbstractContract next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                if (modifications != expectedModifications) {
+                    throw new ConcurrentModificationException();
+                }
+                last = next;
+                next = live.nextSetBit(next + 1);
+                return registry.get(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modifications != expectedModifications) {
+                    throw new ConcurrentModificationException();
+                }
+                clearHandle(last);
+                expectedModifications = modifications;
+                last = -1;
+            }
+        };
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    ///  Returns -1 unless the object is a registered contract of this registry's insurer
+    private int handleOf(Object o) {
+        if (!(o instanceof AbstractContract contract) || contract.getHandle() < 0) {
+            return -1;
+        }
+        return contract.getHandle() < registry.size() && registry.get(contract.getHandle()) == contract ? contract.getHandle() : -1;
+    }
+
+    private void clearHandle(int handle) {
+        live.clear(handle);
+        size--;
+        modifications++;
+    }
+}
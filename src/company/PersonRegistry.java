@@ -0,0 +1,69 @@
+package company;
+
+import objects.Person;
+
+import java.util.Arrays;
+
+///  Assigns persons known to an insurer a dense int index, so per-person data and
+///  membership bitmaps can be indexed by it. Persons are identified by their id.
+///  Methods are synchronized, persons may be registered from several threads at once.
+public class PersonRegistry {
+    private final IdIndex indexesById;
+    private Person[] persons;
+    private int size;
+
+    PersonRegistry(boolean compact) {
+        this.indexesById = new IdIndex(compact);
+        this.persons = new Person[16];
+        this.size = 0;
+    }
+
+    ///  Number of indexes issued so far, every index is below this bound
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized Person get(int index) {
+        validateIndex(index);
+        return persons[index];
+    }
+
+    ///  Returns -1 if the person is not registered
+    public synchronized int find(Person person) {
+        return person == null ? -1 : indexesById.get(person.getId());
+    }
+
+    public synchronized Person find(String id) {
+        int index = id == null ? -1 : indexesById.get(id);
+        return index < 0 ? null : persons[index];
+    }
+
+    ///  Returns the index of the person, registering it on first use
+    public synchronized int indexOf(Person person) {
+        validatePerson(person);
+        int index = indexesById.get(person.getId());
+        if (index >= 0) {
+            return index;
+        }
+        if (size == persons.length) {
+            persons = Arrays.copyOf(persons, size * 2);
+        }
+        indexesById.putIfAbsent(person.getId(), size);
+        persons[size] = person;
+        return size++;
+    }
+
+    /// Validation methods
+
+    private void validatePerson(Person person) {
+        if (person == null) {
+            throw new IllegalArgumentException("Person cannot be null");
+        }
+    }
+
+    private void validateIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Unknown person index");
+        }
+    }
+}
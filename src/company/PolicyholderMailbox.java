@@ -0,0 +1,126 @@
+package company;
+
+import objects.Person;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+///  Serial queue of commands for one policyholder. While it has pending commands the mailbox
+///  is scheduled on the facade's executor and runs them in batches, in submission order.
+///  An empty mailbox retires itself and the next command for the policyholder creates a new one.
+final class PolicyholderMailbox implements Runnable {
+    private final AsyncInsuranceCompany owner;
+    private final Person policyHolder;
+    private final ArrayDeque<Command<?>> commands;
+    private final Command<?>[] batch;
+    private boolean scheduled;
+    private boolean retired;
+
+    PolicyholderMailbox(AsyncInsuranceCompany owner, Person policyHolder, int maxBatchSize) {
+        this.owner = owner;
+        this.policyHolder = policyHolder;
+        this.commands = new ArrayDeque<>();
+        this.batch = new Command<?>[maxBatchSize];
+    }
+
+    Person getPolicyHolder() {
+        return policyHolder;
+    }
+
+    ///  Returns false if the mailbox already retired, the caller must enqueue into a new one
+    boolean offer(Command<?> command) {
+        boolean schedule;
+        synchronized (this) {
+            if (retired) {
+                return false;
+            }
+            commands.add(command);
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            owner.schedule(this);
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        int size;
+        synchronized (this) {
+            size = 0;
+            while (size < batch.length && !commands.isEmpty()) {
+                batch[size++] = commands.poll();
+            }
+        }
+        owner.runBatch(batch, size);
+        for (int i = 0; i < size; i++) {
+            batch[i].complete();
+            batch[i] = null;
+        }
+        synchronized (this) {
+            if (commands.isEmpty()) {
+                retired = true;
+                owner.retire(this);
+                return;
+            }
+        }
+        ///  Yield the thread to other mailboxes instead of draining this one to the end
+        owner.schedule(this);
+    }
+
+    ///  Called when the executor rejects the mailbox, fails every pending command
+    void abort(RuntimeException cause) {
+        Command<?>[] pending;
+        synchronized (this) {
+            retired = true;
+            owner.retire(this);
+            pending = commands.toArray(new Command<?>[0]);
+            commands.clear();
+        }
+        for (Command<?> command : pending) {
+            command.fail(cause);
+        }
+    }
+
+    ///  A command runs on the mailbox thread; its future is completed only after the batch
+    ///  released the facade's gate, so dependent stages never run while holding it
+    static final class Command<T> {
+        private final Supplier<T> action;
+        private final CompletableFuture<T> future;
+        private T result;
+        private Throwable failure;
+
+        Command(Supplier<T> action) {
+            this.action = action;
+            this.future = new CompletableFuture<>();
+        }
+
+        CompletableFuture<T> getFuture() {
+            return future;
+        }
+
+        ///  Errors fail the command's future like exceptions do, the mailbox keeps draining
+        void execute() {
+            try {
+                result = action.get();
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        void fail(RuntimeException e) {
+            failure = e;
+            complete();
+        }
+
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
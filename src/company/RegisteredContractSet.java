@@ -0,0 +1,24 @@
+package company;
+
+import contracts.AbstractContract;
+
+import java.util.LinkedHashSet;
+
+///  Live contract set of an insurer in the standard representation. Like LiveContractSet it registers
+///  contracts added directly, so the registry knows every contract number in use.
+///  Not thread safe, the insurer wraps it in a synchronized set.
+class RegisteredContractSet extends LinkedHashSet<AbstractContract> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient ContractRegistry registry;
+
+    RegisteredContractSet(ContractRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean add(AbstractContract contract) {
+        registry.handleOf(contract);
+        return super.add(contract);
+    }
+}
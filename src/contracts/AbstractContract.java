@@ -1,19 +1,24 @@
 package contracts;
 
+import company.ContractRegistry;
 import company.InsuranceCompany;
 import objects.Person;
 import payment.ContractPaymentData;
+import util.AlphanumericCode;
 
 import java.util.Objects;
 
 public abstract class AbstractContract {
 
+    ///  In the compact representation numbers that fit an AlphanumericCode are only kept as the code
     private final String contractNumber;
+    private final long contractNumberCode;
     protected final InsuranceCompany insurer;
     protected final Person policyHolder;
     protected final ContractPaymentData contractPaymentData;
     protected int coverageAmount;
     protected boolean isActive;
+    private int handle;
 
     public AbstractContract(String contractNumber, InsuranceCompany insurer, Person policyHolder, ContractPaymentData contractPaymentData, int coverageAmount) {
 
@@ -21,16 +26,18 @@ public abstract class AbstractContract {
         validateCoverageAmount(coverageAmount);
         validateContractNumberUniqueness(contractNumber, insurer);
 
-        this.contractNumber = contractNumber;
+        this.contractNumberCode = insurer.isCompactRepresentation() ? AlphanumericCode.encode(contractNumber) : AlphanumericCode.NONE;
+        this.contractNumber = contractNumberCode == AlphanumericCode.NONE ? contractNumber : null;
         this.insurer = insurer;
         this.policyHolder = policyHolder;
         this.contractPaymentData = contractPaymentData;
         this.coverageAmount = coverageAmount;
         this.isActive = true;
+        this.handle = -1;
     }
 
     public String getContractNumber() {
-        return contractNumber;
+        return contractNumber != null ? contractNumber : AlphanumericCode.decode(contractNumberCode);
     }
 
     public Person getPolicyHolder() {
@@ -49,19 +56,38 @@ public abstract class AbstractContract {
         return isActive;
     }
 
+    ///  In lazy accrual mode the premiums due up to now are charged first, as an eager sweep would have
     public void setInactive() {
+        if (isActive && contractPaymentData != null && contractPaymentData.isLazyAccrual()) {
+            updateBalance();
+        }
         this.isActive = false;
+        insurer.getPortfolioIndex().update(this);
     }
 
     public void setCoverageAmount(int coverageAmount) {
         validateCoverageAmount(coverageAmount);
         this.coverageAmount = coverageAmount;
+        insurer.getPortfolioIndex().update(this);
     }
 
     public ContractPaymentData getContractPaymentData() {
         return contractPaymentData;
     }
 
+    public abstract ContractType getContractType();
+
+    ///  Dense index assigned by the insurer's ContractRegistry, -1 until the contract is registered
+    public int getHandle() {
+        return handle;
+    }
+
+    ///  Only the insurer's ContractRegistry can complete this: the handle is read back from the registry,
+    ///  so it is always the one the contract was registered under, and it is assigned once
+    public void assignHandle(ContractRegistry registry) {
+        this.handle = validateHandle(registry);
+    }
+
     public void pay(int amount) {
         this.getInsurer().getHandler().pay(this, amount);
     }
@@ -94,15 +120,41 @@ public abstract class AbstractContract {
     }
 
 
+    ///  The live contract set registers what is added to it, so the registry knows every number in use
     private boolean isValidContractNumber(String contractNumber, InsuranceCompany insurer) {
-        return insurer.getContracts().stream().noneMatch(contract -> contract.getContractNumber().equals(contractNumber));
+        return !insurer.getRegistry().contains(contractNumber);
     }
 
+    private int validateHandle(ContractRegistry registry) {
+        if (registry == null || registry != insurer.getRegistry()) {
+            throw new IllegalArgumentException("Handles are assigned by the insurer's contract registry");
+        }
+        if (this.handle >= 0) {
+            throw new InvalidContractException("Contract already has a handle");
+        }
+        int handle = registry.handleOf(getContractNumber());
+        if (handle < 0 || registry.get(handle) != this) {
+            throw new IllegalArgumentException("Contract is not registered under its contract number");
+        }
+        return handle;
+    }
+
+    ///  Contract numbers are unique within an insurer, so the insurer and the number
+    ///  (or the handle derived from them) identify a contract
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AbstractContract that = (AbstractContract) o;
-        return coverageAmount == that.coverageAmount && isActive == that.isActive && Objects.equals(contractNumber, that.contractNumber) && Objects.equals(insurer, that.insurer) && Objects.equals(policyHolder, that.policyHolder) && Objects.equals(contractPaymentData, that.contractPaymentData);
+        if (handle >= 0 && that.handle >= 0) {
+            return handle == that.handle && insurer == that.insurer;
+        }
+        return insurer == that.insurer && contractNumberCode == that.contractNumberCode && Objects.equals(contractNumber, that.contractNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return contractNumber != null ? contractNumber.hashCode() : AlphanumericCode.hash(contractNumberCode);
     }
 
 }
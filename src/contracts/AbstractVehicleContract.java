@@ -31,13 +31,4 @@ public abstract class AbstractVehicleContract extends AbstractContract {
             throw new IllegalArgumentException("Beneficiary cannot be the same as policyholder");
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        AbstractVehicleContract that = (AbstractVehicleContract) o;
-        return Objects.equals(beneficiary, that.beneficiary);
-    }
-
 }
@@ -0,0 +1,246 @@
+package contracts;
+
+import company.ContractRegistry;
+import util.AlphanumericCode;
+import util.CompactSet;
+
+import java.util.*;
+
+///  Child contracts of a MasterVehicleContract in insertion order, indexed by contract number
+///  and by the license plate of the insured vehicle.
+///  In the compact representation contract numbers are looked up in the insurer's registry and
+///  plates are indexed by their plate code in a PlateIndex, without boxing or plate strings.
+class ChildContractSet extends AbstractSet<SingleVehicleContract> {
+    private final Set<SingleVehicleContract> contracts;
+    ///  Only set in the compact representation
+    private final ContractRegistry registry;
+    private final HashMap<String, SingleVehicleContract> byContractNumber;
+    private final HashMap<String, SingleVehicleContract> byLicensePlate;
+    ///  Only set in the compact representation
+    private final PlateIndex byLicensePlateCode;
+    ///  Children whose license plate is indexed to another child
+    private int shadowedLicensePlates;
+
+    ChildContractSet() {
+        this.contracts = new LinkedHashSet<>();
+        this.registry = null;
+        this.byContractNumber = new HashMap<>();
+        this.byLicensePlate = new HashMap<>();
+        this.byLicensePlateCode = null;
+        this.shadowedLicensePlates = 0;
+    }
+
+    ChildContractSet(ContractRegistry registry) {
+        this.contracts = new CompactSet<>();
+        this.registry = registry;
+        this.byContractNumber = null;
+        this.byLicensePlate = null;
+        this.byLicensePlateCode = new PlateIndex();
+        this.shadowedLicensePlates = 0;
+    }
+
+    SingleVehicleContract findByContractNumber(String contractNumber) {
+        if (registry == null) {
+            return byContractNumber.get(contractNumber);
+        }
+        AbstractContract contract = registry.find(contractNumber);
+        return contract instanceof SingleVehicleContract child && contracts.contains(child) ? child : null;
+    }
+
+    ///  If several children insure the same plate, the earliest added one is returned
+    SingleVehicleContract findByLicensePlate(String licensePlate) {
+        if (registry == null) {
+            return byLicensePlate.get(licensePlate);
+        }
+        long code = AlphanumericCode.encode(licensePlate);
+        return code == AlphanumericCode.NONE ? null : byLicensePlateCode.get(code);
+    }
+
+    @Override
+    public boolean add(SingleVehicleContract contract) {
+        validateContract(contract);
+        if (!contracts.add(contract)) {
+            return false;
+        }
+        if (registry == null) {
+            byContractNumber.putIfAbsent(contract.getContractNumber(), contract);
+        }
+        if (indexedChild(contract) == null) {
+            indexLicensePlate(contract, contract);
+        } else {
+            shadowedLicensePlates++;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contracts.remove(o)) {
+            return false;
+        }
+        unindex((SingleVehicleContract) o);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return contracts.contains(o);
+    }
+
+    @Override
+    public Iterator<SingleVehicleContract> iterator() {
+        Iterator<SingleVehicleContract> iterator = contracts.iterator();
+        return new Iterator<>() {
+            private SingleVehicleContract last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public SingleVehicleContract next() {
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                unindex(last);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return contracts.size();
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void unindex(SingleVehicleContract contract) {
+        if (registry == null) {
+            byContractNumber.remove(contract.getContractNumber(), contract);
+        }
+        if (indexedChild(contract) != contract) {
+            shadowedLicensePlates--;
+            return;
+        }
+        indexLicensePlate(contract, null);
+        if (shadowedLicensePlates > 0) {
+            ///  Another child may insure the same plate, which needs a scan but is rare
+            long code = contract.getInsuredVehicle().getLicensePlateCode();
+            for (SingleVehicleContract child : contracts) {
+                if (child.getInsuredVehicle().getLicensePlateCode() == code) {
+                    indexLicensePlate(contract, child);
+                    shadowedLicensePlates--;
+                    return;
+                }
+            }
+        }
+    }
+
+    ///  Child indexed under the plate of the contract
+    private SingleVehicleContract indexedChild(SingleVehicleContract contract) {
+        if (registry == null) {
+            return byLicensePlate.get(contract.getInsuredVehicle().getLicensePlate());
+        }
+        return byLicensePlateCode.get(contract.getInsuredVehicle().getLicensePlateCode());
+    }
+
+    ///  Indexes the child under the plate of the contract, a null child removes the plate
+    private void indexLicensePlate(SingleVehicleContract contract, SingleVehicleContract child) {
+        if (registry == null) {
+            if (child == null) {
+                byLicensePlate.remove(contract.getInsuredVehicle().getLicensePlate());
+            } else {
+                byLicensePlate.put(contract.getInsuredVehicle().getLicensePlate(), child);
+            }
+        } else if (child == null) {
+            byLicensePlateCode.remove(contract.getInsuredVehicle().getLicensePlateCode());
+        } else {
+            byLicensePlateCode.put(contract.getInsuredVehicle().getLicensePlateCode(), child);
+        }
+    }
+
+    ///  Open addressing map from plate codes to children with linear probing
+    private static final class PlateIndex {
+        private long[] codes = new long[16];
+        private SingleVehicleContract[] children = new SingleVehicleContract[16];
+        private int size = 0;
+
+        SingleVehicleContract get(long code) {
+            int mask = codes.length - 1;
+            for (int slot = AlphanumericCode.hash(code) & mask; children[slot] != null; slot = (slot + 1) & mask) {
+                if (codes[slot] == code) {
+                    return children[slot];
+                }
+            }
+            return null;
+        }
+
+        void put(long code, SingleVehicleContract child) {
+            if ((size + 1) * 2 > codes.length) {
+                resize();
+            }
+            int mask = codes.length - 1;
+            int slot = AlphanumericCode.hash(code) & mask;
+            while (children[slot] != null && codes[slot] != code) {
+                slot = (slot + 1) & mask;
+            }
+            if (children[slot] == null) {
+                size++;
+            }
+            codes[slot] = code;
+            children[slot] = child;
+        }
+
+        void remove(long code) {
+            int mask = codes.length - 1;
+            int slot = AlphanumericCode.hash(code) & mask;
+            while (children[slot] != null && codes[slot] != code) {
+                slot = (slot + 1) & mask;
+            }
+            if (children[slot] == null) {
+                return;
+            }
+            size--;
+            ///  Shifts later entries of the probe run back so lookups never stop at the freed slot
+            for (int next = (slot + 1) & mask; children[next] != null; next = (next + 1) & mask) {
+                int home = AlphanumericCode.hash(codes[next]) & mask;
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    codes[slot] = codes[next];
+                    children[slot] = children[next];
+                    slot = next;
+                }
+            }
+            children[slot] = null;
+        }
+
+        private void resize() {
+            long[] oldCodes = codes;
+            SingleVehicleContract[] oldChildren = children;
+            codes = new long[oldCodes.length * 2];
+            children = new SingleVehicleContract[oldCodes.length * 2];
+            int mask = codes.length - 1;
+            for (int i = 0; i < oldCodes.length; i++) {
+                if (oldChildren[i] != null) {
+                    int slot = AlphanumericCode.hash(oldCodes[i]) & mask;
+                    while (children[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    codes[slot] = oldCodes[i];
+                    children[slot] = oldChildren[i];
+                }
+            }
+        }
+    }
+
+    /// Validation methods
+    private void validateContract(SingleVehicleContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Child contract cannot be null");
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package contracts;
+
+public enum ContractType {
+    SINGLE_VEHICLE, MASTER_VEHICLE, TRAVEL
+}
@@ -0,0 +1,129 @@
+package contracts;
+
+import company.PersonRegistry;
+import objects.Person;
+import util.CompressedBitmap;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+///  Set of persons stored as a compressed bitmap over the insurer's person registry indexes.
+///  Subset checks between sets of the same registry are word-wise bitmap operations.
+public class InsuredPersonSet extends AbstractSet<Person> {
+    private static final int NO_MEMBER = -1;
+
+    private final PersonRegistry registry;
+    private final CompressedBitmap members;
+    private int size;
+
+    public InsuredPersonSet(PersonRegistry registry, Collection<Person> persons) {
+        validateRegistry(registry);
+        validatePersons(persons);
+        this.registry = registry;
+        this.members = new CompressedBitmap();
+        this.size = 0;
+        for (Person person : persons) {
+            add(person);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Person person)) {
+            return false;
+        }
+        return members.contains(registry.find(person));
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c instanceof InsuredPersonSet other && other.registry == registry) {
+            return members.containsAll(other.members);
+        }
+        return super.containsAll(c);
+    }
+
+    @Override
+    public boolean add(Person person) {
+        validatePerson(person);
+        if (members.add(registry.indexOf(person))) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Person person)) {
+            return false;
+        }
+        if (members.remove(registry.find(person))) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    ///  Iterates in registry order. The iterator seeks the next member from the last one it returned
+    ///  instead of walking the bitmap's containers, so removing that member does not invalidate it.
+    @Override
+    public Iterator<Person> iterator() {
+        return new Iterator<>() {
+            private int next = members.isEmpty() ? NO_MEMBER : members.nextSetBit(0);
+            private int last = NO_MEMBER;
+
+            @Override
+            public boolean hasNext() {
+                return next != NO_MEMBER;
+            }
+
+            @Override
+            public Person next() {
+                if (next == NO_MEMBER) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = last == Integer.MAX_VALUE ? NO_MEMBER : members.nextSetBit(last + 1);
+                return registry.get(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last == NO_MEMBER) {
+                    throw new IllegalStateException("No person to remove");
+                }
+                members.remove(last);
+                size--;
+                last = NO_MEMBER;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /// Validation methods
+
+    private void validateRegistry(PersonRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Person registry cannot be null");
+        }
+    }
+
+    private void validatePersons(Collection<Person> persons) {
+        if (persons == null) {
+            throw new IllegalArgumentException("Persons cannot be null");
+        }
+    }
+
+    private void validatePerson(Person person) {
+        if (person == null) {
+            throw new IllegalArgumentException("Person cannot be null");
+        }
+    }
+}
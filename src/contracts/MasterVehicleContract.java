@@ -4,8 +4,7 @@ import company.InsuranceCompany;
 import objects.LegalForm;
 import objects.Person;
 
-import java.util.LinkedHashSet;
-import java.util.Objects;
+import java.util.Collection;
 import java.util.Set;
 
 public class MasterVehicleContract extends AbstractVehicleContract {
@@ -18,7 +17,7 @@ public class MasterVehicleContract extends AbstractVehicleContract {
 
         validatePolicyHolder(policyHolder);
 
-        this.childContracts = new LinkedHashSet<>();
+        this.childContracts = insurer.isCompactRepresentation() ? new ChildContractSet(insurer.getRegistry()) : new ChildContractSet();
 
     }
 
@@ -30,6 +29,23 @@ public class MasterVehicleContract extends AbstractVehicleContract {
         this.getInsurer().moveSingleVehicleContractToMasterVehicleContract(this, contract);
     }
 
+    public void requestAdditionOfChildContracts(Collection<SingleVehicleContract> contracts) {
+        this.getInsurer().moveSingleVehicleContractsToMasterVehicleContract(this, contracts);
+    }
+
+    public SingleVehicleContract findChildContract(String contractNumber) {
+        return ((ChildContractSet) childContracts).findByContractNumber(contractNumber);
+    }
+
+    public SingleVehicleContract findChildContractByLicensePlate(String licensePlate) {
+        return ((ChildContractSet) childContracts).findByLicensePlate(licensePlate);
+    }
+
+    @Override
+    public ContractType getContractType() {
+        return ContractType.MASTER_VEHICLE;
+    }
+
 
     ///  Overriding for master contract, because MasterVehicleContract needs
     ///  to call different methods and has different logic for some methods
@@ -65,13 +81,4 @@ public class MasterVehicleContract extends AbstractVehicleContract {
             throw new IllegalArgumentException("Policyholder of MasterVehicleContract can be only a legal entity");
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        MasterVehicleContract that = (MasterVehicleContract) o;
-        return Objects.equals(childContracts, that.childContracts);
-    }
-
 }
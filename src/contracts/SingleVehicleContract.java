@@ -5,7 +5,6 @@ import objects.Person;
 import objects.Vehicle;
 import payment.ContractPaymentData;
 
-import java.util.Objects;
 
 public class SingleVehicleContract extends AbstractVehicleContract {
     private final Vehicle insuredVehicle;
@@ -24,6 +23,11 @@ public class SingleVehicleContract extends AbstractVehicleContract {
         return insuredVehicle;
     }
 
+    @Override
+    public ContractType getContractType() {
+        return ContractType.SINGLE_VEHICLE;
+    }
+
     ///  Validation methods
 
     private void validateContractPaymentData(ContractPaymentData contractPaymentData) {
@@ -38,11 +42,4 @@ public class SingleVehicleContract extends AbstractVehicleContract {
         }
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        SingleVehicleContract that = (SingleVehicleContract) o;
-        return Objects.equals(insuredVehicle, that.insuredVehicle);
-    }
 }
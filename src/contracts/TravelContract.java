@@ -4,11 +4,13 @@ import company.InsuranceCompany;
 import objects.LegalForm;
 import objects.Person;
 import payment.ContractPaymentData;
+import util.CompactSet;
 
-import java.util.Objects;
 import java.util.Set;
 
 public class TravelContract extends AbstractContract {
+    ///  Groups of at least this size are stored as an InsuredPersonSet bitmap
+    private static final int BITMAP_MEMBERSHIP_THRESHOLD = 64;
 
     private final Set<Person> insuredPersons;
 
@@ -19,13 +21,24 @@ public class TravelContract extends AbstractContract {
         validateInsuredPersons(personsToInsure);
         validateContractPaymentData(contractPaymentData);
 
-        this.insuredPersons = personsToInsure;
+        if (personsToInsure.size() >= BITMAP_MEMBERSHIP_THRESHOLD && !(personsToInsure instanceof InsuredPersonSet)) {
+            this.insuredPersons = new InsuredPersonSet(insurer.getPersonRegistry(), personsToInsure);
+        } else if (insurer.isCompactRepresentation() && !(personsToInsure instanceof CompactSet)) {
+            this.insuredPersons = new CompactSet<>(personsToInsure);
+        } else {
+            this.insuredPersons = personsToInsure;
+        }
     }
 
     public Set<Person> getInsuredPersons() {
         return insuredPersons;
     }
 
+    @Override
+    public ContractType getContractType() {
+        return ContractType.TRAVEL;
+    }
+
     ///  Validation methods
 
     private void validateInsuredPersons(Set<Person> personsToInsure) {
@@ -45,13 +58,4 @@ public class TravelContract extends AbstractContract {
             throw new IllegalArgumentException("Contract payment data cannot be null");
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
-        TravelContract that = (TravelContract) o;
-        return Objects.equals(insuredPersons, that.insuredPersons);
-    }
-
 }
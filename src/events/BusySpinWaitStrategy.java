@@ -0,0 +1,19 @@
+package events;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long waitFor(long sequence, AtomicLong cursor, EventProcessor processor) {
+        long available;
+        while ((available = cursor.get()) < sequence && !processor.isHalted()) {
+            Thread.onSpinWait();
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+}
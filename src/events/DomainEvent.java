@@ -0,0 +1,69 @@
+package events;
+
+import contracts.AbstractContract;
+import objects.Person;
+import payment.EpochTime;
+
+import java.time.LocalDateTime;
+
+///  A pre-allocated slot of the EventRingBuffer. Slots are overwritten by the publisher,
+///  so consumers must copy whatever they need before returning from onEvent.
+public class DomainEvent {
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private DomainEventType type;
+    private AbstractContract contract;
+    private AbstractContract relatedContract;
+    private Person person;
+    private int amount;
+    ///  UTC epoch second and nano-of-second, NO_TIME when published without a time
+    private long epochSecond;
+    private int nano;
+
+    DomainEvent() {
+    }
+
+    public DomainEventType getType() {
+        return type;
+    }
+
+    public AbstractContract getContract() {
+        return contract;
+    }
+
+    ///  Master contract for CONTRACT_MOVED_TO_MASTER, null otherwise
+    public AbstractContract getRelatedContract() {
+        return relatedContract;
+    }
+
+    ///  Payout recipient for CLAIM_PAID, policyholder for the other events
+    public Person getPerson() {
+        return person;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getTime() {
+        return epochSecond == NO_TIME ? null : EpochTime.toLocalDateTime(epochSecond, nano);
+    }
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public int getNano() {
+        return nano;
+    }
+
+    void set(DomainEventType type, AbstractContract contract, AbstractContract relatedContract, Person person, int amount, long epochSecond, int nano) {
+        this.type = type;
+        this.contract = contract;
+        this.relatedContract = relatedContract;
+        this.person = person;
+        this.amount = amount;
+        this.epochSecond = epochSecond;
+        this.nano = nano;
+    }
+}
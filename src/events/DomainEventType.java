@@ -0,0 +1,5 @@
+package events;
+
+public enum DomainEventType {
+    CONTRACT_ISSUED, PREMIUM_CHARGED, PAYMENT_APPLIED, CLAIM_PAID, CONTRACT_DEACTIVATED, CONTRACT_MOVED_TO_MASTER
+}
@@ -0,0 +1,6 @@
+package events;
+
+@FunctionalInterface
+public interface EventConsumer {
+    void onEvent(DomainEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,97 @@
+package events;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+///  Consumes events of one subscription in batches, either on a dedicated thread through run()
+///  or synchronously through drain().
+public class EventProcessor implements Runnable {
+    private final EventRingBuffer ringBuffer;
+    private final EventConsumer consumer;
+    private final AtomicLong sequence;
+    private volatile boolean halted;
+    private volatile boolean dropped;
+
+    EventProcessor(EventRingBuffer ringBuffer, EventConsumer consumer, long initialSequence) {
+        this.ringBuffer = ringBuffer;
+        this.consumer = consumer;
+        this.sequence = new AtomicLong(initialSequence);
+        this.halted = false;
+        this.dropped = false;
+    }
+
+    ///  Last sequence handed to the consumer
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    public boolean isHalted() {
+        return halted;
+    }
+
+    ///  True once the publisher dropped the processor for falling a full buffer behind, see OverflowPolicy
+    public boolean isDropped() {
+        return dropped;
+    }
+
+    ///  Stops the processor and releases its hold on the publisher
+    public void halt() {
+        halted = true;
+        ringBuffer.getWaitStrategy().signalAllWhenBlocking();
+        ringBuffer.removeProcessor(this);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!halted) {
+                long next = sequence.get() + 1;
+                long available = ringBuffer.getWaitStrategy().waitFor(next, ringBuffer.cursor(), this);
+                if (available >= next && !halted) {
+                    process(next, available);
+                }
+            }
+        } catch (RuntimeException e) {
+            halt();
+            throw e;
+        }
+    }
+
+    ///  Hands every event published so far to the consumer as one batch and returns its size
+    public int drain() {
+        validateNotHalted();
+        long next = sequence.get() + 1;
+        long available = ringBuffer.getCursor();
+        if (available < next) {
+            return 0;
+        }
+        process(next, available);
+        return (int) (available - next + 1);
+    }
+
+    AtomicLong sequence() {
+        return sequence;
+    }
+
+    void drop() {
+        dropped = true;
+        halt();
+    }
+
+    ///  A processor dropped in the middle of a batch stops at the next event, the rest may be overwritten
+    private void process(long from, long to) {
+        for (long current = from; current <= to && !halted; current++) {
+            consumer.onEvent(ringBuffer.get(current), current, current == to);
+        }
+        sequence.set(to);
+    }
+
+    /// Validation methods
+    private void validateNotHalted() {
+        if (dropped) {
+            throw new IllegalStateException("Event processor fell a full buffer behind and was dropped");
+        }
+        if (halted) {
+            throw new IllegalStateException("Event processor has been halted");
+        }
+    }
+}
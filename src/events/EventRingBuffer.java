@@ -0,0 +1,206 @@
+package events;
+
+import contracts.AbstractContract;
+import objects.Person;
+import payment.EpochTime;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+///  Ring buffer of pre-allocated DomainEvent slots with one writer at a time.
+///  Publishing is multi-writer by design: AsyncInsuranceCompany mutates the book from the mailboxes
+///  of several policyholders in parallel, and each of them publishes. Writers take publishLock, so
+///  claiming a sequence and filling its slot stay single-writer inside it. The lock replaces the
+///  lock-free claim a single publishing thread could use, at the cost of one lock per event.
+///  Every subscribed EventProcessor consumes all events independently and the writer
+///  never overtakes the slowest of them. A processor that is subscribed but never run or
+///  drained holds the publisher back for at most maxPublishWait, then the OverflowPolicy
+///  decides: the publish fails or the lagging processors are dropped. A caller that drains
+///  its own processor synchronously and falls a full buffer behind is dropped the same way.
+public class EventRingBuffer {
+    public static final Duration DEFAULT_MAX_PUBLISH_WAIT = Duration.ofSeconds(1);
+
+    private final DomainEvent[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final long maxPublishWaitNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong cursor;
+    private volatile EventProcessor[] processors;
+
+    ///  Writer-only state, guarded by publishLock, which serializes the publishing threads.
+    ///  It is not the buffer's monitor, so processors can still halt while a publisher waits for them.
+    private final Object publishLock = new Object();
+    private long nextSequence;
+    private long cachedGatingSequence;
+
+    public EventRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        this(capacity, waitStrategy, DEFAULT_MAX_PUBLISH_WAIT, OverflowPolicy.DROP_LAGGING);
+    }
+
+    public EventRingBuffer(int capacity, WaitStrategy waitStrategy, Duration maxPublishWait, OverflowPolicy overflowPolicy) {
+        validateCapacity(capacity);
+        validateWaitStrategy(waitStrategy);
+        validateOverflow(maxPublishWait, overflowPolicy);
+        this.slots = new DomainEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new DomainEvent();
+        }
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        this.maxPublishWaitNanos = maxPublishWait.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.cursor = new AtomicLong(-1);
+        this.processors = new EventProcessor[0];
+        this.nextSequence = 0;
+        this.cachedGatingSequence = -1;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    ///  Highest published sequence, -1 before the first event
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    ///  Throws IllegalStateException under OverflowPolicy.FAIL if a processor holds the slot longer than maxPublishWait
+    public void publish(DomainEventType type, AbstractContract contract, AbstractContract relatedContract, Person person, int amount, LocalDateTime time) {
+        if (time == null) {
+            publish(type, contract, relatedContract, person, amount, DomainEvent.NO_TIME, 0);
+        } else {
+            publish(type, contract, relatedContract, person, amount, EpochTime.toEpochSecond(time), time.getNano());
+        }
+    }
+
+    ///  Allocation-free variant taking the time as UTC epoch second and nano-of-second
+    public void publish(DomainEventType type, AbstractContract contract, AbstractContract relatedContract, Person person, int amount, long epochSecond, int nano) {
+        synchronized (publishLock) {
+            long sequence = claim();
+            slots[(int) (sequence & mask)].set(type, contract, relatedContract, person, amount, epochSecond, nano);
+            cursor.set(sequence);
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    ///  Creates a processor that receives every event published after this call.
+    ///  It can be run on its own thread or drained synchronously by the caller.
+    public EventProcessor subscribe(EventConsumer consumer) {
+        validateConsumer(consumer);
+        EventProcessor processor = new EventProcessor(this, consumer, cursor.get());
+        addProcessor(processor);
+        ///  Events published while registering may already be overwritten, skip them
+        processor.sequence().set(cursor.get());
+        return processor;
+    }
+
+    DomainEvent get(long sequence) {
+        return slots[(int) (sequence & mask)];
+    }
+
+    AtomicLong cursor() {
+        return cursor;
+    }
+
+    synchronized void removeProcessor(EventProcessor processor) {
+        EventProcessor[] current = processors;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == processor) {
+                EventProcessor[] updated = new EventProcessor[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                processors = updated;
+                return;
+            }
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    ///  The sequence is only taken once its slot is free, so a failed claim leaves no gap
+    private long claim() {
+        long sequence = nextSequence;
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long deadline = System.nanoTime() + maxPublishWaitNanos;
+            long minimum;
+            while (wrapPoint > (minimum = minimumGatingSequence(sequence - 1))) {
+                if (System.nanoTime() - deadline >= 0) {
+                    overflow(wrapPoint);
+                } else {
+                    LockSupport.parkNanos(1L);
+                }
+            }
+            cachedGatingSequence = minimum;
+        }
+        nextSequence++;
+        return sequence;
+    }
+
+    private void overflow(long wrapPoint) {
+        if (overflowPolicy == OverflowPolicy.FAIL) {
+            throw new IllegalStateException("An event processor has not consumed a full buffer of events within "
+                    + Duration.ofNanos(maxPublishWaitNanos));
+        }
+        for (EventProcessor processor : processors) {
+            if (processor.sequence().get() < wrapPoint) {
+                processor.drop();
+            }
+        }
+    }
+
+    private long minimumGatingSequence(long minimum) {
+        for (EventProcessor processor : processors) {
+            minimum = Math.min(minimum, processor.sequence().get());
+        }
+        return minimum;
+    }
+
+    private synchronized void addProcessor(EventProcessor processor) {
+        EventProcessor[] current = processors;
+        EventProcessor[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = processor;
+        processors = updated;
+    }
+
+    /// Validation methods
+
+    private void validateCapacity(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a positive power of two");
+        }
+    }
+
+    private void validateWaitStrategy(WaitStrategy waitStrategy) {
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("Wait strategy cannot be null");
+        }
+    }
+
+    private void validateOverflow(Duration maxPublishWait, OverflowPolicy overflowPolicy) {
+        if (maxPublishWait == null || maxPublishWait.isNegative()) {
+            throw new IllegalArgumentException("Maximum publish wait cannot be null or negative");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Overflow policy cannot be null");
+        }
+    }
+
+    private void validateConsumer(EventConsumer consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Event consumer cannot be null");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package events;
+
+///  What a publisher does when a subscribed processor still holds the slot it needs after the
+///  ring buffer's maximum publish wait
+public enum OverflowPolicy {
+    ///  The publish fails with an IllegalStateException and the event is not published
+    FAIL,
+    ///  Processors a full buffer behind are dropped: they are halted, report isDropped and stop
+    ///  holding the publisher back. The other processors receive every event.
+    DROP_LAGGING
+}
@@ -0,0 +1,49 @@
+package events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class SleepingWaitStrategy implements WaitStrategy {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+
+    private final long sleepNanos;
+
+    public SleepingWaitStrategy() {
+        this(100_000L);
+    }
+
+    public SleepingWaitStrategy(long sleepNanos) {
+        validateSleepNanos(sleepNanos);
+        this.sleepNanos = sleepNanos;
+    }
+
+    @Override
+    public long waitFor(long sequence, AtomicLong cursor, EventProcessor processor) {
+        long available;
+        int counter = SPIN_TRIES + YIELD_TRIES;
+        while ((available = cursor.get()) < sequence && !processor.isHalted()) {
+            if (counter > YIELD_TRIES) {
+                counter--;
+                Thread.onSpinWait();
+            } else if (counter > 0) {
+                counter--;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(sleepNanos);
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+
+    /// Validation methods
+    private void validateSleepNanos(long sleepNanos) {
+        if (sleepNanos <= 0) {
+            throw new IllegalArgumentException("Sleep time must be positive");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package events;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public interface WaitStrategy {
+
+    ///  Waits until the cursor reaches the given sequence or the processor is halted
+    ///  and returns the highest published sequence seen.
+    long waitFor(long sequence, AtomicLong cursor, EventProcessor processor);
+
+    void signalAllWhenBlocking();
+}
@@ -0,0 +1,92 @@
+package generator;
+
+import company.InsuranceCompany;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+
+///  Measures the retained heap of a generated portfolio per issued contract, in the standard and in the
+///  compact representation. Heap is read after repeated full collections, so run it with a heap that
+///  comfortably holds the portfolio and nothing else going on in the JVM:
+///  java generator.FootprintHarness [policyholders] [seed]
+public final class FootprintHarness {
+    private static final int COLLECTIONS = 4;
+
+    private FootprintHarness() {
+    }
+
+    public static void main(String[] args) {
+        int policyHolders = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Result standard = measure(new PortfolioProfile(), seed, policyHolders, false);
+        Result compact = measure(new PortfolioProfile(), seed, policyHolders, true);
+        System.out.println("standard " + standard);
+        System.out.println("compact  " + compact);
+        System.out.printf("reduction %.2fx%n", standard.getBytesPerContract() / compact.getBytesPerContract());
+    }
+
+    public static Result measure(PortfolioProfile profile, long seed, int policyHolders, boolean compactRepresentation) {
+        validateProfile(profile);
+        validatePolicyHolders(policyHolders);
+        long before = usedHeap();
+        InsuranceCompany insurer = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0), compactRepresentation);
+        new PortfolioGenerator(seed, profile).generate(insurer, policyHolders);
+        long after = usedHeap();
+        int contracts = insurer.getRegistry().size();
+        Reference.reachabilityFence(insurer);
+        return new Result(contracts, Math.max(0, after - before));
+    }
+
+    public static final class Result {
+        private final int contracts;
+        private final long bytes;
+
+        private Result(int contracts, long bytes) {
+            this.contracts = contracts;
+            this.bytes = bytes;
+        }
+
+        ///  Issued contracts, children of master contracts included
+        public int getContracts() {
+            return contracts;
+        }
+
+        ///  Heap retained by the insurer with everything it references
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getBytesPerContract() {
+            return contracts == 0 ? 0 : (double) bytes / contracts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("contracts=%d heap=%.1fMB bytes/contract=%.1f", contracts, bytes / 1e6, getBytesPerContract());
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < COLLECTIONS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /// Validation methods
+
+    private static void validateProfile(PortfolioProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Profile cannot be null");
+        }
+    }
+
+    private static void validatePolicyHolders(int policyHolders) {
+        if (policyHolders <= 0) {
+            throw new IllegalArgumentException("Number of policyholders must be positive");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package generator;
+
+import util.CompressedBitmap;
+
+import java.time.Month;
+import java.time.Year;
+import java.util.SplittableRandom;
+
+///  Produces unique, valid person ids and license plates from a seeded random source.
+///  Birth numbers and registration numbers are drawn at random and deduplicated with bitmaps,
+///  license plates are a bijective scramble of a counter and never repeat.
+public class IdentityGenerator {
+    private static final long PLATE_SPACE = 78_364_164_096L;
+    ///  Coprime to 36, so multiplying by it permutes the plate space
+    private static final long PLATE_MULTIPLIER = 1_000_003L;
+    private static final char[] PLATE_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private final SplittableRandom random;
+    private final CompressedBitmap issuedBirthNumbers;
+    private final CompressedBitmap issuedOldBirthNumbers;
+    private final CompressedBitmap issuedRegistrationNumbers;
+    private final long plateOffset;
+    private long plates;
+
+    public IdentityGenerator(SplittableRandom random) {
+        validateRandom(random);
+        this.random = random;
+        this.issuedBirthNumbers = new CompressedBitmap();
+        this.issuedOldBirthNumbers = new CompressedBitmap();
+        this.issuedRegistrationNumbers = new CompressedBitmap();
+        this.plateOffset = random.nextLong(PLATE_SPACE);
+        this.plates = 0;
+    }
+
+    ///  Ten digit birth number; the first nine digits are unique, the last one makes the
+    ///  alternating digit sum divisible by 11 as Person.isValidBirthNumber requires
+    public String nextBirthNumber() {
+        char[] digits = new char[10];
+        while (true) {
+            int year = random.nextInt(100);
+            int month = 1 + random.nextInt(12);
+            ///  Person.isValidBirthNumber checks ten digit dates against the two digit year itself
+            int day = 1 + random.nextInt(Month.of(month).length(Year.isLeap(year)));
+            int serial = random.nextInt(1000);
+            int prefix = ((year * 100 + month + (random.nextBoolean() ? 50 : 0)) * 100 + day) * 1000 + serial;
+            int sum = alternatingSum(prefix, digits, 9);
+            int checkDigit = Math.floorMod(sum, 11);
+            if (checkDigit == 10 || !issuedBirthNumbers.add(prefix)) {
+                continue;
+            }
+            digits[9] = (char) ('0' + checkDigit);
+            return new String(digits);
+        }
+    }
+
+    ///  Nine digit birth number, issued for persons born before 1954
+    public String nextOldBirthNumber() {
+        char[] digits = new char[9];
+        while (true) {
+            int year = random.nextInt(54);
+            int month = 1 + random.nextInt(12);
+            int day = 1 + random.nextInt(Month.of(month).length(Year.isLeap(1900 + year)));
+            int number = ((year * 100 + month + (random.nextBoolean() ? 50 : 0)) * 100 + day) * 1000 + random.nextInt(1000);
+            if (issuedOldBirthNumbers.add(number)) {
+                alternatingSum(number, digits, 9);
+                return new String(digits);
+            }
+        }
+    }
+
+    ///  Eight digit registration number of a legal entity
+    public String nextRegistrationNumber() {
+        char[] digits = new char[8];
+        while (true) {
+            int number = random.nextInt(100_000_000);
+            if (issuedRegistrationNumbers.add(number)) {
+                alternatingSum(number, digits, 8);
+                return new String(digits);
+            }
+        }
+    }
+
+    public String nextLicensePlate() {
+        if (plates == PLATE_SPACE) {
+            throw new IllegalStateException("All license plates were issued");
+        }
+        long value = (plates++ * PLATE_MULTIPLIER + plateOffset) % PLATE_SPACE;
+        char[] plate = new char[7];
+        for (int i = plate.length - 1; i >= 0; i--) {
+            plate[i] = PLATE_ALPHABET[(int) (value % 36)];
+            value /= 36;
+        }
+        return new String(plate);
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    ///  Writes the zero padded decimal digits of the value and returns their alternating sum
+    private static int alternatingSum(int value, char[] digits, int length) {
+        int sum = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = value % 10;
+            value /= 10;
+            digits[i] = (char) ('0' + digit);
+            sum += (i & 1) == 0 ? digit : -digit;
+        }
+        return sum;
+    }
+
+    /// Validation methods
+
+    private void validateRandom(SplittableRandom random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Random source cannot be null");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package generator;
+
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+///  Entities produced by one PortfolioGenerator.generate call
+public class Portfolio {
+    private final Person[] policyHolders;
+    private final AbstractContract[] contracts;
+    private final SingleVehicleContract[] vehicleContracts;
+    private final TravelContract[] travelContracts;
+    private final long persons;
+    private final long vehicles;
+    private final long masterContracts;
+
+    Portfolio(Person[] policyHolders, AbstractContract[] contracts, SingleVehicleContract[] vehicleContracts, TravelContract[] travelContracts, long persons, long vehicles, long masterContracts) {
+        this.policyHolders = policyHolders;
+        this.contracts = contracts;
+        this.vehicleContracts = vehicleContracts;
+        this.travelContracts = travelContracts;
+        this.persons = persons;
+        this.vehicles = vehicles;
+        this.masterContracts = masterContracts;
+    }
+
+    public List<Person> getPolicyHolders() {
+        return Collections.unmodifiableList(Arrays.asList(policyHolders));
+    }
+
+    ///  Contracts held directly by policyholders, fleet vehicles are reached through their master
+    public List<AbstractContract> getContracts() {
+        return Collections.unmodifiableList(Arrays.asList(contracts));
+    }
+
+    ///  Every single vehicle contract, including the children of master contracts
+    public List<SingleVehicleContract> getVehicleContracts() {
+        return Collections.unmodifiableList(Arrays.asList(vehicleContracts));
+    }
+
+    public List<TravelContract> getTravelContracts() {
+        return Collections.unmodifiableList(Arrays.asList(travelContracts));
+    }
+
+    ///  Policyholders, beneficiaries and insured persons
+    public long getPersonCount() {
+        return persons;
+    }
+
+    public long getVehicleCount() {
+        return vehicles;
+    }
+
+    public long getMasterContractCount() {
+        return masterContracts;
+    }
+
+    ///  Persons, vehicles and contracts including fleet children
+    public long getEntityCount() {
+        return persons + vehicles + vehicleContracts.length + travelContracts.length + masterContracts;
+    }
+}
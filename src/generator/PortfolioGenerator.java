@@ -0,0 +1,182 @@
+package generator;
+
+import company.InsuranceCompany;
+import contracts.*;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+import rating.PremiumRating;
+
+import java.util.*;
+
+///  Seeded generator of synthetic portfolios. The same seed, profile and sequence of calls
+///  always produce the same persons, vehicles, premiums and contract numbers, and every
+///  entity passes the validation of the domain classes, since it is issued through the insurer.
+public class PortfolioGenerator {
+    private static final ContractType[] TYPES = ContractType.values();
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+    private static final int MIN_VEHICLE_VALUE = 2_000;
+    private static final int VEHICLE_VALUE_RANGE = 118_000;
+
+    private final SplittableRandom random;
+    private final IdentityGenerator ids;
+    private final PortfolioProfile profile;
+    private long contracts;
+
+    public PortfolioGenerator(long seed, PortfolioProfile profile) {
+        validateProfile(profile);
+        this.random = new SplittableRandom(seed);
+        this.ids = new IdentityGenerator(random.split());
+        this.profile = profile;
+        this.contracts = 0;
+    }
+
+    public IdentityGenerator getIds() {
+        return ids;
+    }
+
+    ///  Issues contracts for the given number of new policyholders through the insurer
+    public Portfolio generate(InsuranceCompany insurer, int policyHolderCount) {
+        validateInsurer(insurer);
+        validatePolicyHolderCount(policyHolderCount);
+        Person[] policyHolders = new Person[policyHolderCount];
+        List<AbstractContract> issued = new ArrayList<>(policyHolderCount * 2);
+        List<SingleVehicleContract> vehicleContracts = new ArrayList<>(policyHolderCount * 2);
+        List<TravelContract> travelContracts = new ArrayList<>();
+        long persons = policyHolderCount;
+        long vehicles = 0;
+        long masterContracts = 0;
+
+        int[] naturalTypeWeights = profile.getContractTypeWeights();
+        naturalTypeWeights[ContractType.MASTER_VEHICLE.ordinal()] = 0;
+        int[] legalTypeWeights = profile.getContractTypeWeights();
+        int[] frequencyWeights = profile.getFrequencyWeights();
+
+        for (int p = 0; p < policyHolderCount; p++) {
+            boolean legal = random.nextDouble() < profile.getLegalPolicyHolderShare();
+            Person policyHolder = legal ? new Person(ids.nextRegistrationNumber()) : naturalPerson();
+            policyHolders[p] = policyHolder;
+            int contractCount = 1 + random.nextInt(profile.getMaxContractsPerPolicyHolder());
+            for (int c = 0; c < contractCount; c++) {
+                ContractType type = pick(TYPES, legal ? legalTypeWeights : naturalTypeWeights, ContractType.SINGLE_VEHICLE);
+                PremiumPaymentFrequency frequency = pick(FREQUENCIES, frequencyWeights, PremiumPaymentFrequency.ANNUAL);
+                switch (type) {
+                    case SINGLE_VEHICLE -> {
+                        Person beneficiary = beneficiary();
+                        persons += beneficiary == null ? 0 : 1;
+                        SingleVehicleContract contract = vehicleContract(insurer, beneficiary, policyHolder, frequency);
+                        issued.add(contract);
+                        vehicleContracts.add(contract);
+                        vehicles++;
+                    }
+                    case TRAVEL -> {
+                        int groupSize = travelGroupSize();
+                        Set<Person> insured = new HashSet<>(groupSize * 2);
+                        for (int i = 0; i < groupSize; i++) {
+                            insured.add(naturalPerson());
+                        }
+                        persons += groupSize;
+                        int premium = markup(PremiumRating.minimumTravelPremium(groupSize, frequency));
+                        TravelContract contract = insurer.insurePersons(nextContractNumber(), policyHolder, premium, frequency, insured);
+                        issued.add(contract);
+                        travelContracts.add(contract);
+                    }
+                    case MASTER_VEHICLE -> {
+                        Person beneficiary = beneficiary();
+                        persons += beneficiary == null ? 0 : 1;
+                        MasterVehicleContract master = insurer.createMasterVehicleContract(nextContractNumber(), beneficiary, policyHolder);
+                        int fleetSize = profile.getMinFleetSize() + random.nextInt(profile.getMaxFleetSize() - profile.getMinFleetSize() + 1);
+                        List<SingleVehicleContract> fleet = new ArrayList<>(fleetSize);
+                        for (int i = 0; i < fleetSize; i++) {
+                            fleet.add(vehicleContract(insurer, beneficiary, policyHolder, frequency));
+                        }
+                        insurer.moveSingleVehicleContractsToMasterVehicleContract(master, fleet);
+                        issued.add(master);
+                        vehicleContracts.addAll(fleet);
+                        vehicles += fleetSize;
+                        masterContracts++;
+                    }
+                }
+            }
+        }
+        return new Portfolio(policyHolders, issued.toArray(new AbstractContract[0]),
+                vehicleContracts.toArray(new SingleVehicleContract[0]), travelContracts.toArray(new TravelContract[0]),
+                persons, vehicles, masterContracts);
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private SingleVehicleContract vehicleContract(InsuranceCompany insurer, Person beneficiary, Person policyHolder, PremiumPaymentFrequency frequency) {
+        ///  Squaring skews values towards cheaper vehicles
+        double u = random.nextDouble();
+        int value = MIN_VEHICLE_VALUE + (int) (VEHICLE_VALUE_RANGE * u * u);
+        Vehicle vehicle = new Vehicle(ids.nextLicensePlate(), value);
+        int premium = markup(PremiumRating.minimumVehiclePremium(value, frequency));
+        return insurer.insureVehicle(nextContractNumber(), beneficiary, policyHolder, premium, frequency, vehicle);
+    }
+
+    private Person naturalPerson() {
+        boolean old = random.nextDouble() < profile.getOldBirthNumberShare();
+        return new Person(old ? ids.nextOldBirthNumber() : ids.nextBirthNumber());
+    }
+
+    private Person beneficiary() {
+        return random.nextDouble() < profile.getBeneficiaryShare() ? naturalPerson() : null;
+    }
+
+    ///  Small groups are the most common, sizes fall off geometrically
+    private int travelGroupSize() {
+        int size = 1;
+        while (size < profile.getMaxTravelGroupSize() && random.nextInt(3) > 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private int markup(int minimumPremium) {
+        int percent = random.nextInt(profile.getMaxPremiumMarkupPercent() + 1);
+        return (int) Math.min(Integer.MAX_VALUE, (long) minimumPremium * (100 + percent) / 100);
+    }
+
+    private String nextContractNumber() {
+        return profile.getContractNumberPrefix() + contracts++;
+    }
+
+    private <T> T pick(T[] values, int[] weights, T fallback) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        if (total == 0) {
+            return fallback;
+        }
+        int ticket = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            ticket -= weights[i];
+            if (ticket < 0) {
+                return values[i];
+            }
+        }
+        return fallback;
+    }
+
+    /// Validation methods
+
+    private void validateProfile(PortfolioProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Portfolio profile cannot be null");
+        }
+    }
+
+    private void validateInsurer(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+
+    private void validatePolicyHolderCount(int policyHolderCount) {
+        if (policyHolderCount <= 0) {
+            throw new IllegalArgumentException("Policyholder count must be positive");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package generator;
+
+import contracts.ContractType;
+import payment.PremiumPaymentFrequency;
+
+import java.util.Arrays;
+
+///  Shape of a generated portfolio. Weights are relative and indexed by enum ordinal,
+///  shares are probabilities between 0 and 1.
+public class PortfolioProfile {
+    private int[] contractTypeWeights;
+    private int[] frequencyWeights;
+    private double legalPolicyHolderShare;
+    private double oldBirthNumberShare;
+    private double beneficiaryShare;
+    private int maxContractsPerPolicyHolder;
+    private int minFleetSize;
+    private int maxFleetSize;
+    private int maxTravelGroupSize;
+    private int maxPremiumMarkupPercent;
+    private String contractNumberPrefix;
+
+    public PortfolioProfile() {
+        this.contractTypeWeights = weights(ContractType.values().length, 70, 5, 25);
+        this.frequencyWeights = weights(PremiumPaymentFrequency.values().length, 30, 15, 20, 35);
+        this.legalPolicyHolderShare = 0.2;
+        this.oldBirthNumberShare = 0.1;
+        this.beneficiaryShare = 0.1;
+        this.maxContractsPerPolicyHolder = 3;
+        this.minFleetSize = 2;
+        this.maxFleetSize = 50;
+        this.maxTravelGroupSize = 6;
+        this.maxPremiumMarkupPercent = 50;
+        this.contractNumberPrefix = "G";
+    }
+
+    public int[] getContractTypeWeights() {
+        return contractTypeWeights.clone();
+    }
+
+    ///  Master vehicle contracts are only issued to legal entities, natural policyholders
+    ///  draw from the other types
+    public void setContractTypeWeights(int[] contractTypeWeights) {
+        validateWeights(contractTypeWeights, ContractType.values().length);
+        this.contractTypeWeights = contractTypeWeights.clone();
+    }
+
+    public int[] getFrequencyWeights() {
+        return frequencyWeights.clone();
+    }
+
+    public void setFrequencyWeights(int[] frequencyWeights) {
+        validateWeights(frequencyWeights, PremiumPaymentFrequency.values().length);
+        this.frequencyWeights = frequencyWeights.clone();
+    }
+
+    public double getLegalPolicyHolderShare() {
+        return legalPolicyHolderShare;
+    }
+
+    public void setLegalPolicyHolderShare(double legalPolicyHolderShare) {
+        validateShare(legalPolicyHolderShare);
+        this.legalPolicyHolderShare = legalPolicyHolderShare;
+    }
+
+    public double getOldBirthNumberShare() {
+        return oldBirthNumberShare;
+    }
+
+    ///  Share of natural persons born before 1954, who have nine digit birth numbers
+    public void setOldBirthNumberShare(double oldBirthNumberShare) {
+        validateShare(oldBirthNumberShare);
+        this.oldBirthNumberShare = oldBirthNumberShare;
+    }
+
+    public double getBeneficiaryShare() {
+        return beneficiaryShare;
+    }
+
+    public void setBeneficiaryShare(double beneficiaryShare) {
+        validateShare(beneficiaryShare);
+        this.beneficiaryShare = beneficiaryShare;
+    }
+
+    public int getMaxContractsPerPolicyHolder() {
+        return maxContractsPerPolicyHolder;
+    }
+
+    public void setMaxContractsPerPolicyHolder(int maxContractsPerPolicyHolder) {
+        validatePositive(maxContractsPerPolicyHolder, "Max contracts per policyholder");
+        this.maxContractsPerPolicyHolder = maxContractsPerPolicyHolder;
+    }
+
+    public int getMinFleetSize() {
+        return minFleetSize;
+    }
+
+    public int getMaxFleetSize() {
+        return maxFleetSize;
+    }
+
+    public void setFleetSize(int minFleetSize, int maxFleetSize) {
+        validatePositive(minFleetSize, "Min fleet size");
+        if (maxFleetSize < minFleetSize) {
+            throw new IllegalArgumentException("Max fleet size cannot be below min fleet size");
+        }
+        this.minFleetSize = minFleetSize;
+        this.maxFleetSize = maxFleetSize;
+    }
+
+    public int getMaxTravelGroupSize() {
+        return maxTravelGroupSize;
+    }
+
+    public void setMaxTravelGroupSize(int maxTravelGroupSize) {
+        validatePositive(maxTravelGroupSize, "Max travel group size");
+        this.maxTravelGroupSize = maxTravelGroupSize;
+    }
+
+    public int getMaxPremiumMarkupPercent() {
+        return maxPremiumMarkupPercent;
+    }
+
+    ///  Premiums are the admissible minimum plus a random markup of up to this many percent
+    public void setMaxPremiumMarkupPercent(int maxPremiumMarkupPercent) {
+        if (maxPremiumMarkupPercent < 0 || maxPremiumMarkupPercent > 1_000) {
+            throw new IllegalArgumentException("Max premium markup must be between 0 and 1000 percent");
+        }
+        this.maxPremiumMarkupPercent = maxPremiumMarkupPercent;
+    }
+
+    public String getContractNumberPrefix() {
+        return contractNumberPrefix;
+    }
+
+    ///  Generated contract numbers are the prefix followed by a counter, use distinct prefixes
+    ///  when several generators fill the same insurer
+    public void setContractNumberPrefix(String contractNumberPrefix) {
+        if (contractNumberPrefix == null || contractNumberPrefix.isEmpty()) {
+            throw new IllegalArgumentException("Contract number prefix cannot be null or empty");
+        }
+        this.contractNumberPrefix = contractNumberPrefix;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private static int[] weights(int length, int... values) {
+        return Arrays.copyOf(values, length);
+    }
+
+    /// Validation methods
+
+    private void validateWeights(int[] weights, int length) {
+        if (weights == null || weights.length != length) {
+            throw new IllegalArgumentException("Weights must have exactly " + length + " entries");
+        }
+        long total = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative");
+            }
+            total += weight;
+        }
+        if (total == 0 || total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Weights must have a positive total that fits in an int");
+        }
+    }
+
+    private void validateShare(double share) {
+        if (!(share >= 0 && share <= 1)) {
+            throw new IllegalArgumentException("Share must be between 0 and 1");
+        }
+    }
+
+    private void validatePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package generator;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.Set;
+
+///  A reused slot describing the next workload step. The generator overwrites it for every event,
+///  so consumers must copy whatever they keep before returning.
+public class WorkloadEvent {
+    private WorkloadEventType type;
+    private AbstractContract contract;
+    private int amount;
+    private long advanceSeconds;
+    private Set<Person> affectedPersons;
+
+    WorkloadEvent() {
+    }
+
+    public WorkloadEventType getType() {
+        return type;
+    }
+
+    ///  Paid or claimed contract, null for CLOCK_ADVANCE
+    public AbstractContract getContract() {
+        return contract;
+    }
+
+    ///  Paid amount for PAYMENT, expected damages for VEHICLE_CLAIM
+    public int getAmount() {
+        return amount;
+    }
+
+    public long getAdvanceSeconds() {
+        return advanceSeconds;
+    }
+
+    ///  Affected insured persons for TRAVEL_CLAIM, null otherwise
+    public Set<Person> getAffectedPersons() {
+        return affectedPersons;
+    }
+
+    ///  Executes the event; a clock advance also charges the premiums that became due
+    public void applyTo(InsuranceCompany insurer) {
+        switch (type) {
+            case CLOCK_ADVANCE -> {
+                insurer.setCurrentTime(insurer.getCurrentTime().plusSeconds(advanceSeconds));
+                insurer.chargePremiumsOnContracts();
+            }
+            case PAYMENT -> contract.pay(amount);
+            case VEHICLE_CLAIM -> insurer.processClaim((SingleVehicleContract) contract, amount);
+            case TRAVEL_CLAIM -> insurer.processClaim((TravelContract) contract, affectedPersons);
+        }
+    }
+
+    void set(WorkloadEventType type, AbstractContract contract, int amount, long advanceSeconds, Set<Person> affectedPersons) {
+        this.type = type;
+        this.contract = contract;
+        this.amount = amount;
+        this.advanceSeconds = advanceSeconds;
+        this.affectedPersons = affectedPersons;
+    }
+}
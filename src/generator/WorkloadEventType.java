@@ -0,0 +1,5 @@
+package generator;
+
+public enum WorkloadEventType {
+    CLOCK_ADVANCE, PAYMENT, VEHICLE_CLAIM, TRAVEL_CLAIM
+}
@@ -0,0 +1,213 @@
+package generator;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+///  Seeded stream of clock advances, payments and claims against a generated portfolio.
+///  Contracts found inactive when they are drawn are dropped from the candidates, so a consumer
+///  that applies every event as it arrives never receives a step on a deactivated contract.
+public class WorkloadGenerator {
+    private static final WorkloadEventType[] TYPES = WorkloadEventType.values();
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final SplittableRandom random;
+    private final int[] typeWeights;
+    private final int totalWeight;
+    private final int maxClockAdvanceDays;
+    private final WorkloadEvent event;
+    private final AbstractContract[] payable;
+    private final SingleVehicleContract[] vehicles;
+    private final TravelContract[] travels;
+    private int payableSize;
+    private int vehicleSize;
+    private int travelSize;
+
+    ///  Mostly payments with a few claims and a clock advance roughly every hundred events
+    public WorkloadGenerator(long seed, Portfolio portfolio) {
+        this(seed, portfolio, new int[]{1, 90, 6, 3}, 31);
+    }
+
+    ///  Weights are indexed by WorkloadEventType ordinal
+    public WorkloadGenerator(long seed, Portfolio portfolio, int[] typeWeights, int maxClockAdvanceDays) {
+        validatePortfolio(portfolio);
+        validateWeights(typeWeights);
+        validateMaxClockAdvanceDays(maxClockAdvanceDays);
+        this.random = new SplittableRandom(seed);
+        this.typeWeights = typeWeights.clone();
+        int total = 0;
+        for (int weight : typeWeights) {
+            total += weight;
+        }
+        this.totalWeight = total;
+        this.maxClockAdvanceDays = maxClockAdvanceDays;
+        this.event = new WorkloadEvent();
+        this.payable = portfolio.getContracts().toArray(new AbstractContract[0]);
+        this.vehicles = portfolio.getVehicleContracts().toArray(new SingleVehicleContract[0]);
+        this.travels = portfolio.getTravelContracts().toArray(new TravelContract[0]);
+        this.payableSize = payable.length;
+        this.vehicleSize = vehicles.length;
+        this.travelSize = travels.length;
+    }
+
+    ///  Emits the given number of events; once no active contract is left only clock advances remain
+    public void generate(long events, Consumer<WorkloadEvent> consumer) {
+        validateEvents(events, consumer);
+        for (long i = 0; i < events; i++) {
+            next();
+            consumer.accept(event);
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void next() {
+        int ticket = random.nextInt(totalWeight);
+        WorkloadEventType type = TYPES[0];
+        for (int i = 0; i < typeWeights.length; i++) {
+            ticket -= typeWeights[i];
+            if (ticket < 0) {
+                type = TYPES[i];
+                break;
+            }
+        }
+        switch (type) {
+            case PAYMENT -> {
+                AbstractContract contract = nextPayable();
+                if (contract != null) {
+                    event.set(type, contract, paymentAmount(contract), 0, null);
+                    return;
+                }
+            }
+            case VEHICLE_CLAIM -> {
+                SingleVehicleContract contract = nextVehicle();
+                if (contract != null) {
+                    ///  Squaring keeps most damages small, about one claim in six totals the vehicle
+                    double u = random.nextDouble();
+                    int damages = Math.max(1, (int) (contract.getInsuredVehicle().getOriginalValue() * u * u));
+                    event.set(type, contract, damages, 0, null);
+                    return;
+                }
+            }
+            case TRAVEL_CLAIM -> {
+                TravelContract contract = nextTravel();
+                if (contract != null) {
+                    event.set(type, contract, 0, 0, affectedPersons(contract));
+                    return;
+                }
+            }
+            case CLOCK_ADVANCE -> {
+            }
+        }
+        long seconds = (long) random.nextInt(maxClockAdvanceDays) * SECONDS_PER_DAY + random.nextInt(SECONDS_PER_DAY) + 1;
+        event.set(WorkloadEventType.CLOCK_ADVANCE, null, 0, seconds, null);
+    }
+
+    private int paymentAmount(AbstractContract contract) {
+        if (contract instanceof MasterVehicleContract) {
+            return 50 + random.nextInt(5_000);
+        }
+        int premium = contract.getContractPaymentData().getPremium();
+        ///  Most customers pay one or two installments, some pay only part of one
+        return random.nextInt(5) == 0 ? Math.max(1, premium / 2) : premium * (1 + random.nextInt(2));
+    }
+
+    private Set<Person> affectedPersons(TravelContract contract) {
+        Person[] insured = contract.getInsuredPersons().toArray(new Person[0]);
+        int count = 1 + random.nextInt(Math.min(3, insured.length));
+        Set<Person> affected = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(insured.length - i);
+            Person chosen = insured[j];
+            insured[j] = insured[i];
+            insured[i] = chosen;
+            affected.add(chosen);
+        }
+        return affected;
+    }
+
+    private AbstractContract nextPayable() {
+        while (payableSize > 0) {
+            int i = random.nextInt(payableSize);
+            AbstractContract contract = payable[i];
+            if (contract.isActive() && !(contract instanceof MasterVehicleContract && ((MasterVehicleContract) contract).getChildContracts().isEmpty())) {
+                return contract;
+            }
+            payable[i] = payable[--payableSize];
+            payable[payableSize] = null;
+        }
+        return null;
+    }
+
+    private SingleVehicleContract nextVehicle() {
+        while (vehicleSize > 0) {
+            int i = random.nextInt(vehicleSize);
+            SingleVehicleContract contract = vehicles[i];
+            if (contract.isActive()) {
+                return contract;
+            }
+            vehicles[i] = vehicles[--vehicleSize];
+            vehicles[vehicleSize] = null;
+        }
+        return null;
+    }
+
+    private TravelContract nextTravel() {
+        while (travelSize > 0) {
+            int i = random.nextInt(travelSize);
+            TravelContract contract = travels[i];
+            if (contract.isActive()) {
+                return contract;
+            }
+            travels[i] = travels[--travelSize];
+            travels[travelSize] = null;
+        }
+        return null;
+    }
+
+    /// Validation methods
+
+    private void validatePortfolio(Portfolio portfolio) {
+        if (portfolio == null) {
+            throw new IllegalArgumentException("Portfolio cannot be null");
+        }
+    }
+
+    private void validateWeights(int[] typeWeights) {
+        if (typeWeights == null || typeWeights.length != TYPES.length) {
+            throw new IllegalArgumentException("Weights must have exactly " + TYPES.length + " entries");
+        }
+        long total = 0;
+        for (int weight : typeWeights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative");
+            }
+            total += weight;
+        }
+        if (total == 0 || total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Weights must have a positive total that fits in an int");
+        }
+    }
+
+    private void validateMaxClockAdvanceDays(int maxClockAdvanceDays) {
+        if (maxClockAdvanceDays <= 0) {
+            throw new IllegalArgumentException("Max clock advance must be at least one day");
+        }
+    }
+
+    private void validateEvents(long events, Consumer<WorkloadEvent> consumer) {
+        if (events < 0) {
+            throw new IllegalArgumentException("Number of events cannot be negative");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import company.ArchivedContract;
+import company.AsyncInsuranceCompany;
+import company.InsuranceCompany;
+import company.PersonRegistry;
+import contracts.*;
+import objects.Person;
+import objects.Vehicle;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+import rating.PremiumRating;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+///  Optional embedded HTTP endpoint in front of an AsyncInsuranceCompany, built on the JDK's HttpServer.
+///  Requests and responses are flat JSON objects, persons are referenced by their id.
+///
+///  POST /quote                {type: VEHICLE|TRAVEL, frequency, vehicleValue | insuredPersons: count}
+///  POST /contracts/vehicle    {contractNumber, policyHolder, beneficiary?, premium, frequency, licensePlate, vehicleValue}
+///  POST /contracts/travel     {contractNumber, policyHolder, premium, frequency, insuredPersons: [ids]}
+///  POST /payments             {contractNumber, amount, idempotencyKey?}, a replayed key answers with the current state
+///  POST /claims               {contractNumber, expectedDamages} for vehicles, {contractNumber, affectedPersons: [ids]} for travel
+///  GET  /contracts/{number}   current balance and state of the contract, archived contracts included
+///
+///  HttpServer writes headers and body separately, so without TCP_NODELAY every response waits for
+///  the client's delayed acknowledgement. Launch with -Dsun.net.httpserver.nodelay=true; it is a
+///  JVM-wide setting, so the service leaves it to the launcher, as LoadGenerator does.
+public class InsuranceHttpService implements AutoCloseable {
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int CONFLICT = 409;
+    private static final int SERVER_ERROR = 500;
+    private static final int UNAVAILABLE = 503;
+
+    private final AsyncInsuranceCompany company;
+    private final InsuranceCompany insurer;
+    private final HttpServer server;
+    private final ConcurrentHashMap<String, PendingPerson> pendingPersons;
+
+    ///  Handlers run on the given executor and only parse requests, the commands themselves
+    ///  run in the policyholders' mailboxes and respond from there.
+    ///  On a runtime with virtual threads, Executors.newVirtualThreadPerTaskExecutor() fits here.
+    public InsuranceHttpService(AsyncInsuranceCompany company, InetSocketAddress address, Executor executor) throws IOException {
+        validateCompany(company);
+        validateAddress(address);
+        validateExecutor(executor);
+        this.company = company;
+        this.insurer = company.getInsurer();
+        this.pendingPersons = new ConcurrentHashMap<>();
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/quote", exchange -> handle(exchange, "POST", this::quote));
+        this.server.createContext("/contracts", exchange -> handle(exchange, null, this::contracts));
+        this.server.createContext("/payments", exchange -> handle(exchange, "POST", this::pay));
+        this.server.createContext("/claims", exchange -> handle(exchange, "POST", this::claim));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public URI getBaseUri() {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+    }
+
+    ///  Stops accepting requests and waits at most one second for exchanges in progress
+    @Override
+    public void close() {
+        server.stop(1);
+    }
+
+    ///  Endpoints
+
+    private CompletableFuture<Response> quote(HttpExchange exchange, Map<String, Object> body) {
+        String type = requireString(body, "type");
+        PremiumPaymentFrequency frequency = requireFrequency(body);
+        int minimumPremium;
+        if (ContractType.TRAVEL.name().equals(type)) {
+            minimumPremium = PremiumRating.minimumTravelPremium(requireInt(body, "insuredPersons"), frequency);
+        } else if ("VEHICLE".equals(type)) {
+            minimumPremium = PremiumRating.minimumVehiclePremium(requireInt(body, "vehicleValue"), frequency);
+        } else {
+            throw new IllegalArgumentException("Type must be VEHICLE or TRAVEL");
+        }
+        if (minimumPremium < 0) {
+            throw new IllegalArgumentException("No premium is admissible for this proposal");
+        }
+        return CompletableFuture.completedFuture(new Response(200, Json.object()
+                .field("type", type)
+                .field("frequency", frequency.name())
+                .field("minimumPremium", minimumPremium)
+                .end()));
+    }
+
+    private CompletableFuture<Response> contracts(HttpExchange exchange, Map<String, Object> body) {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if ("POST".equals(method) && path.equals("/contracts/vehicle")) {
+            return issueVehicle(body);
+        }
+        if ("POST".equals(method) && path.equals("/contracts/travel")) {
+            return issueTravel(body);
+        }
+        if ("GET".equals(method) && path.startsWith("/contracts/") && path.indexOf('/', "/contracts/".length()) < 0) {
+            String contractNumber = path.substring("/contracts/".length());
+            ArchivedContract archived = insurer.findArchivedContract(contractNumber);
+            if (archived != null) {
+                return CompletableFuture.completedFuture(new Response(200, archivedJson(archived)));
+            }
+            AbstractContract contract = requireContract(contractNumber);
+            return company.execute(contract.getPolicyHolder(), () -> new Response(200, contractJson(contract)));
+        }
+        return CompletableFuture.completedFuture(error(path.startsWith("/contracts/") ? METHOD_NOT_ALLOWED : NOT_FOUND, "Unknown contracts endpoint"));
+    }
+
+    private CompletableFuture<Response> issueVehicle(Map<String, Object> body) {
+        String contractNumber = requireString(body, "contractNumber");
+        String policyHolderId = requireString(body, "policyHolder");
+        String beneficiaryId = optionalString(body, "beneficiary");
+        int premium = requireInt(body, "premium");
+        PremiumPaymentFrequency frequency = requireFrequency(body);
+        Vehicle vehicle = new Vehicle(requireString(body, "licensePlate"), requireInt(body, "vehicleValue"));
+        List<PendingPerson> pending = new ArrayList<>(2);
+        try {
+            Person policyHolder = person(policyHolderId, pending);
+            Person beneficiary = beneficiaryId == null ? null : person(beneficiaryId, pending);
+            return settle(pending, company.insureVehicle(contractNumber, beneficiary, policyHolder, premium, frequency, vehicle))
+                    .thenApply(contract -> new Response(201, contractJson(contract)));
+        } catch (RuntimeException e) {
+            release(pending, false);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Response> issueTravel(Map<String, Object> body) {
+        String contractNumber = requireString(body, "contractNumber");
+        String policyHolderId = requireString(body, "policyHolder");
+        int premium = requireInt(body, "premium");
+        PremiumPaymentFrequency frequency = requireFrequency(body);
+        List<String> insuredPersonIds = personIds(body, "insuredPersons");
+        List<PendingPerson> pending = new ArrayList<>(insuredPersonIds.size() + 1);
+        try {
+            Person policyHolder = person(policyHolderId, pending);
+            Set<Person> insuredPersons = new HashSet<>();
+            for (String id : insuredPersonIds) {
+                insuredPersons.add(person(id, pending));
+            }
+            return settle(pending, company.insurePersons(contractNumber, policyHolder, premium, frequency, insuredPersons))
+                    .thenApply(contract -> new Response(201, contractJson(contract)));
+        } catch (RuntimeException e) {
+            release(pending, false);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Response> pay(HttpExchange exchange, Map<String, Object> body) {
+        AbstractContract contract = requireContract(requireString(body, "contractNumber"));
+        int amount = requireInt(body, "amount");
+        String idempotencyKey = optionalString(body, "idempotencyKey");
+        return company.execute(contract.getPolicyHolder(), () -> {
+            if (idempotencyKey == null) {
+                contract.pay(amount);
+            } else {
+                insurer.getHandler().pay(contract, amount, idempotencyKey);
+            }
+            return new Response(200, contractJson(contract));
+        });
+    }
+
+    private CompletableFuture<Response> claim(HttpExchange exchange, Map<String, Object> body) {
+        AbstractContract contract = requireContract(requireString(body, "contractNumber"));
+        if (contract instanceof SingleVehicleContract) {
+            int expectedDamages = requireInt(body, "expectedDamages");
+            return company.execute(contract.getPolicyHolder(), () -> {
+                insurer.processClaim((SingleVehicleContract) contract, expectedDamages);
+                return new Response(200, contractJson(contract));
+            });
+        }
+        if (contract instanceof TravelContract) {
+            Set<Person> affectedPersons = new HashSet<>();
+            for (String id : personIds(body, "affectedPersons")) {
+                affectedPersons.add(knownPerson(id));
+            }
+            return company.execute(contract.getPolicyHolder(), () -> {
+                insurer.processClaim((TravelContract) contract, affectedPersons);
+                return new Response(200, contractJson(contract));
+            });
+        }
+        throw new InvalidContractException("Claims are processed on single vehicle or travel contracts");
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void handle(HttpExchange exchange, String method, Route route) {
+        CompletableFuture<Response> response;
+        try {
+            if (method != null && !method.equals(exchange.getRequestMethod())) {
+                response = CompletableFuture.completedFuture(error(METHOD_NOT_ALLOWED, "Method must be " + method));
+            } else {
+                response = route.handle(exchange, "POST".equals(exchange.getRequestMethod()) ? readBody(exchange) : Map.of());
+            }
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((result, failure) -> send(exchange, failure == null ? result : error(failure)));
+    }
+
+    private Map<String, Object> readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Request body cannot be read", e);
+        }
+    }
+
+    private void send(HttpExchange exchange, Response response) {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status, bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            ///  The client went away, there is nobody left to report to
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String contractJson(AbstractContract contract) {
+        Json.Writer json = Json.object()
+                .field("contractNumber", contract.getContractNumber())
+                .field("type", contract.getContractType().name())
+                .field("policyHolder", contract.getPolicyHolder().getId())
+                .field("active", contract.isActive());
+        if (contract instanceof MasterVehicleContract) {
+            long balance = 0;
+            for (SingleVehicleContract child : ((MasterVehicleContract) contract).getChildContracts()) {
+                balance += child.getContractPaymentData().getExactOutstandingBalance();
+            }
+            return json.field("outstandingBalance", balance)
+                    .field("childContracts", ((MasterVehicleContract) contract).getChildContracts().size())
+                    .end();
+        }
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        return json.field("outstandingBalance", paymentData.getExactOutstandingBalance())
+                .field("premium", paymentData.getPremium())
+                .field("frequency", paymentData.getPremiumPaymentFrequency().name())
+                .field("nextPaymentTime", paymentData.getNextPaymentTime().toString())
+                .end();
+    }
+
+    private String archivedJson(ArchivedContract contract) {
+        return Json.object()
+                .field("contractNumber", contract.getContractNumber())
+                .field("type", contract.getContractType().name())
+                .field("policyHolder", contract.getPolicyHolder().getId())
+                .field("active", false)
+                .field("archived", true)
+                .field("outstandingBalance", contract.getExactOutstandingBalance())
+                .end();
+    }
+
+    ///  Persons are canonicalized through the insurer's registry, so every request for
+    ///  the same id works with the object that holds that person's contracts.
+    ///  An unknown id is registered only once a contract naming it was issued, until then the
+    ///  issuances in flight for it share one pending Person.
+    private Person person(String id, List<PendingPerson> pending) {
+        PersonRegistry registry = insurer.getPersonRegistry();
+        Person known = registry.find(id);
+        if (known != null) {
+            return known;
+        }
+        PendingPerson person = pendingPersons.compute(id, (key, current) -> {
+            if (current != null) {
+                current.users++;
+                return current;
+            }
+            ///  Registration happens before the last user releases its entry, so a settled person is found here
+            Person registered = registry.find(key);
+            return new PendingPerson(key, registered != null ? registered : new Person(key));
+        });
+        pending.add(person);
+        return person.person;
+    }
+
+    ///  Claims never register anybody, a person unknown to the registry is not insured anyway
+    private Person knownPerson(String id) {
+        Person known = insurer.getPersonRegistry().find(id);
+        return known != null ? known : new Person(id);
+    }
+
+    private <T> CompletableFuture<T> settle(List<PendingPerson> pending, CompletableFuture<T> issuance) {
+        return issuance.whenComplete((contract, failure) -> release(pending, failure == null));
+    }
+
+    private void release(List<PendingPerson> pending, boolean issued) {
+        for (PendingPerson person : pending) {
+            if (issued) {
+                insurer.getPersonRegistry().indexOf(person.person);
+            }
+            pendingPersons.computeIfPresent(person.id, (key, current) -> --current.users > 0 ? current : null);
+        }
+    }
+
+    private static List<String> personIds(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(name + " must be an array of person ids");
+        }
+        List<String> ids = new ArrayList<>();
+        for (Object id : (List<?>) value) {
+            if (!(id instanceof String)) {
+                throw new IllegalArgumentException(name + " must be an array of person ids");
+            }
+            ids.add((String) id);
+        }
+        return ids;
+    }
+
+    private AbstractContract requireContract(String contractNumber) {
+        AbstractContract contract = insurer.findContract(contractNumber);
+        if (contract == null) {
+            throw new NoSuchElementException("Contract " + contractNumber + " does not exist");
+        }
+        return contract;
+    }
+
+    private static String requireString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static String optionalString(Map<String, Object> body, String name) {
+        return body.get(name) == null ? null : requireString(body, name);
+    }
+
+    private static int requireInt(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException(name + " must be a 32-bit integer");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private static PremiumPaymentFrequency requireFrequency(Map<String, Object> body) {
+        return PremiumPaymentFrequency.valueOf(requireString(body, "frequency"));
+    }
+
+    private static Response error(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        int status;
+        if (cause instanceof NoSuchElementException) {
+            status = NOT_FOUND;
+        } else if (cause instanceof InvalidContractException) {
+            status = CONFLICT;
+        } else if (cause instanceof IllegalArgumentException) {
+            status = BAD_REQUEST;
+        } else if (cause instanceof IllegalStateException) {
+            status = UNAVAILABLE;
+        } else {
+            status = SERVER_ERROR;
+        }
+        return error(status, cause.getMessage());
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Json.object().field("error", message).end());
+    }
+
+    private interface Route {
+        CompletableFuture<Response> handle(HttpExchange exchange, Map<String, Object> body);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    ///  Person not registered yet, users counts the issuances in flight that name it
+    private static final class PendingPerson {
+        private final String id;
+        private final Person person;
+        private int users;
+
+        private PendingPerson(String id, Person person) {
+            this.id = id;
+            this.person = person;
+            this.users = 1;
+        }
+    }
+
+    /// Validation methods
+
+    private void validateCompany(AsyncInsuranceCompany company) {
+        if (company == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+
+    private void validateAddress(InetSocketAddress address) {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+    }
+
+    private void validateExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package http;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+///  Minimal JSON codec for the service's request and response bodies.
+///  Objects parse into maps of String, Long, Boolean, List, Map or null values; nothing is bound by reflection.
+public final class Json {
+    ///  Bodies of the service nest two levels deep, the bound keeps hostile input from exhausting the stack
+    static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int position;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    ///  Parses a document whose top level value is an object
+    public static Map<String, Object> parseObject(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("JSON text cannot be null");
+        }
+        Json parser = new Json(text);
+        parser.skipWhitespace();
+        Map<String, Object> object = parser.readObject();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("Unexpected trailing characters");
+        }
+        return object;
+    }
+
+    public static Writer object() {
+        return new Writer();
+    }
+
+    ///  Appends fields of one flat object; nested values are limited to string arrays
+    public static final class Writer {
+        private final StringBuilder json;
+        private boolean empty;
+
+        private Writer() {
+            this.json = new StringBuilder(64).append('{');
+            this.empty = true;
+        }
+
+        public Writer field(String name, String value) {
+            name(name);
+            if (value == null) {
+                json.append("null");
+            } else {
+                string(value);
+            }
+            return this;
+        }
+
+        public Writer field(String name, long value) {
+            name(name);
+            json.append(value);
+            return this;
+        }
+
+        public Writer field(String name, boolean value) {
+            name(name);
+            json.append(value);
+            return this;
+        }
+
+        public Writer field(String name, Iterable<String> values) {
+            name(name);
+            json.append('[');
+            boolean first = true;
+            for (String value : values) {
+                if (!first) {
+                    json.append(',');
+                }
+                string(value);
+                first = false;
+            }
+            json.append(']');
+            return this;
+        }
+
+        public String end() {
+            return json.append('}').toString();
+        }
+
+        private void name(String name) {
+            if (!empty) {
+                json.append(',');
+            }
+            empty = false;
+            string(name);
+            json.append(':');
+        }
+
+        private void string(String value) {
+            json.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        json.append("\\\"");
+                        break;
+                    case '\\':
+                        json.append("\\\\");
+                        break;
+                    case '\n':
+                        json.append("\\n");
+                        break;
+                    case '\r':
+                        json.append("\\r");
+                        break;
+                    case '\t':
+                        json.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            json.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            json.append(c);
+                        }
+                }
+            }
+            json.append('"');
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readNested(true);
+            case '[':
+                return readNested(false);
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    private Object readNested(boolean object) {
+        if (++depth > MAX_DEPTH) {
+            throw error("Nesting deeper than " + MAX_DEPTH + " levels");
+        }
+        Object value = object ? readObject() : readArray();
+        depth--;
+        return value;
+    }
+
+    private Map<String, Object> readObject() {
+        expect("{");
+        Map<String, Object> object = new LinkedHashMap<>();
+        skipWhitespace();
+        if (consume('}')) {
+            return object;
+        }
+        do {
+            skipWhitespace();
+            String name = readString();
+            skipWhitespace();
+            expect(":");
+            object.put(name, readValue());
+            skipWhitespace();
+        } while (consume(','));
+        expect("}");
+        return object;
+    }
+
+    private List<Object> readArray() {
+        expect("[");
+        List<Object> array = new ArrayList<>();
+        skipWhitespace();
+        if (consume(']')) {
+            return array;
+        }
+        do {
+            array.add(readValue());
+            skipWhitespace();
+        } while (consume(','));
+        expect("]");
+        return array;
+    }
+
+    private String readString() {
+        expect("\"");
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                throw error("Unterminated escape");
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("Invalid escape");
+            }
+        }
+    }
+
+    ///  Only integers of ASCII digits are accepted, amounts in this domain are whole numbers
+    private Long readNumber() {
+        int start = position;
+        if (position < text.length() && text.charAt(position) == '-') {
+            position++;
+        }
+        while (position < text.length() && text.charAt(position) >= '0' && text.charAt(position) <= '9') {
+            position++;
+        }
+        try {
+            return Long.parseLong(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Expected an integer");
+        }
+    }
+
+    private void expect(String token) {
+        if (!text.startsWith(token, position)) {
+            throw error("Expected " + token);
+        }
+        position += token.length();
+    }
+
+    private boolean consume(char c) {
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
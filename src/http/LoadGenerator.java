@@ -0,0 +1,249 @@
+package http;
+
+import company.AsyncInsuranceCompany;
+import company.InsuranceCompany;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+///  Closed-loop load harness for InsuranceHttpService. Every client issues its share of contracts,
+///  then alternates payments and balance reads on random contracts until the duration is over.
+///  Run without arguments it starts a service on loopback in the same process:
+///  java http.LoadGenerator [clients] [contracts] [seconds] [baseUri]
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int contracts = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        if (args.length > 3) {
+            System.out.println(run(URI.create(args[3]), clients, contracts, duration));
+            return;
+        }
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            ///  Launch flag of InsuranceHttpService, read when the first HttpServer is created
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ExecutorService handlers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        try (AsyncInsuranceCompany company = new AsyncInsuranceCompany(new InsuranceCompany(LocalDateTime.now()));
+             InsuranceHttpService service = new InsuranceHttpService(company, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), handlers)) {
+            service.start();
+            System.out.println(run(service.getBaseUri(), clients, contracts, duration));
+        } finally {
+            handlers.shutdown();
+        }
+    }
+
+    public static Result run(URI baseUri, int clients, int contracts, Duration duration) throws InterruptedException {
+        validateBaseUri(baseUri);
+        validateCounts(clients, contracts);
+        validateDuration(duration);
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String prefix = "L" + Long.toString(System.nanoTime(), 36);
+        Client[] workers = new Client[clients];
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            workers[i] = new Client(http, baseUri, prefix, i, clients, contracts, duration.toNanos());
+            threads[i] = new Thread(workers[i], "load-client-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return Result.merge(workers);
+    }
+
+    public static final class Result {
+        private final long requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        private Result(long requests, long errors, long elapsedNanos, long[] sortedLatencies) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        private static Result merge(Client[] clients) {
+            long errors = 0;
+            long elapsed = 0;
+            int total = 0;
+            for (Client client : clients) {
+                if (client.failure != null) {
+                    throw new IllegalStateException("Load client failed", client.failure);
+                }
+                errors += client.errors;
+                elapsed = Math.max(elapsed, client.elapsedNanos);
+                total += client.size;
+            }
+            long[] latencies = new long[total];
+            int offset = 0;
+            for (Client client : clients) {
+                System.arraycopy(client.latencies, 0, latencies, offset, client.size);
+                offset += client.size;
+            }
+            Arrays.sort(latencies);
+            return new Result(total, errors, elapsed, latencies);
+        }
+
+        ///  Measured requests, the contracts issued while warming up are not included
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getRequestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+        }
+
+        ///  Latency in nanoseconds at the given quantile, for example 0.99
+        public long getLatencyNanos(double quantile) {
+            if (quantile <= 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantile must be in (0, 1]");
+            }
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d rps=%.0f p50=%.1fus p99=%.1fus p999=%.1fus",
+                    requests, errors, getRequestsPerSecond(),
+                    getLatencyNanos(0.5) / 1e3, getLatencyNanos(0.99) / 1e3, getLatencyNanos(0.999) / 1e3);
+        }
+    }
+
+    private static final class Client implements Runnable {
+        private final HttpClient http;
+        private final URI baseUri;
+        private final String prefix;
+        private final int id;
+        private final int clients;
+        private final int contracts;
+        private final long durationNanos;
+        private long[] latencies;
+        private int size;
+        private long errors;
+        private long elapsedNanos;
+        private Exception failure;
+
+        private Client(HttpClient http, URI baseUri, String prefix, int id, int clients, int contracts, long durationNanos) {
+            this.http = http;
+            this.baseUri = baseUri;
+            this.prefix = prefix;
+            this.id = id;
+            this.clients = clients;
+            this.contracts = contracts;
+            this.durationNanos = durationNanos;
+            this.latencies = new long[1024];
+        }
+
+        @Override
+        public void run() {
+            try {
+                ///  Client i issues contracts i, i + clients, ...; every contract has its own policyholder
+                for (int n = id; n < contracts; n += clients) {
+                    String body = Json.object()
+                            .field("contractNumber", contractNumber(n))
+                            .field("policyHolder", String.format("%08d", n))
+                            .field("premium", 1_000)
+                            .field("frequency", "ANNUAL")
+                            .field("licensePlate", String.format("L%06d", n))
+                            .field("vehicleValue", 20_000)
+                            .end();
+                    if (post("/contracts/vehicle", body) != 201) {
+                        throw new IllegalStateException("Contract " + contractNumber(n) + " could not be issued");
+                    }
+                }
+                SplittableRandom random = new SplittableRandom(id);
+                long start = System.nanoTime();
+                long end = start + durationNanos;
+                long now = start;
+                while (now < end) {
+                    String contractNumber = contractNumber(random.nextInt(contracts));
+                    int status = random.nextBoolean()
+                            ? post("/payments", Json.object().field("contractNumber", contractNumber).field("amount", 1).end())
+                            : get("/contracts/" + contractNumber);
+                    long finished = System.nanoTime();
+                    record(finished - now);
+                    if (status != 200) {
+                        errors++;
+                    }
+                    now = finished;
+                }
+                elapsedNanos = now - start;
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+            }
+        }
+
+        private String contractNumber(int n) {
+            return prefix + "-" + n;
+        }
+
+        private int post(String path, String body) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private int get(String path) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private void record(long latency) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+    }
+
+    /// Validation methods
+
+    private static void validateBaseUri(URI baseUri) {
+        if (baseUri == null) {
+            throw new IllegalArgumentException("Base URI cannot be null");
+        }
+    }
+
+    private static void validateCounts(int clients, int contracts) {
+        if (clients <= 0 || contracts <= 0) {
+            throw new IllegalArgumentException("Clients and contracts must be positive");
+        }
+    }
+
+    private static void validateDuration(Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+    }
+}
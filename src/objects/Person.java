@@ -2,44 +2,69 @@ package objects;
 
 import contracts.AbstractContract;
 
-import java.time.LocalDate;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Month;
+import java.time.Year;
+import util.AlphanumericCode;
+import util.CompactSet;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Person {
-    private final String id;
+    private static final VarHandle PAID_OUT_AMOUNT;
+    private static final VarHandle CONTENDED_PAID_OUT_AMOUNT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PAID_OUT_AMOUNT = lookup.findVarHandle(Person.class, "paidOutAmount", long.class);
+            CONTENDED_PAID_OUT_AMOUNT = lookup.findVarHandle(Person.class, "contendedPaidOutAmount", LongAdder.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    ///  Valid ids are six to ten digits, so they are kept as an AlphanumericCode
+    private final long idCode;
     private final LegalForm legalForm;
-    private int paidOutAmount;
-    private final Set<AbstractContract> contracts;
+    ///  Payouts are added without a lock: by compare-and-set on paidOutAmount until two payouts race,
+    ///  then into a LongAdder installed for this person, which stripes further payouts over cells
+    private volatile long paidOutAmount;
+    private volatile LongAdder contendedPaidOutAmount;
+    ///  Allocated with the first contract, as a CompactSet if the insurer uses the compact representation
+    private Set<AbstractContract> contracts;
 
     public Person(String id) {
         if (isValidBirthNumber(id)) {
-            this.id = id;
+            this.idCode = AlphanumericCode.encode(id);
             this.legalForm = LegalForm.NATURAL;
         } else if (isValidRegistrationNumber(id)) {
-            this.id = id;
+            this.idCode = AlphanumericCode.encode(id);
             this.legalForm = LegalForm.LEGAL;
         } else {
             throw new IllegalArgumentException("Invalid ID or registration number");
         }
         this.paidOutAmount = 0;
-        this.contracts = new LinkedHashSet<>();
+        this.contracts = null;
     }
 
 
+    ///  Validated without regular expressions, substrings or exceptions, persons are created in bulk
     public static boolean isValidBirthNumber(String birthNumber) {
-        if (birthNumber == null || !(birthNumber.length() == 9 || birthNumber.length() == 10) || !birthNumber.matches("\\d+")) {
+        if (birthNumber == null || !(birthNumber.length() == 9 || birthNumber.length() == 10) || !isDigits(birthNumber)) {
             return false;
         }
 
-        String yearStr = birthNumber.substring(0, 2);
-        String monthStr = birthNumber.substring(2, 4);
-        String dayStr = birthNumber.substring(4, 6);
-
-        int year = Integer.parseInt(yearStr);
-        int month = Integer.parseInt(monthStr);
-        int day = Integer.parseInt(dayStr);
+        int year = twoDigits(birthNumber, 0);
+        int month = twoDigits(birthNumber, 2);
+        int day = twoDigits(birthNumber, 4);
 
         if (month >= 51 && month <= 62) {
             month -= 50;
@@ -58,59 +83,152 @@ public class Person {
         } else {
             int sum = 0;
             for (int i = 0; i < birthNumber.length(); i++) {
-                int digit = Character.getNumericValue(birthNumber.charAt(i));
-                sum += (int) (Math.pow(-1, i) * digit);
+                int digit = birthNumber.charAt(i) - '0';
+                sum += (i & 1) == 0 ? digit : -digit;
             }
             if (sum % 11 != 0) {
                 return false;
             }
         }
-        try {
-            LocalDate check = LocalDate.of(year, month, day);
-        } catch (Exception e) {
-            return false;
-        }
-        return true;
+        return day >= 1 && day <= Month.of(month).length(Year.isLeap(year));
     }
 
     public static boolean isValidRegistrationNumber(String registrationNumber) {
-        return registrationNumber != null && (registrationNumber.length() == 6 || registrationNumber.length() == 8) && registrationNumber.matches("\\d+");
+        return registrationNumber != null && (registrationNumber.length() == 6 || registrationNumber.length() == 8) && isDigits(registrationNumber);
     }
 
     public String getId() {
-        return id;
+        return AlphanumericCode.decode(idCode);
     }
 
+    public long getIdCode() {
+        return idCode;
+    }
+
+    ///  Throws ArithmeticException instead of wrapping once the total no longer fits an int,
+    ///  getExactPaidOutAmount always returns it
     public int getPaidOutAmount() {
-        return paidOutAmount;
+        return Math.toIntExact(getExactPaidOutAmount());
+    }
+
+    ///  Exact while no payout is in progress, a payout racing with this call may or may not be included.
+    ///  Payouts added to the LongAdder are not checked one by one, so an overflowing total throws here
+    public long getExactPaidOutAmount() {
+        LongAdder contended = contendedPaidOutAmount;
+        return contended == null ? paidOutAmount : Math.addExact(paidOutAmount, validateContendedSum(contended.sum()));
     }
 
     public LegalForm getLegalForm() {
         return legalForm;
     }
 
+    ///  Live and modifiable like the set itself, before the first contract a view that allocates it on the first add
     public Set<AbstractContract> getContracts() {
-        return contracts;
+        return contracts == null ? new ContractsView() : contracts;
     }
 
     public void addContract(AbstractContract contract) {
         validateContract(contract);
-        contracts.add(contract);
+        allocateContracts(contract).add(contract);
     }
 
     public void payout(int paidOutAmount) {
         validatePaidOutAmount(paidOutAmount);
-        this.paidOutAmount += paidOutAmount;
+        add(paidOutAmount);
+    }
+
+    ///  Pays the same amount to every person in one pass, validating the amount once
+    public static void payout(Collection<Person> persons, int paidOutAmount) {
+        validatePaidOutAmount(paidOutAmount);
+        for (Person person : persons) {
+            person.add(paidOutAmount);
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private Set<AbstractContract> allocateContracts(AbstractContract first) {
+        if (contracts == null) {
+            contracts = first.getInsurer().isCompactRepresentation() ? new CompactSet<>() : new LinkedHashSet<>();
+        }
+        return contracts;
+    }
+
+    private final class ContractsView extends AbstractSet<AbstractContract> {
+        @Override
+        public Iterator<AbstractContract> iterator() {
+            return contracts == null ? Collections.emptyIterator() : contracts.iterator();
+        }
+
+        @Override
+        public int size() {
+            return contracts == null ? 0 : contracts.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return contracts != null && contracts.contains(o);
+        }
+
+        @Override
+        public boolean add(AbstractContract contract) {
+            validateContract(contract);
+            return allocateContracts(contract).add(contract);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return contracts != null && contracts.remove(o);
+        }
+    }
+
+    private void add(long amount) {
+        LongAdder contended = contendedPaidOutAmount;
+        if (contended == null) {
+            long current = paidOutAmount;
+            if (PAID_OUT_AMOUNT.compareAndSet(this, current, Math.addExact(current, amount))) {
+                return;
+            }
+            CONTENDED_PAID_OUT_AMOUNT.compareAndSet(this, null, new LongAdder());
+            contended = contendedPaidOutAmount;
+        }
+        contended.add(amount);
+    }
+
+    ///  Same as matching \\d+, which only accepts ASCII digits
+    private static boolean isDigits(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int twoDigits(String text, int from) {
+        return (text.charAt(from) - '0') * 10 + (text.charAt(from + 1) - '0');
     }
 
     /// Validation methods
 
-    private void validatePaidOutAmount(int paidOutAmount) {
+    private static void validatePaidOutAmount(int paidOutAmount) {
         if (paidOutAmount <= 0) {
             throw new IllegalArgumentException("Paid out amount must be positive");
         }
     }
 
+    ///  Every payout is positive, so a negative sum of the cells has wrapped
+    private static long validateContendedSum(long sum) {
+        if (sum < 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        return sum;
+    }
+
     private void validateContract(AbstractContract contract) {
         if (contract == null) {
             throw new IllegalArgumentException("Contract cannot be null");
@@ -121,7 +239,12 @@ public class Person {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         Person person = (Person) o;
-        return Objects.equals(this.id, person.id);
+        return idCode == person.idCode;
+    }
+
+    @Override
+    public int hashCode() {
+        return AlphanumericCode.hash(idCode);
     }
 
 }
@@ -1,20 +1,25 @@
 package objects;
 
-import java.util.Objects;
+import util.AlphanumericCode;
 
 public class Vehicle {
-    private final String licensePlate;
+    ///  Plates are seven uppercase letters or digits, so they are kept as an AlphanumericCode
+    private final long licensePlateCode;
     private final int originalValue;
 
     public Vehicle(String licensePlate, int originalValue) {
         validateLicensePlate(licensePlate);
         validateOriginalValue(originalValue);
-        this.licensePlate = licensePlate;
+        this.licensePlateCode = AlphanumericCode.encode(licensePlate);
         this.originalValue = originalValue;
     }
 
     public String getLicensePlate() {
-        return licensePlate;
+        return AlphanumericCode.decode(licensePlateCode);
+    }
+
+    public long getLicensePlateCode() {
+        return licensePlateCode;
     }
 
     public int getOriginalValue() {
@@ -27,11 +32,21 @@ public class Vehicle {
         if (licensePlate == null || licensePlate.length() != 7) {
             throw new IllegalArgumentException("License plate cannot be null or have less than 7 characters");
         }
-        if (!licensePlate.matches("[A-Z0-9]{7}")) {
+        if (!isUppercaseAlphanumeric(licensePlate)) {
             throw new IllegalArgumentException("License plate must consist of exactly 7 uppercase letters or digits");
         }
     }
 
+    private static boolean isUppercaseAlphanumeric(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void validateOriginalValue(int originalValue) {
         if (originalValue <= 0) {
             throw new IllegalArgumentException("Original value cannot be negative");
@@ -42,7 +57,12 @@ public class Vehicle {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         Vehicle vehicle = (Vehicle) o;
-        return originalValue == vehicle.originalValue && Objects.equals(licensePlate, vehicle.licensePlate);
+        return originalValue == vehicle.originalValue && licensePlateCode == vehicle.licensePlateCode;
+    }
+
+    @Override
+    public int hashCode() {
+        return AlphanumericCode.hash(licensePlateCode) * 31 + originalValue;
     }
 
 }
@@ -0,0 +1,62 @@
+package objects;
+
+///  Canonical Vehicle instances of an insurer in compact representation, so contracts insuring
+///  the same vehicle share one object. Open addressing over the vehicles themselves, an entry
+///  costs two array slots and no node.
+///  Methods are synchronized, vehicles may be insured from several threads at once.
+public class VehiclePool {
+    private Vehicle[] vehicles;
+    private int size;
+
+    public VehiclePool() {
+        this.vehicles = new Vehicle[16];
+        this.size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    ///  Returns the pooled vehicle equal to the given one, pooling it on first use
+    public synchronized Vehicle intern(Vehicle vehicle) {
+        validateVehicle(vehicle);
+        int mask = vehicles.length - 1;
+        for (int slot = vehicle.hashCode() & mask; ; slot = (slot + 1) & mask) {
+            if (vehicles[slot] == null) {
+                vehicles[slot] = vehicle;
+                if (++size * 2 > vehicles.length) {
+                    resize();
+                }
+                return vehicle;
+            }
+            if (vehicles[slot].equals(vehicle)) {
+                return vehicles[slot];
+            }
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void resize() {
+        Vehicle[] old = vehicles;
+        vehicles = new Vehicle[old.length * 2];
+        int mask = vehicles.length - 1;
+        for (Vehicle vehicle : old) {
+            if (vehicle != null) {
+                int slot = vehicle.hashCode() & mask;
+                while (vehicles[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                vehicles[slot] = vehicle;
+            }
+        }
+    }
+
+    /// Validation methods
+
+    private void validateVehicle(Vehicle vehicle) {
+        if (vehicle == null) {
+            throw new IllegalArgumentException("Vehicle cannot be null");
+        }
+    }
+}
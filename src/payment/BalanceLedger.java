@@ -0,0 +1,271 @@
+package payment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+///  Running totals of every movement of a contract's outstanding balance, indexed by contract handle.
+///  The balance a contract had when the ledger first saw it is kept as its opening balance, so
+///  opening + charged - paid - allocated must always equal the current outstanding balance.
+///
+///  For a child of a master contract, allocated is what it was credited from master payments;
+///  for a master contract it is what was distributed to the children, which must equal paid.
+///
+///  Next to the totals the ledger keeps the inputs billing works from: the premium schedule a
+///  contract was issued with, every later change of its premium or frequency, and when billing
+///  last ran for it. ReconciliationReport derives the charges from those on its own, so a billing
+///  run that charges the wrong periods or the wrong premium shows up as drift.
+public class BalanceLedger {
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final BitSet opened;
+    private final BitSet scheduled;
+    private final Map<Integer, List<TermChange>> termChanges;
+    private long[] opening;
+    private long[] charged;
+    private long[] paid;
+    private long[] allocated;
+    private long[] firstDueEpochSecond;
+    private int[] firstDueNano;
+    private int[] initialPremium;
+    private byte[] initialFrequencyMonths;
+    private long[] billedEpochSecond;
+    private int[] billedNano;
+
+    public BalanceLedger() {
+        this.opened = new BitSet();
+        this.scheduled = new BitSet();
+        this.termChanges = new HashMap<>();
+        this.opening = new long[16];
+        this.charged = new long[16];
+        this.paid = new long[16];
+        this.allocated = new long[16];
+        this.firstDueEpochSecond = new long[16];
+        this.firstDueNano = new int[16];
+        this.initialPremium = new int[16];
+        this.initialFrequencyMonths = new byte[16];
+        this.billedEpochSecond = new long[16];
+        this.billedNano = new int[16];
+        Arrays.fill(billedEpochSecond, NEVER);
+    }
+
+    ///  Premium schedule of a newly issued contract: the first premium is due at the given time
+    ///  and every frequency's number of months after the previous one
+    public synchronized void recordSchedule(int handle, long balanceBefore, long firstDueEpochSecond, int firstDueNano,
+                                            int premium, PremiumPaymentFrequency frequency) {
+        validateTerms(premium, frequency);
+        open(handle, balanceBefore);
+        scheduled.set(handle);
+        this.firstDueEpochSecond[handle] = firstDueEpochSecond;
+        this.firstDueNano[handle] = firstDueNano;
+        this.initialPremium[handle] = premium;
+        this.initialFrequencyMonths[handle] = (byte) frequency.getValueInMonths();
+        termChanges.remove(handle);
+    }
+
+    ///  New premium and frequency of the contract. Billing charges every premium still due at its next
+    ///  run with the terms in force then, so the change covers the premiums due after the last billing run.
+    public synchronized void recordTermChange(int handle, int premium, PremiumPaymentFrequency frequency) {
+        validateHandle(handle);
+        validateTerms(premium, frequency);
+        if (scheduled.get(handle)) {
+            termChanges.computeIfAbsent(handle, k -> new ArrayList<>(2))
+                    .add(new TermChange(billedEpochSecond[handle], billedNano[handle], premium, frequency.getValueInMonths()));
+        }
+    }
+
+    ///  A billing run for the contract at the given company time, amount is what it charged
+    public synchronized void recordCharge(int handle, long balanceBefore, long amount, long epochSecond, int nano) {
+        open(handle, balanceBefore);
+        charged[handle] += amount;
+        if (EpochTime.compare(epochSecond, nano, billedEpochSecond[handle], billedNano[handle]) > 0) {
+            billedEpochSecond[handle] = epochSecond;
+            billedNano[handle] = nano;
+        }
+    }
+
+    public synchronized void recordPayment(int handle, long balanceBefore, long amount) {
+        open(handle, balanceBefore);
+        paid[handle] += amount;
+    }
+
+    public synchronized void recordAllocation(int handle, long balanceBefore, long amount) {
+        open(handle, balanceBefore);
+        allocated[handle] += amount;
+    }
+
+    ///  Immutable copy for readers that scan the whole ledger, possibly from several threads
+    public synchronized Snapshot snapshot() {
+        int bound = opened.length();
+        Map<Integer, List<TermChange>> changes = new HashMap<>();
+        termChanges.forEach((handle, list) -> changes.put(handle, List.copyOf(list)));
+        return new Snapshot((BitSet) opened.clone(), (BitSet) scheduled.clone(), changes,
+                Arrays.copyOf(opening, bound), Arrays.copyOf(charged, bound), Arrays.copyOf(paid, bound),
+                Arrays.copyOf(allocated, bound), Arrays.copyOf(firstDueEpochSecond, bound), Arrays.copyOf(firstDueNano, bound),
+                Arrays.copyOf(initialPremium, bound), Arrays.copyOf(initialFrequencyMonths, bound),
+                Arrays.copyOf(billedEpochSecond, bound), Arrays.copyOf(billedNano, bound));
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void open(int handle, long balanceBefore) {
+        validateHandle(handle);
+        if (handle >= opening.length) {
+            int length = Math.max(handle + 1, opening.length * 2);
+            int oldLength = opening.length;
+            opening = Arrays.copyOf(opening, length);
+            charged = Arrays.copyOf(charged, length);
+            paid = Arrays.copyOf(paid, length);
+            allocated = Arrays.copyOf(allocated, length);
+            firstDueEpochSecond = Arrays.copyOf(firstDueEpochSecond, length);
+            firstDueNano = Arrays.copyOf(firstDueNano, length);
+            initialPremium = Arrays.copyOf(initialPremium, length);
+            initialFrequencyMonths = Arrays.copyOf(initialFrequencyMonths, length);
+            billedEpochSecond = Arrays.copyOf(billedEpochSecond, length);
+            billedNano = Arrays.copyOf(billedNano, length);
+            Arrays.fill(billedEpochSecond, oldLength, length, NEVER);
+        }
+        if (!opened.get(handle)) {
+            opened.set(handle);
+            opening[handle] = balanceBefore;
+        }
+    }
+
+    ///  Premium and frequency a contract is billed with for the premiums due after a billing run
+    public static final class TermChange {
+        private final long billedEpochSecond;
+        private final int billedNano;
+        private final int premium;
+        private final int frequencyMonths;
+
+        private TermChange(long billedEpochSecond, int billedNano, int premium, int frequencyMonths) {
+            this.billedEpochSecond = billedEpochSecond;
+            this.billedNano = billedNano;
+            this.premium = premium;
+            this.frequencyMonths = frequencyMonths;
+        }
+
+        ///  Company time of the last billing run before the change, null if the contract was never billed
+        public LocalDateTime getBilledTime() {
+            return billedEpochSecond == NEVER ? null : EpochTime.toLocalDateTime(billedEpochSecond, billedNano);
+        }
+
+        public int getPremium() {
+            return premium;
+        }
+
+        public int getFrequencyMonths() {
+            return frequencyMonths;
+        }
+    }
+
+    public static final class Snapshot {
+        private final BitSet opened;
+        private final BitSet scheduled;
+        private final Map<Integer, List<TermChange>> termChanges;
+        private final long[] opening;
+        private final long[] charged;
+        private final long[] paid;
+        private final long[] allocated;
+        private final long[] firstDueEpochSecond;
+        private final int[] firstDueNano;
+        private final int[] initialPremium;
+        private final byte[] initialFrequencyMonths;
+        private final long[] billedEpochSecond;
+        private final int[] billedNano;
+
+        private Snapshot(BitSet opened, BitSet scheduled, Map<Integer, List<TermChange>> termChanges, long[] opening,
+                         long[] charged, long[] paid, long[] allocated, long[] firstDueEpochSecond, int[] firstDueNano,
+                         int[] initialPremium, byte[] initialFrequencyMonths, long[] billedEpochSecond, int[] billedNano) {
+            this.opened = opened;
+            this.scheduled = scheduled;
+            this.termChanges = termChanges;
+            this.opening = opening;
+            this.charged = charged;
+            this.paid = paid;
+            this.allocated = allocated;
+            this.firstDueEpochSecond = firstDueEpochSecond;
+            this.firstDueNano = firstDueNano;
+            this.initialPremium = initialPremium;
+            this.initialFrequencyMonths = initialFrequencyMonths;
+            this.billedEpochSecond = billedEpochSecond;
+            this.billedNano = billedNano;
+        }
+
+        ///  False for contracts whose balance never moved since the ledger was created
+        public boolean isOpened(int handle) {
+            return handle >= 0 && opened.get(handle);
+        }
+
+        public long getOpeningBalance(int handle) {
+            return isOpened(handle) ? opening[handle] : 0;
+        }
+
+        public long getCharged(int handle) {
+            return isOpened(handle) ? charged[handle] : 0;
+        }
+
+        public long getPaid(int handle) {
+            return isOpened(handle) ? paid[handle] : 0;
+        }
+
+        public long getAllocated(int handle) {
+            return isOpened(handle) ? allocated[handle] : 0;
+        }
+
+        public long getExpectedBalance(int handle) {
+            return getOpeningBalance(handle) + getCharged(handle) - getPaid(handle) - getAllocated(handle);
+        }
+
+        ///  False for contracts that were not issued through the insurer, their charges cannot be derived
+        public boolean hasSchedule(int handle) {
+            return handle >= 0 && scheduled.get(handle);
+        }
+
+        public LocalDateTime getFirstDueTime(int handle) {
+            return hasSchedule(handle) ? EpochTime.toLocalDateTime(firstDueEpochSecond[handle], firstDueNano[handle]) : null;
+        }
+
+        public int getInitialPremium(int handle) {
+            return hasSchedule(handle) ? initialPremium[handle] : 0;
+        }
+
+        public int getInitialFrequencyMonths(int handle) {
+            return hasSchedule(handle) ? initialFrequencyMonths[handle] : 0;
+        }
+
+        ///  Term changes in the order they were made
+        public List<TermChange> getTermChanges(int handle) {
+            return termChanges.getOrDefault(handle, List.of());
+        }
+
+        ///  Company time of the last billing run for the contract, null if it was never billed
+        public LocalDateTime getBilledTime(int handle) {
+            if (!isOpened(handle) || billedEpochSecond[handle] == NEVER) {
+                return null;
+            }
+            return EpochTime.toLocalDateTime(billedEpochSecond[handle], billedNano[handle]);
+        }
+    }
+
+    /// Validation methods
+
+    private void validateHandle(int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handle cannot be negative");
+        }
+    }
+
+    private void validateTerms(int premium, PremiumPaymentFrequency frequency) {
+        if (premium <= 0) {
+            throw new IllegalArgumentException("Premium must be positive");
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("Premium payment frequency cannot be null");
+        }
+    }
+}
@@ -1,18 +1,41 @@
 package payment;
 
+import contracts.AbstractContract;
+
 import java.time.LocalDateTime;
 
 public class ContractPaymentData {
     private int premium;
     private PremiumPaymentFrequency premiumPaymentFrequency;
-    private LocalDateTime nextPaymentTime;
-    private int outstandingBalance;
+    ///  Due date as UTC epoch second and nano-of-second, see EpochTime
+    private long nextPaymentEpochSecond;
+    private int nextPaymentNano;
+    ///  64-bit, so long accrual gaps cannot wrap it; updates are overflow-checked
+    private long outstandingBalance;
+    ///  Set in lazy accrual mode, see InsuranceCompany.setLazyAccrual
+    private AbstractContract lazyAccrualContract;
+    private boolean accruing;
+    ///  Ledger that records premium and frequency changes, null for payment data that was only constructed
+    private BalanceLedger ledger;
+    private int handle;
 
     public ContractPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency, LocalDateTime nextPaymentTime, int outstandingBalance) {
         validateData(premium, premiumPaymentFrequency, nextPaymentTime, outstandingBalance);
         this.premium = premium;
         this.premiumPaymentFrequency = premiumPaymentFrequency;
-        this.nextPaymentTime = nextPaymentTime;
+        this.nextPaymentEpochSecond = EpochTime.toEpochSecond(nextPaymentTime);
+        this.nextPaymentNano = nextPaymentTime.getNano();
+        this.outstandingBalance = outstandingBalance;
+    }
+
+    public ContractPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency, long nextPaymentEpochSecond, int nextPaymentNano, int outstandingBalance) {
+        validatePremium(premium);
+        validatePremiumPaymentFrequency(premiumPaymentFrequency);
+        validateNextPaymentNano(nextPaymentNano);
+        this.premium = premium;
+        this.premiumPaymentFrequency = premiumPaymentFrequency;
+        this.nextPaymentEpochSecond = nextPaymentEpochSecond;
+        this.nextPaymentNano = nextPaymentNano;
         this.outstandingBalance = outstandingBalance;
     }
 
@@ -22,21 +45,39 @@ public class ContractPaymentData {
 
     public void setPremium(int premium) {
         validatePremium(premium);
+        accrue();
         this.premium = premium;
-
+        recordTermChange();
     }
 
-    public void setOutstandingBalance(int outstandingBalance) {
+    public void setOutstandingBalance(long outstandingBalance) {
         this.outstandingBalance = outstandingBalance;
     }
 
+    ///  Throws ArithmeticException instead of wrapping once the balance no longer fits an int,
+    ///  getExactOutstandingBalance always returns it
     public int getOutstandingBalance() {
+        accrue();
+        return Math.toIntExact(outstandingBalance);
+    }
+
+    public long getExactOutstandingBalance() {
+        accrue();
+        return outstandingBalance;
+    }
+
+    ///  Adds a charge or, with a negative amount, a payment and returns the new balance.
+    ///  Throws ArithmeticException rather than overflow.
+    public long addToOutstandingBalance(long amount) {
+        outstandingBalance = Math.addExact(outstandingBalance, amount);
         return outstandingBalance;
     }
 
     public void setPremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency) {
         validatePremiumPaymentFrequency(premiumPaymentFrequency);
+        accrue();
         this.premiumPaymentFrequency = premiumPaymentFrequency;
+        recordTermChange();
     }
 
     public PremiumPaymentFrequency getPremiumPaymentFrequency() {
@@ -44,11 +85,74 @@ public class ContractPaymentData {
     }
 
     public LocalDateTime getNextPaymentTime() {
-        return nextPaymentTime;
+        accrue();
+        return EpochTime.toLocalDateTime(nextPaymentEpochSecond, nextPaymentNano);
+    }
+
+    public long getNextPaymentEpochSecond() {
+        accrue();
+        return nextPaymentEpochSecond;
+    }
+
+    public int getNextPaymentNano() {
+        accrue();
+        return nextPaymentNano;
+    }
+
+    ///  A premium is due once the given time is not before the next payment time
+    public boolean isDue(long epochSecond, int nano) {
+        return EpochTime.compare(epochSecond, nano, nextPaymentEpochSecond, nextPaymentNano) >= 0;
     }
 
     public void updateNextPaymentTime() {
-        nextPaymentTime = nextPaymentTime.plusMonths(premiumPaymentFrequency.getValueInMonths());
+        nextPaymentEpochSecond = EpochTime.plusMonths(nextPaymentEpochSecond, premiumPaymentFrequency.getValueInMonths());
+    }
+
+    ///  From now on premium and frequency changes are recorded in the ledger under the given
+    ///  contract handle, so reconciliation can derive the charges from them
+    public void attachLedger(BalanceLedger ledger, int handle) {
+        validateLedger(ledger, handle);
+        this.ledger = ledger;
+        this.handle = handle;
+    }
+
+    ///  From now on every read of the balance or the next payment time, and every change of the premium,
+    ///  first charges the premiums of the contract that fell due up to the insurer's current time.
+    ///  The next payment time is the accrual frontier: everything due before it has been charged.
+    public void enableLazyAccrual(AbstractContract contract) {
+        validateLazyAccrualContract(contract);
+        this.lazyAccrualContract = contract;
+    }
+
+    public void disableLazyAccrual() {
+        this.lazyAccrualContract = null;
+    }
+
+    public boolean isLazyAccrual() {
+        return lazyAccrualContract != null;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void recordTermChange() {
+        if (ledger != null) {
+            ledger.recordTermChange(handle, premium, premiumPaymentFrequency);
+        }
+    }
+
+    ///  The charge itself reads the balance through the getters, the flag keeps that from recursing
+    private void accrue() {
+        AbstractContract contract = lazyAccrualContract;
+        if (contract == null || accruing || !contract.isActive()
+                || !isDue(contract.getInsurer().getCurrentEpochSecond(), contract.getInsurer().getCurrentNano())) {
+            return;
+        }
+        accruing = true;
+        try {
+            contract.updateBalance();
+        } finally {
+            accruing = false;
+        }
     }
 
 
@@ -76,4 +180,28 @@ public class ContractPaymentData {
             throw new IllegalArgumentException("Next payment time cannot be null");
         }
     }
+
+    private void validateLedger(BalanceLedger ledger, int handle) {
+        if (ledger == null) {
+            throw new IllegalArgumentException("Ledger cannot be null");
+        }
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handle cannot be negative");
+        }
+    }
+
+    private void validateLazyAccrualContract(AbstractContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Contract cannot be null");
+        }
+        if (contract.getContractPaymentData() != this) {
+            throw new IllegalArgumentException("Contract does not own this payment data");
+        }
+    }
+
+    private void validateNextPaymentNano(int nextPaymentNano) {
+        if (nextPaymentNano < 0 || nextPaymentNano > 999_999_999) {
+            throw new IllegalArgumentException("Next payment nano must be between 0 and 999999999");
+        }
+    }
 }
\ No newline at end of file
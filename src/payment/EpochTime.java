@@ -0,0 +1,103 @@
+package payment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+///  Allocation-free calendar arithmetic on UTC epoch seconds plus a nano-of-second part.
+///  Payment due dates, payment timestamps and the company clock are stored this way;
+///  LocalDateTime is only created at the API boundary.
+public final class EpochTime {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int DAYS_PER_ERA = 146_097;
+    private static final int DAYS_0000_TO_1970 = 719_468;
+
+    private EpochTime() {
+    }
+
+    public static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochSecond, int nano) {
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    public static int compare(long epochSecond1, int nano1, long epochSecond2, int nano2) {
+        int result = Long.compare(epochSecond1, epochSecond2);
+        return result != 0 ? result : Integer.compare(nano1, nano2);
+    }
+
+    ///  Same result as LocalDateTime.plusMonths: the day of month is clamped to the length of the target month
+    public static long plusMonths(long epochSecond, long months) {
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        long secondOfDay = Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        long monthAndDay = civilMonthAndDay(epochDay);
+        int day = (int) (monthAndDay & 31);
+
+        long monthCount = (monthAndDay >> 5) + months;
+        long newYear = Math.floorDiv(monthCount, 12);
+        int newMonth = Math.floorMod(monthCount, 12) + 1;
+        int newDay = Math.min(day, lengthOfMonth(newYear, newMonth));
+        return epochDay(newYear, newMonth, newDay) * SECONDS_PER_DAY + secondOfDay;
+    }
+
+    ///  Calendar months since January 1970, negative before it
+    public static long toEpochMonth(long epochSecond) {
+        return (civilMonthAndDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY)) >> 5) - 1970 * 12;
+    }
+
+    ///  Whole days from the first instant to the second, truncated towards zero like ChronoUnit.DAYS.between
+    public static long daysBetween(long epochSecond1, int nano1, long epochSecond2, int nano2) {
+        long seconds = epochSecond2 - epochSecond1;
+        if (seconds > 0 && nano2 < nano1) {
+            seconds--;
+        } else if (seconds < 0 && nano2 > nano1) {
+            seconds++;
+        }
+        return seconds / SECONDS_PER_DAY;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    ///  Civil date from days, with years starting in March so the leap day is the last day of the year.
+    ///  Returns year * 12 + month - 1 shifted left by five bits, with the day of month in the low bits.
+    private static long civilMonthAndDay(long epochDay) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, DAYS_PER_ERA);
+        long dayOfEra = z - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year * 12 + month - 1) << 5 | day;
+    }
+
+    private static long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
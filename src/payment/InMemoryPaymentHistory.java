@@ -0,0 +1,42 @@
+package payment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class InMemoryPaymentHistory implements PaymentHistoryStore {
+    private final List<Set<PaymentInstance>> historyByHandle;
+
+    public InMemoryPaymentHistory() {
+        this.historyByHandle = new ArrayList<>();
+    }
+
+    @Override
+    public synchronized void add(int handle, PaymentInstance paymentInstance) {
+        while (historyByHandle.size() <= handle) {
+            historyByHandle.add(null);
+        }
+        Set<PaymentInstance> history = historyByHandle.get(handle);
+        if (history == null) {
+            history = new TreeSet<>();
+            historyByHandle.set(handle, history);
+        }
+        history.add(paymentInstance);
+    }
+
+    @Override
+    public synchronized Set<PaymentInstance> get(int handle) {
+        return hasHistory(handle) ? historyByHandle.get(handle) : null;
+    }
+
+    @Override
+    public synchronized boolean hasHistory(int handle) {
+        return handle >= 0 && handle < historyByHandle.size() && historyByHandle.get(handle) != null;
+    }
+
+    @Override
+    public synchronized int handleBound() {
+        return historyByHandle.size();
+    }
+}
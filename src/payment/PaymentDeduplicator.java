@@ -0,0 +1,234 @@
+package payment;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+///  Remembers idempotency keys of applied payments for a sliding window of company time.
+///  Keys live in two generations, each a Bloom filter in front of an exact set. A new key almost
+///  always misses both filters and is accepted without touching the sets, a replay is confirmed
+///  by the exact set, so filter false positives never reject a payment.
+///
+///  A key is remembered for at least the window and at most twice the window. The capacity sizes
+///  the filters for the expected keys per window; a generation that receives more doubles its
+///  filter. Memory is bounded by maxKeys across both generations: once they hold that many keys,
+///  reserve rejects new keys with an IllegalStateException until the window moves on, so a burst
+///  is refused rather than let a remembered key be forgotten early or memory grow without limit.
+public class PaymentDeduplicator {
+    private static final int HASH_FUNCTIONS = 7;
+    private static final int BITS_PER_KEY = 10;
+    ///  Keys remembered by default relative to the capacity
+    private static final int DEFAULT_MAX_KEYS_PER_CAPACITY = 8;
+
+    private final long windowSeconds;
+    private final int capacity;
+    private final int maxKeys;
+    private Generation current;
+    private Generation previous;
+    private long resizes;
+
+    public PaymentDeduplicator(Duration window, int capacity) {
+        this(window, capacity, (int) Math.min(Integer.MAX_VALUE, (long) capacity * DEFAULT_MAX_KEYS_PER_CAPACITY));
+    }
+
+    public PaymentDeduplicator(Duration window, int capacity, int maxKeys) {
+        validateWindow(window);
+        validateCapacity(capacity, maxKeys);
+        this.windowSeconds = window.getSeconds();
+        this.capacity = capacity;
+        this.maxKeys = maxKeys;
+        this.current = new Generation(capacity);
+        this.previous = new Generation(capacity);
+        this.current.start = Long.MIN_VALUE;
+        this.previous.start = Long.MIN_VALUE;
+        this.resizes = 0;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofSeconds(windowSeconds);
+    }
+
+    ///  Expected number of keys per generation
+    public int getCapacity() {
+        return capacity;
+    }
+
+    ///  Keys remembered at most across both generations
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    ///  Number of times a generation outgrew its filter before its window ended
+    public synchronized long getResizes() {
+        return resizes;
+    }
+
+    ///  Keys currently remembered across both generations
+    public synchronized int size() {
+        return current.keys.size() + previous.keys.size();
+    }
+
+    ///  Records the key at the given company time; false when it is already remembered.
+    ///  Throws IllegalStateException for a new key while maxKeys keys are remembered.
+    public synchronized boolean reserve(String key, long epochSecond) {
+        validateKey(key);
+        rotate(epochSecond);
+        long hash = hash(key);
+        if (current.mightContain(hash) && current.keys.contains(key)
+                || previous.mightContain(hash) && previous.keys.contains(key)) {
+            return false;
+        }
+        validateRoom();
+        if (current.keys.size() >= current.capacity) {
+            resizes++;
+            current.grow();
+        }
+        current.add(hash, key);
+        return true;
+    }
+
+    ///  Forgets a reserved key, used when the payment it guarded was not applied
+    public synchronized void release(String key) {
+        validateKey(key);
+        ///  The filter bits stay set, the exact set decides
+        if (!current.keys.remove(key)) {
+            previous.keys.remove(key);
+        }
+    }
+
+    public synchronized void clear() {
+        current.clear(Long.MIN_VALUE);
+        previous.clear(Long.MIN_VALUE);
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void rotate(long epochSecond) {
+        if (current.start == Long.MIN_VALUE) {
+            current.start = epochSecond;
+            return;
+        }
+        ///  A clock moved backwards keeps the current generation
+        long age = epochSecond - current.start;
+        if (age >= 2 * windowSeconds) {
+            current = new Generation(capacity);
+            current.start = epochSecond;
+            previous.clear(Long.MIN_VALUE);
+        } else if (age >= windowSeconds) {
+            shift(epochSecond);
+        }
+    }
+
+    ///  The current generation becomes the previous one, the oldest one is recycled at the configured size
+    private void shift(long epochSecond) {
+        Generation recycled = previous.capacity == capacity ? previous : new Generation(capacity);
+        recycled.clear(epochSecond);
+        previous = current;
+        current = recycled;
+    }
+
+    ///  64-bit FNV-1a followed by a murmur finalizer to spread the bits for double hashing
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Generation {
+        private final Set<String> keys;
+        private long[] bits;
+        private int mask;
+        private int capacity;
+        private long start;
+
+        private Generation(int capacity) {
+            this.keys = new HashSet<>();
+            size(capacity);
+        }
+
+        private void size(int capacity) {
+            int bitCount = Integer.highestOneBit((int) Math.min(1 << 29, (long) capacity * BITS_PER_KEY - 1) << 1);
+            this.bits = new long[Math.max(1, bitCount >>> 6)];
+            this.mask = bits.length * 64 - 1;
+            this.capacity = capacity;
+        }
+
+        ///  Doubles the filter and re-adds the exact keys, none of them is forgotten
+        private void grow() {
+            size((int) Math.min(Integer.MAX_VALUE, 2L * capacity));
+            for (String key : keys) {
+                set(hash(key));
+            }
+        }
+
+        private boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long hash, String key) {
+            set(hash);
+            keys.add(key);
+        }
+
+        private void set(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (h1 + i * h2) & mask;
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        private void clear(long start) {
+            Arrays.fill(bits, 0L);
+            keys.clear();
+            this.start = start;
+        }
+    }
+
+    /// Validation methods
+
+    private void validateWindow(Duration window) {
+        if (window == null || window.getSeconds() <= 0) {
+            throw new IllegalArgumentException("Deduplication window must be at least one second");
+        }
+    }
+
+    private void validateCapacity(int capacity, int maxKeys) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Deduplication capacity must be positive");
+        }
+        if (maxKeys < capacity) {
+            throw new IllegalArgumentException("Maximum number of remembered keys cannot be below the capacity");
+        }
+    }
+
+    private void validateRoom() {
+        if (current.keys.size() + previous.keys.size() >= maxKeys) {
+            throw new IllegalStateException("Deduplication window already remembers " + maxKeys + " keys");
+        }
+    }
+
+    private void validateKey(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Idempotency key cannot be null or empty");
+        }
+    }
+}
@@ -5,43 +5,133 @@ import contracts.AbstractContract;
 import contracts.InvalidContractException;
 import contracts.MasterVehicleContract;
 import contracts.SingleVehicleContract;
+import events.DomainEventType;
 
+import java.time.Duration;
 import java.util.*;
 
 public class PaymentHandler {
-    private final Map<AbstractContract, Set<PaymentInstance>> paymentHistory;
+    private static final Duration DEFAULT_DEDUPLICATION_WINDOW = Duration.ofDays(7);
+    private static final int DEFAULT_DEDUPLICATION_CAPACITY = 100_000;
+
+    private PaymentHistoryStore paymentHistory;
+    private PaymentDeduplicator deduplicator;
+    private final BalanceLedger ledger;
     private final InsuranceCompany insurer;
 
     public PaymentHandler(InsuranceCompany insurer) {
         validateInsuranceCompany(insurer);
         this.insurer = insurer;
-        this.paymentHistory = new HashMap<>();
+        this.paymentHistory = new InMemoryPaymentHistory();
+        this.ledger = new BalanceLedger();
     }
 
-    public Map<AbstractContract, Set<PaymentInstance>> getPaymentHistory() {
+    ///  Totals of charges, payments and master allocations per contract, see ReconciliationReport
+    public BalanceLedger getLedger() {
+        return ledger;
+    }
+
+    public PaymentHistoryStore getPaymentHistoryStore() {
         return paymentHistory;
     }
 
+    ///  Switches to another history store, the history recorded so far is copied into it.
+    ///  Only payments that get still returns are copied, summaries of a RetainedPaymentHistory are not.
+    public void setPaymentHistoryStore(PaymentHistoryStore paymentHistoryStore) {
+        validatePaymentHistoryStore(paymentHistoryStore);
+        for (int handle = 0; handle < paymentHistory.handleBound(); handle++) {
+            if (paymentHistory.hasHistory(handle)) {
+                for (PaymentInstance paymentInstance : paymentHistory.get(handle)) {
+                    paymentHistoryStore.add(handle, paymentInstance);
+                }
+            }
+        }
+        this.paymentHistory = paymentHistoryStore;
+    }
+
+    ///  Created on the first keyed payment with a seven day window unless configured before
+    public synchronized PaymentDeduplicator getPaymentDeduplicator() {
+        if (deduplicator == null) {
+            deduplicator = new PaymentDeduplicator(DEFAULT_DEDUPLICATION_WINDOW, DEFAULT_DEDUPLICATION_CAPACITY);
+        }
+        return deduplicator;
+    }
+
+    ///  Replaces the deduplicator, keys remembered so far are forgotten
+    public synchronized void setDeduplicationWindow(Duration window, int capacity) {
+        this.deduplicator = new PaymentDeduplicator(window, capacity);
+    }
+
+    public synchronized void setDeduplicationWindow(Duration window, int capacity, int maxKeys) {
+        this.deduplicator = new PaymentDeduplicator(window, capacity, maxKeys);
+    }
+
+    public Map<AbstractContract, Set<PaymentInstance>> getPaymentHistory() {
+        return new PaymentHistoryView(insurer.getRegistry(), paymentHistory);
+    }
+
+    public Set<PaymentInstance> getPaymentHistory(AbstractContract contract) {
+        validateContract(contract);
+        if (contract.getInsurer() != insurer) {
+            return null;
+        }
+        return paymentHistory.get(contract.getHandle());
+    }
+
+    ///  Summaries of the contract's payments that getPaymentHistory no longer returns, see RetainedPaymentHistory
+    public List<PaymentSummary> getPaymentSummaries(AbstractContract contract) {
+        validateContract(contract);
+        if (contract.getInsurer() != insurer) {
+            return null;
+        }
+        return paymentHistory.getSummaries(contract.getHandle());
+    }
+
     public void pay(MasterVehicleContract contract, int amount) {
         validateContract(contract, amount);
         validateInsurance(contract);
 
+        ledger.recordPayment(insurer.getRegistry().handleOf(contract), 0, amount);
         processChildContracts(contract, amount);
 
-        PaymentInstance paymentInstance = new PaymentInstance(this.insurer.getCurrentTime(), amount);
+        PaymentInstance paymentInstance = new PaymentInstance(this.insurer.getCurrentEpochSecond(), this.insurer.getCurrentNano(), amount);
         addPaymentInstance(contract, paymentInstance);
+        insurer.getEvents().publish(DomainEventType.PAYMENT_APPLIED, contract, null, contract.getPolicyHolder(), amount, insurer.getCurrentEpochSecond(), insurer.getCurrentNano());
     }
 
     public void pay(AbstractContract contract, int amount) {
         validateContract(contract, amount);
         validateInsurance(contract);
 
-        int currentOutstandingBalance = contract.getContractPaymentData().getOutstandingBalance();
-        int newOutstangingBalance = currentOutstandingBalance - amount;
-
-        setNewOutstandingBalance(contract, newOutstangingBalance);
-        PaymentInstance paymentInstance = new PaymentInstance(this.insurer.getCurrentTime(), amount);
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        ledger.recordPayment(insurer.getRegistry().handleOf(contract), paymentData.getExactOutstandingBalance(), amount);
+        paymentData.addToOutstandingBalance(-amount);
+        insurer.getPortfolioIndex().update(contract);
+        PaymentInstance paymentInstance = new PaymentInstance(this.insurer.getCurrentEpochSecond(), this.insurer.getCurrentNano(), amount);
         addPaymentInstance(contract, paymentInstance);
+        insurer.getEvents().publish(DomainEventType.PAYMENT_APPLIED, contract, null, contract.getPolicyHolder(), amount, insurer.getCurrentEpochSecond(), insurer.getCurrentNano());
+    }
+
+    ///  Applies the payment once per idempotency key within the deduplication window and returns
+    ///  false for a replay. A payment that fails validation does not consume its key. While the
+    ///  window remembers its maximum number of keys, new keys are rejected with IllegalStateException.
+    public boolean pay(AbstractContract contract, int amount, String idempotencyKey) {
+        validateContract(contract, amount);
+        PaymentDeduplicator keys = getPaymentDeduplicator();
+        if (!keys.reserve(idempotencyKey, insurer.getCurrentEpochSecond())) {
+            return false;
+        }
+        try {
+            if (contract instanceof MasterVehicleContract) {
+                pay((MasterVehicleContract) contract, amount);
+            } else {
+                pay(contract, amount);
+            }
+        } catch (RuntimeException e) {
+            keys.release(idempotencyKey);
+            throw e;
+        }
+        return true;
     }
 
     /// Validation methods
@@ -51,10 +141,20 @@ public class PaymentHandler {
         }
     }
 
-    private void validateContract(AbstractContract contract, int amount) {
+    private void validatePaymentHistoryStore(PaymentHistoryStore paymentHistoryStore) {
+        if (paymentHistoryStore == null) {
+            throw new IllegalArgumentException("Payment history store cannot be null");
+        }
+    }
+
+    private void validateContract(AbstractContract contract) {
         if (contract == null) {
             throw new IllegalArgumentException("Contract cannot be null");
         }
+    }
+
+    private void validateContract(AbstractContract contract, int amount) {
+        validateContract(contract);
         if (amount <= 0) {
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
@@ -85,23 +185,29 @@ public class PaymentHandler {
     /// contains methods that are used multiple times
 
     private void addPaymentInstance(AbstractContract contract, PaymentInstance paymentInstance) {
-        paymentHistory.computeIfAbsent(contract, k -> new TreeSet<>()).add(paymentInstance);
+        paymentHistory.add(insurer.getRegistry().handleOf(contract), paymentInstance);
     }
 
-    private void setNewOutstandingBalance(AbstractContract contract, int newOutstandingBalance) {
-        contract.getContractPaymentData().setOutstandingBalance(newOutstandingBalance);
+    ///  Every credit of a child contract is recorded in the ledger as allocated to the child
+    ///  and as distributed by the master
+    private void allocate(MasterVehicleContract contract, SingleVehicleContract childContract, long outstandingBalance, long newOutstandingBalance) {
+        long credit = outstandingBalance - newOutstandingBalance;
+        ledger.recordAllocation(insurer.getRegistry().handleOf(childContract), outstandingBalance, credit);
+        ledger.recordAllocation(insurer.getRegistry().handleOf(contract), 0, credit);
+        childContract.getContractPaymentData().setOutstandingBalance(newOutstandingBalance);
+        insurer.getPortfolioIndex().update(childContract);
     }
 
     private void processChildContracts(MasterVehicleContract contract, int amount) {
         for (SingleVehicleContract childContract : contract.getChildContracts()) {
             if (childContract.isActive()) {
-                int outstandingBalance = childContract.getContractPaymentData().getOutstandingBalance();
+                long outstandingBalance = childContract.getContractPaymentData().getExactOutstandingBalance();
                 if (outstandingBalance > 0) {
                     if (amount >= outstandingBalance) {
-                        amount -= outstandingBalance;
-                        childContract.getContractPaymentData().setOutstandingBalance(0);
+                        amount -= (int) outstandingBalance;
+                        allocate(contract, childContract, outstandingBalance, 0);
                     } else {
-                        childContract.getContractPaymentData().setOutstandingBalance(outstandingBalance - amount);
+                        allocate(contract, childContract, outstandingBalance, outstandingBalance - amount);
                         amount = 0;
                     }
                 }
@@ -112,12 +218,12 @@ public class PaymentHandler {
             for (SingleVehicleContract childContract : contract.getChildContracts()) {
                 if (childContract.isActive()) {
                     int premium = childContract.getContractPaymentData().getPremium();
-                    int outstandingBalance = childContract.getContractPaymentData().getOutstandingBalance();
+                    long outstandingBalance = childContract.getContractPaymentData().getExactOutstandingBalance();
                     if (amount >= premium) {
-                        childContract.getContractPaymentData().setOutstandingBalance(outstandingBalance - premium);
+                        allocate(contract, childContract, outstandingBalance, outstandingBalance - premium);
                         amount -= premium;
                     } else {
-                        childContract.getContractPaymentData().setOutstandingBalance(outstandingBalance - amount);
+                        allocate(contract, childContract, outstandingBalance, outstandingBalance - amount);
                         amount = 0;
                     }
                 }
@@ -0,0 +1,36 @@
+package payment;
+
+import java.util.List;
+import java.util.Set;
+
+///  Storage of received payments indexed by contract handle.
+///  Implementations must be safe for use from several threads.
+public interface PaymentHistoryStore {
+
+    void add(int handle, PaymentInstance paymentInstance);
+
+    ///  Full payment history of the contract ordered by payment time, null if it has no payments
+    Set<PaymentInstance> get(int handle);
+
+    boolean hasHistory(int handle);
+
+    ///  Every handle with a history is below this bound
+    int handleBound();
+
+    ///  Sum of every payment recorded for the contract, including payments kept only in summaries
+    default long getPaidAmount(int handle) {
+        Set<PaymentInstance> history = get(handle);
+        long total = 0;
+        if (history != null) {
+            for (PaymentInstance paymentInstance : history) {
+                total += paymentInstance.getPaymentAmount();
+            }
+        }
+        return total;
+    }
+
+    ///  Summaries of the payments that get no longer returns, oldest first
+    default List<PaymentSummary> getSummaries(int handle) {
+        return List.of();
+    }
+}
@@ -0,0 +1,84 @@
+package payment;
+
+import company.ContractRegistry;
+import contracts.AbstractContract;
+
+import java.util.*;
+
+///  Read-only Map view over the handle-indexed payment history of a PaymentHandler.
+///  Archived contracts are left out, their history stays in the store under their handle.
+class PaymentHistoryView extends AbstractMap<AbstractContract, Set<PaymentInstance>> {
+    private final ContractRegistry registry;
+    private final PaymentHistoryStore store;
+
+    PaymentHistoryView(ContractRegistry registry, PaymentHistoryStore store) {
+        this.registry = registry;
+        this.store = store;
+    }
+
+    @Override
+    public Set<PaymentInstance> get(Object key) {
+        if (!(key instanceof AbstractContract contract)) {
+            return null;
+        }
+        int handle = contract.getHandle();
+        if (!isLive(handle) || !contract.equals(registry.get(handle))) {
+            return null;
+        }
+        return store.get(handle);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<AbstractContract, Set<PaymentInstance>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<AbstractContract, Set<PaymentInstance>>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < store.handleBound();
+                    }
+
+                    @Override
+                    public Entry<AbstractContract, Set<PaymentInstance>> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<AbstractContract, Set<PaymentInstance>> entry = new SimpleImmutableEntry<>(registry.get(next), store.get(next));
+                        next = advance(next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (int handle = 0; handle < store.handleBound(); handle++) {
+                    if (isLive(handle)) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    private int advance(int handle) {
+        while (handle < store.handleBound() && !isLive(handle)) {
+            handle++;
+        }
+        return handle;
+    }
+
+    private boolean isLive(int handle) {
+        return store.hasHistory(handle) && registry.get(handle) != null;
+    }
+}
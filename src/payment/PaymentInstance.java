@@ -3,17 +3,35 @@ package payment;
 import java.time.LocalDateTime;
 
 public class PaymentInstance implements Comparable<PaymentInstance> {
-    private final LocalDateTime paymentTime;
+    ///  Payment time as UTC epoch second and nano-of-second, see EpochTime
+    private final long paymentEpochSecond;
+    private final int paymentNano;
     private final int paymentAmount;
 
     public PaymentInstance(LocalDateTime paymentTime, int paymentAmount) {
         validateData(paymentTime, paymentAmount);
-        this.paymentTime = paymentTime;
+        this.paymentEpochSecond = EpochTime.toEpochSecond(paymentTime);
+        this.paymentNano = paymentTime.getNano();
+        this.paymentAmount = paymentAmount;
+    }
+
+    public PaymentInstance(long paymentEpochSecond, int paymentNano, int paymentAmount) {
+        validateData(paymentNano, paymentAmount);
+        this.paymentEpochSecond = paymentEpochSecond;
+        this.paymentNano = paymentNano;
         this.paymentAmount = paymentAmount;
     }
 
     public LocalDateTime getPaymentTime() {
-        return paymentTime;
+        return EpochTime.toLocalDateTime(paymentEpochSecond, paymentNano);
+    }
+
+    public long getPaymentEpochSecond() {
+        return paymentEpochSecond;
+    }
+
+    public int getPaymentNano() {
+        return paymentNano;
     }
 
     public int getPaymentAmount() {
@@ -26,6 +44,17 @@ public class PaymentInstance implements Comparable<PaymentInstance> {
         if (paymentTime == null) {
             throw new IllegalArgumentException("Payment time must not be null");
         }
+        validatePaymentAmount(paymentAmount);
+    }
+
+    private void validateData(int paymentNano, int paymentAmount) {
+        if (paymentNano < 0 || paymentNano > 999_999_999) {
+            throw new IllegalArgumentException("Payment nano must be between 0 and 999999999");
+        }
+        validatePaymentAmount(paymentAmount);
+    }
+
+    private void validatePaymentAmount(int paymentAmount) {
         if (paymentAmount <= 0) {
             throw new IllegalArgumentException("Payment amount must be positive");
         }
@@ -35,6 +64,6 @@ public class PaymentInstance implements Comparable<PaymentInstance> {
     ///  Implementing of Comparable interface to sort payment instances by payment time
     @Override
     public int compareTo(PaymentInstance other) {
-        return this.paymentTime.compareTo(other.paymentTime);
+        return EpochTime.compare(this.paymentEpochSecond, this.paymentNano, other.paymentEpochSecond, other.paymentNano);
     }
 }
@@ -0,0 +1,73 @@
+package payment;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+///  Binary layout of a spilled history segment: a varint entry count followed by one record
+///  per payment in time order. A record holds the zigzag varint delta of the epoch second
+///  against the previous record, the varint nano of second and the varint amount.
+final class PaymentSegmentCodec {
+
+    private PaymentSegmentCodec() {
+    }
+
+    static ByteBuffer encode(Collection<PaymentInstance> payments) {
+        ByteBuffer buffer = ByteBuffer.allocate(10 + payments.size() * 20);
+        putVarLong(buffer, payments.size());
+        long previousSecond = 0;
+        for (PaymentInstance payment : payments) {
+            long second = payment.getPaymentEpochSecond();
+            putVarLong(buffer, zigzag(second - previousSecond));
+            putVarLong(buffer, payment.getPaymentNano());
+            putVarLong(buffer, payment.getPaymentAmount());
+            previousSecond = second;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    ///  Decodes all segments remaining in the buffer
+    static List<PaymentInstance> decodeAll(ByteBuffer buffer) {
+        List<PaymentInstance> payments = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            long count = getVarLong(buffer);
+            long second = 0;
+            for (long i = 0; i < count; i++) {
+                second += unzigzag(getVarLong(buffer));
+                int nano = (int) getVarLong(buffer);
+                int amount = (int) getVarLong(buffer);
+                payments.add(new PaymentInstance(second, nano, amount));
+            }
+        }
+        return payments;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,196 @@
+package payment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+///  Appends spilled segments of all contracts to shared segment files and reads a contract's
+///  segments back through an offset index. A segment file is closed for appends once it reaches
+///  maxSegmentBytes, so the number of files grows with the spilled bytes, not with the contracts.
+///  The decoded histories of the most recently read contracts are cached, bounded by the total
+///  number of cached payments.
+class PaymentSegmentReader {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int NO_CHUNK = -1;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final int maxCachedPayments;
+    private final LinkedHashMap<Integer, List<PaymentInstance>> cache;
+    private final List<FileChannel> files;
+    ///  Offset index: one chunk per append, chained to the previous chunk of the same contract
+    private int[] chunkFile;
+    private long[] chunkOffset;
+    private int[] chunkLength;
+    private int[] previousChunk;
+    private int chunks;
+    ///  Last chunk of every contract handle
+    private int[] lastChunk;
+    private long appendOffset;
+    private int cachedPayments;
+
+    PaymentSegmentReader(Path directory, long maxSegmentBytes, int maxCachedPayments) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxCachedPayments = maxCachedPayments;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.files = new ArrayList<>();
+        this.chunkFile = new int[16];
+        this.chunkOffset = new long[16];
+        this.chunkLength = new int[16];
+        this.previousChunk = new int[16];
+        this.chunks = 0;
+        this.lastChunk = new int[16];
+        Arrays.fill(lastChunk, NO_CHUNK);
+        this.appendOffset = 0;
+        this.cachedPayments = 0;
+    }
+
+    List<PaymentInstance> read(int handle) {
+        List<PaymentInstance> payments = cache.get(handle);
+        if (payments != null) {
+            return payments;
+        }
+        payments = PaymentSegmentCodec.decodeAll(readChunks(handle));
+        if (payments.size() <= maxCachedPayments) {
+            cache.put(handle, payments);
+            cachedPayments += payments.size();
+            evict();
+        }
+        return payments;
+    }
+
+    void append(int handle, ByteBuffer segment) {
+        invalidate(handle);
+        try {
+            if (files.isEmpty() || appendOffset >= maxSegmentBytes) {
+                files.add(FileChannel.open(directory.resolve(SEGMENT_PREFIX + files.size() + SEGMENT_SUFFIX),
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+                appendOffset = 0;
+            }
+            int length = segment.remaining();
+            FileChannel file = files.get(files.size() - 1);
+            for (long position = appendOffset; segment.hasRemaining(); ) {
+                position += file.write(segment, position);
+            }
+            addChunk(handle, files.size() - 1, appendOffset, length);
+            appendOffset += length;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int getCachedPayments() {
+        return cachedPayments;
+    }
+
+    int getSegmentFiles() {
+        return files.size();
+    }
+
+    ///  Closes and deletes the segment files, the reader cannot be used afterwards
+    void delete() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                files.get(i).close();
+                Files.deleteIfExists(directory.resolve(SEGMENT_PREFIX + i + SEGMENT_SUFFIX));
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        files.clear();
+        cache.clear();
+        cachedPayments = 0;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void addChunk(int handle, int file, long offset, int length) {
+        if (chunks == chunkFile.length) {
+            chunkFile = Arrays.copyOf(chunkFile, chunks * 2);
+            chunkOffset = Arrays.copyOf(chunkOffset, chunks * 2);
+            chunkLength = Arrays.copyOf(chunkLength, chunks * 2);
+            previousChunk = Arrays.copyOf(previousChunk, chunks * 2);
+        }
+        if (handle >= lastChunk.length) {
+            int oldLength = lastChunk.length;
+            lastChunk = Arrays.copyOf(lastChunk, Math.max(handle + 1, oldLength * 2));
+            Arrays.fill(lastChunk, oldLength, lastChunk.length, NO_CHUNK);
+        }
+        chunkFile[chunks] = file;
+        chunkOffset[chunks] = offset;
+        chunkLength[chunks] = length;
+        previousChunk[chunks] = lastChunk[handle];
+        lastChunk[handle] = chunks++;
+    }
+
+    ///  All chunks of the contract in append order, concatenated
+    private ByteBuffer readChunks(int handle) {
+        int total = 0;
+        int count = 0;
+        for (int chunk = lastChunk(handle); chunk != NO_CHUNK; chunk = previousChunk[chunk]) {
+            total = Math.addExact(total, chunkLength[chunk]);
+            count++;
+        }
+        int[] ordered = new int[count];
+        for (int chunk = lastChunk(handle); chunk != NO_CHUNK; chunk = previousChunk[chunk]) {
+            ordered[--count] = chunk;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        try {
+            for (int chunk : ordered) {
+                FileChannel file = files.get(chunkFile[chunk]);
+                buffer.limit(buffer.position() + chunkLength[chunk]);
+                for (long position = chunkOffset[chunk]; buffer.hasRemaining(); ) {
+                    int read = file.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("Segment file ends inside a chunk of contract " + handle);
+                    }
+                    position += read;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private int lastChunk(int handle) {
+        return handle < lastChunk.length ? lastChunk[handle] : NO_CHUNK;
+    }
+
+    private void invalidate(int handle) {
+        List<PaymentInstance> removed = cache.remove(handle);
+        if (removed != null) {
+            cachedPayments -= removed.size();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Integer, List<PaymentInstance>>> eldest = cache.entrySet().iterator();
+        while (cachedPayments > maxCachedPayments && eldest.hasNext()) {
+            cachedPayments -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package payment;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+///  Count, sum and time range of payments of one contract that were rolled up by RetainedPaymentHistory.
+///  A summary covers one calendar month, except the one a contract's oldest months are folded into.
+public class PaymentSummary {
+    private long fromMonth;
+    private long toMonth;
+    private long count;
+    private long sum;
+    private long firstEpochSecond;
+    private int firstNano;
+    private long lastEpochSecond;
+    private int lastNano;
+
+    PaymentSummary(PaymentInstance paymentInstance) {
+        long month = EpochTime.toEpochMonth(paymentInstance.getPaymentEpochSecond());
+        this.fromMonth = month;
+        this.toMonth = month;
+        this.count = 1;
+        this.sum = paymentInstance.getPaymentAmount();
+        this.firstEpochSecond = paymentInstance.getPaymentEpochSecond();
+        this.firstNano = paymentInstance.getPaymentNano();
+        this.lastEpochSecond = firstEpochSecond;
+        this.lastNano = firstNano;
+    }
+
+    PaymentSummary(PaymentSummary other) {
+        this.fromMonth = other.fromMonth;
+        this.toMonth = other.toMonth;
+        this.count = other.count;
+        this.sum = other.sum;
+        this.firstEpochSecond = other.firstEpochSecond;
+        this.firstNano = other.firstNano;
+        this.lastEpochSecond = other.lastEpochSecond;
+        this.lastNano = other.lastNano;
+    }
+
+    ///  First month covered, as calendar months since January 1970
+    public long getFromEpochMonth() {
+        return fromMonth;
+    }
+
+    public long getToEpochMonth() {
+        return toMonth;
+    }
+
+    public YearMonth getFromMonth() {
+        return toYearMonth(fromMonth);
+    }
+
+    public YearMonth getToMonth() {
+        return toYearMonth(toMonth);
+    }
+
+    public boolean isMonthly() {
+        return fromMonth == toMonth;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public LocalDateTime getFirstPaymentTime() {
+        return EpochTime.toLocalDateTime(firstEpochSecond, firstNano);
+    }
+
+    public LocalDateTime getLastPaymentTime() {
+        return EpochTime.toLocalDateTime(lastEpochSecond, lastNano);
+    }
+
+    @Override
+    public String toString() {
+        return (isMonthly() ? getFromMonth().toString() : getFromMonth() + ".." + getToMonth())
+                + ": " + count + " payments, " + sum;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    void add(PaymentInstance paymentInstance) {
+        long month = EpochTime.toEpochMonth(paymentInstance.getPaymentEpochSecond());
+        fromMonth = Math.min(fromMonth, month);
+        toMonth = Math.max(toMonth, month);
+        count++;
+        sum += paymentInstance.getPaymentAmount();
+        include(paymentInstance.getPaymentEpochSecond(), paymentInstance.getPaymentNano(), paymentInstance.getPaymentEpochSecond(), paymentInstance.getPaymentNano());
+    }
+
+    void merge(PaymentSummary other) {
+        fromMonth = Math.min(fromMonth, other.fromMonth);
+        toMonth = Math.max(toMonth, other.toMonth);
+        count += other.count;
+        sum += other.sum;
+        include(other.firstEpochSecond, other.firstNano, other.lastEpochSecond, other.lastNano);
+    }
+
+    private void include(long fromEpochSecond, int fromNano, long toEpochSecond, int toNano) {
+        if (EpochTime.compare(fromEpochSecond, fromNano, firstEpochSecond, firstNano) < 0) {
+            firstEpochSecond = fromEpochSecond;
+            firstNano = fromNano;
+        }
+        if (EpochTime.compare(toEpochSecond, toNano, lastEpochSecond, lastNano) > 0) {
+            lastEpochSecond = toEpochSecond;
+            lastNano = toNano;
+        }
+    }
+
+    private static YearMonth toYearMonth(long epochMonth) {
+        return YearMonth.of(1970, 1).plusMonths(epochMonth);
+    }
+}
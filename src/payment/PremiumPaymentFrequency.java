@@ -11,4 +11,8 @@ public enum PremiumPaymentFrequency {
             case MONTHLY -> 1;
         };
     }
+
+    public int getPaymentsPerYear() {
+        return 12 / getValueInMonths();
+    }
 }
@@ -0,0 +1,191 @@
+package payment;
+
+import java.time.Duration;
+import java.util.*;
+
+///  Payment history that keeps individual payments for a retention window only. Older payments are
+///  rolled up into per-contract monthly summaries, and a contract keeps at most summaryMonths of those:
+///  its oldest months are folded into a single summary. Heap use therefore depends on the payment rate
+///  and the number of contracts, not on the age of the book.
+///  The window is measured back from the newest payment recorded, the store has no clock of its own.
+public class RetainedPaymentHistory implements PaymentHistoryStore {
+    private final long retentionSeconds;
+    private final int summaryMonths;
+    private final List<ContractHistory> historyByHandle;
+    ///  Retained payments in the order they were recorded, payments expire from the head
+    private final ArrayDeque<RetainedPayment> retained;
+    private long newestEpochSecond;
+    private long summaries;
+
+    public RetainedPaymentHistory(Duration retention, int summaryMonths) {
+        validateRetention(retention);
+        validateSummaryMonths(summaryMonths);
+        this.retentionSeconds = retention.getSeconds();
+        this.summaryMonths = summaryMonths;
+        this.historyByHandle = new ArrayList<>();
+        this.retained = new ArrayDeque<>();
+        this.newestEpochSecond = Long.MIN_VALUE;
+        this.summaries = 0;
+    }
+
+    @Override
+    public synchronized void add(int handle, PaymentInstance paymentInstance) {
+        validateHandle(handle);
+        validatePaymentInstance(paymentInstance);
+        ContractHistory history = historyOf(handle);
+        newestEpochSecond = Math.max(newestEpochSecond, paymentInstance.getPaymentEpochSecond());
+        if (isExpired(paymentInstance)) {
+            summarize(history, paymentInstance);
+            history.paidAmount += paymentInstance.getPaymentAmount();
+        } else if (history.recent.add(paymentInstance)) {
+            history.paidAmount += paymentInstance.getPaymentAmount();
+            retained.addLast(new RetainedPayment(handle, paymentInstance));
+        }
+        expire();
+    }
+
+    ///  Payments of the contract still inside the retention window, ordered by payment time
+    @Override
+    public synchronized Set<PaymentInstance> get(int handle) {
+        if (!hasHistory(handle)) {
+            return null;
+        }
+        return Collections.unmodifiableSet(new TreeSet<>(historyByHandle.get(handle).recent));
+    }
+
+    @Override
+    public synchronized boolean hasHistory(int handle) {
+        return handle >= 0 && handle < historyByHandle.size() && historyByHandle.get(handle) != null;
+    }
+
+    @Override
+    public synchronized int handleBound() {
+        return historyByHandle.size();
+    }
+
+    @Override
+    public synchronized long getPaidAmount(int handle) {
+        return hasHistory(handle) ? historyByHandle.get(handle).paidAmount : 0;
+    }
+
+    @Override
+    public synchronized List<PaymentSummary> getSummaries(int handle) {
+        if (!hasHistory(handle)) {
+            return List.of();
+        }
+        ContractHistory history = historyByHandle.get(handle);
+        List<PaymentSummary> copies = new ArrayList<>(history.months.size() + 1);
+        if (history.earlier != null) {
+            copies.add(new PaymentSummary(history.earlier));
+        }
+        for (PaymentSummary summary : history.months.values()) {
+            copies.add(new PaymentSummary(summary));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    ///  Individual payments held across all contracts
+    public synchronized int getRetainedPayments() {
+        return retained.size();
+    }
+
+    public synchronized long getSummaryCount() {
+        return summaries;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private ContractHistory historyOf(int handle) {
+        while (historyByHandle.size() <= handle) {
+            historyByHandle.add(null);
+        }
+        ContractHistory history = historyByHandle.get(handle);
+        if (history == null) {
+            history = new ContractHistory();
+            historyByHandle.set(handle, history);
+        }
+        return history;
+    }
+
+    private boolean isExpired(PaymentInstance paymentInstance) {
+        return paymentInstance.getPaymentEpochSecond() < newestEpochSecond - retentionSeconds;
+    }
+
+    ///  Payments are recorded at the company time, so the head of the queue is the oldest one
+    ///  unless the clock was set back; such a payment waits until the ones ahead of it expire
+    private void expire() {
+        while (!retained.isEmpty() && isExpired(retained.peekFirst().paymentInstance)) {
+            RetainedPayment payment = retained.pollFirst();
+            ContractHistory history = historyByHandle.get(payment.handle);
+            history.recent.remove(payment.paymentInstance);
+            summarize(history, payment.paymentInstance);
+        }
+    }
+
+    private void summarize(ContractHistory history, PaymentInstance paymentInstance) {
+        long month = EpochTime.toEpochMonth(paymentInstance.getPaymentEpochSecond());
+        if (history.earlier != null && month <= history.earlier.getToEpochMonth()) {
+            history.earlier.add(paymentInstance);
+            return;
+        }
+        PaymentSummary summary = history.months.get(month);
+        if (summary != null) {
+            summary.add(paymentInstance);
+            return;
+        }
+        history.months.put(month, new PaymentSummary(paymentInstance));
+        summaries++;
+        if (history.months.size() > summaryMonths) {
+            PaymentSummary oldest = history.months.pollFirstEntry().getValue();
+            if (history.earlier == null) {
+                history.earlier = oldest;
+            } else {
+                history.earlier.merge(oldest);
+                summaries--;
+            }
+        }
+    }
+
+    private static final class ContractHistory {
+        private final TreeSet<PaymentInstance> recent = new TreeSet<>();
+        private final TreeMap<Long, PaymentSummary> months = new TreeMap<>();
+        private PaymentSummary earlier;
+        private long paidAmount;
+    }
+
+    private static final class RetainedPayment {
+        private final int handle;
+        private final PaymentInstance paymentInstance;
+
+        private RetainedPayment(int handle, PaymentInstance paymentInstance) {
+            this.handle = handle;
+            this.paymentInstance = paymentInstance;
+        }
+    }
+
+    /// Validation methods
+
+    private void validateRetention(Duration retention) {
+        if (retention == null || retention.isNegative()) {
+            throw new IllegalArgumentException("Retention must be a non-negative duration");
+        }
+    }
+
+    private void validateSummaryMonths(int summaryMonths) {
+        if (summaryMonths <= 0) {
+            throw new IllegalArgumentException("Summary months must be positive");
+        }
+    }
+
+    private void validateHandle(int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handle cannot be negative");
+        }
+    }
+
+    private void validatePaymentInstance(PaymentInstance paymentInstance) {
+        if (paymentInstance == null) {
+            throw new IllegalArgumentException("Payment instance cannot be null");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package payment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+///  Payment history that keeps at most maxHotPayments payments on the heap. When the bound is
+///  exceeded, the in-memory payments of the least recently paid contracts are appended to
+///  shared segment files and found again through an offset index. Full-history reads merge the
+///  spilled segments, served through an LRU cache of decoded segments, with the payments still
+///  in memory.
+///  The store starts empty in a new subdirectory of the given directory that it owns, nothing
+///  else in the directory is touched. close deletes the subdirectory with its segment files.
+public class TieredPaymentHistory implements PaymentHistoryStore, AutoCloseable {
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 64L << 20;
+
+    private final Path segmentDirectory;
+    private final int maxHotPayments;
+    private final LinkedHashMap<Integer, TreeSet<PaymentInstance>> hot;
+    private final BitSet spilled;
+    private final BitSet known;
+    private final PaymentSegmentReader reader;
+    private int hotPayments;
+
+    public TieredPaymentHistory(Path directory, int maxHotPayments, int maxCachedPayments) throws IOException {
+        this(directory, maxHotPayments, maxCachedPayments, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    ///  A segment file takes appends until it holds maxSegmentBytes, then the next one is started
+    public TieredPaymentHistory(Path directory, int maxHotPayments, int maxCachedPayments, long maxSegmentBytes) throws IOException {
+        validateDirectory(directory);
+        validateBounds(maxHotPayments, maxCachedPayments, maxSegmentBytes);
+        Files.createDirectories(directory);
+        this.segmentDirectory = Files.createTempDirectory(directory, "payment-history-");
+        this.maxHotPayments = maxHotPayments;
+        this.hot = new LinkedHashMap<>(16, 0.75f, true);
+        this.spilled = new BitSet();
+        this.known = new BitSet();
+        this.reader = new PaymentSegmentReader(segmentDirectory, maxSegmentBytes, maxCachedPayments);
+        this.hotPayments = 0;
+    }
+
+    @Override
+    public synchronized void add(int handle, PaymentInstance paymentInstance) {
+        validatePaymentInstance(paymentInstance);
+        if (hot.computeIfAbsent(handle, k -> new TreeSet<>()).add(paymentInstance)) {
+            hotPayments++;
+        }
+        known.set(handle);
+        while (hotPayments > maxHotPayments) {
+            spillEldest();
+        }
+    }
+
+    @Override
+    public synchronized Set<PaymentInstance> get(int handle) {
+        if (!hasHistory(handle)) {
+            return null;
+        }
+        TreeSet<PaymentInstance> history = new TreeSet<>();
+        if (spilled.get(handle)) {
+            history.addAll(reader.read(handle));
+        }
+        TreeSet<PaymentInstance> recent = hot.get(handle);
+        if (recent != null) {
+            history.addAll(recent);
+        }
+        return Collections.unmodifiableSet(history);
+    }
+
+    @Override
+    public synchronized boolean hasHistory(int handle) {
+        return handle >= 0 && known.get(handle);
+    }
+
+    @Override
+    public synchronized int handleBound() {
+        return known.length();
+    }
+
+    public synchronized int getHotPayments() {
+        return hotPayments;
+    }
+
+    public synchronized int getCachedPayments() {
+        return reader.getCachedPayments();
+    }
+
+    public synchronized int getSegmentFiles() {
+        return reader.getSegmentFiles();
+    }
+
+    ///  Subdirectory of the directory passed in that holds this store's segment files
+    public Path getSegmentDirectory() {
+        return segmentDirectory;
+    }
+
+    ///  Deletes the segment files and their subdirectory, spilled payments are gone afterwards
+    @Override
+    public synchronized void close() throws IOException {
+        reader.delete();
+        Files.deleteIfExists(segmentDirectory);
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void spillEldest() {
+        Iterator<Map.Entry<Integer, TreeSet<PaymentInstance>>> eldest = hot.entrySet().iterator();
+        Map.Entry<Integer, TreeSet<PaymentInstance>> entry = eldest.next();
+        reader.append(entry.getKey(), PaymentSegmentCodec.encode(entry.getValue()));
+        spilled.set(entry.getKey());
+        hotPayments -= entry.getValue().size();
+        eldest.remove();
+    }
+
+    /// Validation methods
+
+    private void validateDirectory(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+    }
+
+    private void validateBounds(int maxHotPayments, int maxCachedPayments, long maxSegmentBytes) {
+        if (maxHotPayments <= 0) {
+            throw new IllegalArgumentException("Maximum number of in-memory payments must be positive");
+        }
+        if (maxCachedPayments < 0) {
+            throw new IllegalArgumentException("Maximum number of cached payments cannot be negative");
+        }
+        if (maxSegmentBytes <= 0) {
+            throw new IllegalArgumentException("Maximum segment file size must be positive");
+        }
+    }
+
+    private void validatePaymentInstance(PaymentInstance paymentInstance) {
+        if (paymentInstance == null) {
+            throw new IllegalArgumentException("Payment instance cannot be null");
+        }
+    }
+}
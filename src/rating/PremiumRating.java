@@ -0,0 +1,143 @@
+package rating;
+
+import payment.PremiumPaymentFrequency;
+
+///  Side-effect-free premium rules shared with InsuranceCompany's issuance validation.
+///  Proposals are rated without exceptions; invalid inputs are simply not admissible.
+public final class PremiumRating {
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private PremiumRating() {
+    }
+
+    ///  The annual premium must be at least 2% of the vehicle's value
+    public static boolean meetsVehicleMinimum(int premium, PremiumPaymentFrequency frequency, int vehicleValue) {
+        return annualPremium(premium, frequency) >= 0.02 * vehicleValue;
+    }
+
+    ///  The annual premium must be at least five times the number of insured persons
+    public static boolean meetsTravelMinimum(int premium, PremiumPaymentFrequency frequency, int groupSize) {
+        return annualPremium(premium, frequency) >= 5L * groupSize;
+    }
+
+    public static boolean isAdmissibleVehiclePremium(int premium, PremiumPaymentFrequency frequency, int vehicleValue) {
+        return premium > 0 && frequency != null && vehicleValue > 0 && meetsVehicleMinimum(premium, frequency, vehicleValue);
+    }
+
+    public static boolean isAdmissibleTravelPremium(int premium, PremiumPaymentFrequency frequency, int groupSize) {
+        return premium > 0 && frequency != null && groupSize > 0 && meetsTravelMinimum(premium, frequency, groupSize);
+    }
+
+    ///  Smallest admissible premium, or -1 if no premium is admissible for the vehicle value
+    public static int minimumVehiclePremium(int vehicleValue, PremiumPaymentFrequency frequency) {
+        if (frequency == null || vehicleValue <= 0) {
+            return -1;
+        }
+        int premium = (int) Math.max(1, Math.ceil(0.02 * vehicleValue / frequency.getPaymentsPerYear()));
+        ///  Correct the floating point estimate against the rule itself
+        while (premium > 1 && meetsVehicleMinimum(premium - 1, frequency, vehicleValue)) {
+            premium--;
+        }
+        while (!meetsVehicleMinimum(premium, frequency, vehicleValue)) {
+            premium++;
+        }
+        return premium;
+    }
+
+    ///  Smallest admissible premium, or -1 if no premium is admissible for the group size
+    public static int minimumTravelPremium(int groupSize, PremiumPaymentFrequency frequency) {
+        if (frequency == null || groupSize <= 0) {
+            return -1;
+        }
+        int paymentsPerYear = frequency.getPaymentsPerYear();
+        return (int) Math.max(1, (5L * groupSize + paymentsPerYear - 1) / paymentsPerYear);
+    }
+
+    ///  Minimum premiums indexed by PremiumPaymentFrequency ordinal
+    public static int[] minimumVehiclePremiums(int vehicleValue) {
+        int[] minimums = new int[FREQUENCIES.length];
+        for (PremiumPaymentFrequency frequency : FREQUENCIES) {
+            minimums[frequency.ordinal()] = minimumVehiclePremium(vehicleValue, frequency);
+        }
+        return minimums;
+    }
+
+    ///  Minimum premiums indexed by PremiumPaymentFrequency ordinal
+    public static int[] minimumTravelPremiums(int groupSize) {
+        int[] minimums = new int[FREQUENCIES.length];
+        for (PremiumPaymentFrequency frequency : FREQUENCIES) {
+            minimums[frequency.ordinal()] = minimumTravelPremium(groupSize, frequency);
+        }
+        return minimums;
+    }
+
+    ///  Rates vehicle proposals element-wise into admissible and returns how many are admissible
+    public static int rateVehicleProposals(int[] premiums, PremiumPaymentFrequency[] frequencies, int[] vehicleValues, boolean[] admissible) {
+        validateBatch(premiums, frequencies, vehicleValues, admissible);
+        int count = 0;
+        for (int i = 0; i < premiums.length; i++) {
+            boolean result = isAdmissibleVehiclePremium(premiums[i], frequencies[i], vehicleValues[i]);
+            admissible[i] = result;
+            if (result) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    ///  Rates travel proposals element-wise into admissible and returns how many are admissible
+    public static int rateTravelProposals(int[] premiums, PremiumPaymentFrequency[] frequencies, int[] groupSizes, boolean[] admissible) {
+        validateBatch(premiums, frequencies, groupSizes, admissible);
+        int count = 0;
+        for (int i = 0; i < premiums.length; i++) {
+            boolean result = isAdmissibleTravelPremium(premiums[i], frequencies[i], groupSizes[i]);
+            admissible[i] = result;
+            if (result) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    ///  Fills minimums with the minimum premium of every vehicle value for one frequency
+    public static void minimumVehiclePremiums(int[] vehicleValues, PremiumPaymentFrequency frequency, int[] minimums) {
+        validateMinimums(vehicleValues, frequency, minimums);
+        for (int i = 0; i < vehicleValues.length; i++) {
+            minimums[i] = minimumVehiclePremium(vehicleValues[i], frequency);
+        }
+    }
+
+    ///  Fills minimums with the minimum premium of every group size for one frequency
+    public static void minimumTravelPremiums(int[] groupSizes, PremiumPaymentFrequency frequency, int[] minimums) {
+        validateMinimums(groupSizes, frequency, minimums);
+        for (int i = 0; i < groupSizes.length; i++) {
+            minimums[i] = minimumTravelPremium(groupSizes[i], frequency);
+        }
+    }
+
+    ///  Helper method to calculate the annual premium without int overflow
+
+    private static long annualPremium(int premium, PremiumPaymentFrequency frequency) {
+        return (long) premium * frequency.getPaymentsPerYear();
+    }
+
+    /// Validation methods
+
+    private static void validateBatch(int[] premiums, PremiumPaymentFrequency[] frequencies, int[] values, boolean[] admissible) {
+        if (premiums == null || frequencies == null || values == null || admissible == null) {
+            throw new IllegalArgumentException("Proposal arrays cannot be null");
+        }
+        if (frequencies.length != premiums.length || values.length != premiums.length || admissible.length < premiums.length) {
+            throw new IllegalArgumentException("Proposal arrays must have the same length");
+        }
+    }
+
+    private static void validateMinimums(int[] values, PremiumPaymentFrequency frequency, int[] minimums) {
+        if (values == null || frequency == null || minimums == null) {
+            throw new IllegalArgumentException("Values, frequency and output array cannot be null");
+        }
+        if (minimums.length < values.length) {
+            throw new IllegalArgumentException("Output array is too short");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package reports;
+
+import contracts.AbstractContract;
+import contracts.ContractType;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.LegalForm;
+import payment.ContractPaymentData;
+import payment.EpochTime;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+///  Outstanding balances bucketed by contract type, payment frequency, policyholder legal form
+///  and age. Instances are filled by one thread each and merged afterwards.
+public class AgedReceivables {
+    private static final ContractType[] TYPES = ContractType.values();
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+    private static final LegalForm[] LEGAL_FORMS = LegalForm.values();
+    private static final AgingBucket[] BUCKETS = AgingBucket.values();
+    private static final int CELLS = TYPES.length * FREQUENCIES.length * LEGAL_FORMS.length * BUCKETS.length;
+
+    private final long asOfEpochSecond;
+    private final int asOfNano;
+    private final long[] balances;
+    private final long[] counts;
+    private final CsvChannelWriter detailWriter;
+
+    AgedReceivables(LocalDateTime asOf, FileChannel detailChannel) {
+        this.asOfEpochSecond = EpochTime.toEpochSecond(asOf);
+        this.asOfNano = asOf.getNano();
+        this.balances = new long[CELLS];
+        this.counts = new long[CELLS];
+        this.detailWriter = detailChannel == null ? null : new CsvChannelWriter(detailChannel);
+    }
+
+    public LocalDateTime getAsOf() {
+        return EpochTime.toLocalDateTime(asOfEpochSecond, asOfNano);
+    }
+
+    public long getBalance(ContractType type, PremiumPaymentFrequency frequency, LegalForm legalForm, AgingBucket bucket) {
+        return balances[cell(type.ordinal(), frequency.ordinal(), legalForm.ordinal(), bucket.ordinal())];
+    }
+
+    public long getCount(ContractType type, PremiumPaymentFrequency frequency, LegalForm legalForm, AgingBucket bucket) {
+        return counts[cell(type.ordinal(), frequency.ordinal(), legalForm.ordinal(), bucket.ordinal())];
+    }
+
+    public long getTotalBalance() {
+        long total = 0;
+        for (long balance : balances) {
+            total += balance;
+        }
+        return total;
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public void writeCsv(Path summaryCsv) throws IOException {
+        try (FileChannel channel = FileChannel.open(summaryCsv, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CsvChannelWriter writer = new CsvChannelWriter(channel);
+            writer.putLine("contract_type,frequency,legal_form,bucket,contracts,outstanding_balance");
+            for (ContractType type : TYPES) {
+                for (PremiumPaymentFrequency frequency : FREQUENCIES) {
+                    for (LegalForm legalForm : LEGAL_FORMS) {
+                        for (AgingBucket bucket : BUCKETS) {
+                            int cell = cell(type.ordinal(), frequency.ordinal(), legalForm.ordinal(), bucket.ordinal());
+                            if (counts[cell] == 0) {
+                                continue;
+                            }
+                            writer.beginRow(0);
+                            writer.putText(type.name());
+                            writer.putSeparator();
+                            writer.putText(frequency.name());
+                            writer.putSeparator();
+                            writer.putText(legalForm.name());
+                            writer.putSeparator();
+                            writer.putText(bucket.name());
+                            writer.putSeparator();
+                            writer.putLong(counts[cell]);
+                            writer.putSeparator();
+                            writer.putLong(balances[cell]);
+                            writer.endRow();
+                        }
+                    }
+                }
+            }
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    ///  Adds a contract of the portfolio, master contracts contribute their children
+    void accumulate(AbstractContract contract) {
+        if (contract instanceof MasterVehicleContract master) {
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                accumulate(child);
+            }
+            return;
+        }
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        if (paymentData == null || paymentData.getExactOutstandingBalance() <= 0) {
+            return;
+        }
+        long balance = paymentData.getExactOutstandingBalance();
+        long daysPastDue = daysPastDue(paymentData, balance);
+        AgingBucket bucket = AgingBucket.of(daysPastDue);
+        int cell = cell(contract.getContractType().ordinal(), paymentData.getPremiumPaymentFrequency().ordinal(), contract.getPolicyHolder().getLegalForm().ordinal(), bucket.ordinal());
+        balances[cell] += balance;
+        counts[cell]++;
+        if (detailWriter != null) {
+            writeDetail(contract, paymentData, balance, daysPastDue, bucket);
+        }
+    }
+
+    void merge(AgedReceivables other) {
+        for (int i = 0; i < CELLS; i++) {
+            balances[i] += other.balances[i];
+            counts[i] += other.counts[i];
+        }
+        other.flush();
+    }
+
+    void flush() {
+        if (detailWriter != null) {
+            detailWriter.flush();
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    ///  The oldest unpaid installment is found by stepping back from the next due date
+    ///  by as many periods as there are unpaid premiums in the balance
+    private long daysPastDue(ContractPaymentData paymentData, long balance) {
+        int premium = paymentData.getPremium();
+        long unpaidInstallments = (balance + premium - 1) / premium;
+        long months = unpaidInstallments * paymentData.getPremiumPaymentFrequency().getValueInMonths();
+        long oldestUnpaidDue = EpochTime.plusMonths(paymentData.getNextPaymentEpochSecond(), -months);
+        return Math.max(0, EpochTime.daysBetween(oldestUnpaidDue, paymentData.getNextPaymentNano(), asOfEpochSecond, asOfNano));
+    }
+
+    private void writeDetail(AbstractContract contract, ContractPaymentData paymentData, long balance, long daysPastDue, AgingBucket bucket) {
+        String contractNumber = contract.getContractNumber();
+        int textBytes = CsvChannelWriter.textBytes(contractNumber);
+        if (!CsvChannelWriter.fits(textBytes)) {
+            detailWriter.putLine(escape(contractNumber) + "," + contract.getContractType() + "," + paymentData.getPremiumPaymentFrequency() + "," + contract.getPolicyHolder().getLegalForm() + "," + balance + "," + daysPastDue + "," + bucket);
+            return;
+        }
+        detailWriter.beginRow(textBytes);
+        detailWriter.putText(contractNumber);
+        detailWriter.putSeparator();
+        detailWriter.putText(contract.getContractType().name());
+        detailWriter.putSeparator();
+        detailWriter.putText(paymentData.getPremiumPaymentFrequency().name());
+        detailWriter.putSeparator();
+        detailWriter.putText(contract.getPolicyHolder().getLegalForm().name());
+        detailWriter.putSeparator();
+        detailWriter.putLong(balance);
+        detailWriter.putSeparator();
+        detailWriter.putLong(daysPastDue);
+        detailWriter.putSeparator();
+        detailWriter.putText(bucket.name());
+        detailWriter.endRow();
+    }
+
+    private static String escape(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static int cell(int type, int frequency, int legalForm, int bucket) {
+        return ((type * FREQUENCIES.length + frequency) * LEGAL_FORMS.length + legalForm) * BUCKETS.length + bucket;
+    }
+}
@@ -0,0 +1,67 @@
+package reports;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+///  Computes the aged-receivables report in a single parallel pass over the portfolio.
+///  Every worker fills its own AgedReceivables and streams its detail rows to the output
+///  channel in buffer-sized chunks, the partial results are merged at the end.
+public class AgedReceivablesReport {
+    private static final String DETAIL_HEADER = "contract_number,contract_type,frequency,legal_form,outstanding_balance,days_past_due,bucket";
+
+    private final InsuranceCompany insurer;
+
+    public AgedReceivablesReport(InsuranceCompany insurer) {
+        validateInsuranceCompany(insurer);
+        this.insurer = insurer;
+    }
+
+    public AgedReceivables compute() {
+        return run(null);
+    }
+
+    ///  Computes the report and writes one detail row per contract with an outstanding balance.
+    ///  Row order in the file is not defined.
+    public AgedReceivables export(Path detailCsv) throws IOException {
+        validatePath(detailCsv);
+        try (FileChannel channel = FileChannel.open(detailCsv, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new CsvChannelWriter(channel).putLine(DETAIL_HEADER);
+            return run(channel);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private AgedReceivables run(FileChannel detailChannel) {
+        insurer.accrueDueContracts();
+        LocalDateTime asOf = insurer.getCurrentTime();
+        AbstractContract[] portfolio = insurer.getContracts().toArray(new AbstractContract[0]);
+        AgedReceivables result = Arrays.stream(portfolio).parallel().collect(
+                () -> new AgedReceivables(asOf, detailChannel),
+                AgedReceivables::accumulate,
+                AgedReceivables::merge);
+        result.flush();
+        return result;
+    }
+
+    /// Validation methods
+    private void validateInsuranceCompany(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+
+    private void validatePath(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Output path cannot be null");
+        }
+    }
+}
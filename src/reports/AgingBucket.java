@@ -0,0 +1,28 @@
+package reports;
+
+public enum AgingBucket {
+    DAYS_0_30(30), DAYS_31_60(60), DAYS_61_90(90), DAYS_91_180(180), OVER_180(Long.MAX_VALUE);
+
+    private final long maxDaysPastDue;
+
+    AgingBucket(long maxDaysPastDue) {
+        this.maxDaysPastDue = maxDaysPastDue;
+    }
+
+    public long getMaxDaysPastDue() {
+        return maxDaysPastDue;
+    }
+
+    public static AgingBucket of(long daysPastDue) {
+        if (daysPastDue <= 30) {
+            return DAYS_0_30;
+        } else if (daysPastDue <= 60) {
+            return DAYS_31_60;
+        } else if (daysPastDue <= 90) {
+            return DAYS_61_90;
+        } else if (daysPastDue <= 180) {
+            return DAYS_91_180;
+        }
+        return OVER_180;
+    }
+}
@@ -0,0 +1,355 @@
+package reports;
+
+import company.ContractRegistry;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.ContractType;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.LegalForm;
+import payment.ContractPaymentData;
+import payment.PaymentHistoryStore;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+import util.AlphanumericCode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static reports.ColumnarFormat.*;
+
+///  Exports the live contracts, children of master contracts included, and their payment history
+///  as a columnar file, see ColumnarFormat. The handle space is cut into ranges of BLOCK_ROWS handles,
+///  every range is encoded into a contract block and a payment block by a parallel worker and
+///  appended to the file channel. Block order in the file is not defined, ColumnarReader reads it back.
+///  The book should not change while it is exported.
+public class ColumnarExport {
+    static final int BLOCK_ROWS = 16_384;
+    private static final String[][] DICTIONARIES = {
+            names(ContractType.values()), names(PremiumPaymentFrequency.values()), names(LegalForm.values())};
+    private static final byte[] DICTIONARY_COLUMNS = {TYPE, FREQUENCY, LEGAL_FORM};
+
+    private final InsuranceCompany insurer;
+
+    public ColumnarExport(InsuranceCompany insurer) {
+        validateInsuranceCompany(insurer);
+        this.insurer = insurer;
+    }
+
+    public ColumnarSummary export(Path file) throws IOException {
+        validatePath(file);
+        insurer.accrueDueContracts();
+        ContractRegistry registry = insurer.getRegistry();
+        AbstractContract[] contracts = registry.snapshot();
+        int bound = contracts.length;
+        int[] masters = new int[bound];
+        Arrays.fill(masters, -1);
+        for (AbstractContract contract : contracts) {
+            if (contract instanceof MasterVehicleContract master) {
+                for (SingleVehicleContract child : master.getChildContracts()) {
+                    masters[child.getHandle()] = master.getHandle();
+                }
+            }
+        }
+        PaymentHistoryStore history = insurer.getHandler().getPaymentHistoryStore();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = header();
+            long headerBytes = header.remaining();
+            write(channel, header);
+            ColumnarSummary summary = IntStream.range(0, (bound + BLOCK_ROWS - 1) / BLOCK_ROWS).parallel().collect(
+                    ColumnarSummary::new,
+                    (partial, range) -> partial.merge(writeRange(channel, contracts, masters, history, range * BLOCK_ROWS)),
+                    ColumnarSummary::merge);
+            summary.addHeader(headerBytes);
+            return summary;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private static ColumnarSummary writeRange(FileChannel channel, AbstractContract[] contracts, int[] masters,
+                                              PaymentHistoryStore history, int from) {
+        int to = Math.min(contracts.length, from + BLOCK_ROWS);
+        int rows = 0;
+        for (int handle = from; handle < to; handle++) {
+            rows += contracts[handle] != null ? 1 : 0;
+        }
+        ColumnarSummary summary = new ColumnarSummary();
+        if (rows == 0) {
+            return summary;
+        }
+        long[] handles = new long[rows];
+        String[] numbers = new String[rows];
+        int[] types = new int[rows];
+        int[] frequencies = new int[rows];
+        int[] holders = new int[rows];
+        int[] legalForms = new int[rows];
+        boolean[] active = new boolean[rows];
+        long[] coverages = new long[rows];
+        long[] premiums = new long[rows];
+        long[] balances = new long[rows];
+        long[] nextPayments = new long[rows];
+        long[] masterHandles = new long[rows];
+        HolderCodes holderCodes = new HolderCodes(rows);
+        Sink holderDictionary = new Sink(rows * 8);
+        LongColumn paymentHandles = new LongColumn();
+        LongColumn paymentTimes = new LongColumn();
+        LongColumn paymentNanos = new LongColumn();
+        LongColumn amounts = new LongColumn();
+
+        int row = 0;
+        for (int handle = from; handle < to; handle++) {
+            AbstractContract contract = contracts[handle];
+            if (contract == null) {
+                continue;
+            }
+            ContractPaymentData paymentData = contract.getContractPaymentData();
+            handles[row] = handle;
+            numbers[row] = contract.getContractNumber();
+            types[row] = contract.getContractType().ordinal();
+            frequencies[row] = paymentData == null ? NO_VALUE : paymentData.getPremiumPaymentFrequency().ordinal();
+            legalForms[row] = contract.getPolicyHolder().getLegalForm().ordinal();
+            int entries = holderCodes.size;
+            holders[row] = holderCodes.entry(contract.getPolicyHolder().getIdCode());
+            if (holderCodes.size > entries) {
+                holderDictionary.putString(contract.getPolicyHolder().getId());
+            }
+            active[row] = contract.isActive();
+            coverages[row] = contract.getCoverageAmount();
+            premiums[row] = paymentData == null ? 0 : paymentData.getPremium();
+            balances[row] = paymentData == null ? 0 : paymentData.getExactOutstandingBalance();
+            nextPayments[row] = paymentData == null ? 0 : paymentData.getNextPaymentEpochSecond();
+            masterHandles[row] = masters[handle];
+            row++;
+
+            Set<PaymentInstance> payments = history.get(handle);
+            if (payments != null) {
+                for (PaymentInstance payment : payments) {
+                    paymentHandles.add(handle);
+                    paymentTimes.add(payment.getPaymentEpochSecond());
+                    paymentNanos.add(payment.getPaymentNano());
+                    amounts.add(payment.getPaymentAmount());
+                }
+            }
+        }
+
+        Sink scratch = new Sink(rows * 4);
+        Sink contractBlock = new Sink(rows * 24);
+        beginBlock(contractBlock, CONTRACTS, from, rows, CONTRACT_COLUMNS);
+        putLongs(contractBlock, scratch, HANDLE, DELTA, handles, rows);
+        putStrings(contractBlock, scratch, numbers, rows);
+        putEnums(contractBlock, scratch, TYPE, types, rows);
+        putEnums(contractBlock, scratch, FREQUENCY, frequencies, rows);
+        putDictionary(contractBlock, scratch, holderDictionary, holderCodes.size, holders, rows);
+        putEnums(contractBlock, scratch, LEGAL_FORM, legalForms, rows);
+        putBits(contractBlock, scratch, active, rows);
+        putLongs(contractBlock, scratch, COVERAGE, VARINT, coverages, rows);
+        putLongs(contractBlock, scratch, PREMIUM, VARINT, premiums, rows);
+        putLongs(contractBlock, scratch, BALANCE, VARINT, balances, rows);
+        putLongs(contractBlock, scratch, NEXT_PAYMENT, DELTA, nextPayments, rows);
+        putLongs(contractBlock, scratch, MASTER, VARINT, masterHandles, rows);
+        write(channel, frame(contractBlock));
+        summary.addBlock(CONTRACTS, rows, contractBlock.size());
+
+        int payments = paymentHandles.size;
+        if (payments > 0) {
+            Sink paymentBlock = new Sink(payments * 8);
+            beginBlock(paymentBlock, PAYMENTS, from, payments, PAYMENT_COLUMNS);
+            putLongs(paymentBlock, scratch, HANDLE, DELTA, paymentHandles.values, payments);
+            putLongs(paymentBlock, scratch, PAYMENT_TIME, DELTA, paymentTimes.values, payments);
+            putLongs(paymentBlock, scratch, PAYMENT_NANO, VARINT, paymentNanos.values, payments);
+            putLongs(paymentBlock, scratch, AMOUNT, VARINT, amounts.values, payments);
+            write(channel, frame(paymentBlock));
+            summary.addBlock(PAYMENTS, payments, paymentBlock.size());
+        }
+        return summary;
+    }
+
+    private static void beginBlock(Sink block, byte table, int firstHandle, int rows, int columns) {
+        block.putByte(table);
+        block.putVarLong(firstHandle);
+        block.putVarLong(rows);
+        block.putByte(columns);
+    }
+
+    private static void putLongs(Sink block, Sink scratch, byte column, byte encoding, long[] values, int rows) {
+        scratch.clear();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            long value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            scratch.putZigzag(encoding == DELTA ? value - previous : value);
+            previous = value;
+        }
+        putColumn(block, scratch, column, encoding, min, max);
+    }
+
+    private static void putEnums(Sink block, Sink scratch, byte column, int[] codes, int rows) {
+        scratch.clear();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            scratch.putByte(codes[i]);
+            min = Math.min(min, codes[i]);
+            max = Math.max(max, codes[i]);
+        }
+        putColumn(block, scratch, column, ENUM, min, max);
+    }
+
+    private static void putDictionary(Sink block, Sink scratch, Sink dictionary, int entries, int[] codes, int rows) {
+        scratch.clear();
+        scratch.putVarLong(entries);
+        scratch.putSink(dictionary);
+        for (int i = 0; i < rows; i++) {
+            scratch.putVarLong(codes[i]);
+        }
+        putColumn(block, scratch, POLICY_HOLDER, BLOCK_DICTIONARY, 0, entries - 1);
+    }
+
+    private static void putStrings(Sink block, Sink scratch, String[] values, int rows) {
+        scratch.clear();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            int length = scratch.putString(values[i]);
+            min = Math.min(min, length);
+            max = Math.max(max, length);
+        }
+        putColumn(block, scratch, CONTRACT_NUMBER, STRINGS, min, max);
+    }
+
+    private static void putBits(Sink block, Sink scratch, boolean[] values, int rows) {
+        scratch.clear();
+        scratch.putBits(values, rows);
+        int min = 1;
+        int max = 0;
+        for (int i = 0; i < rows; i++) {
+            min = Math.min(min, values[i] ? 1 : 0);
+            max = Math.max(max, values[i] ? 1 : 0);
+        }
+        putColumn(block, scratch, ACTIVE, BITS, min, max);
+    }
+
+    private static void putColumn(Sink block, Sink data, byte column, byte encoding, long min, long max) {
+        block.putByte(column);
+        block.putByte(encoding);
+        block.putZigzag(min);
+        block.putZigzag(max);
+        block.putVarLong(data.size());
+        block.putSink(data);
+    }
+
+    private static ByteBuffer frame(Sink payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.size());
+        buffer.putInt(payload.size());
+        buffer.putInt(payload.checksum());
+        payload.writeTo(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer header() {
+        Sink header = new Sink(256);
+        for (int i = 0; i < DICTIONARIES.length; i++) {
+            header.putByte(DICTIONARY_COLUMNS[i]);
+            header.putVarLong(DICTIONARIES[i].length);
+            for (String name : DICTIONARIES[i]) {
+                header.putString(name);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(6 + header.size());
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        header.writeTo(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    ///  One write per block, the channel is shared by all workers
+    private static void write(FileChannel channel, ByteBuffer buffer) {
+        try {
+            synchronized (channel) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] names(Enum<?>[] values) {
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    private static final class LongColumn {
+        private long[] values = new long[64];
+        private int size = 0;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    ///  Open addressing map from policyholder id codes to their entry in the block's dictionary,
+    ///  sized for one entry per row so it never resizes
+    private static final class HolderCodes {
+        private final long[] codes;
+        private final int[] entries;
+        private int size = 0;
+
+        HolderCodes(int rows) {
+            this.codes = new long[Integer.highestOneBit(rows) << 2];
+            this.entries = new int[codes.length];
+            Arrays.fill(entries, -1);
+        }
+
+        ///  Entry of the code, a new code gets the next entry
+        int entry(long code) {
+            int mask = codes.length - 1;
+            for (int slot = AlphanumericCode.hash(code) & mask; ; slot = (slot + 1) & mask) {
+                if (entries[slot] < 0) {
+                    codes[slot] = code;
+                    entries[slot] = size;
+                    return size++;
+                }
+                if (codes[slot] == code) {
+                    return entries[slot];
+                }
+            }
+        }
+    }
+
+    /// Validation methods
+    private void validateInsuranceCompany(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+
+    private void validatePath(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Output path cannot be null");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package reports;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+///  Layout of a columnar export file. The file starts with MAGIC, VERSION and the enum dictionaries
+///  (names in ordinal order for every enum column), followed by blocks in no particular order.
+///
+///  A block is its payload length and the CRC32 of the payload as ints, then the payload. The payload
+///  holds the table, the first handle of the block's handle range, the row count and the columns.
+///  Every column is its id, its encoding, the min and max of its values, the data length and the data.
+///  Enum and dictionary columns have the min and max of their codes as statistics, strings the min and
+///  max of their UTF-8 lengths. Counts, lengths and statistics are (zigzag) varints.
+final class ColumnarFormat {
+    static final int MAGIC = 0x49434F4C;
+    static final short VERSION = 1;
+
+    static final byte CONTRACTS = 0;
+    static final byte PAYMENTS = 1;
+
+    ///  Contract columns
+    static final byte HANDLE = 0;
+    static final byte CONTRACT_NUMBER = 1;
+    static final byte TYPE = 2;
+    static final byte FREQUENCY = 3;
+    static final byte POLICY_HOLDER = 4;
+    static final byte LEGAL_FORM = 5;
+    static final byte ACTIVE = 6;
+    static final byte COVERAGE = 7;
+    static final byte PREMIUM = 8;
+    static final byte BALANCE = 9;
+    static final byte NEXT_PAYMENT = 10;
+    static final byte MASTER = 11;
+    static final int CONTRACT_COLUMNS = 12;
+
+    ///  Payment columns, HANDLE is shared
+    static final byte PAYMENT_TIME = 1;
+    static final byte PAYMENT_NANO = 2;
+    static final byte AMOUNT = 3;
+    static final int PAYMENT_COLUMNS = 4;
+
+    ///  Zigzag varints
+    static final byte VARINT = 0;
+    ///  First value and zigzag varint deltas to the previous value
+    static final byte DELTA = 1;
+    ///  One byte per row indexing the enum dictionary of the file header, NO_VALUE for none
+    static final byte ENUM = 2;
+    ///  Varint count and the distinct strings of the block, then one varint index per row
+    static final byte BLOCK_DICTIONARY = 3;
+    ///  One bit per row, least significant bit first
+    static final byte BITS = 4;
+    ///  Varint UTF-8 length and bytes per row
+    static final byte STRINGS = 5;
+
+    static final int NO_VALUE = 0xFF;
+
+    private ColumnarFormat() {
+    }
+
+    ///  Growable byte array that columns and blocks are encoded into
+    static final class Sink {
+        private byte[] bytes;
+        private int size;
+
+        Sink(int capacity) {
+            this.bytes = new byte[Math.max(16, capacity)];
+            this.size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void putByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putZigzag(long value) {
+            putVarLong((value << 1) ^ (value >> 63));
+        }
+
+        ///  Returns the UTF-8 length of the value
+        int putString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+            return utf8.length;
+        }
+
+        void putBits(boolean[] values, int count) {
+            ensure((count + 7) / 8);
+            for (int i = 0; i < count; i += 8) {
+                int b = 0;
+                for (int bit = 0; bit < 8 && i + bit < count; bit++) {
+                    b |= values[i + bit] ? 1 << bit : 0;
+                }
+                bytes[size++] = (byte) b;
+            }
+        }
+
+        void putSink(Sink sink) {
+            ensure(sink.size);
+            System.arraycopy(sink.bytes, 0, bytes, size, sink.size);
+            size += sink.size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int checksum() {
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, size);
+            return (int) crc.getValue();
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(bytes, 0, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static long getZigzag(ByteBuffer buffer) {
+        long value = getVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[(int) getVarLong(buffer)];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,382 @@
+package reports;
+
+import contracts.ContractType;
+import objects.LegalForm;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static reports.ColumnarFormat.*;
+
+///  Reads a file written by ColumnarExport back into memory and verifies it on the way: the header,
+///  the checksum of every block, the row count of every column and the min/max statistics against
+///  the decoded values. Contract rows are ordered by handle, payment rows by handle and payment time.
+public class ColumnarReader {
+    private final int[] handles;
+    private final String[] contractNumbers;
+    private final ContractType[] types;
+    private final PremiumPaymentFrequency[] frequencies;
+    private final String[] policyHolderIds;
+    private final LegalForm[] legalForms;
+    private final boolean[] active;
+    private final long[] coverages;
+    private final long[] premiums;
+    private final long[] balances;
+    private final long[] nextPayments;
+    private final int[] masters;
+    private final int[] paymentHandles;
+    private final long[] paymentTimes;
+    private final long[] paymentNanos;
+    private final long[] amounts;
+    private final int blocks;
+
+    public ColumnarReader(Path file) throws IOException {
+        validatePath(file);
+        ByteBuffer buffer = readFully(file);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Not a columnar export of a supported version");
+            }
+            ContractType[] typeDictionary = dictionary(buffer, TYPE, ContractType.class);
+            PremiumPaymentFrequency[] frequencyDictionary = dictionary(buffer, FREQUENCY, PremiumPaymentFrequency.class);
+            LegalForm[] legalFormDictionary = dictionary(buffer, LEGAL_FORM, LegalForm.class);
+
+            List<Block> contractBlocks = new ArrayList<>();
+            List<Block> paymentBlocks = new ArrayList<>();
+            while (buffer.hasRemaining()) {
+                Block block = readBlock(buffer);
+                (block.table == CONTRACTS ? contractBlocks : paymentBlocks).add(block);
+            }
+            contractBlocks.sort(Comparator.comparingInt(block -> block.firstHandle));
+            paymentBlocks.sort(Comparator.comparingInt(block -> block.firstHandle));
+            this.blocks = contractBlocks.size() + paymentBlocks.size();
+
+            int contracts = contractBlocks.stream().mapToInt(block -> block.rows).sum();
+            this.handles = new int[contracts];
+            this.contractNumbers = new String[contracts];
+            this.types = new ContractType[contracts];
+            this.frequencies = new PremiumPaymentFrequency[contracts];
+            this.policyHolderIds = new String[contracts];
+            this.legalForms = new LegalForm[contracts];
+            this.active = new boolean[contracts];
+            this.coverages = new long[contracts];
+            this.premiums = new long[contracts];
+            this.balances = new long[contracts];
+            this.nextPayments = new long[contracts];
+            this.masters = new int[contracts];
+            int row = 0;
+            for (Block block : contractBlocks) {
+                long[] blockHandles = block.longs(HANDLE);
+                long[] blockMasters = block.longs(MASTER);
+                int[] blockTypes = block.enums(TYPE, typeDictionary.length, false);
+                int[] blockFrequencies = block.enums(FREQUENCY, frequencyDictionary.length, true);
+                int[] blockLegalForms = block.enums(LEGAL_FORM, legalFormDictionary.length, false);
+                String[] blockNumbers = block.strings();
+                String[] blockHolders = block.dictionary();
+                boolean[] blockActive = block.bits();
+                for (int i = 0; i < block.rows; i++, row++) {
+                    handles[row] = (int) blockHandles[i];
+                    masters[row] = (int) blockMasters[i];
+                    types[row] = typeDictionary[blockTypes[i]];
+                    frequencies[row] = blockFrequencies[i] == NO_VALUE ? null : frequencyDictionary[blockFrequencies[i]];
+                    legalForms[row] = legalFormDictionary[blockLegalForms[i]];
+                    contractNumbers[row] = blockNumbers[i];
+                    policyHolderIds[row] = blockHolders[i];
+                    active[row] = blockActive[i];
+                }
+                System.arraycopy(block.longs(COVERAGE), 0, coverages, row - block.rows, block.rows);
+                System.arraycopy(block.longs(PREMIUM), 0, premiums, row - block.rows, block.rows);
+                System.arraycopy(block.longs(BALANCE), 0, balances, row - block.rows, block.rows);
+                System.arraycopy(block.longs(NEXT_PAYMENT), 0, nextPayments, row - block.rows, block.rows);
+            }
+            validateOrder(handles);
+
+            int payments = paymentBlocks.stream().mapToInt(block -> block.rows).sum();
+            this.paymentHandles = new int[payments];
+            this.paymentTimes = new long[payments];
+            this.paymentNanos = new long[payments];
+            this.amounts = new long[payments];
+            row = 0;
+            for (Block block : paymentBlocks) {
+                long[] blockHandles = block.longs(HANDLE);
+                for (int i = 0; i < block.rows; i++) {
+                    paymentHandles[row + i] = (int) blockHandles[i];
+                }
+                System.arraycopy(block.longs(PAYMENT_TIME), 0, paymentTimes, row, block.rows);
+                System.arraycopy(block.longs(PAYMENT_NANO), 0, paymentNanos, row, block.rows);
+                System.arraycopy(block.longs(AMOUNT), 0, amounts, row, block.rows);
+                row += block.rows;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt columnar export", e);
+        }
+    }
+
+    public int getBlockCount() {
+        return blocks;
+    }
+
+    public int getContractCount() {
+        return handles.length;
+    }
+
+    ///  Row of the contract with the given handle, -1 if it was not exported
+    public int findContract(int handle) {
+        int row = Arrays.binarySearch(handles, handle);
+        return row >= 0 ? row : -1;
+    }
+
+    public int getHandle(int row) {
+        return handles[row];
+    }
+
+    public String getContractNumber(int row) {
+        return contractNumbers[row];
+    }
+
+    public ContractType getContractType(int row) {
+        return types[row];
+    }
+
+    ///  Null for master contracts
+    public PremiumPaymentFrequency getPremiumPaymentFrequency(int row) {
+        return frequencies[row];
+    }
+
+    public String getPolicyHolderId(int row) {
+        return policyHolderIds[row];
+    }
+
+    public LegalForm getLegalForm(int row) {
+        return legalForms[row];
+    }
+
+    public boolean isActive(int row) {
+        return active[row];
+    }
+
+    public int getCoverageAmount(int row) {
+        return (int) coverages[row];
+    }
+
+    public int getPremium(int row) {
+        return (int) premiums[row];
+    }
+
+    public long getOutstandingBalance(int row) {
+        return balances[row];
+    }
+
+    ///  0 for master contracts
+    public long getNextPaymentEpochSecond(int row) {
+        return nextPayments[row];
+    }
+
+    ///  Handle of the master contract, -1 for contracts that are not children
+    public int getMasterHandle(int row) {
+        return masters[row];
+    }
+
+    public int getPaymentCount() {
+        return paymentHandles.length;
+    }
+
+    public int getPaymentHandle(int row) {
+        return paymentHandles[row];
+    }
+
+    public long getPaymentEpochSecond(int row) {
+        return paymentTimes[row];
+    }
+
+    public int getPaymentNano(int row) {
+        return (int) paymentNanos[row];
+    }
+
+    public int getPaymentAmount(int row) {
+        return (int) amounts[row];
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private static ByteBuffer readFully(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Columnar export is too large to be read at once");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                ///  Keep reading until the buffer is full
+            }
+            return buffer.flip();
+        }
+    }
+
+    private static <E extends Enum<E>> E[] dictionary(ByteBuffer buffer, byte column, Class<E> type) throws IOException {
+        if (buffer.get() != column) {
+            throw new IOException("Unexpected enum dictionary");
+        }
+        E[] values = Arrays.copyOf(type.getEnumConstants(), (int) getVarLong(buffer));
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Enum.valueOf(type, getString(buffer));
+        }
+        return values;
+    }
+
+    private static Block readBlock(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        ByteBuffer payload = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch in columnar block");
+        }
+        return new Block(payload);
+    }
+
+    private static void validateOrder(int[] handles) throws IOException {
+        for (int i = 1; i < handles.length; i++) {
+            if (handles[i - 1] >= handles[i]) {
+                throw new IOException("Contract handles overlap between blocks");
+            }
+        }
+    }
+
+    ///  Columns of one block, decoded on demand and checked against their statistics
+    private static final class Block {
+        private final byte table;
+        private final int firstHandle;
+        private final int rows;
+        private final byte[] encodings;
+        private final long[] mins;
+        private final long[] maxes;
+        private final ByteBuffer[] data;
+
+        private Block(ByteBuffer payload) throws IOException {
+            this.table = payload.get();
+            this.firstHandle = (int) getVarLong(payload);
+            this.rows = (int) getVarLong(payload);
+            int columns = payload.get();
+            if (table != CONTRACTS && table != PAYMENTS || columns != (table == CONTRACTS ? CONTRACT_COLUMNS : PAYMENT_COLUMNS)) {
+                throw new IOException("Unknown columnar block layout");
+            }
+            this.encodings = new byte[columns];
+            this.mins = new long[columns];
+            this.maxes = new long[columns];
+            this.data = new ByteBuffer[columns];
+            for (int i = 0; i < columns; i++) {
+                int column = payload.get();
+                encodings[column] = payload.get();
+                mins[column] = getZigzag(payload);
+                maxes[column] = getZigzag(payload);
+                int length = (int) getVarLong(payload);
+                data[column] = payload.slice(payload.position(), length);
+                payload.position(payload.position() + length);
+            }
+        }
+
+        long[] longs(byte column) throws IOException {
+            ByteBuffer buffer = data[column].duplicate();
+            long[] values = new long[rows];
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                long value = getZigzag(buffer);
+                values[i] = encodings[column] == DELTA ? previous + value : value;
+                previous = values[i];
+                checkRange(column, values[i]);
+            }
+            checkConsumed(buffer);
+            return values;
+        }
+
+        int[] enums(byte column, int dictionarySize, boolean optional) throws IOException {
+            ByteBuffer buffer = data[column].duplicate();
+            int[] codes = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                codes[i] = buffer.get() & 0xFF;
+                checkRange(column, codes[i]);
+                if (codes[i] >= dictionarySize && !(optional && codes[i] == NO_VALUE)) {
+                    throw new IOException("Enum code outside of the dictionary");
+                }
+            }
+            checkConsumed(buffer);
+            return codes;
+        }
+
+        String[] strings() throws IOException {
+            ByteBuffer buffer = data[CONTRACT_NUMBER].duplicate();
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                byte[] utf8 = new byte[(int) getVarLong(buffer)];
+                checkRange(CONTRACT_NUMBER, utf8.length);
+                buffer.get(utf8);
+                values[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            checkConsumed(buffer);
+            return values;
+        }
+
+        String[] dictionary() throws IOException {
+            ByteBuffer buffer = data[POLICY_HOLDER].duplicate();
+            String[] entries = new String[(int) getVarLong(buffer)];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = getString(buffer);
+            }
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                int code = (int) getVarLong(buffer);
+                checkRange(POLICY_HOLDER, code);
+                values[i] = entries[code];
+            }
+            checkConsumed(buffer);
+            return values;
+        }
+
+        boolean[] bits() throws IOException {
+            ByteBuffer buffer = data[ACTIVE].duplicate();
+            boolean[] values = new boolean[rows];
+            for (int i = 0; i < rows; i += 8) {
+                int b = buffer.get();
+                for (int bit = 0; bit < 8 && i + bit < rows; bit++) {
+                    values[i + bit] = (b & 1 << bit) != 0;
+                    checkRange(ACTIVE, values[i + bit] ? 1 : 0);
+                }
+            }
+            checkConsumed(buffer);
+            return values;
+        }
+
+        private void checkRange(byte column, long value) throws IOException {
+            if (value < mins[column] || value > maxes[column]) {
+                throw new IOException("Value outside of the block statistics of column " + column);
+            }
+        }
+
+        private static void checkConsumed(ByteBuffer buffer) throws IOException {
+            if (buffer.hasRemaining()) {
+                throw new IOException("Column has trailing bytes");
+            }
+        }
+    }
+
+    /// Validation methods
+
+    private void validatePath(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Input path cannot be null");
+        }
+    }
+}
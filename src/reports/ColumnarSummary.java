@@ -0,0 +1,68 @@
+package reports;
+
+///  Rows, blocks and bytes written by a ColumnarExport. Instances are filled by one thread each
+///  and merged afterwards.
+public class ColumnarSummary {
+    private long contracts;
+    private long payments;
+    private int contractBlocks;
+    private int paymentBlocks;
+    private long bytes;
+
+    ColumnarSummary() {
+        this.contracts = 0;
+        this.payments = 0;
+        this.contractBlocks = 0;
+        this.paymentBlocks = 0;
+        this.bytes = 0;
+    }
+
+    public long getContracts() {
+        return contracts;
+    }
+
+    public long getPayments() {
+        return payments;
+    }
+
+    public int getContractBlocks() {
+        return contractBlocks;
+    }
+
+    public int getPaymentBlocks() {
+        return paymentBlocks;
+    }
+
+    ///  Size of the file, header and block framing included
+    public long getBytes() {
+        return bytes;
+    }
+
+    void addBlock(byte table, int rows, int payloadBytes) {
+        if (table == ColumnarFormat.CONTRACTS) {
+            contracts += rows;
+            contractBlocks++;
+        } else {
+            payments += rows;
+            paymentBlocks++;
+        }
+        bytes += 8 + payloadBytes;
+    }
+
+    void addHeader(long headerBytes) {
+        bytes += headerBytes;
+    }
+
+    void merge(ColumnarSummary other) {
+        contracts += other.contracts;
+        payments += other.payments;
+        contractBlocks += other.contractBlocks;
+        paymentBlocks += other.paymentBlocks;
+        bytes += other.bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("contracts=%d payments=%d blocks=%d bytes=%d", contracts, payments, contractBlocks + paymentBlocks, bytes);
+    }
+}
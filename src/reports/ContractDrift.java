@@ -0,0 +1,57 @@
+package reports;
+
+import contracts.AbstractContract;
+
+///  A contract whose balance does not match its premium schedule and ledger, or whose payments
+///  are missing from the payment history. For a master contract the balance is the paid amount not yet
+///  distributed to its children, which is expected to be zero.
+public class ContractDrift {
+    private final AbstractContract contract;
+    private final long expectedBalance;
+    private final long actualBalance;
+    private final long unrecordedPayments;
+    private final long unscheduledCharges;
+
+    ContractDrift(AbstractContract contract, long expectedBalance, long actualBalance, long unrecordedPayments, long unscheduledCharges) {
+        this.contract = contract;
+        this.expectedBalance = expectedBalance;
+        this.actualBalance = actualBalance;
+        this.unrecordedPayments = unrecordedPayments;
+        this.unscheduledCharges = unscheduledCharges;
+    }
+
+    public AbstractContract getContract() {
+        return contract;
+    }
+
+    public long getExpectedBalance() {
+        return expectedBalance;
+    }
+
+    public long getActualBalance() {
+        return actualBalance;
+    }
+
+    ///  Positive when the balance is higher than the ledger explains
+    public long getDrift() {
+        return actualBalance - expectedBalance;
+    }
+
+    ///  Paid amount the ledger knows about but the payment history does not hold, payments
+    ///  made at the same instant share one history entry
+    public long getUnrecordedPayments() {
+        return unrecordedPayments;
+    }
+
+    ///  Charged amount the ledger recorded beyond what the premium schedule explains, negative when
+    ///  billing charged too little
+    public long getUnscheduledCharges() {
+        return unscheduledCharges;
+    }
+
+    @Override
+    public String toString() {
+        return contract.getContractNumber() + ": expected " + expectedBalance + ", actual " + actualBalance
+                + ", unrecorded payments " + unrecordedPayments + ", unscheduled charges " + unscheduledCharges;
+    }
+}
@@ -0,0 +1,121 @@
+package reports;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+///  Formats CSV rows straight into a direct buffer and hands complete rows to a shared channel.
+///  FileChannel writes are atomic with respect to each other, so several writers can share
+///  one channel without interleaving rows.
+class CsvChannelWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_NUMERIC_ROW = 256;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    CsvChannelWriter(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    ///  Whether a row with the given number of text bytes can be formatted into the buffer at all
+    static boolean fits(int textBytes) {
+        return textBytes + MAX_NUMERIC_ROW <= BUFFER_SIZE;
+    }
+
+    ///  Makes sure a row of the given number of text bytes plus numeric fields fits into the buffer
+    void beginRow(int textBytes) {
+        if (buffer.remaining() < textBytes + MAX_NUMERIC_ROW) {
+            flush();
+        }
+    }
+
+    void putText(String value) {
+        if (needsQuoting(value)) {
+            value = '"' + value.replace("\"", "\"\"") + '"';
+        }
+        if (isAscii(value)) {
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+        } else {
+            buffer.put(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    void putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            buffer.put(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    void putSeparator() {
+        buffer.put((byte) ',');
+    }
+
+    void endRow() {
+        buffer.put((byte) '\n');
+    }
+
+    ///  Writes a single text line that may be longer than the buffer
+    void putLine(String line) {
+        flush();
+        write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+    }
+
+    void flush() {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    ///  Upper bound of the bytes putText needs for the value
+    static int textBytes(String value) {
+        return value.length() * 6 + 2;
+    }
+
+    private void write(ByteBuffer source) {
+        try {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+package reports;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+///  Expected premium inflow per calendar month, see PremiumSchedule.forecast
+public class PremiumForecast {
+    private final YearMonth start;
+    private final long[] inflow;
+
+    PremiumForecast(YearMonth start, long[] inflow) {
+        this.start = start;
+        this.inflow = inflow;
+    }
+
+    public YearMonth getStart() {
+        return start;
+    }
+
+    public int getMonths() {
+        return inflow.length;
+    }
+
+    ///  Inflow of the month at the given offset from the start month
+    public long getInflow(int month) {
+        validateMonth(month);
+        return inflow[month];
+    }
+
+    ///  Returns 0 for months outside the forecast
+    public long getInflow(YearMonth month) {
+        long offset = start.until(month, ChronoUnit.MONTHS);
+        return offset >= 0 && offset < inflow.length ? inflow[(int) offset] : 0;
+    }
+
+    public long getTotalInflow() {
+        long total = 0;
+        for (long month : inflow) {
+            total += month;
+        }
+        return total;
+    }
+
+    public long[] toArray() {
+        return inflow.clone();
+    }
+
+    /// Validation methods
+
+    private void validateMonth(int month) {
+        if (month < 0 || month >= inflow.length) {
+            throw new IllegalArgumentException("Month must be between 0 and " + (inflow.length - 1));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package reports;
+
+import company.InsuranceCompany;
+
+import java.time.YearMonth;
+
+///  Forecast of premium inflow over the active book, starting with the month of the company clock.
+///  The book should not change while the schedule is read.
+public class PremiumForecastReport {
+    private final InsuranceCompany insurer;
+
+    public PremiumForecastReport(InsuranceCompany insurer) {
+        validateInsuranceCompany(insurer);
+        this.insurer = insurer;
+    }
+
+    public PremiumForecast compute(int months) {
+        return PremiumSchedule.of(insurer).forecast(YearMonth.from(insurer.getCurrentTime()), months);
+    }
+
+    /// Validation methods
+    private void validateInsuranceCompany(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package reports;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import payment.ContractPaymentData;
+import payment.EpochTime;
+import payment.PremiumPaymentFrequency;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+///  Premium, payment frequency and month of the next due date of contracts, held in primitive
+///  columns so that forecasts run over flat arrays instead of the contract graph.
+public class PremiumSchedule {
+    private static final int CHUNK = 1 << 16;
+    ///  Frequencies are bucketed by their length in months, which divides twelve
+    private static final int[] FREQUENCY_MONTHS = {1, 2, 3, 4, 6, 12};
+    private static final int[] FREQUENCY_CLASS = {-1, 0, 1, 2, 3, -1, 4, -1, -1, -1, -1, -1, 5};
+
+    private int[] premiums;
+    private byte[] frequencyMonths;
+    private int[] dueMonths;
+    private int size;
+
+    public PremiumSchedule() {
+        this.premiums = new int[16];
+        this.frequencyMonths = new byte[16];
+        this.dueMonths = new int[16];
+        this.size = 0;
+    }
+
+    ///  Schedule of every active contract of the insurer, including active children of master contracts
+    public static PremiumSchedule of(InsuranceCompany insurer) {
+        validateInsuranceCompany(insurer);
+        insurer.accrueDueContracts();
+        PremiumSchedule schedule = new PremiumSchedule();
+        for (AbstractContract contract : insurer.getContracts().toArray(new AbstractContract[0])) {
+            if (contract instanceof MasterVehicleContract master) {
+                for (SingleVehicleContract child : master.getChildContracts()) {
+                    schedule.add(child);
+                }
+            } else {
+                schedule.add(contract);
+            }
+        }
+        return schedule;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int premium, PremiumPaymentFrequency frequency, long nextPaymentEpochSecond) {
+        validatePremium(premium);
+        validateFrequency(frequency);
+        if (size == premiums.length) {
+            premiums = Arrays.copyOf(premiums, size * 2);
+            frequencyMonths = Arrays.copyOf(frequencyMonths, size * 2);
+            dueMonths = Arrays.copyOf(dueMonths, size * 2);
+        }
+        premiums[size] = premium;
+        frequencyMonths[size] = (byte) frequency.getValueInMonths();
+        dueMonths[size] = (int) EpochTime.toEpochMonth(nextPaymentEpochSecond);
+        size++;
+    }
+
+    ///  Premium charged per calendar month, starting with the given month. Installments already due
+    ///  before it are charged by the next billing run and counted in the first month.
+    ///
+    ///  Each worker folds a chunk of contracts into a histogram of premium by frequency and first
+    ///  due month within the horizon; the merged histogram is then spread over the months it
+    ///  repeats in, so the work is linear in the contracts and independent of the horizon.
+    public PremiumForecast forecast(YearMonth start, int months) {
+        validateStart(start);
+        validateMonths(months);
+        int startMonth = (int) ((start.getYear() - 1970L) * 12 + start.getMonthValue() - 1);
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        long[] histogram = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> fold(chunk * CHUNK, Math.min(size, (chunk + 1) * CHUNK), startMonth, months))
+                .reduce(new long[FREQUENCY_MONTHS.length * months + 1], PremiumSchedule::add);
+        long[] inflow = new long[months];
+        inflow[0] = histogram[histogram.length - 1];
+        for (int frequency = 0; frequency < FREQUENCY_MONTHS.length; frequency++) {
+            int step = FREQUENCY_MONTHS[frequency];
+            for (int first = 0; first < months; first++) {
+                long premium = histogram[frequency * months + first];
+                if (premium != 0) {
+                    for (int month = first; month < months; month += step) {
+                        inflow[month] += premium;
+                    }
+                }
+            }
+        }
+        return new PremiumForecast(start, inflow);
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void add(AbstractContract contract) {
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        if (contract.isActive() && paymentData != null) {
+            add(paymentData.getPremium(), paymentData.getPremiumPaymentFrequency(), paymentData.getNextPaymentEpochSecond());
+        }
+    }
+
+    ///  Last slot of the histogram holds the overdue installments
+    private long[] fold(int from, int to, int startMonth, int months) {
+        long[] histogram = new long[FREQUENCY_MONTHS.length * months + 1];
+        long overdue = 0;
+        for (int i = from; i < to; i++) {
+            int step = frequencyMonths[i];
+            int first = dueMonths[i] - startMonth;
+            int premium = premiums[i];
+            if (first < 0) {
+                int installments = (step - 1 - first) / step;
+                overdue += (long) premium * installments;
+                first += installments * step;
+            }
+            if (first < months) {
+                histogram[FREQUENCY_CLASS[step] * months + first] += premium;
+            }
+        }
+        histogram[histogram.length - 1] += overdue;
+        return histogram;
+    }
+
+    private static long[] add(long[] left, long[] right) {
+        long[] sum = new long[left.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = left[i] + right[i];
+        }
+        return sum;
+    }
+
+    /// Validation methods
+
+    private static void validateInsuranceCompany(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+
+    private void validatePremium(int premium) {
+        if (premium <= 0) {
+            throw new IllegalArgumentException("Premium must be positive");
+        }
+    }
+
+    private void validateFrequency(PremiumPaymentFrequency frequency) {
+        if (frequency == null || frequency.getValueInMonths() > 12 || FREQUENCY_CLASS[frequency.getValueInMonths()] < 0) {
+            throw new IllegalArgumentException("Payment frequency must divide twelve months");
+        }
+    }
+
+    private void validateStart(YearMonth start) {
+        if (start == null) {
+            throw new IllegalArgumentException("Start month cannot be null");
+        }
+    }
+
+    private void validateMonths(int months) {
+        if (months <= 0 || months > 1_200) {
+            throw new IllegalArgumentException("Months must be between 1 and 1200");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package reports;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import payment.BalanceLedger;
+import payment.ContractPaymentData;
+import payment.PaymentHistoryStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+///  Result of a reconciliation run. Instances are filled by one thread each and merged afterwards.
+public class Reconciliation {
+    private final BalanceLedger.Snapshot ledger;
+    private final PaymentHistoryStore history;
+    private final List<ContractDrift> drifts;
+    private long contracts;
+    private long totalAbsoluteDrift;
+
+    Reconciliation(BalanceLedger.Snapshot ledger, PaymentHistoryStore history) {
+        this.ledger = ledger;
+        this.history = history;
+        this.drifts = new ArrayList<>();
+        this.contracts = 0;
+        this.totalAbsoluteDrift = 0;
+    }
+
+    ///  Checked contracts, including the children of master contracts
+    public long getContractCount() {
+        return contracts;
+    }
+
+    ///  Drifted contracts ordered by handle
+    public List<ContractDrift> getDrifts() {
+        return Collections.unmodifiableList(drifts);
+    }
+
+    public long getTotalAbsoluteDrift() {
+        return totalAbsoluteDrift;
+    }
+
+    public boolean isBalanced() {
+        return drifts.isEmpty();
+    }
+
+    ///  Adds a contract of the portfolio, master contracts also contribute their children
+    void accumulate(AbstractContract contract) {
+        contracts++;
+        int handle = contract.getHandle();
+        long unrecordedPayments = ledger.getPaid(handle) - recordedPayments(handle);
+        long unscheduledCharges = 0;
+        long expected;
+        long actual;
+        if (contract instanceof MasterVehicleContract master) {
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                accumulate(child);
+            }
+            expected = 0;
+            actual = ledger.getPaid(handle) - ledger.getAllocated(handle);
+        } else {
+            ContractPaymentData paymentData = contract.getContractPaymentData();
+            actual = paymentData.getExactOutstandingBalance();
+            if (ledger.hasSchedule(handle)) {
+                long scheduledCharges = scheduledCharges(handle);
+                unscheduledCharges = ledger.getCharged(handle) - scheduledCharges;
+                expected = ledger.getOpeningBalance(handle) + scheduledCharges - ledger.getPaid(handle) - ledger.getAllocated(handle);
+            } else {
+                ///  A contract the ledger never saw still has the balance it was created with
+                expected = ledger.isOpened(handle) ? ledger.getExpectedBalance(handle) : actual;
+            }
+        }
+        if (expected != actual || unrecordedPayments != 0 || unscheduledCharges != 0) {
+            drifts.add(new ContractDrift(contract, expected, actual, unrecordedPayments, unscheduledCharges));
+            totalAbsoluteDrift += Math.abs(actual - expected);
+        }
+    }
+
+    void merge(Reconciliation other) {
+        contracts += other.contracts;
+        totalAbsoluteDrift += other.totalAbsoluteDrift;
+        drifts.addAll(other.drifts);
+    }
+
+    void sort() {
+        drifts.sort(Comparator.comparingInt(drift -> drift.getContract().getHandle()));
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    ///  Premiums that billing should have charged by its last run for the contract, derived from the
+    ///  premium schedule alone: due dates step from the first one by the frequency in force, and each
+    ///  is charged at the premium in force. Billing charges all premiums due at a run with the terms
+    ///  of that run, so a term change covers the due dates after the billing run that preceded it.
+    private long scheduledCharges(int handle) {
+        LocalDateTime billed = ledger.getBilledTime(handle);
+        if (billed == null) {
+            return 0;
+        }
+        List<BalanceLedger.TermChange> changes = ledger.getTermChanges(handle);
+        int premium = ledger.getInitialPremium(handle);
+        int months = ledger.getInitialFrequencyMonths(handle);
+        int nextChange = 0;
+        long total = 0;
+        for (LocalDateTime due = ledger.getFirstDueTime(handle); !due.isAfter(billed); due = due.plusMonths(months)) {
+            while (nextChange < changes.size() && isBilledUnder(changes.get(nextChange), due)) {
+                premium = changes.get(nextChange).getPremium();
+                months = changes.get(nextChange).getFrequencyMonths();
+                nextChange++;
+            }
+            total += premium;
+        }
+        return total;
+    }
+
+    private static boolean isBilledUnder(BalanceLedger.TermChange change, LocalDateTime due) {
+        return change.getBilledTime() == null || change.getBilledTime().isBefore(due);
+    }
+
+    private long recordedPayments(int handle) {
+        return handle >= 0 ? history.getPaidAmount(handle) : 0;
+    }
+}
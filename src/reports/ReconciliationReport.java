@@ -0,0 +1,40 @@
+package reports;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import payment.BalanceLedger;
+
+import java.util.Arrays;
+
+///  Recomputes every outstanding balance from the premium schedule, payments and master
+///  allocations recorded in the insurer's BalanceLedger, and checks the payments against the
+///  payment history. The premiums are derived from the schedule and the time billing last ran,
+///  independently of what billing charged. Runs in a single parallel pass over the portfolio;
+///  the book must not change while it runs.
+public class ReconciliationReport {
+    private final InsuranceCompany insurer;
+
+    public ReconciliationReport(InsuranceCompany insurer) {
+        validateInsuranceCompany(insurer);
+        this.insurer = insurer;
+    }
+
+    public Reconciliation compute() {
+        insurer.accrueDueContracts();
+        BalanceLedger.Snapshot ledger = insurer.getHandler().getLedger().snapshot();
+        AbstractContract[] portfolio = insurer.getContracts().toArray(new AbstractContract[0]);
+        Reconciliation result = Arrays.stream(portfolio).parallel().collect(
+                () -> new Reconciliation(ledger, insurer.getHandler().getPaymentHistoryStore()),
+                Reconciliation::accumulate,
+                Reconciliation::merge);
+        result.sort();
+        return result;
+    }
+
+    /// Validation methods
+    private void validateInsuranceCompany(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+}
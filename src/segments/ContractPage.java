@@ -0,0 +1,36 @@
+package segments;
+
+import contracts.AbstractContract;
+
+import java.util.List;
+
+///  One page of a PortfolioIndex.page run. The cursor of the next page is a contract handle, so it
+///  stays valid however the portfolio changes between the calls.
+public class ContractPage {
+    ///  Cursor of the first page
+    public static final long FIRST = 0;
+
+    private final List<AbstractContract> contracts;
+    private final long nextCursor;
+    private final boolean last;
+
+    ContractPage(List<AbstractContract> contracts, long nextCursor, boolean last) {
+        this.contracts = contracts;
+        this.nextCursor = nextCursor;
+        this.last = last;
+    }
+
+    ///  Matching contracts in handle order, unmodifiable
+    public List<AbstractContract> getContracts() {
+        return contracts;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    ///  Whether the page reached the end of the portfolio, contracts issued later continue from getNextCursor
+    public boolean isLast() {
+        return last;
+    }
+}
@@ -0,0 +1,278 @@
+package segments;
+
+import company.ContractRegistry;
+import contracts.AbstractContract;
+import contracts.ContractType;
+import objects.LegalForm;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+import util.CompressedBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+///  Compressed bitmap indexes over the live contracts of an insurer, keyed by contract handle:
+///  one bitmap per contract type, payment frequency, policyholder legal form, coverage band and
+///  balance band, plus one for active contracts. Every contract keeps the attribute values it is
+///  indexed under, so an update only touches the bitmaps of attributes that changed.
+///
+///  The insurer and its payment handler update the index on issuance, billing, payments, claims,
+///  moves and archiving. Changes made directly on ContractPaymentData bypass it, call update
+///  afterwards. Methods are synchronized, contracts may be updated from several threads at once.
+public class PortfolioIndex {
+    ///  Coverage band n holds amounts from COVERAGE_BOUNDS[n - 1] inclusive to COVERAGE_BOUNDS[n] exclusive
+    private static final int[] COVERAGE_BOUNDS = {1_000, 5_000, 10_000, 25_000, 50_000};
+    ///  Balance bands: credit, settled, up to 1000, up to 10000, above
+    private static final long[] BALANCE_BOUNDS = {0, 1, 1_001, 10_001};
+    static final int COVERAGE_BANDS = COVERAGE_BOUNDS.length + 1;
+    static final int BALANCE_BANDS = BALANCE_BOUNDS.length + 1;
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+    private static final byte NONE = -1;
+
+    enum Attribute {
+        ALL(1),
+        TYPE(ContractType.values().length),
+        FREQUENCY(PremiumPaymentFrequency.values().length),
+        LEGAL_FORM(LegalForm.values().length),
+        ACTIVE(1),
+        COVERAGE_BAND(COVERAGE_BANDS),
+        BALANCE_BAND(BALANCE_BANDS);
+
+        private final int values;
+
+        Attribute(int values) {
+            this.values = values;
+        }
+    }
+
+    private final ContractRegistry registry;
+    private final CompressedBitmap[][] bitmaps;
+    private final byte[][] codes;
+    private int[] masters;
+
+    public PortfolioIndex(ContractRegistry registry) {
+        validateRegistry(registry);
+        this.registry = registry;
+        this.bitmaps = new CompressedBitmap[ATTRIBUTES.length][];
+        this.codes = new byte[ATTRIBUTES.length][];
+        for (Attribute attribute : ATTRIBUTES) {
+            bitmaps[attribute.ordinal()] = new CompressedBitmap[attribute.values];
+            for (int value = 0; value < attribute.values; value++) {
+                bitmaps[attribute.ordinal()][value] = new CompressedBitmap();
+            }
+            codes[attribute.ordinal()] = new byte[0];
+        }
+        this.masters = new int[0];
+    }
+
+    public static int coverageBand(int coverageAmount) {
+        int band = 0;
+        while (band < COVERAGE_BOUNDS.length && coverageAmount >= COVERAGE_BOUNDS[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    public static int balanceBand(long outstandingBalance) {
+        int band = 0;
+        while (band < BALANCE_BOUNDS.length && outstandingBalance >= BALANCE_BOUNDS[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    ///  Number of indexed contracts
+    public synchronized long size() {
+        return bitmap(Attribute.ALL, 0).cardinality();
+    }
+
+    public synchronized long count(Segment segment) {
+        validateSegment(segment);
+        return segment.evaluate(this).cardinality();
+    }
+
+    ///  Handles of the matching contracts, a copy the caller owns
+    public synchronized CompressedBitmap select(Segment segment) {
+        validateSegment(segment);
+        return segment.evaluate(this).or(new CompressedBitmap());
+    }
+
+    ///  Visits the matching contracts in handle order, as they matched when the call started
+    public void forEach(Segment segment, Consumer<AbstractContract> action) {
+        validateAction(action);
+        select(segment).forEach(handle -> {
+            AbstractContract contract = registry.get(handle);
+            if (contract != null) {
+                action.accept(contract);
+            }
+        });
+    }
+
+    ///  Up to pageSize matching contracts in handle order, starting at the cursor, ContractPage.FIRST
+    ///  for the first page. Handles are never reused, so paging on with getNextCursor visits every
+    ///  contract at most once, and every contract that is live and matches when its page is read.
+    ///  A page is only shorter than pageSize when it is the last one.
+    public synchronized ContractPage page(Segment segment, long cursor, int pageSize) {
+        validateSegment(segment);
+        validateCursor(cursor);
+        validatePageSize(pageSize);
+        CompressedBitmap matching = segment.evaluate(this);
+        List<AbstractContract> contracts = new ArrayList<>(Math.min(pageSize, 1_024));
+        int handle = matching.nextSetBit((int) Math.min(cursor, Integer.MAX_VALUE));
+        long next = cursor;
+        for (; handle >= 0 && contracts.size() < pageSize; handle = matching.nextSetBit(handle + 1)) {
+            AbstractContract contract = registry.get(handle);
+            if (contract != null) {
+                contracts.add(contract);
+            }
+            next = handle + 1L;
+        }
+        if (handle < 0) {
+            ///  Nothing matches past the cursor, later contracts get handles from the current bound on
+            return new ContractPage(Collections.unmodifiableList(contracts), Math.max(next, codes[Attribute.ALL.ordinal()].length), true);
+        }
+        return new ContractPage(Collections.unmodifiableList(contracts), next, false);
+    }
+
+    ///  Matching contracts in handle order as they matched when the call started, copied into a dense
+    ///  array so the spliterator is SIZED and SUBSIZED and parallel streams split it evenly
+    public Spliterator<AbstractContract> spliterator(Segment segment) {
+        CompressedBitmap handles = select(segment);
+        AbstractContract[] table = registry.snapshot();
+        AbstractContract[] contracts = new AbstractContract[(int) handles.cardinality()];
+        int size = 0;
+        for (PrimitiveIterator.OfInt iterator = handles.iterator(); iterator.hasNext(); ) {
+            int handle = iterator.nextInt();
+            if (handle < table.length && table[handle] != null) {
+                contracts[size++] = table[handle];
+            }
+        }
+        return Spliterators.spliterator(contracts, 0, size, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    ///  Re-indexes the contract, and its master when it is a child of one
+    public synchronized void update(AbstractContract contract) {
+        validateContract(contract);
+        int handle = contract.getHandle();
+        if (handle < 0) {
+            return;
+        }
+        ensureCapacity(handle);
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        set(Attribute.ALL, handle, 0);
+        set(Attribute.TYPE, handle, contract.getContractType().ordinal());
+        set(Attribute.FREQUENCY, handle, paymentData == null ? NONE : paymentData.getPremiumPaymentFrequency().ordinal());
+        set(Attribute.LEGAL_FORM, handle, contract.getPolicyHolder().getLegalForm().ordinal());
+        set(Attribute.ACTIVE, handle, contract.isActive() ? 0 : NONE);
+        set(Attribute.COVERAGE_BAND, handle, coverageBand(contract.getCoverageAmount()));
+        set(Attribute.BALANCE_BAND, handle, paymentData == null ? NONE : balanceBand(paymentData.getExactOutstandingBalance()));
+        if (masters[handle] >= 0) {
+            AbstractContract master = registry.get(masters[handle]);
+            if (master != null) {
+                update(master);
+            }
+        }
+    }
+
+    ///  Records that the child now belongs to the master, whose active flag depends on its children
+    public synchronized void setMaster(AbstractContract child, AbstractContract master) {
+        validateContract(child);
+        validateContract(master);
+        if (child.getHandle() < 0 || master.getHandle() < 0) {
+            return;
+        }
+        ensureCapacity(Math.max(child.getHandle(), master.getHandle()));
+        masters[child.getHandle()] = master.getHandle();
+        update(child);
+    }
+
+    public synchronized void remove(int handle) {
+        if (handle < 0 || handle >= masters.length) {
+            return;
+        }
+        for (Attribute attribute : ATTRIBUTES) {
+            set(attribute, handle, NONE);
+        }
+        masters[handle] = NONE;
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    CompressedBitmap bitmap(Attribute attribute, int value) {
+        return bitmaps[attribute.ordinal()][value];
+    }
+
+    private void set(Attribute attribute, int handle, int value) {
+        byte[] attributeCodes = codes[attribute.ordinal()];
+        int old = attributeCodes[handle];
+        if (old == value) {
+            return;
+        }
+        if (old != NONE) {
+            bitmaps[attribute.ordinal()][old].remove(handle);
+        }
+        if (value != NONE) {
+            bitmaps[attribute.ordinal()][value].add(handle);
+        }
+        attributeCodes[handle] = (byte) value;
+    }
+
+    private void ensureCapacity(int handle) {
+        if (handle < masters.length) {
+            return;
+        }
+        int length = Math.max(handle + 1, masters.length * 2);
+        for (int attribute = 0; attribute < codes.length; attribute++) {
+            int old = codes[attribute].length;
+            codes[attribute] = Arrays.copyOf(codes[attribute], length);
+            Arrays.fill(codes[attribute], old, length, NONE);
+        }
+        int old = masters.length;
+        masters = Arrays.copyOf(masters, length);
+        Arrays.fill(masters, old, length, NONE);
+    }
+
+    /// Validation methods
+
+    private void validateRegistry(ContractRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Contract registry cannot be null");
+        }
+    }
+
+    private void validateSegment(Segment segment) {
+        if (segment == null) {
+            throw new IllegalArgumentException("Segment cannot be null");
+        }
+    }
+
+    private void validateCursor(long cursor) {
+        if (cursor < 0) {
+            throw new IllegalArgumentException("Cursor cannot be negative");
+        }
+    }
+
+    private void validatePageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+    }
+
+    private void validateAction(Consumer<AbstractContract> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+    }
+
+    private void validateContract(AbstractContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Contract cannot be null");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package segments;
+
+import contracts.ContractType;
+import objects.LegalForm;
+import payment.PremiumPaymentFrequency;
+import util.CompressedBitmap;
+
+///  Predicate over indexed contracts, combined with and, or and not and evaluated by a PortfolioIndex.
+///  Master vehicle contracts have no frequency and no balance, so they match no frequency or
+///  balance band segment, and do match its negation.
+public abstract class Segment {
+
+    Segment() {
+    }
+
+    public static Segment all() {
+        return new Leaf(PortfolioIndex.Attribute.ALL, 0);
+    }
+
+    public static Segment type(ContractType type) {
+        validateValue(type);
+        return new Leaf(PortfolioIndex.Attribute.TYPE, type.ordinal());
+    }
+
+    public static Segment frequency(PremiumPaymentFrequency frequency) {
+        validateValue(frequency);
+        return new Leaf(PortfolioIndex.Attribute.FREQUENCY, frequency.ordinal());
+    }
+
+    public static Segment legalForm(LegalForm legalForm) {
+        validateValue(legalForm);
+        return new Leaf(PortfolioIndex.Attribute.LEGAL_FORM, legalForm.ordinal());
+    }
+
+    public static Segment active() {
+        return new Leaf(PortfolioIndex.Attribute.ACTIVE, 0);
+    }
+
+    ///  Band numbers are defined by PortfolioIndex.coverageBand
+    public static Segment coverageBand(int band) {
+        validateBand(band, PortfolioIndex.COVERAGE_BANDS);
+        return new Leaf(PortfolioIndex.Attribute.COVERAGE_BAND, band);
+    }
+
+    ///  Band numbers are defined by PortfolioIndex.balanceBand
+    public static Segment balanceBand(int band) {
+        validateBand(band, PortfolioIndex.BALANCE_BANDS);
+        return new Leaf(PortfolioIndex.Attribute.BALANCE_BAND, band);
+    }
+
+    public Segment and(Segment other) {
+        validateValue(other);
+        return new Combination(this, other, Operator.AND);
+    }
+
+    public Segment or(Segment other) {
+        validateValue(other);
+        return new Combination(this, other, Operator.OR);
+    }
+
+    public Segment not() {
+        return new Combination(all(), this, Operator.AND_NOT);
+    }
+
+    ///  May return a bitmap owned by the index, callers must not modify it
+    abstract CompressedBitmap evaluate(PortfolioIndex index);
+
+    ///  Addition Methods to keep code clean and readable
+
+    private enum Operator {
+        AND,
+        OR,
+        AND_NOT
+    }
+
+    private static final class Leaf extends Segment {
+        private final PortfolioIndex.Attribute attribute;
+        private final int value;
+
+        private Leaf(PortfolioIndex.Attribute attribute, int value) {
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        @Override
+        CompressedBitmap evaluate(PortfolioIndex index) {
+            return index.bitmap(attribute, value);
+        }
+
+        @Override
+        public String toString() {
+            return attribute + "=" + value;
+        }
+    }
+
+    private static final class Combination extends Segment {
+        private final Segment left;
+        private final Segment right;
+        private final Operator operator;
+
+        private Combination(Segment left, Segment right, Operator operator) {
+            this.left = left;
+            this.right = right;
+            this.operator = operator;
+        }
+
+        @Override
+        CompressedBitmap evaluate(PortfolioIndex index) {
+            CompressedBitmap leftBitmap = left.evaluate(index);
+            CompressedBitmap rightBitmap = right.evaluate(index);
+            return switch (operator) {
+                case AND -> leftBitmap.and(rightBitmap);
+                case OR -> leftBitmap.or(rightBitmap);
+                case AND_NOT -> leftBitmap.andNot(rightBitmap);
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator + " " + right + ")";
+        }
+    }
+
+    /// Validation methods
+
+    private static void validateValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Segment value cannot be null");
+        }
+    }
+
+    private static void validateBand(int band, int bands) {
+        if (band < 0 || band >= bands) {
+            throw new IllegalArgumentException("Band must be between 0 and " + (bands - 1));
+        }
+    }
+}
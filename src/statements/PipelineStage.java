@@ -0,0 +1,10 @@
+package statements;
+
+public enum PipelineStage {
+    ///  Reads and parses the statement file
+    PARSER,
+    ///  Looks up the contract of every line by its reference
+    MATCHER,
+    ///  Pays the matched lines, grouped by contract
+    APPLIER
+}
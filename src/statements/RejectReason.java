@@ -0,0 +1,14 @@
+package statements;
+
+public enum RejectReason {
+    ///  The line is not transactionId,reference,amount
+    MALFORMED,
+    ///  The amount is not a positive 32-bit integer
+    INVALID_AMOUNT,
+    ///  No live contract carries the reference as its contract number
+    UNKNOWN_CONTRACT,
+    ///  The transaction was applied before, within the deduplication window
+    DUPLICATE,
+    ///  The payment handler refused the payment, e.g. for an inactive contract
+    REJECTED
+}
@@ -0,0 +1,38 @@
+package statements;
+
+///  Statement line that was not applied, handed to the pipeline's side channel
+public class RejectedLine {
+    private final long lineNumber;
+    private final String text;
+    private final RejectReason reason;
+    private final String message;
+
+    RejectedLine(long lineNumber, String text, RejectReason reason, String message) {
+        this.lineNumber = lineNumber;
+        this.text = text;
+        this.reason = reason;
+        this.message = message;
+    }
+
+    ///  One-based line number in the statement file
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public RejectReason getReason() {
+        return reason;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "line " + lineNumber + " " + reason + (message == null ? "" : " (" + message + ")") + ": " + text;
+    }
+}
@@ -0,0 +1,50 @@
+package statements;
+
+import contracts.AbstractContract;
+
+///  Parsed bank statement line. The matcher stage fills in the contract the reference points to.
+public class StatementLine {
+    private final long lineNumber;
+    private final String transactionId;
+    private final String reference;
+    private final int amount;
+    private AbstractContract contract;
+
+    StatementLine(long lineNumber, String transactionId, String reference, int amount) {
+        this.lineNumber = lineNumber;
+        this.transactionId = transactionId;
+        this.reference = reference;
+        this.amount = amount;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    ///  Bank transaction id, used as the idempotency key of the payment
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    ///  Contract number as written by the payer
+    public String getReference() {
+        return reference;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    ///  Null until the line is matched
+    public AbstractContract getContract() {
+        return contract;
+    }
+
+    void setContract(AbstractContract contract) {
+        this.contract = contract;
+    }
+
+    String toText() {
+        return transactionId + "," + reference + "," + amount;
+    }
+}
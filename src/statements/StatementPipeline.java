@@ -0,0 +1,337 @@
+package statements;
+
+import company.ContractRegistry;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import payment.PaymentHandler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+///  Applies a bank statement file to the insurer's contracts in three stages on their own threads:
+///  the parser streams lines of transactionId,reference,amount out of the file, the matcher looks up
+///  the contract numbered by the reference in the ContractRegistry, and the applier pays the matched
+///  lines with PaymentHandler.pay, keyed by transaction id. A statement applied again within the
+///  handler's deduplication window pays nothing, whatever its length: the deduplicator grows with
+///  the keys it has to remember instead of dropping them.
+///  Stages hand batches of lines over bounded queues, a stage that falls behind blocks the one
+///  before it. Lines starting with # and blank lines are skipped.
+///
+///  Rejected lines go to the side channel given to run, which is called on the thread that called run.
+///  The book should not be changed by other threads while a statement is applied.
+public class StatementPipeline {
+    private static final List<StatementLine> END = new ArrayList<>(0);
+    private static final long REJECT_POLL_MILLIS = 10;
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+
+    private final InsuranceCompany insurer;
+    private final int queueCapacity;
+    private final int batchSize;
+    private volatile Run current;
+
+    public StatementPipeline(InsuranceCompany insurer) {
+        this(insurer, 64, 256);
+    }
+
+    ///  Queues hold at most queueCapacity batches of at most batchSize lines
+    public StatementPipeline(InsuranceCompany insurer, int queueCapacity, int batchSize) {
+        validateInsuranceCompany(insurer);
+        validatePositive(queueCapacity, "Queue capacity");
+        validatePositive(batchSize, "Batch size");
+        this.insurer = insurer;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+    }
+
+    ///  Lines currently waiting in the stage's input queue, 0 when no statement is being applied
+    public long getBacklog(PipelineStage stage) {
+        validateStage(stage);
+        Run run = current;
+        ///  A batch may be taken before its producer has counted it, the count dips below zero for a moment
+        return run == null ? 0 : Math.max(0, run.backlog[stage.ordinal()].get());
+    }
+
+    public synchronized StatementReport run(Path statement, Consumer<RejectedLine> rejects) throws IOException, InterruptedException {
+        validateStatement(statement);
+        validateRejects(rejects);
+        Run run = new Run();
+        current = run;
+        long start = System.nanoTime();
+        Thread[] threads = {
+                stage(run, PipelineStage.PARSER, () -> parse(run, statement)),
+                stage(run, PipelineStage.MATCHER, () -> match(run)),
+                stage(run, PipelineStage.APPLIER, () -> apply(run))};
+        run.stages.addAll(List.of(threads));
+        try {
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            while (alive(threads)) {
+                RejectedLine rejected = run.rejects.poll(REJECT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (rejected != null) {
+                    rejects.accept(rejected);
+                }
+            }
+            for (RejectedLine rejected; (rejected = run.rejects.poll()) != null; ) {
+                rejects.accept(rejected);
+            }
+        } finally {
+            for (Thread thread : threads) {
+                thread.interrupt();
+                thread.join();
+            }
+            current = null;
+        }
+        if (run.failure != null) {
+            if (run.failure instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) run.failure).getCause();
+            }
+            if (run.failure instanceof RuntimeException) {
+                throw (RuntimeException) run.failure;
+            }
+            throw new IllegalStateException("Statement pipeline failed", run.failure);
+        }
+        long[] peaks = new long[STAGES.length];
+        long[] processed = new long[STAGES.length];
+        long[] busy = new long[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            peaks[i] = run.peakBacklog[i].get();
+            processed[i] = run.processed[i];
+            busy[i] = run.busyNanos[i];
+        }
+        return new StatementReport(run.lines, run.applied, run.appliedAmount, run.rejected, System.nanoTime() - start,
+                processed, busy, peaks);
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private void parse(Run run, Path statement) throws InterruptedException {
+        int stage = PipelineStage.PARSER.ordinal();
+        long lineNumber = 0;
+        List<StatementLine> batch = new ArrayList<>(batchSize);
+        long busyFrom = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(statement, StandardCharsets.UTF_8)) {
+            for (String text; (text = reader.readLine()) != null; ) {
+                lineNumber++;
+                if (text.isBlank() || text.startsWith("#")) {
+                    continue;
+                }
+                run.lines++;
+                run.processed[stage]++;
+                StatementLine line = parseLine(run, lineNumber, text);
+                if (line == null) {
+                    continue;
+                }
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    run.busyNanos[stage] += System.nanoTime() - busyFrom;
+                    run.put(run.parsed, PipelineStage.MATCHER, batch);
+                    busyFrom = System.nanoTime();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        run.busyNanos[stage] += System.nanoTime() - busyFrom;
+        if (!batch.isEmpty()) {
+            run.put(run.parsed, PipelineStage.MATCHER, batch);
+        }
+        run.parsed.put(END);
+    }
+
+    private StatementLine parseLine(Run run, long lineNumber, String text) {
+        int first = text.indexOf(',');
+        int second = first < 0 ? -1 : text.indexOf(',', first + 1);
+        if (second < 0 || text.indexOf(',', second + 1) >= 0) {
+            run.reject(lineNumber, text, RejectReason.MALFORMED, "Expected transactionId,reference,amount");
+            return null;
+        }
+        String transactionId = text.substring(0, first).trim();
+        String reference = text.substring(first + 1, second).trim();
+        String amount = text.substring(second + 1).trim();
+        if (transactionId.isEmpty() || reference.isEmpty()) {
+            run.reject(lineNumber, text, RejectReason.MALFORMED, "Transaction id and reference cannot be empty");
+            return null;
+        }
+        int value;
+        try {
+            value = Integer.parseInt(amount);
+        } catch (NumberFormatException e) {
+            run.reject(lineNumber, text, RejectReason.INVALID_AMOUNT, "Amount is not a 32-bit integer");
+            return null;
+        }
+        if (value <= 0) {
+            run.reject(lineNumber, text, RejectReason.INVALID_AMOUNT, "Amount must be greater than zero");
+            return null;
+        }
+        return new StatementLine(lineNumber, transactionId, reference, value);
+    }
+
+    private void match(Run run) throws InterruptedException {
+        int stage = PipelineStage.MATCHER.ordinal();
+        ContractRegistry registry = insurer.getRegistry();
+        for (List<StatementLine> batch; (batch = run.take(run.parsed, PipelineStage.MATCHER)) != END; ) {
+            long busyFrom = System.nanoTime();
+            List<StatementLine> matched = new ArrayList<>(batch.size());
+            for (StatementLine line : batch) {
+                AbstractContract contract = registry.find(line.getReference());
+                if (contract == null) {
+                    run.reject(line.getLineNumber(), line.toText(), RejectReason.UNKNOWN_CONTRACT, null);
+                } else {
+                    line.setContract(contract);
+                    matched.add(line);
+                }
+            }
+            run.processed[stage] += batch.size();
+            run.busyNanos[stage] += System.nanoTime() - busyFrom;
+            if (!matched.isEmpty()) {
+                run.put(run.matched, PipelineStage.APPLIER, matched);
+            }
+        }
+        run.matched.put(END);
+    }
+
+    ///  Lines of one batch are applied contract by contract, in statement order within a contract
+    private void apply(Run run) throws InterruptedException {
+        int stage = PipelineStage.APPLIER.ordinal();
+        PaymentHandler handler = insurer.getHandler();
+        Comparator<StatementLine> byContract = Comparator.comparingInt(line -> line.getContract().getHandle());
+        for (List<StatementLine> batch; (batch = run.take(run.matched, PipelineStage.APPLIER)) != END; ) {
+            long busyFrom = System.nanoTime();
+            batch.sort(byContract);
+            for (StatementLine line : batch) {
+                try {
+                    if (handler.pay(line.getContract(), line.getAmount(), line.getTransactionId())) {
+                        run.applied++;
+                        run.appliedAmount += line.getAmount();
+                    } else {
+                        run.reject(line.getLineNumber(), line.toText(), RejectReason.DUPLICATE, null);
+                    }
+                } catch (RuntimeException e) {
+                    run.reject(line.getLineNumber(), line.toText(), RejectReason.REJECTED, e.getMessage());
+                }
+            }
+            run.processed[stage] += batch.size();
+            run.busyNanos[stage] += System.nanoTime() - busyFrom;
+        }
+    }
+
+    private static Thread stage(Run run, PipelineStage stage, StageBody body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                ///  Another stage failed and the run is being torn down
+            } catch (Throwable e) {
+                run.fail(e);
+            }
+        }, "statement-" + stage.name().toLowerCase());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static boolean alive(Thread[] threads) {
+        for (Thread thread : threads) {
+            if (thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private interface StageBody {
+        void run() throws InterruptedException;
+    }
+
+    ///  Queues and counters of one run. Every counter array slot is written by one stage thread only
+    ///  and read after the threads are joined; backlogs are shared and atomic.
+    private final class Run {
+        private final BlockingQueue<List<StatementLine>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<List<StatementLine>> matched = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<RejectedLine> rejects = new LinkedBlockingQueue<>();
+        private final AtomicLong[] backlog = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+        private final AtomicLong[] peakBacklog = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+        private final long[] processed = new long[STAGES.length];
+        private final long[] busyNanos = new long[STAGES.length];
+        private final long[] rejected = new long[RejectReason.values().length];
+        private long lines;
+        private long applied;
+        private long appliedAmount;
+        private final List<Thread> stages = new ArrayList<>();
+        private volatile Throwable failure;
+
+        ///  Blocks while the consumer's queue is full, which is the backpressure of the pipeline
+        void put(BlockingQueue<List<StatementLine>> queue, PipelineStage consumer, List<StatementLine> batch) throws InterruptedException {
+            queue.put(batch);
+            long queued = backlog[consumer.ordinal()].addAndGet(batch.size());
+            peakBacklog[consumer.ordinal()].accumulateAndGet(queued, Math::max);
+        }
+
+        List<StatementLine> take(BlockingQueue<List<StatementLine>> queue, PipelineStage consumer) throws InterruptedException {
+            List<StatementLine> batch = queue.take();
+            backlog[consumer.ordinal()].addAndGet(-batch.size());
+            return batch;
+        }
+
+        ///  Rejections of all stages, counted per reason under the run's lock
+        synchronized void reject(long lineNumber, String text, RejectReason reason, String message) {
+            rejected[reason.ordinal()]++;
+            rejects.add(new RejectedLine(lineNumber, text, reason, message));
+        }
+
+        void fail(Throwable e) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            stages.forEach(Thread::interrupt);
+        }
+    }
+
+    /// Validation methods
+
+    private void validateInsuranceCompany(InsuranceCompany insurer) {
+        if (insurer == null) {
+            throw new IllegalArgumentException("Insurance company cannot be null");
+        }
+    }
+
+    private void validatePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+    }
+
+    private void validateStage(PipelineStage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("Stage cannot be null");
+        }
+    }
+
+    private void validateStatement(Path statement) {
+        if (statement == null) {
+            throw new IllegalArgumentException("Statement path cannot be null");
+        }
+    }
+
+    private void validateRejects(Consumer<RejectedLine> rejects) {
+        if (rejects == null) {
+            throw new IllegalArgumentException("Rejected line consumer cannot be null");
+        }
+    }
+}
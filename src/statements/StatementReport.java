@@ -0,0 +1,117 @@
+package statements;
+
+import java.util.Arrays;
+
+///  Outcome of one StatementPipeline run: line counts, throughput and backlog per stage.
+///  A stage's busy time excludes the time it waited on its queues.
+public class StatementReport {
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+    private static final RejectReason[] REASONS = RejectReason.values();
+
+    private final long lines;
+    private final long applied;
+    private final long appliedAmount;
+    private final long[] rejected;
+    private final long elapsedNanos;
+    private final long[] processed;
+    private final long[] busyNanos;
+    private final long[] peakBacklog;
+
+    StatementReport(long lines, long applied, long appliedAmount, long[] rejected, long elapsedNanos,
+                    long[] processed, long[] busyNanos, long[] peakBacklog) {
+        this.lines = lines;
+        this.applied = applied;
+        this.appliedAmount = appliedAmount;
+        this.rejected = rejected.clone();
+        this.elapsedNanos = elapsedNanos;
+        this.processed = processed.clone();
+        this.busyNanos = busyNanos.clone();
+        this.peakBacklog = peakBacklog.clone();
+    }
+
+    ///  Statement lines read, comments and blank lines excluded
+    public long getLines() {
+        return lines;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public long getAppliedAmount() {
+        return appliedAmount;
+    }
+
+    public long getRejected() {
+        return Arrays.stream(rejected).sum();
+    }
+
+    public long getRejected(RejectReason reason) {
+        validateReason(reason);
+        return rejected[reason.ordinal()];
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getLinesPerSecond() {
+        return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+    }
+
+    ///  Lines the stage handed on or rejected
+    public long getProcessed(PipelineStage stage) {
+        validateStage(stage);
+        return processed[stage.ordinal()];
+    }
+
+    public long getBusyNanos(PipelineStage stage) {
+        validateStage(stage);
+        return busyNanos[stage.ordinal()];
+    }
+
+    ///  Lines per second of busy time, what the stage could sustain if it never waited
+    public double getLinesPerSecond(PipelineStage stage) {
+        validateStage(stage);
+        long busy = busyNanos[stage.ordinal()];
+        return busy == 0 ? 0 : processed[stage.ordinal()] * 1e9 / busy;
+    }
+
+    ///  Largest number of lines that were waiting in the stage's input queue, 0 for the parser
+    public long getPeakBacklog(PipelineStage stage) {
+        validateStage(stage);
+        return peakBacklog[stage.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append(lines).append(" lines in ").append(elapsedNanos / 1_000_000).append(" ms (")
+                .append(Math.round(getLinesPerSecond())).append(" lines/s), applied ").append(applied)
+                .append(", rejected ").append(getRejected());
+        for (PipelineStage stage : STAGES) {
+            text.append("; ").append(stage).append(' ').append(Math.round(getLinesPerSecond(stage)))
+                    .append(" lines/s busy, peak backlog ").append(peakBacklog[stage.ordinal()]);
+        }
+        for (RejectReason reason : REASONS) {
+            if (rejected[reason.ordinal()] > 0) {
+                text.append("; ").append(reason).append(' ').append(rejected[reason.ordinal()]);
+            }
+        }
+        return text.toString();
+    }
+
+    /// Validation methods
+
+    private void validateStage(PipelineStage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("Stage cannot be null");
+        }
+    }
+
+    private void validateReason(RejectReason reason) {
+        if (reason == null) {
+            throw new IllegalArgumentException("Reject reason cannot be null");
+        }
+    }
+}
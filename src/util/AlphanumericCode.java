@@ -0,0 +1,65 @@
+package util;
+
+///  Packs short identifiers of uppercase letters and digits into a long. Every character is a digit
+///  from 1 to 36 in base 37, so there is no zero digit, leading zeros survive and every string of up to
+///  twelve characters has exactly one code. Codes are non-negative, NONE marks strings that do not fit.
+public final class AlphanumericCode {
+    public static final long NONE = -1;
+    public static final int MAX_LENGTH = 12;
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int BASE = 37;
+
+    private AlphanumericCode() {
+    }
+
+    ///  Returns NONE if the text is empty, longer than MAX_LENGTH or has other characters
+    public static long encode(CharSequence text) {
+        if (text == null || text.isEmpty() || text.length() > MAX_LENGTH) {
+            return NONE;
+        }
+        long code = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int digit = digit(text.charAt(i));
+            if (digit == 0) {
+                return NONE;
+            }
+            code = code * BASE + digit;
+        }
+        return code;
+    }
+
+    public static String decode(long code) {
+        validateCode(code);
+        char[] text = new char[MAX_LENGTH];
+        int start = text.length;
+        for (; code > 0; code /= BASE) {
+            text[--start] = ALPHABET.charAt((int) (code % BASE) - 1);
+        }
+        return new String(text, start, text.length - start);
+    }
+
+    ///  Spreads codes that differ only in their last characters over the whole int range
+    public static int hash(long code) {
+        return (int) ((code * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 1;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 11;
+        }
+        return 0;
+    }
+
+    /// Validation methods
+
+    private static void validateCode(long code) {
+        if (code <= 0) {
+            throw new IllegalArgumentException("Code must be positive");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package util;
+
+import java.util.*;
+
+///  Insertion ordered set for the many sets that hold only a handful of elements, such as the
+///  contracts of a policyholder or the insured persons of a travel contract. A single element is
+///  stored inline, up to THRESHOLD elements in an array that is scanned linearly, and larger sets
+///  move to a LinkedHashSet for good. Not thread safe, like the LinkedHashSet it replaces.
+public class CompactSet<E> extends AbstractSet<E> {
+    static final int THRESHOLD = 8;
+
+    ///  null, the only element, an Object[] or a LinkedHashSet, depending on size and hashed
+    private Object elements;
+    private int size;
+    private boolean hashed;
+
+    public CompactSet() {
+        this.elements = null;
+        this.size = 0;
+        this.hashed = false;
+    }
+
+    public CompactSet(Collection<? extends E> elements) {
+        this();
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return hashed ? overflow().size() : size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (hashed) {
+            return overflow().contains(o);
+        }
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean add(E element) {
+        if (hashed) {
+            return overflow().add(element);
+        }
+        if (indexOf(element) >= 0) {
+            return false;
+        }
+        if (size == 0) {
+            elements = element;
+        } else if (size == 1) {
+            elements = new Object[]{elements, element, null, null};
+        } else if (size < THRESHOLD) {
+            Object[] array = (Object[]) elements;
+            if (size == array.length) {
+                array = Arrays.copyOf(array, THRESHOLD);
+                elements = array;
+            }
+            array[size] = element;
+        } else {
+            LinkedHashSet<E> overflow = new LinkedHashSet<>();
+            for (int i = 0; i < size; i++) {
+                overflow.add(elementAt(i));
+            }
+            overflow.add(element);
+            elements = overflow;
+            hashed = true;
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (hashed) {
+            return overflow().remove(o);
+        }
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        elements = null;
+        size = 0;
+        hashed = false;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        if (hashed) {
+            return overflow().iterator();
+        }
+        return new Iterator<>() {
+            private int next = 0;
+            private boolean removable = false;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public E next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                removable = true;
+                return elementAt(next++);
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                removeAt(--next);
+                removable = false;
+            }
+        };
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    @SuppressWarnings("unchecked")
+    private LinkedHashSet<E> overflow() {
+        return (LinkedHashSet<E>) elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int index) {
+        return size == 1 ? (E) elements : (E) ((Object[]) elements)[index];
+    }
+
+    private int indexOf(Object o) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(o, elementAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        if (size == 1) {
+            elements = null;
+        } else if (size == 2) {
+            elements = ((Object[]) elements)[1 - index];
+        } else {
+            Object[] array = (Object[]) elements;
+            System.arraycopy(array, index + 1, array, index, size - index - 1);
+            array[size - 1] = null;
+        }
+        size--;
+    }
+}
@@ -0,0 +1,420 @@
+package util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+///  Compressed set of non-negative ints. Values are grouped by their upper 16 bits into
+///  containers that hold either a sorted char array (sparse) or a 1024 word bitmap (dense),
+///  so set operations work word-wise on dense ranges and stay small on sparse ones.
+public class CompressedBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys;
+    private Object[] containers;
+    private int[] cardinalities;
+    private int size;
+
+    public CompressedBitmap() {
+        this.keys = new char[4];
+        this.containers = new Object[4];
+        this.cardinalities = new int[4];
+        this.size = 0;
+    }
+
+    ///  Bitmap of all values from 0 inclusive to the bound exclusive
+    public static CompressedBitmap range(int bound) {
+        validateValue(bound);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int high = 0; high <= (bound - 1) >>> 16 && bound > 0; high++) {
+            long[] words = new long[WORDS];
+            int count = Math.min(bound - (high << 16), 1 << 16);
+            Arrays.fill(words, 0, count >>> 6, -1L);
+            if ((count & 63) != 0) {
+                words[count >>> 6] = (1L << count) - 1;
+            }
+            bitmap.appendContainer((char) high, words, count);
+        }
+        return bitmap;
+    }
+
+    public boolean add(int value) {
+        validateValue(value);
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int index = containerIndex(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new char[]{low}, 1);
+            return true;
+        }
+        if (containers[index] instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                return false;
+            }
+            words[low >>> 6] |= bit;
+            cardinalities[index]++;
+            return true;
+        }
+        char[] values = (char[]) containers[index];
+        int cardinality = cardinalities[index];
+        int position = Arrays.binarySearch(values, 0, cardinality, low);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (cardinality == ARRAY_MAX) {
+            long[] words = toWords(values, cardinality);
+            words[low >>> 6] |= 1L << low;
+            containers[index] = words;
+        } else {
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+                containers[index] = values;
+            }
+            System.arraycopy(values, position, values, position + 1, cardinality - position);
+            values[position] = low;
+        }
+        cardinalities[index]++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = containerIndex((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (containers[index] instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                return false;
+            }
+            words[low >>> 6] &= ~bit;
+            if (--cardinalities[index] <= ARRAY_MAX) {
+                containers[index] = toArray(words, cardinalities[index]);
+            }
+        } else {
+            char[] values = (char[]) containers[index];
+            int cardinality = cardinalities[index];
+            int position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+            cardinalities[index]--;
+        }
+        if (cardinalities[index] == 0) {
+            removeContainer(index);
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = containerIndex((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (containers[index] instanceof long[] words) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) containers[index], 0, cardinalities[index], low) >= 0;
+    }
+
+    ///  Smallest value at least from, -1 if there is none, like BitSet.nextSetBit
+    public int nextSetBit(int from) {
+        validateValue(from);
+        int index = containerIndex((char) (from >>> 16));
+        char low = (char) from;
+        if (index < 0) {
+            index = -index - 1;
+            low = 0;
+        }
+        for (; index < size; index++, low = 0) {
+            int high = keys[index] << 16;
+            if (containers[index] instanceof long[] words) {
+                int w = low >>> 6;
+                long word = words[w] & (-1L << low);
+                while (word == 0 && ++w < WORDS) {
+                    word = words[w];
+                }
+                if (word != 0) {
+                    return high | (w << 6) | Long.numberOfTrailingZeros(word);
+                }
+            } else {
+                int position = Arrays.binarySearch((char[]) containers[index], 0, cardinalities[index], low);
+                position = position < 0 ? -position - 1 : position;
+                if (position < cardinalities[index]) {
+                    return high | ((char[]) containers[index])[position];
+                }
+            }
+        }
+        return -1;
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += cardinalities[i];
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    ///  Whether every value of the other bitmap is in this bitmap
+    public boolean containsAll(CompressedBitmap other) {
+        int index = 0;
+        for (int i = 0; i < other.size; i++) {
+            while (index < size && keys[index] < other.keys[i]) {
+                index++;
+            }
+            if (index == size || keys[index] != other.keys[i] || cardinalities[index] < other.cardinalities[i]) {
+                return false;
+            }
+            long[] mine = words(index);
+            long[] theirs = other.words(i);
+            for (int w = 0; w < WORDS; w++) {
+                if ((theirs[w] & ~mine[w]) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                long[] words = words(i).clone();
+                long[] theirs = other.words(j);
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= theirs[w];
+                }
+                result.appendWords(keys[i], words);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendWords(keys[i], words(i).clone());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendWords(other.keys[j], other.words(j).clone());
+                j++;
+            } else {
+                long[] words = words(i).clone();
+                long[] theirs = other.words(j);
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] |= theirs[w];
+                }
+                result.appendWords(keys[i], words);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            long[] words = words(i).clone();
+            if (j < other.size && other.keys[j] == keys[i]) {
+                long[] theirs = other.words(j);
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= ~theirs[w];
+                }
+            }
+            result.appendWords(keys[i], words);
+        }
+        return result;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            if (containers[i] instanceof long[] words) {
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) containers[i];
+                for (int v = 0; v < cardinalities[i]; v++) {
+                    action.accept(high | values[v]);
+                }
+            }
+        }
+    }
+
+    ///  Values in ascending order. The bitmap must not be modified while iterating.
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int container = 0;
+            private int position = 0;
+            private long word = size > 0 && containers[0] instanceof long[] words ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (container < size) {
+                    if (containers[container] instanceof long[] words) {
+                        while (word == 0 && position < WORDS - 1) {
+                            word = words[++position];
+                        }
+                        if (word != 0) {
+                            return true;
+                        }
+                    } else if (position < cardinalities[container]) {
+                        return true;
+                    }
+                    container++;
+                    position = 0;
+                    word = container < size && containers[container] instanceof long[] words ? words[0] : 0;
+                }
+                return false;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int high = keys[container] << 16;
+                if (containers[container] instanceof long[]) {
+                    int value = high | (position << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    return value;
+                }
+                return high | ((char[]) containers[container])[position++];
+            }
+        };
+    }
+
+    ///  Addition Methods to keep code clean and readable
+
+    private int containerIndex(char key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else if (keys[middle] > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private long[] words(int index) {
+        if (containers[index] instanceof long[] words) {
+            return words;
+        }
+        return toWords((char[]) containers[index], cardinalities[index]);
+    }
+
+    ///  Appends a container with a key above all current keys, compressing it if it is sparse
+    private void appendWords(char key, long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+            return;
+        }
+        appendContainer(key, cardinality <= ARRAY_MAX ? toArray(words, cardinality) : words, cardinality);
+    }
+
+    private void appendContainer(char key, Object container, int cardinality) {
+        insertContainer(size, key, container, cardinality);
+    }
+
+    private void insertContainer(int index, char key, Object container, int cardinality) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+            cardinalities = Arrays.copyOf(cardinalities, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        cardinalities[index] = cardinality;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        System.arraycopy(cardinalities, index + 1, cardinalities, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private static long[] toWords(char[] values, int cardinality) {
+        long[] words = new long[WORDS];
+        for (int i = 0; i < cardinality; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    private static char[] toArray(long[] words, int cardinality) {
+        char[] values = new char[cardinality];
+        int position = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[position++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    /// Validation methods
+
+    private static void validateValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Bitmap values cannot be negative");
+        }
+    }
+}
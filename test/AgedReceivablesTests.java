@@ -0,0 +1,108 @@
+import company.InsuranceCompany;
+import contracts.ContractType;
+import objects.LegalForm;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import reports.AgedReceivables;
+import reports.AgedReceivablesReport;
+import reports.AgingBucket;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgedReceivablesTests {
+
+    @Test
+    public void testBucketBoundaries() {
+        assertEquals(AgingBucket.DAYS_0_30, AgingBucket.of(0));
+        assertEquals(AgingBucket.DAYS_0_30, AgingBucket.of(30));
+        assertEquals(AgingBucket.DAYS_31_60, AgingBucket.of(31));
+        assertEquals(AgingBucket.DAYS_31_60, AgingBucket.of(60));
+        assertEquals(AgingBucket.DAYS_61_90, AgingBucket.of(61));
+        assertEquals(AgingBucket.DAYS_61_90, AgingBucket.of(90));
+        assertEquals(AgingBucket.DAYS_91_180, AgingBucket.of(91));
+        assertEquals(AgingBucket.DAYS_91_180, AgingBucket.of(180));
+        assertEquals(AgingBucket.OVER_180, AgingBucket.of(181));
+        assertEquals(AgingBucket.OVER_180, AgingBucket.of(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testBalancesLandInTheBucketOfTheirOldestUnpaidPremium() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person legal = new Person("12345678");
+        ///  Issued on these days with one unpaid premium each, 181 to 30 days past due on 2025-07-01
+        List<LocalDateTime> issued = List.of(LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 2, 0, 0),
+                LocalDateTime.of(2025, 1, 3, 0, 0), LocalDateTime.of(2025, 4, 1, 0, 0), LocalDateTime.of(2025, 4, 2, 0, 0),
+                LocalDateTime.of(2025, 5, 1, 0, 0), LocalDateTime.of(2025, 5, 2, 0, 0), LocalDateTime.of(2025, 5, 31, 0, 0),
+                LocalDateTime.of(2025, 6, 1, 0, 0));
+        for (int i = 0; i < issued.size(); i++) {
+            insuranceCompany.setCurrentTime(issued.get(i));
+            insuranceCompany.insureVehicle("V" + i, null, legal, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + i + "00CD", 20_000));
+        }
+        insuranceCompany.insureVehicle("PAID", null, legal, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ZZ999ZZ", 20_000)).pay(100);
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 7, 1, 0, 0));
+
+        AgedReceivables receivables = new AgedReceivablesReport(insuranceCompany).compute();
+        long[] expected = {1, 2, 2, 3, 1};
+        for (AgingBucket bucket : AgingBucket.values()) {
+            assertEquals(expected[bucket.ordinal()], receivables.getCount(ContractType.SINGLE_VEHICLE, PremiumPaymentFrequency.MONTHLY, LegalForm.LEGAL, bucket), bucket.name());
+            assertEquals(100 * expected[bucket.ordinal()], receivables.getBalance(ContractType.SINGLE_VEHICLE, PremiumPaymentFrequency.MONTHLY, LegalForm.LEGAL, bucket));
+            assertEquals(0L, receivables.getCount(ContractType.SINGLE_VEHICLE, PremiumPaymentFrequency.MONTHLY, LegalForm.NATURAL, bucket));
+        }
+        assertEquals(9L, receivables.getTotalCount());
+        assertEquals(900L, receivables.getTotalBalance());
+        assertEquals(LocalDateTime.of(2025, 7, 1, 0, 0), receivables.getAsOf());
+    }
+
+    @Test
+    public void testCsvOutput() throws IOException {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person natural = new Person("8351068242");
+        String quoted = "Q,\"1";
+        String unicode = "\u010C-2";
+        String huge = "L," + "x".repeat(20_000);
+        List<String> contractNumbers = List.of(quoted, unicode, huge);
+        for (int i = 0; i < contractNumbers.size(); i++) {
+            insuranceCompany.insureVehicle(contractNumbers.get(i), null, natural, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("QU00" + i + "CD", 20_000));
+        }
+        ///  Enough rows to flush the writers' buffers several times
+        for (int i = 0; i < 3_000; i++) {
+            insuranceCompany.insurePersons("T" + i, natural, 10, PremiumPaymentFrequency.ANNUAL, Set.of(natural));
+        }
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 2, 15, 0, 0));
+
+        Path detail = Files.createTempFile("aged", ".csv");
+        Path summary = Files.createTempFile("aged-summary", ".csv");
+        try {
+            AgedReceivables receivables = new AgedReceivablesReport(insuranceCompany).export(detail);
+            List<String> lines = Files.readAllLines(detail, StandardCharsets.UTF_8);
+            assertEquals("contract_number,contract_type,frequency,legal_form,outstanding_balance,days_past_due,bucket", lines.get(0));
+            assertEquals(3_004, lines.size());
+            Set<String> rows = new HashSet<>(lines.subList(1, lines.size()));
+            assertEquals(3_003, rows.size());
+            assertTrue(rows.contains("\"Q,\"\"1\",SINGLE_VEHICLE,MONTHLY,NATURAL,100,45,DAYS_31_60"));
+            assertTrue(rows.contains(unicode + ",SINGLE_VEHICLE,MONTHLY,NATURAL,100,45,DAYS_31_60"));
+            assertTrue(rows.contains("\"" + huge + "\",SINGLE_VEHICLE,MONTHLY,NATURAL,100,45,DAYS_31_60"));
+            assertTrue(rows.contains("T2999,TRAVEL,ANNUAL,NATURAL,10,45,DAYS_31_60"));
+
+            receivables.writeCsv(summary);
+            assertEquals(List.of("contract_type,frequency,legal_form,bucket,contracts,outstanding_balance",
+                            "SINGLE_VEHICLE,MONTHLY,NATURAL,DAYS_31_60,3,300",
+                            "TRAVEL,ANNUAL,NATURAL,DAYS_31_60,3000,30000"),
+                    Files.readAllLines(summary, StandardCharsets.UTF_8));
+        } finally {
+            Files.delete(detail);
+            Files.delete(summary);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import company.AsyncInsuranceCompany;
+import company.InsuranceCompany;
+import contracts.InvalidContractException;
+import contracts.SingleVehicleContract;
+import events.DomainEventType;
+import events.EventProcessor;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncInsuranceCompanyTests {
+
+    InsuranceCompany insuranceCompany;
+    ExecutorService executor;
+    AsyncInsuranceCompany asyncCompany;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        executor = Executors.newFixedThreadPool(8);
+        asyncCompany = new AsyncInsuranceCompany(insuranceCompany, executor, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncCompany.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCommandsOfOnePolicyholderRunInOrder() {
+        Person policyHolder = new Person("12345678");
+        List<Integer> paidAmounts = new ArrayList<>();
+        EventProcessor processor = insuranceCompany.getEvents().subscribe((event, sequence, endOfBatch) -> {
+            if (event.getType() == DomainEventType.PAYMENT_APPLIED) {
+                paidAmounts.add(event.getAmount());
+            }
+        });
+        CompletableFuture<SingleVehicleContract> issued = asyncCompany.insureVehicle("c1", null, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c1 = issued.join();
+        List<CompletableFuture<Void>> payments = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            payments.add(asyncCompany.pay(c1, i));
+        }
+        CompletableFuture<Void> claim = asyncCompany.processClaim(c1, 14_000);
+        CompletableFuture<Void> late = asyncCompany.pay(c1, 1);
+        CompletableFuture.allOf(payments.toArray(new CompletableFuture<?>[0])).join();
+        claim.join();
+
+        CompletionException failure = assertThrows(CompletionException.class, late::join);
+        assertTrue(failure.getCause() instanceof InvalidContractException);
+        assertEquals(100 - 50 * 51 / 2, c1.getContractPaymentData().getOutstandingBalance());
+        processor.drain();
+        assertEquals(IntStream.rangeClosed(1, 50).boxed().collect(Collectors.toList()), paidAmounts);
+
+        assertThrows(IllegalArgumentException.class, () -> asyncCompany.pay(null, 1));
+        CompletionException duplicate = assertThrows(CompletionException.class,
+                () -> asyncCompany.insureVehicle("c1", null, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AB", 15_000)).join());
+        assertTrue(duplicate.getCause() instanceof IllegalArgumentException);
+
+        ///  An Error fails only its own command, the policyholder's later commands still run
+        CompletableFuture<Object> broken = asyncCompany.execute(policyHolder, () -> {
+            throw new StackOverflowError();
+        });
+        CompletableFuture<Integer> next = asyncCompany.execute(policyHolder, () -> 42);
+        CompletionException error = assertThrows(CompletionException.class, broken::join);
+        assertTrue(error.getCause() instanceof StackOverflowError);
+        assertEquals(Integer.valueOf(42), next.join());
+    }
+
+    @Test
+    public void testUnrelatedPolicyholdersRunConcurrently() {
+        int policyHolders = 200;
+        int contractsPerPolicyHolder = 20;
+        List<CompletableFuture<SingleVehicleContract>> issued = new ArrayList<>();
+        for (int p = 0; p < policyHolders; p++) {
+            Person policyHolder = new Person(String.format("%08d", p));
+            for (int c = 0; c < contractsPerPolicyHolder; c++) {
+                int n = p * contractsPerPolicyHolder + c;
+                issued.add(asyncCompany.insureVehicle("c" + n, null, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle(String.format("A%06d", n), 15_000)));
+            }
+        }
+        List<CompletableFuture<Void>> payments = new ArrayList<>();
+        for (CompletableFuture<SingleVehicleContract> contract : issued) {
+            payments.add(contract.thenCompose(c -> asyncCompany.pay(c, 40)));
+        }
+        CompletableFuture.allOf(payments.toArray(new CompletableFuture<?>[0])).join();
+
+        asyncCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(1)).join();
+        asyncCompany.chargePremiumsOnContracts().join();
+
+        int total = policyHolders * contractsPerPolicyHolder;
+        assertEquals(total, insuranceCompany.getContracts().size());
+        assertEquals(total, insuranceCompany.getRegistry().size());
+        for (CompletableFuture<SingleVehicleContract> contract : issued) {
+            SingleVehicleContract c = contract.join();
+            assertEquals(160, c.getContractPaymentData().getOutstandingBalance());
+            assertEquals(1, insuranceCompany.getHandler().getPaymentHistory(c).size());
+            assertSame(c, insuranceCompany.findContract(c.getContractNumber()));
+        }
+
+        asyncCompany.close();
+        assertThrows(IllegalStateException.class, asyncCompany::chargePremiumsOnContracts);
+    }
+}
@@ -0,0 +1,102 @@
+import company.ClaimRecord;
+import company.ClaimsLedger;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.ContractType;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.Portfolio;
+import generator.PortfolioGenerator;
+import generator.PortfolioProfile;
+import generator.WorkloadGenerator;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaimsLedgerTests {
+
+    @Test
+    public void testPayoutsAreRecordedAndIndexed() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 1, 9, 0));
+        Person legal = new Person("12345678");
+        Person natural = new Person("8351068242");
+        Person insured = new Person("0402114911");
+        SingleVehicleContract car = insuranceCompany.insureVehicle("C1", natural, legal, 400, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 20_000));
+        TravelContract trip = insuranceCompany.insurePersons("T1", legal, 100, PremiumPaymentFrequency.ANNUAL, Set.of(natural, insured));
+        ClaimsLedger ledger = insuranceCompany.getClaimsLedger();
+
+        insuranceCompany.processClaim(car, 1_000);
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 4, 2, 9, 0));
+        insuranceCompany.processClaim(trip, Set.of(natural, insured));
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 4, 3, 9, 0));
+        insuranceCompany.processClaim(car, 15_000);
+
+        assertEquals(4, ledger.size());
+        List<ClaimRecord> carClaims = ledger.getClaims(car);
+        assertEquals(2, carClaims.size());
+        assertFalse(carClaims.get(0).isDeactivated());
+        assertTrue(carClaims.get(1).isDeactivated());
+        assertEquals(LocalDateTime.of(2025, 4, 3, 9, 0), carClaims.get(1).getTime());
+        assertSame(natural, carClaims.get(0).getRecipient());
+        assertEquals(20_000, ledger.getPaidOut(car));
+
+        List<ClaimRecord> naturalClaims = ledger.getClaims(natural);
+        assertEquals(List.of("C1", "T1", "C1"), naturalClaims.stream().map(ClaimRecord::getContractNumber).toList());
+        assertEquals(natural.getPaidOutAmount(), ledger.getPaidOut(natural));
+        assertEquals(10, ledger.getPaidOut(insured));
+        assertEquals(List.of(ContractType.TRAVEL), ledger.getClaims(insured).stream().map(ClaimRecord::getContractType).toList());
+        assertTrue(ledger.getClaims(legal).isEmpty());
+
+        assertEquals(20_000, ledger.getPaidOut(ContractType.SINGLE_VEHICLE));
+        assertEquals(20, ledger.getPaidOut(ContractType.TRAVEL));
+        assertEquals(20_020, ledger.getTotalPaidOut());
+        assertEquals(2, ledger.getDeactivations());
+
+        ///  Records of archived contracts keep their contract number
+        insuranceCompany.archiveInactiveContracts();
+        assertEquals("T1", ledger.get(1).getContractNumber());
+        assertEquals(2, ledger.getClaims(trip).size());
+    }
+
+    @Test
+    public void testRunningTotalsMatchEntries() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Portfolio portfolio = new PortfolioGenerator(21, new PortfolioProfile()).generate(insuranceCompany, 1_000);
+        new WorkloadGenerator(6, portfolio, new int[]{2, 40, 40, 18}, 30).generate(6_000, event -> event.applyTo(insuranceCompany));
+        ClaimsLedger ledger = insuranceCompany.getClaimsLedger();
+        assertTrue(ledger.size() > 0);
+
+        long total = 0;
+        long vehicles = 0;
+        Set<Person> recipients = new HashSet<>();
+        for (int entry = 0; entry < ledger.size(); entry++) {
+            ClaimRecord claim = ledger.get(entry);
+            total += claim.getAmount();
+            vehicles += claim.getContractType() == ContractType.SINGLE_VEHICLE ? claim.getAmount() : 0;
+            recipients.add(claim.getRecipient());
+        }
+        assertEquals(total, ledger.getTotalPaidOut());
+        assertEquals(vehicles, ledger.getPaidOut(ContractType.SINGLE_VEHICLE));
+        for (Person recipient : recipients) {
+            assertEquals(recipient.getPaidOutAmount(), ledger.getPaidOut(recipient));
+            assertEquals(ledger.getPaidOut(recipient), ledger.getClaims(recipient).stream().mapToLong(ClaimRecord::getAmount).sum());
+        }
+        for (AbstractContract contract : insuranceCompany.getContracts()) {
+            if (contract instanceof MasterVehicleContract) {
+                continue;
+            }
+            List<ClaimRecord> claims = ledger.getClaims(contract);
+            assertEquals(ledger.getPaidOut(contract), claims.stream().mapToLong(ClaimRecord::getAmount).sum());
+            assertEquals(!contract.isActive(), !claims.isEmpty() && claims.get(claims.size() - 1).isDeactivated());
+        }
+    }
+}
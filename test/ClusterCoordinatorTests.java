@@ -0,0 +1,148 @@
+import cluster.ClusterCoordinator;
+import cluster.ContractState;
+import cluster.PartitionWorker;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.SingleVehicleContract;
+import generator.IdentityGenerator;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterCoordinatorTests {
+
+    ClusterCoordinator cluster;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cluster = ClusterCoordinator.launch(3, LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cluster.close();
+    }
+
+    @Test
+    public void testRoutesByPolicyHolderAndKeepsNumbersUnique() {
+        ContractState car = cluster.insureVehicle("C1", "0402114911", "8351068242", 400, PremiumPaymentFrequency.ANNUAL, "AB123CD", 20_000);
+        ContractState trip = cluster.insurePersons("T1", "12345678", 100, PremiumPaymentFrequency.ANNUAL, Set.of("8351068242", "0402114911"));
+        assertEquals(cluster.partitionOf("8351068242"), car.getPartition());
+        assertEquals(cluster.partitionOf("12345678"), trip.getPartition());
+        assertEquals(400, car.getOutstandingBalance());
+
+        ///  The number is taken no matter which partition the second policyholder lands on
+        for (String policyHolder : List.of("12345678", "8351068242", "0402114911")) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> cluster.insureVehicle("C1", null, policyHolder, 400, PremiumPaymentFrequency.ANNUAL, "ZZ999ZZ", 20_000));
+        }
+        ///  A rejected issuance releases its number
+        assertThrows(IllegalArgumentException.class,
+                () -> cluster.insureVehicle("C2", null, "12345678", 1, PremiumPaymentFrequency.ANNUAL, "ZZ999ZZ", 20_000));
+        assertEquals(cluster.partitionOf("12345678"),
+                cluster.insureVehicle("C2", null, "12345678", 400, PremiumPaymentFrequency.ANNUAL, "ZZ999ZZ", 20_000).getPartition());
+
+        assertEquals(0, cluster.pay("C1", 400).getOutstandingBalance());
+        assertFalse(cluster.processClaim("C1", 15_000).isActive());
+        assertThrows(InvalidContractException.class, () -> cluster.processClaim("C1", 100));
+        cluster.processClaim("T1", Set.of("8351068242"));
+        assertThrows(NoSuchElementException.class, () -> cluster.pay("X1", 10));
+
+        ///  The beneficiary was paid on the car's partition, the insured person on the trip's
+        assertEquals(10_000, cluster.getPaidOutAmount("0402114911"));
+        assertEquals(20, cluster.getPaidOutAmount("8351068242"));
+        assertEquals(0, cluster.getPaidOutAmount("12345678"));
+    }
+
+    @Test
+    public void testReconnectedCoordinatorKnowsExistingContracts() throws IOException {
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 0, 0);
+        try (PartitionWorker first = new PartitionWorker(time); PartitionWorker second = new PartitionWorker(time)) {
+            List<InetSocketAddress> workers = List.of(first.getAddress(), second.getAddress());
+            try (ClusterCoordinator before = new ClusterCoordinator(workers, time)) {
+                before.insureVehicle("C1", null, "8351068242", 400, PremiumPaymentFrequency.ANNUAL, "AB123CD", 20_000);
+                before.insureVehicle("C2", null, "12345678", 400, PremiumPaymentFrequency.ANNUAL, "ZZ999ZZ", 20_000);
+            }
+            try (ClusterCoordinator after = new ClusterCoordinator(workers, time)) {
+                assertEquals(0, after.pay("C1", 400).getOutstandingBalance());
+                assertEquals(400, after.getContract("C2").getOutstandingBalance());
+                assertThrows(IllegalArgumentException.class,
+                        () -> after.insureVehicle("C2", null, "0402114911", 400, PremiumPaymentFrequency.ANNUAL, "XY555ZZ", 20_000));
+            }
+        }
+    }
+
+    @Test
+    public void testBillingRunsMatchSingleInsurer() {
+        InsuranceCompany reference = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        IdentityGenerator identities = new IdentityGenerator(new SplittableRandom(45));
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        List<String> contractNumbers = new ArrayList<>();
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; i < 60; i++) {
+            String policyHolder = i % 3 == 0 ? identities.nextRegistrationNumber() : identities.nextBirthNumber();
+            String plate = identities.nextLicensePlate();
+            PremiumPaymentFrequency frequency = frequencies[i % frequencies.length];
+            String contractNumber = "V" + i;
+            partitions.add(cluster.insureVehicle(contractNumber, null, policyHolder, 900, frequency, plate, 30_000).getPartition());
+            reference.insureVehicle(contractNumber, null, new Person(policyHolder), 900, frequency, new Vehicle(plate, 30_000));
+            contractNumbers.add(contractNumber);
+        }
+        assertEquals(3, partitions.size());
+
+        for (int month = 1; month <= 14; month++) {
+            LocalDateTime time = LocalDateTime.of(2025, 1, 1, 0, 0).plusMonths(month);
+            cluster.setCurrentTime(time);
+            reference.setCurrentTime(time);
+            assertEquals(60, cluster.chargePremiumsOnContracts());
+            reference.chargePremiumsOnContracts();
+            String payer = contractNumbers.get(month * 7 % contractNumbers.size());
+            cluster.pay(payer, 500);
+            reference.findContract(payer).pay(500);
+        }
+
+        assertEquals(LocalDateTime.of(2026, 3, 1, 0, 0), cluster.getCurrentTime());
+        for (String contractNumber : contractNumbers) {
+            AbstractContract expected = reference.findContract(contractNumber);
+            ContractState actual = cluster.getContract(contractNumber);
+            assertEquals(expected.getContractPaymentData().getExactOutstandingBalance(), actual.getOutstandingBalance(), contractNumber);
+            assertEquals(((SingleVehicleContract) expected).getCoverageAmount(), actual.getCoverageAmount());
+        }
+    }
+
+    @Test
+    public void testWorkersRunFromAnExplicitClassPath() throws Exception {
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 0, 0);
+        String classPath = Path.of(PartitionWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        try (ClusterCoordinator explicit = ClusterCoordinator.launch(1, time, classPath)) {
+            assertEquals(400, explicit.insureVehicle("C1", null, "12345678", 400, PremiumPaymentFrequency.ANNUAL, "AB123CD", 20_000)
+                    .getOutstandingBalance());
+        }
+        ///  A worker that cannot be loaded exits before it listens
+        Path missing = Files.createTempDirectory("no-worker-");
+        try {
+            assertThrows(IOException.class, () -> ClusterCoordinator.launch(1, time, missing.toString()));
+        } finally {
+            Files.delete(missing);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ClusterCoordinator.launch(1, time, " "));
+    }
+}
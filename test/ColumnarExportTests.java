@@ -0,0 +1,116 @@
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import generator.Portfolio;
+import generator.PortfolioGenerator;
+import generator.PortfolioProfile;
+import generator.WorkloadGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PaymentInstance;
+import reports.ColumnarExport;
+import reports.ColumnarReader;
+import reports.ColumnarSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarExportTests {
+
+    InsuranceCompany insuranceCompany;
+    Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Portfolio portfolio = new PortfolioGenerator(44, new PortfolioProfile()).generate(insuranceCompany, 3_000);
+        new WorkloadGenerator(8, portfolio, new int[]{10, 50, 30, 10}, 30).generate(10_000, event -> event.applyTo(insuranceCompany));
+        insuranceCompany.archiveInactiveContracts();
+        file = Files.createTempFile("contracts", ".col");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testExportRoundTripsContractsAndPayments() throws IOException {
+        ColumnarSummary summary = new ColumnarExport(insuranceCompany).export(file);
+        ColumnarReader reader = new ColumnarReader(file);
+
+        assertEquals(Files.size(file), summary.getBytes());
+        assertEquals(summary.getContractBlocks() + summary.getPaymentBlocks(), reader.getBlockCount());
+        assertEquals(summary.getContracts(), reader.getContractCount());
+        assertEquals(summary.getPayments(), reader.getPaymentCount());
+
+        int contracts = 0;
+        for (int handle = 0; handle < insuranceCompany.getRegistry().size(); handle++) {
+            AbstractContract contract = insuranceCompany.getRegistry().get(handle);
+            int row = reader.findContract(handle);
+            if (contract == null) {
+                assertEquals(-1, row);
+                continue;
+            }
+            contracts++;
+            ContractPaymentData paymentData = contract.getContractPaymentData();
+            assertEquals(contract.getContractNumber(), reader.getContractNumber(row));
+            assertEquals(contract.getContractType(), reader.getContractType(row));
+            assertEquals(contract.getPolicyHolder().getId(), reader.getPolicyHolderId(row));
+            assertEquals(contract.getPolicyHolder().getLegalForm(), reader.getLegalForm(row));
+            assertEquals(contract.isActive(), reader.isActive(row));
+            assertEquals(contract.getCoverageAmount(), reader.getCoverageAmount(row));
+            if (contract instanceof MasterVehicleContract master) {
+                assertNull(reader.getPremiumPaymentFrequency(row));
+                for (SingleVehicleContract child : master.getChildContracts()) {
+                    assertEquals(handle, reader.getMasterHandle(reader.findContract(child.getHandle())));
+                }
+            } else {
+                assertEquals(paymentData.getPremiumPaymentFrequency(), reader.getPremiumPaymentFrequency(row));
+                assertEquals(paymentData.getPremium(), reader.getPremium(row));
+                assertEquals(paymentData.getOutstandingBalance(), reader.getOutstandingBalance(row));
+                assertEquals(paymentData.getNextPaymentEpochSecond(), reader.getNextPaymentEpochSecond(row));
+            }
+        }
+        assertEquals(contracts, reader.getContractCount());
+
+        List<PaymentInstance> exported = new ArrayList<>();
+        List<PaymentInstance> expected = new ArrayList<>();
+        for (int row = 0; row < reader.getPaymentCount(); row++) {
+            exported.add(new PaymentInstance(reader.getPaymentEpochSecond(row), reader.getPaymentNano(row), reader.getPaymentAmount(row)));
+            if (row == 0 || reader.getPaymentHandle(row) != reader.getPaymentHandle(row - 1)) {
+                Set<PaymentInstance> history = insuranceCompany.getHandler().getPaymentHistory(insuranceCompany.getRegistry().get(reader.getPaymentHandle(row)));
+                expected.addAll(history);
+            }
+        }
+        assertFalse(exported.isEmpty());
+        assertEquals(expected.size(), exported.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(0, expected.get(i).compareTo(exported.get(i)));
+            assertEquals(expected.get(i).getPaymentAmount(), exported.get(i).getPaymentAmount());
+        }
+    }
+
+    @Test
+    public void testCorruptedBlockIsRejected() throws IOException {
+        new ColumnarExport(insuranceCompany).export(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> new ColumnarReader(file));
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7});
+        assertThrows(IOException.class, () -> new ColumnarReader(file));
+    }
+}
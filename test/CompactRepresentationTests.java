@@ -0,0 +1,121 @@
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.Portfolio;
+import generator.PortfolioGenerator;
+import generator.PortfolioProfile;
+import generator.WorkloadGenerator;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import util.AlphanumericCode;
+import util.CompactSet;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactRepresentationTests {
+
+    @Test
+    public void testCompactInsurerBehavesLikeStandard() {
+        InsuranceCompany standard = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        InsuranceCompany compact = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0), true);
+        assertTrue(compact.isCompactRepresentation());
+        Portfolio standardPortfolio = new PortfolioGenerator(8, new PortfolioProfile()).generate(standard, 1_500);
+        Portfolio compactPortfolio = new PortfolioGenerator(8, new PortfolioProfile()).generate(compact, 1_500);
+        new WorkloadGenerator(2, standardPortfolio).generate(10_000, event -> event.applyTo(standard));
+        new WorkloadGenerator(2, compactPortfolio).generate(10_000, event -> event.applyTo(compact));
+        assertEquals(standard.archiveInactiveContracts(), compact.archiveInactiveContracts());
+
+        List<AbstractContract> expected = new ArrayList<>(standard.getContracts());
+        List<AbstractContract> actual = new ArrayList<>(compact.getContracts());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            AbstractContract e = expected.get(i);
+            AbstractContract a = actual.get(i);
+            assertEquals(e.getContractNumber(), a.getContractNumber());
+            assertSame(a, compact.findContract(e.getContractNumber()));
+            assertEquals(e.isActive(), a.isActive());
+            assertEquals(e.getPolicyHolder(), a.getPolicyHolder());
+            assertEquals(e.getPolicyHolder().getContracts().size(), a.getPolicyHolder().getContracts().size());
+            assertTrue(a.getPolicyHolder().getContracts().contains(a));
+            if (e.getContractPaymentData() != null) {
+                assertEquals(e.getContractPaymentData().getOutstandingBalance(), a.getContractPaymentData().getOutstandingBalance());
+            }
+            if (e instanceof TravelContract travel) {
+                assertEquals(travel.getInsuredPersons(), ((TravelContract) a).getInsuredPersons());
+            }
+            if (e instanceof MasterVehicleContract master) {
+                MasterVehicleContract compactMaster = (MasterVehicleContract) a;
+                assertEquals(master.getChildContracts().size(), compactMaster.getChildContracts().size());
+                for (SingleVehicleContract child : master.getChildContracts()) {
+                    SingleVehicleContract found = compactMaster.findChildContract(child.getContractNumber());
+                    assertEquals(child.getInsuredVehicle(), found.getInsuredVehicle());
+                    assertSame(found, compactMaster.findChildContractByLicensePlate(child.getInsuredVehicle().getLicensePlate()));
+                }
+            }
+        }
+        assertEquals(standard.getArchive().size(), compact.getArchive().size());
+    }
+
+    @Test
+    public void testCompactSetsCodesAndPooledVehicles() {
+        assertEquals("0402114911", AlphanumericCode.decode(AlphanumericCode.encode("0402114911")));
+        assertNotEquals(AlphanumericCode.encode("0A"), AlphanumericCode.encode("A"));
+        assertEquals("ZZZZZZZZZZZZ", AlphanumericCode.decode(AlphanumericCode.encode("ZZZZZZZZZZZZ")));
+        assertEquals(AlphanumericCode.NONE, AlphanumericCode.encode("c1"));
+        assertEquals(AlphanumericCode.NONE, AlphanumericCode.encode("ABCDEFGHIJKLM"));
+
+        Set<Integer> set = new CompactSet<>();
+        for (int i = 0; i < 12; i++) {
+            assertTrue(set.add(i));
+            assertFalse(set.add(i));
+        }
+        assertTrue(set.remove(3));
+        assertEquals(List.of(0, 1, 2, 4, 5, 6, 7, 8, 9, 10, 11), new ArrayList<>(set));
+        Set<String> small = new CompactSet<>(List.of("a", "b", "c"));
+        Iterator<String> iterator = small.iterator();
+        iterator.next();
+        iterator.remove();
+        iterator.next();
+        iterator.remove();
+        assertEquals(Set.of("c"), small);
+        assertTrue(small.remove("c"));
+        assertTrue(small.isEmpty());
+
+        InsuranceCompany compact = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0), true);
+        Person legal = new Person("12345678");
+        SingleVehicleContract c1 = compact.insureVehicle("c1", null, legal, 500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 20_000));
+        SingleVehicleContract c2 = compact.insureVehicle("C2", null, legal, 500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 20_000));
+        assertSame(c1.getInsuredVehicle(), c2.getInsuredVehicle());
+        assertEquals("c1", c1.getContractNumber());
+        assertEquals("C2", c2.getContractNumber());
+        assertEquals(List.of(c1, c2), new ArrayList<>(legal.getContracts()));
+        assertThrows(IllegalArgumentException.class, () -> compact.insureVehicle("C2", null, legal, 500, PremiumPaymentFrequency.ANNUAL, new Vehicle("XY987ZW", 20_000)));
+        assertEquals("12345678", legal.getId());
+    }
+
+    @Test
+    public void testContractsOfNewPersonAreLive() {
+        InsuranceCompany standard = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person holder = new Person("8351068242");
+        Set<AbstractContract> contracts = holder.getContracts();
+        assertTrue(contracts.isEmpty());
+        SingleVehicleContract car = standard.insureVehicle("c1", null, holder, 500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 20_000));
+        assertEquals(Set.of(car), contracts);
+
+        Person other = new Person("0402114911");
+        assertTrue(other.getContracts().add(car));
+        assertFalse(other.getContracts().add(car));
+        assertEquals(Set.of(car), other.getContracts());
+        assertThrows(IllegalArgumentException.class, () -> new Person("12345678").getContracts().add(null));
+    }
+}
@@ -0,0 +1,154 @@
+import org.junit.jupiter.api.Test;
+import util.CompressedBitmap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBitmapTests {
+
+    @Test
+    public void testAddAndRemoveAcrossContainers() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int[] values = {0, 65_535, 65_536, 131_071, 1 << 20, Integer.MAX_VALUE};
+        for (int value : values) {
+            assertTrue(bitmap.add(value));
+            assertFalse(bitmap.add(value));
+        }
+        assertEquals(6L, bitmap.cardinality());
+        assertEquals(List.of(0, 65_535, 65_536, 131_071, 1 << 20, Integer.MAX_VALUE), values(bitmap));
+        assertFalse(bitmap.contains(1));
+        assertFalse(bitmap.contains(65_537));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.remove(-1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+
+        assertTrue(bitmap.remove(65_536));
+        assertFalse(bitmap.remove(65_536));
+        assertFalse(bitmap.contains(65_536));
+        assertTrue(bitmap.contains(131_071));
+        for (int value : values) {
+            bitmap.remove(value);
+        }
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0L, bitmap.cardinality());
+        assertFalse(bitmap.iterator().hasNext());
+    }
+
+    @Test
+    public void testContainersSwitchBetweenArrayAndBitmap() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        ///  Every third value of the second container: more than the 4096 values an array container holds
+        for (int value = 65_536; expected.cardinality() < 5_000; value += 3) {
+            bitmap.add(value);
+            expected.set(value);
+            if (expected.cardinality() == 4_096) {
+                assertEquals(expected, bitSet(bitmap));
+            }
+        }
+        assertEquals(expected, bitSet(bitmap));
+        for (int value = expected.nextSetBit(0); expected.cardinality() > 1_000; value = expected.nextSetBit(value + 1)) {
+            assertTrue(bitmap.remove(value));
+            expected.clear(value);
+        }
+        assertEquals(expected, bitSet(bitmap));
+        assertEquals(1_000L, bitmap.cardinality());
+        assertTrue(bitmap.add(65_537));
+        assertTrue(bitmap.contains(65_537));
+    }
+
+    @Test
+    public void testSetOperationsMatchBitSet() {
+        SplittableRandom random = new SplittableRandom(31);
+        for (int round = 0; round < 20; round++) {
+            BitSet left = new BitSet();
+            BitSet right = new BitSet();
+            CompressedBitmap leftBitmap = new CompressedBitmap();
+            CompressedBitmap rightBitmap = new CompressedBitmap();
+            ///  A dense container, a sparse one and a container only one side has
+            fill(random, left, leftBitmap, 0, 65_536, 30_000);
+            fill(random, left, leftBitmap, 65_536, 131_072, 300);
+            fill(random, right, rightBitmap, 0, 65_536, round % 2 == 0 ? 300 : 30_000);
+            fill(random, right, rightBitmap, 65_536, 131_072, 5_000);
+            fill(random, right, rightBitmap, 200_000, 210_000, 50);
+
+            BitSet and = (BitSet) left.clone();
+            and.and(right);
+            BitSet or = (BitSet) left.clone();
+            or.or(right);
+            BitSet andNot = (BitSet) left.clone();
+            andNot.andNot(right);
+            assertEquals(and, bitSet(leftBitmap.and(rightBitmap)));
+            assertEquals(or, bitSet(leftBitmap.or(rightBitmap)));
+            assertEquals(andNot, bitSet(leftBitmap.andNot(rightBitmap)));
+            assertEquals((long) or.cardinality(), leftBitmap.or(rightBitmap).cardinality());
+            assertTrue(leftBitmap.containsAll(leftBitmap.and(rightBitmap)));
+            assertTrue(leftBitmap.or(rightBitmap).containsAll(rightBitmap));
+            assertFalse(leftBitmap.containsAll(rightBitmap));
+            ///  The operands are left as they were
+            assertEquals(left, bitSet(leftBitmap));
+            assertEquals(right, bitSet(rightBitmap));
+        }
+        assertTrue(new CompressedBitmap().and(CompressedBitmap.range(10)).isEmpty());
+        assertTrue(CompressedBitmap.range(10).andNot(CompressedBitmap.range(10)).isEmpty());
+    }
+
+    @Test
+    public void testRangeAndNextSetBit() {
+        for (int bound : new int[]{0, 1, 63, 64, 65_535, 65_536, 65_537, 200_000}) {
+            CompressedBitmap range = CompressedBitmap.range(bound);
+            assertEquals((long) bound, range.cardinality());
+            assertEquals(bound > 0, range.contains(bound - 1));
+            assertFalse(range.contains(bound));
+        }
+
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        SplittableRandom random = new SplittableRandom(48);
+        fill(random, expected, bitmap, 100, 65_536, 20);
+        fill(random, expected, bitmap, 131_072, 196_608, 10_000);
+        fill(random, expected, bitmap, 400_000, 400_100, 5);
+        for (int from = 0; from < 500_000; from += 1 + random.nextInt(97)) {
+            assertEquals(expected.nextSetBit(from), bitmap.nextSetBit(from), "from " + from);
+        }
+        for (int value = expected.nextSetBit(0); value >= 0; value = expected.nextSetBit(value + 1)) {
+            assertEquals(value, bitmap.nextSetBit(value));
+        }
+        assertEquals(-1, new CompressedBitmap().nextSetBit(0));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.nextSetBit(-1));
+    }
+
+    private static void fill(SplittableRandom random, BitSet expected, CompressedBitmap bitmap, int from, int to, int count) {
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(from, to);
+            assertEquals(!expected.get(value), bitmap.add(value));
+            expected.set(value);
+        }
+    }
+
+    ///  Contents read through forEach, checked against the iterator on the way
+    private static BitSet bitSet(CompressedBitmap bitmap) {
+        BitSet bits = new BitSet();
+        List<Integer> visited = new ArrayList<>();
+        bitmap.forEach(value -> {
+            bits.set(value);
+            visited.add(value);
+        });
+        assertEquals(visited, values(bitmap));
+        assertEquals((long) bits.cardinality(), bitmap.cardinality());
+        return bits;
+    }
+
+    private static List<Integer> values(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        for (PrimitiveIterator.OfInt iterator = bitmap.iterator(); iterator.hasNext(); ) {
+            values.add(iterator.nextInt());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,98 @@
+import company.ArchivedContract;
+import company.InsuranceCompany;
+import contracts.ContractType;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContractArchiveTests {
+
+    InsuranceCompany insuranceCompany;
+    Person legal;
+    Person natural;
+    Person insured;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 3, 1, 8, 0));
+        legal = new Person("12345678");
+        natural = new Person("8351068242");
+        insured = new Person("0402114911");
+    }
+
+    @Test
+    public void testInactiveContractsMoveToArchive() {
+        SingleVehicleContract car = insuranceCompany.insureVehicle("C1", natural, legal, 300, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CD", 20_000));
+        SingleVehicleContract kept = insuranceCompany.insureVehicle("C2", null, legal, 300, PremiumPaymentFrequency.MONTHLY, new Vehicle("XY987ZW", 20_000));
+        TravelContract trip = insuranceCompany.insurePersons("T1", natural, 100, PremiumPaymentFrequency.ANNUAL, Set.of(insured, natural));
+        car.pay(100);
+        insuranceCompany.processClaim(car, 15_000);
+        insuranceCompany.processClaim(trip, Set.of(insured));
+
+        assertEquals(2, insuranceCompany.archiveInactiveContracts());
+
+        assertEquals(Set.of(kept), insuranceCompany.getContracts());
+        assertEquals(Set.of(kept), legal.getContracts());
+        assertTrue(natural.getContracts().isEmpty());
+        assertNull(insuranceCompany.findContract("C1"));
+        assertNull(insuranceCompany.getHandler().getPaymentHistory().get(car));
+        assertEquals(1, insuranceCompany.getHandler().getPaymentHistoryStore().get(car.getHandle()).size());
+
+        ArchivedContract archivedCar = insuranceCompany.findArchivedContract("C1");
+        assertEquals(ContractType.SINGLE_VEHICLE, archivedCar.getContractType());
+        assertSame(legal, archivedCar.getPolicyHolder());
+        assertSame(natural, archivedCar.getBeneficiary());
+        assertEquals("AB123CD", archivedCar.getLicensePlate());
+        assertEquals(20_000, archivedCar.getVehicleValue());
+        assertEquals(200, archivedCar.getOutstandingBalance());
+        assertEquals(PremiumPaymentFrequency.MONTHLY, archivedCar.getPremiumPaymentFrequency());
+        assertEquals(insuranceCompany.getCurrentTime(), archivedCar.getArchivedTime());
+        assertNull(archivedCar.getMasterContractNumber());
+
+        ArchivedContract archivedTrip = insuranceCompany.findArchivedContract("T1");
+        assertEquals(Set.of(insured, natural), Set.copyOf(archivedTrip.getInsuredPersons()));
+        assertNull(archivedTrip.getLicensePlate());
+        assertNull(insuranceCompany.findArchivedContract("C2"));
+
+        ///  Numbers stay reserved
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insureVehicle("C1", null, legal, 300, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CE", 20_000)));
+        assertEquals(0, insuranceCompany.archiveInactiveContracts());
+    }
+
+    @Test
+    public void testInactiveMasterIsArchivedWithItsChildren() {
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("C1", null, legal, 300, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CD", 20_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("C2", null, legal, 300, PremiumPaymentFrequency.MONTHLY, new Vehicle("XY987ZW", 20_000));
+        master.requestAdditionOfChildContracts(List.of(c1, c2));
+        insuranceCompany.processClaim(c1, 15_000);
+
+        ///  Inactive children of an active master stay with it
+        assertEquals(0, insuranceCompany.archiveInactiveContracts());
+        assertSame(c1, master.findChildContract("C1"));
+
+        insuranceCompany.processClaim(c2, 15_000);
+        assertEquals(3, insuranceCompany.archiveInactiveContracts());
+
+        assertTrue(insuranceCompany.getContracts().isEmpty());
+        assertEquals(3, insuranceCompany.getArchive().size());
+        assertNull(insuranceCompany.findContract("C2"));
+        ArchivedContract archivedMaster = insuranceCompany.findArchivedContract("M1");
+        assertNull(archivedMaster.getPremiumPaymentFrequency());
+        List<ArchivedContract> children = insuranceCompany.getArchive().getChildContracts(archivedMaster);
+        assertEquals(List.of("C1", "C2"), children.stream().map(ArchivedContract::getContractNumber).toList());
+        assertEquals("M1", children.get(1).getMasterContractNumber());
+        assertEquals("XY987ZW", insuranceCompany.findArchivedContract("C2").getLicensePlate());
+    }
+}
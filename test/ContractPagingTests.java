@@ -0,0 +1,109 @@
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.ContractType;
+import contracts.TravelContract;
+import generator.PortfolioGenerator;
+import generator.PortfolioProfile;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import segments.ContractPage;
+import segments.PortfolioIndex;
+import segments.Segment;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContractPagingTests {
+
+    @Test
+    public void testPagesVisitEachContractOnceWhileThePortfolioChanges() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 2, 1, 9, 0));
+        new PortfolioGenerator(5, new PortfolioProfile()).generate(insuranceCompany, 1_000);
+        PortfolioIndex index = insuranceCompany.getPortfolioIndex();
+        Segment active = Segment.active();
+        long expected = index.count(active);
+
+        Person legal = new Person("12345678");
+        Set<AbstractContract> visited = new HashSet<>();
+        long cursor = ContractPage.FIRST;
+        int pages = 0;
+        ContractPage page;
+        do {
+            page = index.page(active, cursor, 64);
+            assertTrue(page.isLast() || page.getContracts().size() == 64);
+            for (AbstractContract contract : page.getContracts()) {
+                assertTrue(visited.add(contract), contract.getContractNumber());
+                assertTrue(contract.isActive());
+            }
+            ///  Contracts issued between pages land behind the cursor, archived ones are skipped
+            if (pages++ == 2) {
+                TravelContract trip = insuranceCompany.insurePersons("PAGED-T", legal, 100, PremiumPaymentFrequency.ANNUAL, Set.of(new Person("0402114911")));
+                insuranceCompany.processClaim(trip, Set.of(new Person("0402114911")));
+                insuranceCompany.archiveInactiveContracts();
+                insuranceCompany.insureVehicle("PAGED-C", null, legal, 600, PremiumPaymentFrequency.ANNUAL, new Vehicle("PG123CD", 20_000));
+                expected++;
+            }
+            cursor = page.getNextCursor();
+        } while (!page.isLast());
+
+        assertEquals(expected, visited.size());
+        assertTrue(visited.contains(insuranceCompany.findContract("PAGED-C")));
+        assertTrue(index.page(active, cursor, 10).getContracts().isEmpty());
+        assertTrue(index.page(active, Long.MAX_VALUE, 10).isLast());
+        assertThrows(IllegalArgumentException.class, () -> index.page(active, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.page(active, 0, 0));
+    }
+
+    @Test
+    public void testPagesSkipToTheNextMatch() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 2, 1, 9, 0));
+        Person legal = new Person("12345678");
+        AbstractContract first = insuranceCompany.insureVehicle("V1", null, legal, 600, PremiumPaymentFrequency.ANNUAL, new Vehicle("PG123CD", 20_000));
+        insuranceCompany.insureVehicle("V2", null, legal, 600, PremiumPaymentFrequency.ANNUAL, new Vehicle("PG123CE", 20_000));
+        AbstractContract trip = insuranceCompany.insurePersons("T1", legal, 100, PremiumPaymentFrequency.ANNUAL, Set.of(new Person("0402114911")));
+        insuranceCompany.insureVehicle("V3", null, legal, 600, PremiumPaymentFrequency.ANNUAL, new Vehicle("PG123CF", 20_000));
+        PortfolioIndex index = insuranceCompany.getPortfolioIndex();
+
+        ContractPage vehicles = index.page(Segment.type(ContractType.SINGLE_VEHICLE), ContractPage.FIRST, 1);
+        assertEquals(List.of(first), vehicles.getContracts());
+        assertEquals(first.getHandle() + 1L, vehicles.getNextCursor());
+        assertFalse(vehicles.isLast());
+
+        ContractPage trips = index.page(Segment.type(ContractType.TRAVEL), ContractPage.FIRST, 1);
+        assertEquals(List.of(trip), trips.getContracts());
+        assertTrue(trips.isLast());
+        assertTrue(trips.getNextCursor() >= insuranceCompany.getRegistry().size());
+    }
+
+    @Test
+    public void testSpliteratorsAreSizedAndSplitEvenly() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 2, 1, 9, 0));
+        new PortfolioGenerator(9, new PortfolioProfile()).generate(insuranceCompany, 1_000);
+        PortfolioIndex index = insuranceCompany.getPortfolioIndex();
+        Segment vehicles = Segment.type(ContractType.SINGLE_VEHICLE);
+
+        Spliterator<AbstractContract> spliterator = index.spliterator(vehicles);
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        long size = spliterator.getExactSizeIfKnown();
+        assertEquals(index.count(vehicles), size);
+        Spliterator<AbstractContract> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertTrue(Math.abs(prefix.getExactSizeIfKnown() - spliterator.getExactSizeIfKnown()) <= 1);
+
+        Spliterator<AbstractContract> all = insuranceCompany.getRegistry().spliterator();
+        assertTrue(all.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(index.size(), all.getExactSizeIfKnown());
+        long sequential = insuranceCompany.getRegistry().stream().mapToLong(AbstractContract::getCoverageAmount).sum();
+        long parallel = insuranceCompany.getRegistry().parallelStream().mapToLong(AbstractContract::getCoverageAmount).sum();
+        assertEquals(sequential, parallel);
+        List<AbstractContract> ordered = insuranceCompany.getRegistry().parallelStream().toList();
+        assertEquals(sequential, ordered.stream().mapToLong(AbstractContract::getCoverageAmount).sum());
+    }
+}
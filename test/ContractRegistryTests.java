@@ -0,0 +1,128 @@
+import company.ContractRegistry;
+import company.InsuranceCompany;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContractRegistryTests {
+
+    InsuranceCompany insuranceCompany;
+    Person naturalPerson1;
+    Person legalPerson1;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        naturalPerson1 = new Person("8351068242");
+        legalPerson1 = new Person("12345678");
+    }
+
+    @Test
+    public void testHandlesAreDenseAndResolvable() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+        TravelContract t1 = insuranceCompany.insurePersons("t1", legalPerson1, 100, PremiumPaymentFrequency.ANNUAL, Set.of(naturalPerson1));
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", null, legalPerson1);
+
+        ContractRegistry registry = insuranceCompany.getRegistry();
+        assertEquals(3, registry.size());
+        assertEquals(0, c1.getHandle());
+        assertEquals(1, t1.getHandle());
+        assertEquals(2, m1.getHandle());
+        assertEquals(1, registry.handleOf("t1"));
+        assertEquals(-1, registry.handleOf("unknown"));
+        assertSame(m1, registry.get(2));
+        assertSame(c1, insuranceCompany.findContract("c1"));
+        assertNull(insuranceCompany.findContract("unknown"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get(3));
+    }
+
+    @Test
+    public void testContractNumbersStayReservedAfterMove() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", null, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c1);
+
+        assertFalse(insuranceCompany.getContracts().contains(c1));
+        assertSame(c1, insuranceCompany.findContract("c1"));
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("BANAN22", 15_000)));
+    }
+
+    @Test
+    public void testConstructedContractsAddedToTheLiveSetReserveTheirNumber() {
+        for (InsuranceCompany insurer : new InsuranceCompany[]{insuranceCompany, new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), true)}) {
+            ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.ANNUAL, insurer.getCurrentTime(), 0);
+            SingleVehicleContract x1 = new SingleVehicleContract("X1", insurer, null, legalPerson1, data, 5000, new Vehicle("AA111AA", 15_000));
+            ///  A contract that was only constructed does not reserve its number
+            assertEquals(-1, x1.getHandle());
+            assertNotNull(new SingleVehicleContract("X1", insurer, null, legalPerson1, data, 5000, new Vehicle("AA111AA", 15_000)));
+
+            insurer.getContracts().add(x1);
+            assertTrue(x1.getHandle() >= 0);
+            assertSame(x1, insurer.findContract("X1"));
+            assertThrows(IllegalArgumentException.class, () -> new SingleVehicleContract("X1", insurer, null, legalPerson1, data, 5000, new Vehicle("BANAN22", 15_000)));
+        }
+    }
+
+    @Test
+    public void testEqualityIsBasedOnIdentityWithinInsurer() {
+        ContractPaymentData data = new ContractPaymentData(150, PremiumPaymentFrequency.QUARTERLY, insuranceCompany.getCurrentTime(), 0);
+        SingleVehicleContract c1 = new SingleVehicleContract("c1", insuranceCompany, null, naturalPerson1, data, 5000, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract sameNumber = new SingleVehicleContract("c1", insuranceCompany, null, legalPerson1, data, 100, new Vehicle("BANAN22", 8_000));
+        InsuranceCompany otherCompany = new InsuranceCompany(insuranceCompany.getCurrentTime());
+        SingleVehicleContract otherInsurer = new SingleVehicleContract("c1", otherCompany, null, naturalPerson1, data, 5000, new Vehicle("AA111AA", 15_000));
+
+        assertEquals(c1, sameNumber);
+        assertEquals(c1.hashCode(), sameNumber.hashCode());
+        assertNotEquals(c1, otherInsurer);
+        assertNotEquals(insuranceCompany, otherCompany);
+    }
+
+    @Test
+    public void testHandlesAreOnlyAssignedByTheRegistry() {
+        SingleVehicleContract issued = insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+        int handle = issued.getHandle();
+        InsuranceCompany otherCompany = new InsuranceCompany(insuranceCompany.getCurrentTime());
+        assertThrows(InvalidContractException.class, () -> issued.assignHandle(insuranceCompany.getRegistry()));
+        assertThrows(IllegalArgumentException.class, () -> issued.assignHandle(otherCompany.getRegistry()));
+        assertThrows(IllegalArgumentException.class, () -> issued.assignHandle(null));
+        assertEquals(handle, issued.getHandle());
+
+        ///  A contract that was only constructed cannot take a handle the registry did not give it
+        ContractPaymentData data = new ContractPaymentData(150, PremiumPaymentFrequency.QUARTERLY, insuranceCompany.getCurrentTime(), 0);
+        SingleVehicleContract constructed = new SingleVehicleContract("c2", insuranceCompany, null, naturalPerson1, data, 5000, new Vehicle("BANAN22", 15_000));
+        assertThrows(IllegalArgumentException.class, () -> constructed.assignHandle(insuranceCompany.getRegistry()));
+        assertEquals(-1, constructed.getHandle());
+        assertEquals(handle + 1, insuranceCompany.getRegistry().handleOf(constructed));
+        assertEquals(handle + 1, constructed.getHandle());
+        assertSame(constructed, insuranceCompany.getRegistry().get(handle + 1));
+    }
+
+    @Test
+    public void testPaymentHistoryOfUnregisteredContract() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+        MasterVehicleContract m1 = new MasterVehicleContract("m1", insuranceCompany, null, legalPerson1);
+        m1.getChildContracts().add(c1);
+        assertEquals(-1, m1.getHandle());
+        ///  Adding to the live set registers the contract
+        insuranceCompany.getContracts().add(m1);
+        assertEquals(1, m1.getHandle());
+
+        m1.pay(100);
+        assertEquals(1, insuranceCompany.getHandler().getPaymentHistory().size());
+        assertEquals(1, insuranceCompany.getHandler().getPaymentHistory().get(m1).size());
+        assertNull(insuranceCompany.getHandler().getPaymentHistory().get(c1));
+        assertSame(insuranceCompany.getHandler().getPaymentHistory().get(m1), insuranceCompany.getHandler().getPaymentHistory(m1));
+    }
+}
@@ -0,0 +1,57 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.EpochTime;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EpochTimeTests {
+
+    @Test
+    public void testCalendarArithmeticMatchesLocalDateTime() {
+        LocalDateTime[] times = {
+                LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_999),
+                LocalDateTime.of(2024, 2, 29, 0, 0),
+                LocalDateTime.of(1900, 3, 31, 12, 30),
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1),
+                LocalDateTime.of(2000, 8, 31, 6, 0)
+        };
+        for (LocalDateTime time : times) {
+            long epochSecond = EpochTime.toEpochSecond(time);
+            assertEquals(time, EpochTime.toLocalDateTime(epochSecond, time.getNano()));
+            for (int months = -30; months <= 30; months++) {
+                assertEquals(time.plusMonths(months), EpochTime.toLocalDateTime(EpochTime.plusMonths(epochSecond, months), time.getNano()));
+            }
+            for (LocalDateTime other : times) {
+                assertEquals(ChronoUnit.DAYS.between(time, other), EpochTime.daysBetween(epochSecond, time.getNano(), EpochTime.toEpochSecond(other), other.getNano()));
+                assertEquals(Integer.signum(time.compareTo(other)), Integer.signum(EpochTime.compare(epochSecond, time.getNano(), EpochTime.toEpochSecond(other), other.getNano())));
+            }
+        }
+    }
+
+    @Test
+    public void testBillingKeepsEndOfMonthSemantics() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 31, 10, 0, 0, 500));
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, new Person("12345678"), 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0, 0, 500), c1.getContractPaymentData().getNextPaymentTime());
+
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 3, 28, 10, 0, 0, 499));
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(200, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2025, 3, 28, 10, 0, 0, 500), c1.getContractPaymentData().getNextPaymentTime());
+
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 3, 28, 10, 0, 0, 500));
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(300, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2025, 4, 28, 10, 0, 0, 500), c1.getContractPaymentData().getNextPaymentTime());
+
+        c1.pay(50);
+        assertEquals(insuranceCompany.getCurrentTime(), insuranceCompany.getHandler().getPaymentHistory(c1).iterator().next().getPaymentTime());
+    }
+}
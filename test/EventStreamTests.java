@@ -0,0 +1,152 @@
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import events.*;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventStreamTests {
+
+    InsuranceCompany insuranceCompany;
+    Person naturalPerson1;
+    Person naturalPerson2;
+    Person legalPerson1;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), 8, new BlockingWaitStrategy());
+        naturalPerson1 = new Person("8351068242");
+        naturalPerson2 = new Person("0402114911");
+        legalPerson1 = new Person("12345678");
+    }
+
+    @Test
+    public void testRingBufferValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer(0, new BusySpinWaitStrategy()));
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer(12, new BusySpinWaitStrategy()));
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer(16, null));
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer(16, new BusySpinWaitStrategy()).subscribe(null));
+    }
+
+    @Test
+    public void testEventsAreEmittedForMutations() {
+        List<DomainEventType> types = new ArrayList<>();
+        List<Integer> amounts = new ArrayList<>();
+        EventProcessor processor = insuranceCompany.getEvents().subscribe((event, sequence, endOfBatch) -> {
+            types.add(event.getType());
+            amounts.add(event.getAmount());
+        });
+
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", null, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c1);
+        assertEquals(4, processor.drain());
+
+        m1.pay(150);
+        insuranceCompany.processClaim(c1, 14_000);
+        assertEquals(3, processor.drain());
+        assertEquals(0, processor.drain());
+
+        assertEquals(List.of(DomainEventType.CONTRACT_ISSUED, DomainEventType.PREMIUM_CHARGED, DomainEventType.CONTRACT_ISSUED,
+                DomainEventType.CONTRACT_MOVED_TO_MASTER, DomainEventType.PAYMENT_APPLIED, DomainEventType.CLAIM_PAID,
+                DomainEventType.CONTRACT_DEACTIVATED), types);
+        assertEquals(List.of(100, 100, 0, 0, 150, 7_500, 0), amounts);
+    }
+
+    @Test
+    public void testIndependentConsumersWithBatches() {
+        List<Person> recipients = new ArrayList<>();
+        List<Boolean> batchEnds = new ArrayList<>();
+        EventProcessor first = insuranceCompany.getEvents().subscribe((event, sequence, endOfBatch) -> {
+            if (event.getType() == DomainEventType.CLAIM_PAID) {
+                recipients.add(event.getPerson());
+            }
+        });
+        EventProcessor second = insuranceCompany.getEvents().subscribe((event, sequence, endOfBatch) -> batchEnds.add(endOfBatch));
+
+        TravelContract t1 = insuranceCompany.insurePersons("t1", legalPerson1, 20, PremiumPaymentFrequency.ANNUAL, Set.of(naturalPerson1, naturalPerson2));
+        insuranceCompany.processClaim(t1, Set.of(naturalPerson1, naturalPerson2));
+
+        assertEquals(5, first.drain());
+        assertEquals(2, recipients.size());
+        assertTrue(recipients.containsAll(List.of(naturalPerson1, naturalPerson2)));
+        assertEquals(5, second.drain());
+        assertEquals(List.of(false, false, false, false, true), batchEnds);
+    }
+
+    @Test
+    public void testPublisherWaitsForSlowestConsumer() throws InterruptedException {
+        EventRingBuffer ringBuffer = new EventRingBuffer(4, new BlockingWaitStrategy());
+        int events = 1_000;
+        CountDownLatch consumed = new CountDownLatch(events);
+        long[] lastAmount = {-1};
+        EventProcessor processor = ringBuffer.subscribe((event, sequence, endOfBatch) -> {
+            assertEquals(lastAmount[0] + 1, event.getAmount());
+            lastAmount[0] = event.getAmount();
+            consumed.countDown();
+        });
+        Thread consumer = new Thread(processor);
+        consumer.start();
+        for (int i = 0; i < events; i++) {
+            ringBuffer.publish(DomainEventType.PAYMENT_APPLIED, null, null, null, i, null);
+        }
+        assertTrue(consumed.await(10, TimeUnit.SECONDS));
+        processor.halt();
+        consumer.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(consumer.isAlive());
+        assertEquals(events - 1, processor.getSequence());
+        assertThrows(IllegalStateException.class, processor::drain);
+    }
+
+    @Test
+    public void testUndrainedSubscriberIsDroppedInsteadOfBlockingMutations() {
+        List<DomainEventType> types = new ArrayList<>();
+        EventProcessor forgotten = insuranceCompany.getEvents().subscribe((event, sequence, endOfBatch) -> { });
+        EventProcessor drained = insuranceCompany.getEvents().subscribe((event, sequence, endOfBatch) -> types.add(event.getType()));
+
+        ///  Two events per contract, five times the capacity of 8
+        for (int i = 0; i < 20; i++) {
+            insuranceCompany.insureVehicle("c" + i, null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle(String.format("AA%05d", i), 15_000));
+            drained.drain();
+        }
+        assertEquals(40, types.size());
+        assertFalse(drained.isDropped());
+        assertTrue(forgotten.isDropped());
+        assertTrue(forgotten.isHalted());
+        assertThrows(IllegalStateException.class, forgotten::drain);
+    }
+
+    @Test
+    public void testFailPolicyRejectsThePublishAndLeavesNoGap() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(4, new BlockingWaitStrategy(), Duration.ofMillis(10), OverflowPolicy.FAIL);
+        List<Integer> amounts = new ArrayList<>();
+        EventProcessor processor = ringBuffer.subscribe((event, sequence, endOfBatch) -> amounts.add(event.getAmount()));
+        for (int i = 0; i < 4; i++) {
+            ringBuffer.publish(DomainEventType.PAYMENT_APPLIED, null, null, null, i, null);
+        }
+        assertThrows(IllegalStateException.class, () -> ringBuffer.publish(DomainEventType.PAYMENT_APPLIED, null, null, null, 4, null));
+        assertEquals(3L, ringBuffer.getCursor());
+        assertFalse(processor.isDropped());
+
+        assertEquals(4, processor.drain());
+        ringBuffer.publish(DomainEventType.PAYMENT_APPLIED, null, null, null, 5, null);
+        assertEquals(1, processor.drain());
+        assertEquals(List.of(0, 1, 2, 3, 5), amounts);
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer(4, new BlockingWaitStrategy(), Duration.ofMillis(-1), OverflowPolicy.FAIL));
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer(4, new BlockingWaitStrategy(), Duration.ZERO, null));
+    }
+}
@@ -0,0 +1,128 @@
+import company.AsyncInsuranceCompany;
+import company.InsuranceCompany;
+import http.InsuranceHttpService;
+import http.Json;
+import http.LoadGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InsuranceHttpServiceTests {
+
+    ExecutorService handlers;
+    AsyncInsuranceCompany company;
+    InsuranceHttpService service;
+    HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        handlers = Executors.newFixedThreadPool(4);
+        company = new AsyncInsuranceCompany(new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0)));
+        service = new InsuranceHttpService(company, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), handlers);
+        service.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+        company.close();
+        handlers.shutdownNow();
+    }
+
+    @Test
+    public void testJsonCodec() {
+        String json = Json.object().field("a", "x\"y\n").field("b", -5).field("c", true).field("d", List.of("p", "q")).end();
+        assertEquals("{\"a\":\"x\\\"y\\n\",\"b\":-5,\"c\":true,\"d\":[\"p\",\"q\"]}", json);
+        Map<String, Object> parsed = Json.parseObject(" " + json + " ");
+        assertEquals(Map.of("a", "x\"y\n", "b", -5L, "c", true, "d", List.of("p", "q")), parsed);
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\":1.5}"));
+        ///  Long.parseLong would read an Arabic-Indic three as 3
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\":\u0663}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\":1\u0663}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\":1} x"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\":\"x}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\":" + "[".repeat(100_000)));
+        assertEquals(1, Json.parseObject("{\"a\":" + "[".repeat(31) + "]".repeat(31) + "}").size());
+    }
+
+    @Test
+    public void testRejectedIssuanceRegistersNobody() throws Exception {
+        assertResponse(400, "2%", post("/contracts/vehicle",
+                "{\"contractNumber\":\"c1\",\"policyHolder\":\"12345678\",\"beneficiary\":\"0402114911\",\"premium\":1,\"frequency\":\"MONTHLY\",\"licensePlate\":\"AA111AA\",\"vehicleValue\":15000}"));
+        assertResponse(400, "", post("/contracts/travel",
+                "{\"contractNumber\":\"t1\",\"policyHolder\":\"12345678\",\"premium\":1,\"frequency\":\"ANNUAL\",\"insuredPersons\":[\"8351068242\"]}"));
+        assertEquals(0, company.getInsurer().getPersonRegistry().size());
+
+        assertResponse(201, "\"type\":\"TRAVEL\"", post("/contracts/travel",
+                "{\"contractNumber\":\"t1\",\"policyHolder\":\"12345678\",\"premium\":20,\"frequency\":\"ANNUAL\",\"insuredPersons\":[\"8351068242\"]}"));
+        assertEquals(2, company.getInsurer().getPersonRegistry().size());
+        assertResponse(201, "\"type\":\"TRAVEL\"", post("/contracts/travel",
+                "{\"contractNumber\":\"t2\",\"policyHolder\":\"12345678\",\"premium\":20,\"frequency\":\"ANNUAL\",\"insuredPersons\":[\"8351068242\"]}"));
+        assertSame(company.getInsurer().findContract("t1").getPolicyHolder(), company.getInsurer().findContract("t2").getPolicyHolder());
+        assertResponse(400, "", post("/claims", "{\"contractNumber\":\"t1\",\"affectedPersons\":[\"0402114911\"]}"));
+        assertEquals(2, company.getInsurer().getPersonRegistry().size());
+    }
+
+    @Test
+    public void testEndpoints() throws Exception {
+        assertResponse(200, "\"minimumPremium\":25", post("/quote", "{\"type\":\"VEHICLE\",\"frequency\":\"QUARTERLY\",\"vehicleValue\":5000}"));
+        assertResponse(201, "\"outstandingBalance\":100", post("/contracts/vehicle",
+                "{\"contractNumber\":\"c1\",\"policyHolder\":\"12345678\",\"premium\":100,\"frequency\":\"MONTHLY\",\"licensePlate\":\"AA111AA\",\"vehicleValue\":15000}"));
+        assertResponse(201, "\"type\":\"TRAVEL\"", post("/contracts/travel",
+                "{\"contractNumber\":\"t1\",\"policyHolder\":\"12345678\",\"premium\":20,\"frequency\":\"ANNUAL\",\"insuredPersons\":[\"8351068242\",\"0402114911\"]}"));
+        assertResponse(200, "\"outstandingBalance\":60", post("/payments", "{\"contractNumber\":\"c1\",\"amount\":40}"));
+        assertResponse(200, "\"active\":false", post("/claims", "{\"contractNumber\":\"c1\",\"expectedDamages\":14000}"));
+        assertResponse(200, "\"active\":false", post("/claims", "{\"contractNumber\":\"t1\",\"affectedPersons\":[\"8351068242\"]}"));
+        assertResponse(200, "\"outstandingBalance\":60", get("/contracts/c1"));
+        assertEquals(7_500, company.getInsurer().getPersonRegistry().find("12345678").getPaidOutAmount());
+
+        assertResponse(409, "not active", post("/payments", "{\"contractNumber\":\"c1\",\"amount\":40}"));
+        assertResponse(404, "does not exist", get("/contracts/missing"));
+        assertResponse(400, "amount", post("/payments", "{\"contractNumber\":\"t1\",\"amount\":\"40\"}"));
+        assertResponse(400, "Contract number already exists", post("/contracts/vehicle",
+                "{\"contractNumber\":\"c1\",\"policyHolder\":\"12345678\",\"premium\":100,\"frequency\":\"MONTHLY\",\"licensePlate\":\"AA111AB\",\"vehicleValue\":15000}"));
+        assertResponse(400, "Expected", post("/payments", "{contractNumber}"));
+        assertResponse(405, "POST", get("/payments"));
+    }
+
+    @Test
+    public void testLoadGenerator() throws Exception {
+        LoadGenerator.Result result = LoadGenerator.run(service.getBaseUri(), 2, 20, Duration.ofMillis(200));
+        assertTrue(result.getRequests() > 0);
+        assertEquals(0, result.getErrors());
+        assertTrue(result.getRequestsPerSecond() > 0);
+        assertTrue(result.getLatencyNanos(0.5) <= result.getLatencyNanos(0.99));
+        assertTrue(result.getLatencyNanos(0.99) <= result.getLatencyNanos(0.999));
+        assertThrows(IllegalArgumentException.class, () -> result.getLatencyNanos(0));
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(service.getBaseUri().resolve(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(service.getBaseUri().resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void assertResponse(int status, String fragment, HttpResponse<String> response) {
+        assertEquals(status, response.statusCode(), response.body());
+        assertTrue(response.body().contains(fragment), response.body());
+    }
+}
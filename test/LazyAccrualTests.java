@@ -0,0 +1,142 @@
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+import reports.AgedReceivables;
+import reports.AgedReceivablesReport;
+import reports.ColumnarExport;
+import reports.Reconciliation;
+import reports.ReconciliationReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyAccrualTests {
+
+    @Test
+    public void testLazyAccrualMatchesEagerBilling() {
+        InsuranceCompany eager = new InsuranceCompany(LocalDateTime.of(2025, 1, 31, 10, 0));
+        InsuranceCompany lazy = new InsuranceCompany(LocalDateTime.of(2025, 1, 31, 10, 0));
+        lazy.setLazyAccrual(true);
+        List<List<SingleVehicleContract>> cars = new ArrayList<>();
+        List<TravelContract> trips = new ArrayList<>();
+        for (InsuranceCompany insuranceCompany : List.of(eager, lazy)) {
+            Person legal = new Person("12345678");
+            List<SingleVehicleContract> issued = new ArrayList<>();
+            issued.add(insuranceCompany.insureVehicle("C1", null, legal, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CD", 20_000)));
+            issued.add(insuranceCompany.insureVehicle("C2", null, legal, 300, PremiumPaymentFrequency.QUARTERLY, new Vehicle("XY987ZW", 20_000)));
+            issued.add(insuranceCompany.insureVehicle("C3", null, legal, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("QQ555QQ", 20_000)));
+            MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+            insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, issued.get(2));
+            cars.add(issued);
+            trips.add(insuranceCompany.insurePersons("T1", legal, 50, PremiumPaymentFrequency.MONTHLY, Set.of(new Person("0402114911"))));
+        }
+
+        for (int step = 1; step <= 30; step++) {
+            for (int company = 0; company < 2; company++) {
+                InsuranceCompany insuranceCompany = company == 0 ? eager : lazy;
+                insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 1, 31, 10, 0).plusDays(step * 23L));
+                if (company == 0) {
+                    insuranceCompany.chargePremiumsOnContracts();
+                }
+                List<SingleVehicleContract> issued = cars.get(company);
+                if (step % 4 == 0) {
+                    issued.get(0).pay(150);
+                }
+                if (step % 7 == 0) {
+                    insuranceCompany.findContract("M1").pay(90);
+                }
+                if (step == 10) {
+                    issued.get(1).getContractPaymentData().setPremium(450);
+                    insuranceCompany.processClaim(trips.get(company), Set.of(new Person("0402114911")));
+                }
+                if (step == 20) {
+                    insuranceCompany.processClaim(issued.get(1), 15_000);
+                }
+            }
+        }
+
+        for (int i = 0; i < 3; i++) {
+            ContractPaymentData expected = cars.get(0).get(i).getContractPaymentData();
+            ContractPaymentData actual = cars.get(1).get(i).getContractPaymentData();
+            assertEquals(expected.getExactOutstandingBalance(), actual.getExactOutstandingBalance());
+            assertEquals(expected.getNextPaymentTime(), actual.getNextPaymentTime());
+        }
+        assertEquals(trips.get(0).getContractPaymentData().getExactOutstandingBalance(), trips.get(1).getContractPaymentData().getExactOutstandingBalance());
+        assertTrue(new ReconciliationReport(lazy).compute().isBalanced());
+        assertTrue(new ReconciliationReport(eager).compute().isBalanced());
+    }
+
+    @Test
+    public void testReportsSeeAccruedBalancesOnTheFirstRun() throws IOException {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        insuranceCompany.setLazyAccrual(true);
+        Person legal = new Person("12345678");
+        SingleVehicleContract car = insuranceCompany.insureVehicle("V1", null, legal, 200, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CD", 20_000));
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        SingleVehicleContract child = insuranceCompany.insureVehicle("V2", null, legal, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("XY987ZW", 20_000));
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 6, 15, 0, 0));
+        long events = insuranceCompany.getEvents().getCursor();
+
+        Reconciliation reconciliation = new ReconciliationReport(insuranceCompany).compute();
+        assertTrue(reconciliation.isBalanced(), reconciliation.getDrifts().toString());
+        ///  Both contracts were charged once, on this thread, before the report ran
+        assertEquals(events + 2, insuranceCompany.getEvents().getCursor());
+
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 9, 15, 0, 0));
+        AgedReceivables receivables = new AgedReceivablesReport(insuranceCompany).compute();
+        assertEquals(9 * 200L + 9 * 100L, receivables.getTotalBalance());
+
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 12, 15, 0, 0));
+        Path file = Files.createTempFile("lazy", ".col");
+        try {
+            new ColumnarExport(insuranceCompany).export(file);
+            assertEquals(12 * 200L, car.getContractPaymentData().getExactOutstandingBalance());
+            assertTrue(new ReconciliationReport(insuranceCompany).compute().isBalanced());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testClockMovesChargeNothingUntilAContractIsRead() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person legal = new Person("12345678");
+        SingleVehicleContract early = insuranceCompany.insureVehicle("C1", null, legal, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CD", 20_000));
+        insuranceCompany.setLazyAccrual(true);
+        SingleVehicleContract late = insuranceCompany.insureVehicle("C2", null, legal, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("XY987ZW", 20_000));
+        long charged = insuranceCompany.getHandler().getLedger().snapshot().getCharged(late.getHandle());
+
+        for (int day = 1; day <= 3_650; day++) {
+            insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(day));
+        }
+        assertEquals(charged, insuranceCompany.getHandler().getLedger().snapshot().getCharged(late.getHandle()));
+
+        assertEquals(120 * 100L, late.getContractPaymentData().getExactOutstandingBalance());
+        assertEquals(LocalDateTime.of(2035, 1, 1, 0, 0), late.getContractPaymentData().getNextPaymentTime());
+        ///  Deactivation charges what fell due first, later clock moves charge nothing more
+        insuranceCompany.processClaim(early, 15_000);
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2040, 1, 1, 0, 0));
+        assertEquals(120 * 100L, early.getContractPaymentData().getExactOutstandingBalance());
+
+        insuranceCompany.setLazyAccrual(false);
+        assertFalse(late.getContractPaymentData().isLazyAccrual());
+        assertEquals(120 * 100L, late.getContractPaymentData().getExactOutstandingBalance());
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(181 * 100L, late.getContractPaymentData().getExactOutstandingBalance());
+        assertThrows(IllegalArgumentException.class, () -> late.getContractPaymentData().enableLazyAccrual(early));
+    }
+}
@@ -0,0 +1,186 @@
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MasterVehicleContractTests {
+
+    @Test
+    public void testChildLookupByNumberAndPlate() {
+        for (boolean compact : new boolean[]{false, true}) {
+            InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0), compact);
+            Person legal = new Person("12345678");
+            MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+            MasterVehicleContract other = insuranceCompany.createMasterVehicleContract("M2", null, legal);
+            SingleVehicleContract first = vehicle(insuranceCompany, legal, "C1", "AB123CD");
+            SingleVehicleContract second = vehicle(insuranceCompany, legal, "C2", "AB123CD");
+            SingleVehicleContract third = vehicle(insuranceCompany, legal, "C3", "XY987ZW");
+            SingleVehicleContract elsewhere = vehicle(insuranceCompany, legal, "C4", "QQ111QQ");
+            insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, List.of(first, second, third));
+            insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(other, elsewhere);
+
+            assertSame(second, master.findChildContract("C2"));
+            assertSame(third, master.findChildContract("C3"));
+            assertNull(master.findChildContract("C4"));
+            assertNull(master.findChildContract("missing"));
+            assertSame(elsewhere, other.findChildContractByLicensePlate("QQ111QQ"));
+            assertNull(master.findChildContractByLicensePlate("QQ111QQ"));
+            ///  Two children insure the same plate, the earlier one is found until it leaves
+            assertSame(first, master.findChildContractByLicensePlate("AB123CD"));
+            assertTrue(master.getChildContracts().remove(first));
+            assertFalse(master.getChildContracts().remove(first));
+            assertNull(master.findChildContract("C1"));
+            assertSame(second, master.findChildContractByLicensePlate("AB123CD"));
+
+            for (Iterator<SingleVehicleContract> iterator = master.getChildContracts().iterator(); iterator.hasNext(); ) {
+                if (iterator.next() == second) {
+                    iterator.remove();
+                }
+            }
+            assertNull(master.findChildContractByLicensePlate("AB123CD"));
+            assertNull(master.findChildContract("C2"));
+            assertSame(third, master.findChildContractByLicensePlate("XY987ZW"));
+            assertEquals(List.of(third), new ArrayList<>(master.getChildContracts()));
+
+            ///  A later child of a removed plate is indexed again
+            assertTrue(master.getChildContracts().add(first));
+            assertSame(first, master.findChildContractByLicensePlate("AB123CD"));
+            assertSame(first, master.findChildContract("C1"));
+            assertThrows(IllegalArgumentException.class, () -> master.getChildContracts().add(null));
+        }
+    }
+
+    @Test
+    public void testShadowedPlateOfRemovedLaterChildKeepsTheEarlierOne() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person legal = new Person("12345678");
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        SingleVehicleContract first = vehicle(insuranceCompany, legal, "C1", "AB123CD");
+        SingleVehicleContract second = vehicle(insuranceCompany, legal, "C2", "AB123CD");
+        SingleVehicleContract third = vehicle(insuranceCompany, legal, "C3", "AB123CD");
+        insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, List.of(first, second, third));
+
+        assertTrue(master.getChildContracts().remove(second));
+        assertSame(first, master.findChildContractByLicensePlate("AB123CD"));
+        assertTrue(master.getChildContracts().remove(first));
+        assertSame(third, master.findChildContractByLicensePlate("AB123CD"));
+        assertTrue(master.getChildContracts().remove(third));
+        assertNull(master.findChildContractByLicensePlate("AB123CD"));
+        assertTrue(master.getChildContracts().isEmpty());
+    }
+
+    @Test
+    public void testLargeCompactFleetIsIndexedByPlate() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0), true);
+        Person legal = new Person("12345678");
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        List<SingleVehicleContract> fleet = new ArrayList<>();
+        ///  Every tenth vehicle shares its plate with the vehicle before it
+        for (int i = 0; i < 50_000; i++) {
+            fleet.add(vehicle(insuranceCompany, legal, "F" + i, String.format("P%06d", i % 10 == 9 ? i - 1 : i)));
+        }
+        insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, fleet);
+
+        Map<String, SingleVehicleContract> expected = new HashMap<>();
+        for (SingleVehicleContract child : fleet) {
+            expected.putIfAbsent(child.getInsuredVehicle().getLicensePlate(), child);
+        }
+        assertPlates(master, expected);
+        assertNull(master.findChildContractByLicensePlate("P999999"));
+        assertNull(master.findChildContractByLicensePlate("not a plate"));
+
+        ///  Removing a random half promotes the remaining child of a shared plate
+        SplittableRandom random = new SplittableRandom(42);
+        for (SingleVehicleContract child : fleet) {
+            if (random.nextBoolean()) {
+                assertTrue(master.getChildContracts().remove(child));
+            }
+        }
+        expected.clear();
+        for (SingleVehicleContract child : master.getChildContracts()) {
+            expected.putIfAbsent(child.getInsuredVehicle().getLicensePlate(), child);
+        }
+        assertPlates(master, expected);
+        for (SingleVehicleContract child : fleet) {
+            if (!expected.containsKey(child.getInsuredVehicle().getLicensePlate())) {
+                assertNull(master.findChildContractByLicensePlate(child.getInsuredVehicle().getLicensePlate()));
+            }
+        }
+    }
+
+    @Test
+    public void testFleetMovesAtOnce() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person legal = new Person("12345678");
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        List<SingleVehicleContract> fleet = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            fleet.add(vehicle(insuranceCompany, legal, "F" + i, String.format("FL%05d", i)));
+        }
+        long events = insuranceCompany.getEvents().getCursor();
+
+        insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, fleet);
+        assertEquals(fleet, new ArrayList<>(master.getChildContracts()));
+        for (SingleVehicleContract child : fleet) {
+            assertFalse(insuranceCompany.getContracts().contains(child));
+            assertFalse(legal.getContracts().contains(child));
+            assertSame(child, master.findChildContract(child.getContractNumber()));
+        }
+        assertTrue(insuranceCompany.getContracts().contains(master));
+        assertEquals(events + 50, insuranceCompany.getEvents().getCursor());
+    }
+
+    @Test
+    public void testFleetMoveIsAllOrNothing() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person legal = new Person("12345678");
+        Person natural = new Person("8351068242");
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        SingleVehicleContract first = vehicle(insuranceCompany, legal, "C1", "AB123CD");
+        SingleVehicleContract second = vehicle(insuranceCompany, legal, "C2", "AB123CE");
+        SingleVehicleContract foreign = vehicle(insuranceCompany, natural, "C3", "AB123CF");
+        SingleVehicleContract crashed = vehicle(insuranceCompany, legal, "C4", "AB123CG");
+        insuranceCompany.processClaim(crashed, 20_000);
+
+        assertThrows(InvalidContractException.class,
+                () -> insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, List.of(first, second, foreign)));
+        assertThrows(InvalidContractException.class,
+                () -> insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, List.of(first, crashed)));
+        assertThrows(IllegalArgumentException.class,
+                () -> insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, List.of(first, second, first)));
+        assertThrows(IllegalArgumentException.class,
+                () -> insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(null, List.of(first)));
+        assertTrue(master.getChildContracts().isEmpty());
+        for (AbstractContract contract : List.of(first, second)) {
+            assertTrue(insuranceCompany.getContracts().contains(contract));
+            assertTrue(legal.getContracts().contains(contract));
+        }
+    }
+
+    private static void assertPlates(MasterVehicleContract master, Map<String, SingleVehicleContract> expected) {
+        for (Map.Entry<String, SingleVehicleContract> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), master.findChildContractByLicensePlate(entry.getKey()));
+        }
+    }
+
+    private static SingleVehicleContract vehicle(InsuranceCompany insuranceCompany, Person policyHolder, String contractNumber, String licensePlate) {
+        return insuranceCompany.insureVehicle(contractNumber, null, policyHolder, 600, PremiumPaymentFrequency.ANNUAL, new Vehicle(licensePlate, 20_000));
+    }
+}
@@ -0,0 +1,113 @@
+import company.InsuranceCompany;
+import contracts.InvalidContractException;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PaymentDeduplicator;
+import payment.PremiumPaymentFrequency;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentDeduplicatorTests {
+
+    @Test
+    public void testReplayedKeyIsAppliedOnce() {
+        InsuranceCompany insurer = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person policyHolder = new Person("12345678");
+        SingleVehicleContract contract = insurer.insureVehicle("V1", null, policyHolder, 200, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 10_000));
+        int balance = contract.getContractPaymentData().getOutstandingBalance();
+
+        assertTrue(insurer.getHandler().pay(contract, 50, "feed-1/line-1"));
+        assertFalse(insurer.getHandler().pay(contract, 50, "feed-1/line-1"));
+        assertTrue(insurer.getHandler().pay(contract, 50, "feed-1/line-2"));
+        assertEquals(balance - 100, contract.getContractPaymentData().getOutstandingBalance());
+
+        ///  A rejected payment does not consume its key
+        assertThrows(IllegalArgumentException.class, () -> insurer.getHandler().pay(contract, 0, "feed-1/line-3"));
+        contract.setInactive();
+        assertThrows(InvalidContractException.class, () -> insurer.getHandler().pay(contract, 10, "feed-1/line-3"));
+        assertEquals(2, insurer.getHandler().getPaymentDeduplicator().size());
+    }
+
+    @Test
+    public void testWindowBoundsTheRememberedKeys() {
+        PaymentDeduplicator keys = new PaymentDeduplicator(Duration.ofHours(1), 1_000, 100_000);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(keys.reserve("k" + i, 0));
+        }
+        assertEquals(7, keys.getResizes());
+        assertEquals(100_000, keys.size());
+        assertFalse(keys.reserve("k99999", 0));
+        assertFalse(keys.reserve("k0", 0));
+
+        ///  Keys older than twice the window are dropped with their generations
+        assertTrue(keys.reserve("fresh", 7_200));
+        assertEquals(1, keys.size());
+        assertTrue(keys.reserve("k0", 7_200));
+
+        keys.clear();
+        assertTrue(keys.reserve("a", 0));
+        assertFalse(keys.reserve("a", 3_599));
+        assertFalse(keys.reserve("a", 3_600));
+        assertFalse(keys.reserve("a", 7_199));
+        assertTrue(keys.reserve("b", 7_200));
+        assertTrue(keys.reserve("a", 14_400));
+        keys.release("a");
+        assertTrue(keys.reserve("a", 14_400));
+    }
+
+    @Test
+    public void testReplayWithinTheWindowIsAlwaysRejected() {
+        PaymentDeduplicator keys = new PaymentDeduplicator(Duration.ofSeconds(100), 16, 2 * 100 * 50);
+        ///  Far more keys per window than the capacity, replayed up to one window later
+        for (int second = 0; second < 1_000; second++) {
+            for (int i = 0; i < 50; i++) {
+                assertTrue(keys.reserve(second + "/" + i, second));
+            }
+            for (int age = 0; age < 100 && age <= second; age += 7) {
+                for (int i = 0; i < 50; i += 13) {
+                    assertFalse(keys.reserve((second - age) + "/" + i, second), (second - age) + "/" + i + " at " + second);
+                }
+            }
+        }
+        assertTrue(keys.getResizes() > 0);
+        assertTrue(keys.size() <= 2 * 100 * 50);
+    }
+
+    @Test
+    public void testBurstBeyondTheMaximumIsRejected() {
+        PaymentDeduplicator keys = new PaymentDeduplicator(Duration.ofHours(1), 100);
+        assertEquals(800, keys.getMaxKeys());
+        for (int i = 0; i < 800; i++) {
+            assertTrue(keys.reserve("k" + i, 0));
+        }
+        assertThrows(IllegalStateException.class, () -> keys.reserve("k800", 1_000));
+        ///  Replays are still recognised and nothing remembered was dropped
+        assertFalse(keys.reserve("k0", 1_000));
+        assertEquals(800, keys.size());
+        keys.release("k1");
+        assertTrue(keys.reserve("k800", 1_000));
+
+        ///  The keys stay remembered for the next window, room is only made once they age out
+        assertThrows(IllegalStateException.class, () -> keys.reserve("fresh", 3_600));
+        assertFalse(keys.reserve("k0", 3_600));
+        assertTrue(keys.reserve("fresh", 7_200));
+        assertFalse(keys.reserve("fresh", 7_200));
+        assertEquals(1, keys.size());
+        assertThrows(IllegalArgumentException.class, () -> new PaymentDeduplicator(Duration.ofHours(1), 100, 99));
+
+        InsuranceCompany insurer = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        SingleVehicleContract contract = insurer.insureVehicle("V1", null, new Person("12345678"), 200, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 10_000));
+        insurer.getHandler().setDeduplicationWindow(Duration.ofHours(1), 1, 2);
+        assertTrue(insurer.getHandler().pay(contract, 10, "a"));
+        assertTrue(insurer.getHandler().pay(contract, 10, "b"));
+        long balance = contract.getContractPaymentData().getExactOutstandingBalance();
+        assertThrows(IllegalStateException.class, () -> insurer.getHandler().pay(contract, 10, "c"));
+        assertFalse(insurer.getHandler().pay(contract, 10, "a"));
+        assertEquals(balance, contract.getContractPaymentData().getExactOutstandingBalance());
+    }
+}
@@ -0,0 +1,111 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+import reports.ReconciliationReport;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayoutAccumulationTests {
+
+    @Test
+    public void testConcurrentPayoutsStayExactBeyondIntRange() throws Exception {
+        Person shared = new Person("12345678");
+        Person other = new Person("8351068242");
+        int threads = 4;
+        int payouts = 100_000;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < payouts; i++) {
+                    if ((i & 1) == 0) {
+                        shared.payout(10_000);
+                    } else {
+                        Person.payout(List.of(shared, other), 10_000);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(10_000L * threads * payouts, shared.getExactPaidOutAmount());
+        assertEquals(10_000L * threads * payouts / 2, other.getExactPaidOutAmount());
+        assertThrows(ArithmeticException.class, shared::getPaidOutAmount);
+        assertThrows(IllegalArgumentException.class, () -> shared.payout(0));
+    }
+
+    @Test
+    public void testPaidOutTotalOverflowIsDetectedOnBothPaths() throws Exception {
+        ///  Reaching the long range takes billions of payouts, so the counters are preset
+        Field paidOutAmount = Person.class.getDeclaredField("paidOutAmount");
+        Field contendedPaidOutAmount = Person.class.getDeclaredField("contendedPaidOutAmount");
+        paidOutAmount.setAccessible(true);
+        contendedPaidOutAmount.setAccessible(true);
+
+        Person uncontended = new Person("12345678");
+        paidOutAmount.setLong(uncontended, Long.MAX_VALUE - 5_000);
+        assertThrows(ArithmeticException.class, () -> uncontended.payout(10_000));
+        assertEquals(Long.MAX_VALUE - 5_000, uncontended.getExactPaidOutAmount());
+
+        ///  The two parts fit a long each, their total does not
+        Person contended = new Person("8351068242");
+        LongAdder cells = new LongAdder();
+        paidOutAmount.setLong(contended, Long.MAX_VALUE - 5_000);
+        contendedPaidOutAmount.set(contended, cells);
+        contended.payout(5_000);
+        assertEquals(Long.MAX_VALUE, contended.getExactPaidOutAmount());
+        contended.payout(1);
+        assertThrows(ArithmeticException.class, contended::getExactPaidOutAmount);
+
+        ///  The cells alone wrapped
+        Person wrapped = new Person("0402114911");
+        LongAdder wrappedCells = new LongAdder();
+        wrappedCells.add(Long.MAX_VALUE);
+        contendedPaidOutAmount.set(wrapped, wrappedCells);
+        wrapped.payout(1);
+        assertThrows(ArithmeticException.class, wrapped::getExactPaidOutAmount);
+        assertThrows(ArithmeticException.class, wrapped::getPaidOutAmount);
+    }
+
+    @Test
+    public void testBalancesAccrueBeyondIntRange() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        SingleVehicleContract contract = insuranceCompany.insureVehicle("C1", null, new Person("12345678"), 400_000_000,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CD", 20_000));
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+
+        ///  Ten years without a billing run, then one run charges all 120 premiums
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2034, 12, 15, 0, 0));
+        insuranceCompany.chargePremiumsOnContracts();
+
+        assertEquals(120 * 400_000_000L, paymentData.getExactOutstandingBalance());
+        assertThrows(ArithmeticException.class, paymentData::getOutstandingBalance);
+
+        contract.pay(Integer.MAX_VALUE);
+        assertEquals(120 * 400_000_000L - Integer.MAX_VALUE, paymentData.getExactOutstandingBalance());
+        assertTrue(new ReconciliationReport(insuranceCompany).compute().isBalanced());
+
+        paymentData.setOutstandingBalance(Long.MAX_VALUE - 1);
+        assertThrows(ArithmeticException.class, () -> paymentData.addToOutstandingBalance(2));
+        assertEquals(Long.MAX_VALUE - 1, paymentData.getExactOutstandingBalance());
+    }
+}
@@ -0,0 +1,69 @@
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import generator.*;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PortfolioGeneratorTests {
+
+    @Test
+    public void testGeneratedIdsAreValidUniqueAndReproducible() {
+        IdentityGenerator ids = new IdentityGenerator(new SplittableRandom(11));
+        IdentityGenerator same = new IdentityGenerator(new SplittableRandom(11));
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            String birthNumber = ids.nextBirthNumber();
+            String oldBirthNumber = ids.nextOldBirthNumber();
+            String registrationNumber = ids.nextRegistrationNumber();
+            String plate = ids.nextLicensePlate();
+            assertTrue(Person.isValidBirthNumber(birthNumber), birthNumber);
+            assertTrue(Person.isValidBirthNumber(oldBirthNumber), oldBirthNumber);
+            assertTrue(Person.isValidRegistrationNumber(registrationNumber), registrationNumber);
+            assertDoesNotThrow(() -> new Vehicle(plate, 1));
+            assertTrue(issued.add(birthNumber));
+            assertTrue(issued.add(oldBirthNumber));
+            assertTrue(issued.add(registrationNumber));
+            assertTrue(issued.add(plate));
+            assertEquals(birthNumber, same.nextBirthNumber());
+            assertEquals(oldBirthNumber, same.nextOldBirthNumber());
+            assertEquals(registrationNumber, same.nextRegistrationNumber());
+            assertEquals(plate, same.nextLicensePlate());
+        }
+    }
+
+    @Test
+    public void testPortfolioAndWorkloadApplyToInsurer() {
+        InsuranceCompany insurer = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        InsuranceCompany twin = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Portfolio portfolio = new PortfolioGenerator(5, new PortfolioProfile()).generate(insurer, 500);
+        Portfolio same = new PortfolioGenerator(5, new PortfolioProfile()).generate(twin, 500);
+
+        assertEquals(portfolio.getEntityCount(), same.getEntityCount());
+        assertTrue(portfolio.getMasterContractCount() > 0);
+        assertEquals(portfolio.getContracts().size(), insurer.getContracts().size());
+        List<SingleVehicleContract> vehicles = portfolio.getVehicleContracts();
+        for (int i = 0; i < vehicles.size(); i++) {
+            assertEquals(vehicles.get(i).getInsuredVehicle().getLicensePlate(), same.getVehicleContracts().get(i).getInsuredVehicle().getLicensePlate());
+        }
+
+        new WorkloadGenerator(9, portfolio).generate(20_000, event -> {
+            if (event.getContract() != null) {
+                assertTrue(event.getContract().isActive());
+            }
+            event.applyTo(insurer);
+        });
+        long active = portfolio.getContracts().stream().filter(AbstractContract::isActive).count();
+        assertTrue(active < portfolio.getContracts().size());
+        assertTrue(insurer.getCurrentTime().isAfter(LocalDateTime.of(2025, 1, 1, 0, 0)));
+    }
+}
@@ -0,0 +1,96 @@
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.ContractType;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import generator.Portfolio;
+import generator.PortfolioGenerator;
+import generator.PortfolioProfile;
+import generator.WorkloadGenerator;
+import objects.LegalForm;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import segments.PortfolioIndex;
+import segments.Segment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PortfolioIndexTests {
+
+    @Test
+    public void testSegmentCountsMatchFilteredContracts() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 2, 1, 9, 0));
+        Portfolio portfolio = new PortfolioGenerator(17, new PortfolioProfile()).generate(insuranceCompany, 2_000);
+        new WorkloadGenerator(4, portfolio, new int[]{2, 60, 25, 13}, 40).generate(8_000, event -> event.applyTo(insuranceCompany));
+        insuranceCompany.archiveInactiveContracts();
+        PortfolioIndex index = insuranceCompany.getPortfolioIndex();
+
+        List<AbstractContract> live = new ArrayList<>();
+        for (AbstractContract contract : insuranceCompany.getContracts()) {
+            live.add(contract);
+            if (contract instanceof MasterVehicleContract master) {
+                live.addAll(master.getChildContracts());
+            }
+        }
+        assertEquals(live.size(), index.size());
+
+        Segment monthlyLegalVehicles = Segment.type(ContractType.SINGLE_VEHICLE)
+                .and(Segment.frequency(PremiumPaymentFrequency.MONTHLY))
+                .and(Segment.legalForm(LegalForm.LEGAL));
+        assertEquals(count(live, c -> c.getContractType() == ContractType.SINGLE_VEHICLE
+                && c.getContractPaymentData().getPremiumPaymentFrequency() == PremiumPaymentFrequency.MONTHLY
+                && c.getPolicyHolder().getLegalForm() == LegalForm.LEGAL), index.count(monthlyLegalVehicles));
+
+        Segment lapsedOrInDebt = Segment.active().not().or(Segment.balanceBand(PortfolioIndex.balanceBand(1_001)));
+        assertEquals(count(live, c -> !c.isActive() || c.getContractPaymentData() != null
+                && PortfolioIndex.balanceBand(c.getContractPaymentData().getOutstandingBalance()) == PortfolioIndex.balanceBand(1_001)), index.count(lapsedOrInDebt));
+        assertTrue(index.count(Segment.active().not()) > 0);
+
+        Segment largeCoverage = Segment.coverageBand(PortfolioIndex.coverageBand(25_000)).or(Segment.coverageBand(PortfolioIndex.coverageBand(50_000)));
+        List<AbstractContract> visited = new ArrayList<>();
+        index.forEach(largeCoverage.and(Segment.active()), visited::add);
+        assertEquals(count(live, c -> c.isActive() && c.getCoverageAmount() >= 25_000), visited.size());
+        for (int i = 1; i < visited.size(); i++) {
+            assertTrue(visited.get(i - 1).getHandle() < visited.get(i).getHandle());
+        }
+    }
+
+    @Test
+    public void testMutationsUpdateTheIndex() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 2, 1, 9, 0));
+        PortfolioIndex index = insuranceCompany.getPortfolioIndex();
+        Person legal = new Person("12345678");
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        SingleVehicleContract car = insuranceCompany.insureVehicle("C1", null, legal, 2_000, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 20_000));
+        Segment settled = Segment.balanceBand(PortfolioIndex.balanceBand(0));
+        Segment inDebt = Segment.balanceBand(PortfolioIndex.balanceBand(2_000));
+
+        assertEquals(1, index.count(inDebt));
+        car.pay(2_000);
+        assertEquals(0, index.count(inDebt));
+        assertEquals(1, index.count(settled));
+
+        assertEquals(2, index.count(Segment.active()));
+        master.requestAdditionOfChildContract(car);
+        insuranceCompany.processClaim(car, 15_000);
+        ///  The master lost its only active child
+        assertEquals(0, index.count(Segment.active()));
+
+        car.setCoverageAmount(60_000);
+        assertEquals(1, index.count(Segment.coverageBand(PortfolioIndex.coverageBand(60_000))));
+
+        insuranceCompany.archiveInactiveContracts();
+        assertEquals(0, index.size());
+    }
+
+    private static long count(List<AbstractContract> contracts, Predicate<AbstractContract> predicate) {
+        return contracts.stream().filter(predicate).count();
+    }
+}
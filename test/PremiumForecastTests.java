@@ -0,0 +1,64 @@
+import company.InsuranceCompany;
+import generator.PortfolioGenerator;
+import generator.PortfolioProfile;
+import org.junit.jupiter.api.Test;
+import payment.BalanceLedger;
+import payment.EpochTime;
+import payment.PremiumPaymentFrequency;
+import reports.PremiumForecast;
+import reports.PremiumForecastReport;
+import reports.PremiumSchedule;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PremiumForecastTests {
+
+    @Test
+    public void testForecastMatchesSimulatedBilling() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 31, 10, 0));
+        new PortfolioGenerator(3, new PortfolioProfile()).generate(insuranceCompany, 400);
+        ///  Leave some installments overdue, they are charged in the first month
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 5, 14, 12, 0));
+
+        PremiumForecast forecast = new PremiumForecastReport(insuranceCompany).compute(24);
+
+        assertEquals(YearMonth.of(2025, 5), forecast.getStart());
+        long previous = totalCharged(insuranceCompany);
+        for (int month = 0; month < 24; month++) {
+            insuranceCompany.setCurrentTime(forecast.getStart().plusMonths(month).atEndOfMonth().atTime(LocalTime.MAX));
+            insuranceCompany.chargePremiumsOnContracts();
+            long charged = totalCharged(insuranceCompany);
+            assertEquals(charged - previous, forecast.getInflow(month), "month " + month);
+            previous = charged;
+        }
+        assertTrue(forecast.getInflow(0) > forecast.getInflow(1));
+    }
+
+    @Test
+    public void testOverdueAndRepeatingInstallments() {
+        PremiumSchedule schedule = new PremiumSchedule();
+        schedule.add(100, PremiumPaymentFrequency.QUARTERLY, EpochTime.toEpochSecond(LocalDateTime.of(2024, 11, 30, 0, 0)));
+        schedule.add(10, PremiumPaymentFrequency.MONTHLY, EpochTime.toEpochSecond(LocalDateTime.of(2025, 2, 1, 0, 0)));
+        schedule.add(1_000, PremiumPaymentFrequency.ANNUAL, EpochTime.toEpochSecond(LocalDateTime.of(2027, 1, 1, 0, 0)));
+
+        PremiumForecast forecast = schedule.forecast(YearMonth.of(2025, 1), 6);
+
+        ///  The November installment is overdue and counted in January, the next ones fall in February and May
+        assertArrayEquals(new long[]{100, 110, 10, 10, 110, 10}, forecast.toArray());
+        assertEquals(0, forecast.getInflow(YearMonth.of(2027, 1)));
+        assertEquals(350, forecast.getTotalInflow());
+    }
+
+    private static long totalCharged(InsuranceCompany insuranceCompany) {
+        BalanceLedger.Snapshot ledger = insuranceCompany.getHandler().getLedger().snapshot();
+        long total = 0;
+        for (int handle = 0; handle < insuranceCompany.getRegistry().size(); handle++) {
+            total += ledger.getCharged(handle);
+        }
+        return total;
+    }
+}
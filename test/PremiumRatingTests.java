@@ -0,0 +1,104 @@
+import company.InsuranceCompany;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import rating.PremiumRating;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PremiumRatingTests {
+
+    InsuranceCompany insuranceCompany;
+    Person legalPerson1;
+    int contractCounter;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        legalPerson1 = new Person("12345678");
+        contractCounter = 0;
+    }
+
+    @Test
+    public void testMinimumPremiums() {
+        assertArrayEquals(new int[]{300, 150, 75, 25}, PremiumRating.minimumVehiclePremiums(15_000));
+        assertArrayEquals(new int[]{1, 1, 1, 1}, PremiumRating.minimumVehiclePremiums(1));
+        assertArrayEquals(new int[]{15, 8, 4, 2}, PremiumRating.minimumTravelPremiums(3));
+        assertEquals(-1, PremiumRating.minimumVehiclePremium(0, PremiumPaymentFrequency.ANNUAL));
+        assertEquals(-1, PremiumRating.minimumTravelPremium(5, null));
+    }
+
+    @Test
+    public void testVehicleRatingMatchesIssuance() {
+        int[] vehicleValues = {1, 49, 50, 51, 1_234, 15_000, 22_001, 999_999};
+        for (int vehicleValue : vehicleValues) {
+            for (PremiumPaymentFrequency frequency : PremiumPaymentFrequency.values()) {
+                int minimum = PremiumRating.minimumVehiclePremium(vehicleValue, frequency);
+                for (int premium = minimum - 2; premium <= minimum + 1; premium++) {
+                    boolean admissible = PremiumRating.isAdmissibleVehiclePremium(premium, frequency, vehicleValue);
+                    assertEquals(premium >= minimum, admissible);
+                    assertEquals(admissible, issuesVehicle(premium, frequency, vehicleValue));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTravelRatingMatchesIssuance() {
+        for (int groupSize = 1; groupSize <= 7; groupSize++) {
+            for (PremiumPaymentFrequency frequency : PremiumPaymentFrequency.values()) {
+                int minimum = PremiumRating.minimumTravelPremium(groupSize, frequency);
+                for (int premium = minimum - 2; premium <= minimum + 1; premium++) {
+                    boolean admissible = PremiumRating.isAdmissibleTravelPremium(premium, frequency, groupSize);
+                    assertEquals(premium >= minimum, admissible);
+                    assertEquals(admissible, issuesTravel(premium, frequency, groupSize));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBulkRating() {
+        int[] premiums = {300, 299, 25, 0, Integer.MAX_VALUE};
+        PremiumPaymentFrequency[] frequencies = {PremiumPaymentFrequency.ANNUAL, PremiumPaymentFrequency.ANNUAL, PremiumPaymentFrequency.MONTHLY, PremiumPaymentFrequency.MONTHLY, null};
+        int[] vehicleValues = {15_000, 15_000, 15_000, 15_000, 15_000};
+        boolean[] admissible = new boolean[5];
+        assertEquals(2, PremiumRating.rateVehicleProposals(premiums, frequencies, vehicleValues, admissible));
+        assertArrayEquals(new boolean[]{true, false, true, false, false}, admissible);
+
+        int[] minimums = new int[3];
+        PremiumRating.minimumTravelPremiums(new int[]{1, 12, 13}, PremiumPaymentFrequency.MONTHLY, minimums);
+        assertArrayEquals(new int[]{1, 5, 6}, minimums);
+
+        assertThrows(IllegalArgumentException.class, () -> PremiumRating.rateTravelProposals(new int[2], new PremiumPaymentFrequency[1], new int[2], new boolean[2]));
+    }
+
+    private boolean issuesVehicle(int premium, PremiumPaymentFrequency frequency, int vehicleValue) {
+        try {
+            insuranceCompany.insureVehicle("v" + contractCounter++, null, legalPerson1, premium, frequency, new Vehicle("AA111AA", vehicleValue));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean issuesTravel(int premium, PremiumPaymentFrequency frequency, int groupSize) {
+        Set<Person> persons = new HashSet<>();
+        String[] birthNumbers = {"8351068242", "0402114911", "9001010007", "8501010001", "7501010000", "6501010010", "5501010009"};
+        for (int i = 0; i < groupSize; i++) {
+            persons.add(new Person(birthNumbers[i]));
+        }
+        try {
+            insuranceCompany.insurePersons("t" + contractCounter++, legalPerson1, premium, frequency, persons);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
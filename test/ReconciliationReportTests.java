@@ -0,0 +1,134 @@
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import reports.ContractDrift;
+import reports.Reconciliation;
+import reports.ReconciliationReport;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReconciliationReportTests {
+
+    InsuranceCompany insuranceCompany;
+    Person legal;
+    MasterVehicleContract master;
+    SingleVehicleContract c1;
+    SingleVehicleContract c2;
+    TravelContract t1;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 15, 9, 0));
+        legal = new Person("12345678");
+        master = insuranceCompany.createMasterVehicleContract("M1", null, legal);
+        c1 = insuranceCompany.insureVehicle("C1", null, legal, 300, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 20_000));
+        c2 = insuranceCompany.insureVehicle("C2", null, legal, 900, PremiumPaymentFrequency.QUARTERLY, new Vehicle("BB222BB", 40_000));
+        insuranceCompany.moveSingleVehicleContractsToMasterVehicleContract(master, List.of(c1, c2));
+        t1 = insuranceCompany.insurePersons("T1", legal, 100, PremiumPaymentFrequency.ANNUAL, Set.of(new Person("0402114911")));
+    }
+
+    @Test
+    public void testChargesPaymentsAndAllocationsReconcile() {
+        for (int month = 1; month <= 7; month++) {
+            insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(1));
+            insuranceCompany.chargePremiumsOnContracts();
+            master.pay(700 + month * 37);
+            t1.pay(30);
+        }
+
+        Reconciliation reconciliation = new ReconciliationReport(insuranceCompany).compute();
+
+        assertTrue(reconciliation.isBalanced(), reconciliation.getDrifts().toString());
+        assertEquals(4, reconciliation.getContractCount());
+        assertEquals(0, reconciliation.getTotalAbsoluteDrift());
+    }
+
+    @Test
+    public void testReportsDriftPerContract() {
+        master.pay(500);
+        c2.getContractPaymentData().setOutstandingBalance(c2.getContractPaymentData().getOutstandingBalance() + 45);
+        t1.getContractPaymentData().setOutstandingBalance(0);
+        ///  Same instant as the first payment, the history keeps one entry per instant
+        t1.pay(10);
+        t1.pay(20);
+
+        Reconciliation reconciliation = new ReconciliationReport(insuranceCompany).compute();
+
+        List<ContractDrift> drifts = reconciliation.getDrifts();
+        assertEquals(2, drifts.size());
+        assertSame(c2, drifts.get(0).getContract());
+        assertEquals(45, drifts.get(0).getDrift());
+        assertEquals(0, drifts.get(0).getUnrecordedPayments());
+        assertSame(t1, drifts.get(1).getContract());
+        assertEquals(-100, drifts.get(1).getDrift());
+        assertEquals(20, drifts.get(1).getUnrecordedPayments());
+        assertEquals(145, reconciliation.getTotalAbsoluteDrift());
+    }
+
+    @Test
+    public void testChargesAreDerivedFromThePremiumSchedule() {
+        SingleVehicleContract monthEnd = insuranceCompany.insureVehicle("C3", null, legal, 200, PremiumPaymentFrequency.MONTHLY, new Vehicle("CC333CC", 20_000));
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 1, 31, 9, 0));
+        SingleVehicleContract skipped = insuranceCompany.insureVehicle("C4", null, legal, 200, PremiumPaymentFrequency.MONTHLY, new Vehicle("DD444DD", 20_000));
+        for (int month = 1; month <= 14; month++) {
+            insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 1, 31, 9, 0).plusMonths(month));
+            ///  Billing does not run every month
+            if (month % 3 != 1) {
+                insuranceCompany.chargePremiumsOnContracts();
+            }
+            if (month == 4) {
+                monthEnd.getContractPaymentData().setPremium(260);
+                c1.getContractPaymentData().setPremiumPaymentFrequency(PremiumPaymentFrequency.QUARTERLY);
+            }
+            if (month == 9) {
+                monthEnd.getContractPaymentData().setPremiumPaymentFrequency(PremiumPaymentFrequency.SEMI_ANNUAL);
+            }
+            master.pay(400);
+        }
+        Reconciliation reconciliation = new ReconciliationReport(insuranceCompany).compute();
+        assertTrue(reconciliation.isBalanced(), reconciliation.getDrifts().toString());
+
+        ///  A billing fault that skips a period leaves the balance in line with the ledger totals,
+        ///  only the schedule shows what is missing
+        skipped.getContractPaymentData().updateNextPaymentTime();
+        insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(1));
+        insuranceCompany.chargePremiumsOnContracts();
+        reconciliation = new ReconciliationReport(insuranceCompany).compute();
+        assertEquals(1, reconciliation.getDrifts().size());
+        ContractDrift drift = reconciliation.getDrifts().get(0);
+        assertSame(skipped, drift.getContract());
+        assertEquals(-200, drift.getDrift());
+        assertEquals(-200, drift.getUnscheduledCharges());
+        assertEquals(0, drift.getUnrecordedPayments());
+    }
+
+    @Test
+    public void testEagerTermChangesOnlyStoreTheNewTerms() {
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 3, 20, 9, 0));
+        long balance = t1.getContractPaymentData().getExactOutstandingBalance();
+        long events = insuranceCompany.getEvents().getCursor();
+        ///  Two monthly premiums of C1 are past due, billing has not run since issuance
+        c1.getContractPaymentData().setPremium(500);
+        t1.getContractPaymentData().setPremiumPaymentFrequency(PremiumPaymentFrequency.MONTHLY);
+        assertEquals(balance, t1.getContractPaymentData().getExactOutstandingBalance());
+        assertEquals(events, insuranceCompany.getEvents().getCursor());
+
+        ///  The next run charges everything still due with the new terms, which the schedule models
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(300 + 500 + 500, c1.getContractPaymentData().getExactOutstandingBalance());
+        ///  The annual due date of T1 was already fixed, monthly steps start after it
+        assertEquals(100, t1.getContractPaymentData().getExactOutstandingBalance());
+        Reconciliation reconciliation = new ReconciliationReport(insuranceCompany).compute();
+        assertTrue(reconciliation.isBalanced(), reconciliation.getDrifts().toString());
+    }
+}
@@ -0,0 +1,106 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PaymentInstance;
+import payment.PaymentSummary;
+import payment.PremiumPaymentFrequency;
+import payment.RetainedPaymentHistory;
+import reports.ReconciliationReport;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetainedPaymentHistoryTests {
+
+    @Test
+    public void testOldPaymentsAreRolledUpIntoMonthlySummaries() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 9, 12, 0));
+        SingleVehicleContract car = insuranceCompany.insureVehicle("C1", null, new Person("12345678"), 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AB123CD", 20_000));
+        car.pay(5);
+        RetainedPaymentHistory history = new RetainedPaymentHistory(Duration.ofDays(60), 6);
+        insuranceCompany.getHandler().setPaymentHistoryStore(history);
+
+        ///  Two payments a month for two years
+        long paid = 5;
+        for (int month = 0; month < 24; month++) {
+            insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 1, 10, 12, 0).plusMonths(month));
+            insuranceCompany.chargePremiumsOnContracts();
+            car.pay(40 + month);
+            insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusDays(5));
+            car.pay(60);
+            paid += 100 + month;
+        }
+
+        Set<PaymentInstance> recent = insuranceCompany.getHandler().getPaymentHistory(car);
+        assertEquals(4, recent.size());
+        assertTrue(recent.iterator().next().getPaymentTime().isAfter(insuranceCompany.getCurrentTime().minusDays(61)));
+        assertEquals(paid, history.getPaidAmount(car.getHandle()));
+        assertTrue(new ReconciliationReport(insuranceCompany).compute().isBalanced());
+
+        List<PaymentSummary> summaries = insuranceCompany.getHandler().getPaymentSummaries(car);
+        assertEquals(7, summaries.size());
+        PaymentSummary earlier = summaries.get(0);
+        assertFalse(earlier.isMonthly());
+        assertEquals(YearMonth.of(2025, 1), earlier.getFromMonth());
+        assertEquals(LocalDateTime.of(2025, 1, 9, 12, 0), earlier.getFirstPaymentTime());
+        PaymentSummary last = summaries.get(6);
+        assertTrue(last.isMonthly());
+        assertEquals(YearMonth.of(2026, 10), last.getFromMonth());
+        assertEquals(2, last.getCount());
+        assertEquals(40 + 21 + 60, last.getSum());
+        assertEquals(LocalDateTime.of(2026, 10, 15, 12, 0), last.getLastPaymentTime());
+        long summarized = 0;
+        for (PaymentSummary summary : summaries) {
+            summarized += summary.getSum();
+        }
+        for (PaymentInstance paymentInstance : recent) {
+            summarized += paymentInstance.getPaymentAmount();
+        }
+        assertEquals(paid, summarized);
+    }
+
+    @Test
+    public void testHeapStaysFlatAsTheBookAges() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 8, 0));
+        RetainedPaymentHistory history = new RetainedPaymentHistory(Duration.ofDays(31), 3);
+        insuranceCompany.getHandler().setPaymentHistoryStore(history);
+        Person legal = new Person("12345678");
+        List<SingleVehicleContract> contracts = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            contracts.add(insuranceCompany.insureVehicle("C" + i, null, legal, 100, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(String.format("AA%05d", i), 20_000)));
+        }
+
+        List<Integer> retained = new ArrayList<>();
+        List<Long> summaries = new ArrayList<>();
+        for (int month = 1; month <= 120; month++) {
+            for (int day = 0; day < 28; day += 7) {
+                insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 1, 1, 8, 0).plusMonths(month).plusDays(day));
+                for (SingleVehicleContract contract : contracts) {
+                    contract.pay(25);
+                }
+            }
+            if (month % 24 == 0) {
+                retained.add(history.getRetainedPayments());
+                summaries.add(history.getSummaryCount());
+            }
+        }
+
+        assertEquals(1L, retained.stream().distinct().count(), retained.toString());
+        assertEquals(1L, summaries.stream().distinct().count(), summaries.toString());
+        assertTrue(summaries.get(0) <= 40 * 4);
+        assertTrue(new ReconciliationReport(insuranceCompany).compute().isBalanced());
+        assertEquals(120 * 4 * 25L, history.getPaidAmount(contracts.get(0).getHandle()));
+        assertThrows(IllegalArgumentException.class, () -> new RetainedPaymentHistory(Duration.ofDays(-1), 3));
+        assertThrows(IllegalArgumentException.class, () -> new RetainedPaymentHistory(Duration.ofDays(1), 0));
+    }
+}
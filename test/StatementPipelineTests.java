@@ -0,0 +1,132 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import statements.PipelineStage;
+import statements.RejectReason;
+import statements.RejectedLine;
+import statements.StatementPipeline;
+import statements.StatementReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementPipelineTests {
+
+    InsuranceCompany insuranceCompany;
+    Path statement;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 3, 1, 8, 0));
+        statement = Files.createTempFile("statement", ".csv");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(statement);
+    }
+
+    @Test
+    public void testMatchesAppliesAndRejectsLines() throws Exception {
+        Person legal = new Person("12345678");
+        SingleVehicleContract car = insuranceCompany.insureVehicle("C1", null, legal, 600, PremiumPaymentFrequency.ANNUAL, new Vehicle("AB123CD", 20_000));
+        TravelContract trip = insuranceCompany.insurePersons("T1", legal, 100, PremiumPaymentFrequency.ANNUAL, Set.of(new Person("0402114911")));
+        insuranceCompany.processClaim(trip, Set.of(new Person("0402114911")));
+        Files.write(statement, List.of(
+                "# transactionId,reference,amount",
+                "TX1,C1,200",
+                "TX2, C1 ,150",
+                "",
+                "TX3,X9,100",
+                "TX4,C1",
+                "TX5,C1,-4",
+                "TX6,T1,50",
+                "TX1,C1,200",
+                "TX7,C1,99999999999"));
+
+        List<RejectedLine> rejected = new ArrayList<>();
+        StatementReport report = new StatementPipeline(insuranceCompany).run(statement, rejected::add);
+
+        assertEquals(8, report.getLines());
+        assertEquals(2, report.getApplied());
+        assertEquals(350, report.getAppliedAmount());
+        assertEquals(250, car.getContractPaymentData().getOutstandingBalance());
+        assertEquals(6, report.getRejected());
+        assertEquals(1, report.getRejected(RejectReason.UNKNOWN_CONTRACT));
+        assertEquals(1, report.getRejected(RejectReason.MALFORMED));
+        assertEquals(2, report.getRejected(RejectReason.INVALID_AMOUNT));
+        assertEquals(1, report.getRejected(RejectReason.REJECTED));
+        assertEquals(1, report.getRejected(RejectReason.DUPLICATE));
+
+        rejected.sort((a, b) -> Long.compare(a.getLineNumber(), b.getLineNumber()));
+        assertEquals(List.of(5L, 6L, 7L, 8L, 9L, 10L), rejected.stream().map(RejectedLine::getLineNumber).toList());
+        assertEquals(RejectReason.UNKNOWN_CONTRACT, rejected.get(0).getReason());
+        assertEquals(RejectReason.REJECTED, rejected.get(3).getReason());
+        assertEquals("Contract is not active", rejected.get(3).getMessage());
+        assertEquals(RejectReason.DUPLICATE, rejected.get(4).getReason());
+    }
+
+    @Test
+    public void testBackpressureKeepsBacklogBoundedAndReplaysAreIgnored() throws Exception {
+        Person legal = new Person("12345678");
+        int contracts = 50;
+        for (int i = 0; i < contracts; i++) {
+            insuranceCompany.insureVehicle("C" + i, null, legal, 1_000, PremiumPaymentFrequency.ANNUAL, new Vehicle(String.format("AA%05d", i), 20_000));
+        }
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            lines.add("TX" + i + ",C" + (i * 7 % contracts) + "," + (1 + i % 3));
+        }
+        Files.write(statement, lines);
+
+        ///  Far fewer keys expected than the statement holds, a replay must still be recognised
+        insuranceCompany.getHandler().setDeduplicationWindow(Duration.ofDays(7), 1_000, 100_000);
+        StatementPipeline pipeline = new StatementPipeline(insuranceCompany, 2, 16);
+        List<RejectedLine> rejected = new ArrayList<>();
+        StatementReport report = pipeline.run(statement, rejected::add);
+
+        assertTrue(rejected.isEmpty(), rejected.toString());
+
+        assertEquals(20_000, report.getApplied());
+        assertEquals(39_999, report.getAppliedAmount());
+        long balances = 0;
+        for (int i = 0; i < contracts; i++) {
+            balances += insuranceCompany.findContract("C" + i).getContractPaymentData().getOutstandingBalance();
+        }
+        assertEquals(contracts * 1_000L - 39_999, balances);
+        for (PipelineStage stage : PipelineStage.values()) {
+            assertEquals(20_000, report.getProcessed(stage));
+            assertTrue(report.getLinesPerSecond(stage) > 0);
+            ///  Two queued batches of 16 lines, plus one the consumer has taken but not yet counted
+            assertTrue(report.getPeakBacklog(stage) <= 3 * 16, stage + " " + report.getPeakBacklog(stage));
+            assertEquals(0, pipeline.getBacklog(stage));
+        }
+        assertEquals(0, report.getPeakBacklog(PipelineStage.PARSER));
+
+        List<RejectedLine> replayed = new ArrayList<>();
+        StatementReport replay = pipeline.run(statement, replayed::add);
+        assertEquals(0, replay.getApplied());
+        assertEquals(20_000, replay.getRejected(RejectReason.DUPLICATE));
+        assertEquals(20_000, replayed.size());
+        assertTrue(insuranceCompany.getHandler().getPaymentDeduplicator().getResizes() > 0);
+        long replayedBalances = 0;
+        for (int i = 0; i < contracts; i++) {
+            replayedBalances += insuranceCompany.findContract("C" + i).getContractPaymentData().getOutstandingBalance();
+        }
+        assertEquals(balances, replayedBalances);
+    }
+}
@@ -0,0 +1,136 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+import payment.TieredPaymentHistory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TieredPaymentHistoryTests {
+
+    InsuranceCompany insuranceCompany;
+    Person legalPerson1;
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        legalPerson1 = new Person("12345678");
+        directory = Files.createTempDirectory("payment-history");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testSpilledHistoryIsReadBackTransparently() throws IOException {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("c2", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("BANAN22", 15_000));
+        c1.pay(10);
+
+        TieredPaymentHistory history = new TieredPaymentHistory(directory, 3, 4);
+        insuranceCompany.getHandler().setPaymentHistoryStore(history);
+
+        List<Integer> expected = new ArrayList<>(List.of(10));
+        for (int i = 1; i <= 6; i++) {
+            insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusDays(i * 40L).withNano(i));
+            c1.pay(10 + i);
+            c2.pay(100 + i);
+            expected.add(10 + i);
+            assertTrue(history.getHotPayments() <= 3);
+        }
+
+        Set<PaymentInstance> c1History = insuranceCompany.getHandler().getPaymentHistory().get(c1);
+        assertEquals(expected, c1History.stream().map(PaymentInstance::getPaymentAmount).toList());
+        assertEquals(insuranceCompany.getCurrentTime(), c1History.stream().reduce((a, b) -> b).orElseThrow().getPaymentTime());
+        assertEquals(6, insuranceCompany.getHandler().getPaymentHistory().get(c2).size());
+        assertTrue(history.getCachedPayments() <= 4);
+        assertEquals(2, insuranceCompany.getHandler().getPaymentHistory().size());
+        assertThrows(UnsupportedOperationException.class, () -> c1History.add(new PaymentInstance(insuranceCompany.getCurrentTime(), 1)));
+    }
+
+    @Test
+    public void testStoresOnlyTouchTheirOwnSubdirectory() throws IOException {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+        Path unrelated = Files.writeString(directory.resolve("notes.txt"), "kept");
+        Path foreignSegment = Files.writeString(directory.resolve("0.seg"), "not ours");
+        TieredPaymentHistory first = new TieredPaymentHistory(directory, 1, 4);
+        first.add(c1.getHandle(), new PaymentInstance(LocalDateTime.of(2024, 1, 1, 0, 0), 7));
+        first.add(c1.getHandle() + 1, new PaymentInstance(LocalDateTime.of(2024, 1, 2, 0, 0), 8));
+
+        TieredPaymentHistory history = new TieredPaymentHistory(directory, 1, 4);
+        assertNotEquals(first.getSegmentDirectory(), history.getSegmentDirectory());
+        insuranceCompany.getHandler().setPaymentHistoryStore(history);
+        c1.pay(10);
+        insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusDays(1));
+        insuranceCompany.insureVehicle("c2", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("BANAN22", 15_000)).pay(20);
+
+        assertEquals(List.of(10), insuranceCompany.getHandler().getPaymentHistory(c1).stream().map(PaymentInstance::getPaymentAmount).toList());
+        assertEquals(List.of(7), first.get(c1.getHandle()).stream().map(PaymentInstance::getPaymentAmount).toList());
+
+        first.close();
+        history.close();
+        assertFalse(Files.exists(first.getSegmentDirectory()));
+        assertEquals("kept", Files.readString(unrelated));
+        assertEquals("not ours", Files.readString(foreignSegment));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2L, files.count());
+        }
+    }
+
+    @Test
+    public void testContractsShareSegmentFiles() throws IOException {
+        try (TieredPaymentHistory history = new TieredPaymentHistory(directory, 10, 50, 4_096)) {
+            LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+            ///  Every contract is spilled several times, its chunks end up in different files
+            for (int round = 0; round < 5; round++) {
+                for (int handle = 0; handle < 2_000; handle++) {
+                    history.add(handle, new PaymentInstance(time.plusDays(round).plusSeconds(handle), handle * 10 + round + 1));
+                }
+            }
+            assertTrue(history.getHotPayments() <= 10);
+            assertTrue(history.getSegmentFiles() > 1);
+            assertTrue(history.getSegmentFiles() < 100, "files " + history.getSegmentFiles());
+            try (Stream<Path> files = Files.list(history.getSegmentDirectory())) {
+                assertEquals((long) history.getSegmentFiles(), files.count());
+            }
+            for (int handle = 0; handle < 2_000; handle += 7) {
+                List<Integer> expected = new ArrayList<>();
+                for (int round = 0; round < 5; round++) {
+                    expected.add(handle * 10 + round + 1);
+                }
+                assertEquals(expected, history.get(handle).stream().map(PaymentInstance::getPaymentAmount).toList());
+            }
+            assertNull(history.get(2_000));
+        }
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredPaymentHistory(null, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TieredPaymentHistory(directory, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TieredPaymentHistory(directory, 1, -1));
+        assertThrows(IllegalArgumentException.class, () -> new TieredPaymentHistory(directory, 1, 1, 0));
+    }
+}
@@ -0,0 +1,151 @@
+import company.InsuranceCompany;
+import contracts.InsuredPersonSet;
+import contracts.TravelContract;
+import generator.IdentityGenerator;
+import objects.Person;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import util.CompactSet;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TravelGroupTests {
+
+    @Test
+    public void testGroupsOf64AndMoreAreStoredAsBitmaps() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 3, 1, 0, 0));
+        Person policyHolder = new Person("12345678");
+        Set<Person> group = persons(64, 3);
+        Set<Person> smaller = new HashSet<>(new ArrayList<>(group).subList(0, 63));
+
+        TravelContract small = insuranceCompany.insurePersons("T63", policyHolder, 400, PremiumPaymentFrequency.ANNUAL, smaller);
+        TravelContract large = insuranceCompany.insurePersons("T64", policyHolder, 400, PremiumPaymentFrequency.ANNUAL, group);
+        assertFalse(small.getInsuredPersons() instanceof InsuredPersonSet);
+        assertTrue(large.getInsuredPersons() instanceof InsuredPersonSet);
+        assertEquals(64, large.getInsuredPersons().size());
+        assertEquals(group, large.getInsuredPersons());
+        assertTrue(large.getInsuredPersons().containsAll(small.getInsuredPersons()));
+        assertFalse(large.getInsuredPersons().contains(new Person("0402114911")));
+        assertFalse(large.getInsuredPersons().contains("not a person"));
+
+        InsuranceCompany compact = new InsuranceCompany(LocalDateTime.of(2025, 3, 1, 0, 0), true);
+        assertTrue(compact.insurePersons("T63", policyHolder, 400, PremiumPaymentFrequency.ANNUAL, smaller).getInsuredPersons() instanceof CompactSet);
+        assertTrue(compact.insurePersons("T64", policyHolder, 400, PremiumPaymentFrequency.ANNUAL, group).getInsuredPersons() instanceof InsuredPersonSet);
+    }
+
+    @Test
+    public void testInsuredPersonSetOfOneRegistry() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 3, 1, 0, 0));
+        List<Person> persons = new ArrayList<>(persons(100, 5));
+        InsuredPersonSet all = new InsuredPersonSet(insuranceCompany.getPersonRegistry(), persons);
+        InsuredPersonSet half = new InsuredPersonSet(insuranceCompany.getPersonRegistry(), persons.subList(0, 50));
+        assertEquals(100, all.size());
+        assertTrue(all.containsAll(half));
+        assertFalse(half.containsAll(all));
+        ///  Iteration is in registry order, which is the order the persons were first added
+        assertEquals(persons, new ArrayList<>(all));
+
+        assertFalse(half.add(persons.get(0)));
+        assertTrue(half.remove(persons.get(0)));
+        assertFalse(half.remove(persons.get(0)));
+        assertEquals(49, half.size());
+        assertThrows(IllegalArgumentException.class, () -> half.add(null));
+        assertThrows(IllegalArgumentException.class, () -> new InsuredPersonSet(null, persons));
+    }
+
+    @Test
+    public void testBulkRemovalsGoThroughTheIterator() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 3, 1, 0, 0));
+        ///  More than 4096 members make the registry's first container a dense bitmap
+        List<Person> persons = new ArrayList<>(persons(5_000, 9));
+        TravelContract trip = insuranceCompany.insurePersons("T5000", new Person("12345678"), 25_000, PremiumPaymentFrequency.ANNUAL,
+                new LinkedHashSet<>(persons));
+        Set<Person> insured = trip.getInsuredPersons();
+        assertTrue(insured instanceof InsuredPersonSet);
+
+        Iterator<Person> iterator = insured.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertSame(persons.get(0), iterator.next());
+        iterator.remove();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertSame(persons.get(1), iterator.next());
+        assertFalse(insured.contains(persons.get(0)));
+        assertEquals(4_999, insured.size());
+
+        ///  retainAll and removeAll over a smaller collection remove through the iterator
+        Set<Person> even = new HashSet<>();
+        for (int i = 0; i < persons.size(); i += 2) {
+            even.add(persons.get(i));
+        }
+        assertTrue(insured.retainAll(even));
+        assertEquals(2_499, insured.size());
+        assertTrue(insured.removeAll(new HashSet<>(persons.subList(0, 1_000))));
+        assertEquals(2_000, insured.size());
+        List<Person> expected = new ArrayList<>();
+        for (int i = 1_000; i < persons.size(); i += 2) {
+            expected.add(persons.get(i));
+        }
+        assertEquals(expected, new ArrayList<>(insured));
+
+        insured.clear();
+        assertTrue(insured.isEmpty());
+        assertFalse(insured.iterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> insured.iterator().next());
+        assertTrue(insured.add(persons.get(7)));
+        assertEquals(List.of(persons.get(7)), new ArrayList<>(insured));
+    }
+
+    @Test
+    public void testClaimOnLargeGroupPaysEveryAffectedPersonOnce() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 3, 1, 0, 0));
+        Set<Person> group = persons(200, 7);
+        TravelContract trip = insuranceCompany.insurePersons("T200", new Person("12345678"), 1_000, PremiumPaymentFrequency.ANNUAL, group);
+        Set<Person> affected = new HashSet<>(new ArrayList<>(group).subList(0, 150));
+        int payout = trip.getCoverageAmount() / affected.size();
+
+        insuranceCompany.processClaim(trip, affected);
+        for (Person person : group) {
+            assertEquals(affected.contains(person) ? payout : 0, person.getPaidOutAmount());
+        }
+        assertFalse(trip.isActive());
+    }
+
+    @Test
+    public void testBatchPayout() {
+        Person first = new Person("8351068242");
+        Person second = new Person("0402114911");
+        Person.payout(List.of(first, second), 300);
+        Person.payout(Set.of(first), 50);
+        assertEquals(350, first.getPaidOutAmount());
+        assertEquals(300, second.getPaidOutAmount());
+
+        ///  The amount is validated before anybody is paid
+        assertThrows(IllegalArgumentException.class, () -> Person.payout(List.of(first, second), 0));
+        assertThrows(IllegalArgumentException.class, () -> Person.payout(List.of(first), -5));
+        assertEquals(350, first.getPaidOutAmount());
+        assertEquals(300, second.getPaidOutAmount());
+
+        Person.payout(List.of(), 100);
+        Person.payout(List.of(first, first), 100);
+        assertEquals(550, first.getPaidOutAmount());
+    }
+
+    private static Set<Person> persons(int count, long seed) {
+        IdentityGenerator identities = new IdentityGenerator(new SplittableRandom(seed));
+        Set<Person> persons = new LinkedHashSet<>();
+        while (persons.size() < count) {
+            persons.add(new Person(identities.nextBirthNumber()));
+        }
+        return persons;
+    }
+}